@@ -0,0 +1,45 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the public methods of Filter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    /** one common and one rare word of the synthetic vocabulary, plus a miss */
+    private static final List<String> WORDS = Arrays.asList("Rivest", "cavaliers", "nowhere");
+
+    @Benchmark
+    public List<Tweet> writtenBy(TweetData data) {
+        return Filter.writtenBy(data.tweets, data.topAuthor);
+    }
+
+    @Benchmark
+    public List<Tweet> inTimespan(TweetData data) {
+        return Filter.inTimespan(data.tweets, data.middleHalf);
+    }
+
+    @Benchmark
+    public List<Tweet> containing(TweetData data) {
+        return Filter.containing(data.tweets, WORDS);
+    }
+}
@@ -0,0 +1,63 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-query latency of FollowRecommender, cycling through the authors of
+ * the benchmark tweets. Sampled, so the results show the latency
+ * distribution, which should stay under 5 ms at p99.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FollowRecommenderBenchmark {
+
+    /**
+     * A recommender over the follows graph of the benchmark tweets, built
+     * once per trial, and the users to query.
+     */
+    @State(Scope.Benchmark)
+    public static class Recommender {
+        public FollowRecommender recommender;
+        public String[] users;
+
+        @Setup(Level.Trial)
+        public void build(TweetData data) {
+            recommender = FollowRecommender.withDefaults(SocialNetwork.guessFollowsGraph(data.tweets));
+            users = new String[1024];
+            for (int i = 0; i < users.length; i++) {
+                users[i] = data.tweets.get(i * (data.tweets.size() / users.length)).getAuthor();
+            }
+        }
+    }
+
+    /** the next user each benchmark thread queries */
+    @State(Scope.Thread)
+    public static class Cursor {
+        public int next;
+    }
+
+    @Benchmark
+    public List<String> recommend(Recommender r, Cursor cursor) {
+        String user = r.users[cursor.next++ & (r.users.length - 1)];
+        return r.recommender.recommend(user, 20);
+    }
+}
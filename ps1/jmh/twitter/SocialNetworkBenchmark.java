@@ -0,0 +1,56 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the public methods of SocialNetwork.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SocialNetworkBenchmark {
+
+    /**
+     * The follows graph of the benchmark tweets, built once per trial so that
+     * influencers() is measured on its own.
+     */
+    @State(Scope.Benchmark)
+    public static class FollowsGraph {
+        public Map<String, Set<String>> graph;
+
+        @Setup(Level.Trial)
+        public void build(TweetData data) {
+            graph = SocialNetwork.guessFollowsGraph(data.tweets);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Set<String>> guessFollowsGraph(TweetData data) {
+        return SocialNetwork.guessFollowsGraph(data.tweets);
+    }
+
+    @Benchmark
+    public List<String> influencers(FollowsGraph followsGraph) {
+        return SocialNetwork.influencers(followsGraph.graph);
+    }
+}
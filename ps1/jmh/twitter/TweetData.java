@@ -0,0 +1,66 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmark state holding a list of synthetic tweets, generated once per
+ * trial by SyntheticTweets from seeded, configurable distributions.
+ *
+ * Every parameter can be overridden from the JMH command line, for example
+ * {@code -p tweetCount=50000 -p authorSkew=1.5}. The 10M-tweet runs need a
+ * heap of several gigabytes ({@code -jvmArgs -Xmx12g}).
+ */
+@State(Scope.Benchmark)
+public class TweetData {
+
+    /** number of tweets in the list */
+    @Param({"10000", "1000000", "10000000"})
+    public int tweetCount;
+
+    /** number of distinct usernames that write and are mentioned */
+    @Param({"100000"})
+    public int authorCount;
+
+    /** Zipf exponent of the author and mention distributions */
+    @Param({"1.0"})
+    public double authorSkew;
+
+    /** mean number of @-mentions per tweet */
+    @Param({"1.0"})
+    public double mentionsPerTweet;
+
+    /** mean number of words per tweet, which sets the text length */
+    @Param({"12"})
+    public int meanWords;
+
+    /** seed of the generator; the same seed always gives the same tweets */
+    @Param({"6005"})
+    public long seed;
+
+    /** the generated tweets */
+    public List<Tweet> tweets;
+
+    /** a timespan covering the middle half of the tweets */
+    public Timespan middleHalf;
+
+    /** the most common author, who wrote the most tweets */
+    public String topAuthor;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        SyntheticTweets generator = new SyntheticTweets(seed, authorCount, authorSkew, mentionsPerTweet, meanWords);
+        tweets = generator.next(tweetCount);
+        middleHalf = new Timespan(tweets.get(tweetCount / 4).getTimestamp(),
+                                  tweets.get(tweetCount * 3 / 4).getTimestamp());
+        topAuthor = "user0";
+    }
+}
@@ -0,0 +1,74 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for reading tweets: parsing JSON already in memory, with the
+ * parser TweetFetcher uses, and fetching from a local TweetFeedServer over
+ * HTTP with TweetReader.
+ *
+ * TweetReader builds a full JSON tree of the response before making any
+ * Tweet, so its sizes stop at 1M tweets; 10M would need tens of gigabytes
+ * of heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TweetReaderBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int tweetCount;
+
+    @Param({"6005"})
+    public long seed;
+
+    private String json;
+    private TweetFeedServer server;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        StringWriter out = new StringWriter();
+        SyntheticTweets.writeJson(SyntheticTweets.withDefaults(seed).next(tweetCount), out);
+        json = out.toString();
+        server = new TweetFeedServer(0, tweetCount, SyntheticTweets.withDefaults(seed), 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Benchmark
+    public List<Tweet> parse() {
+        return TweetFetcher.readTweets(new StringReader(json));
+    }
+
+    @Benchmark
+    public List<Tweet> readTweetsFromWeb() throws IOException {
+        return TweetReader.readTweetsFromWeb(server.getSampleUrl());
+    }
+}
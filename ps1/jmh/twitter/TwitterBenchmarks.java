@@ -0,0 +1,49 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the twitter benchmarks and writes the results as JSON, so that runs
+ * from different releases can be compared.
+ *
+ * Accepts the usual JMH command-line options, for example
+ * {@code TwitterBenchmarks Extract -p tweetCount=10000 -prof gc}. Unless
+ * overridden with -rff, results go to jmh-results.json in the working
+ * directory.
+ */
+public class TwitterBenchmarks {
+
+    /** default file the JSON results are written to */
+    public static final String RESULTS_FILE = "jmh-results.json";
+
+    /**
+     * @param args JMH command-line options; with no benchmark pattern, every
+     *        benchmark in the twitter package runs
+     * @throws RunnerException if a benchmark fails
+     * @throws CommandLineOptionException if args cannot be parsed
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include("twitter\\..*Benchmark");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            builder.result(RESULTS_FILE);
+        }
+        Options options = builder.parent(commandLine).build();
+        new Runner(options).run();
+    }
+}
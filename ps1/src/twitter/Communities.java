@@ -0,0 +1,138 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Communities is an immutable partition of the users of a social network
+ * into communities, numbered 0, 1, 2, ... from largest to smallest, with
+ * the modularity of the partition.
+ */
+public class Communities {
+
+    private final IntFollowsGraph graph;
+    private final int[] community;
+    private final int[] sizes;
+    private final double modularity;
+    private final int iterations;
+
+    // Abstraction function:
+    //   AF(graph, community, sizes, modularity, iterations) = the partition
+    //     of graph's users in which user u is in community community[u],
+    //     found after iterations rounds, with the given modularity
+    // Representation invariant:
+    //   community.length == graph.size()
+    //   every community[u] is in [0, sizes.length)
+    //   sizes[c] == number of u with community[u] == c, sizes[c] > 0, and
+    //     sizes is nonincreasing
+    //   -0.5 <= modularity <= 1, iterations >= 0
+    // Safety from rep exposure:
+    //   community and sizes are never returned; members() returns a new set;
+    //   graph is immutable.
+
+    /*
+     * Make a partition. The arrays are owned by the new object.
+     */
+    Communities(IntFollowsGraph graph, int[] community, int[] sizes, double modularity, int iterations) {
+        this.graph = graph;
+        this.community = community;
+        this.sizes = sizes;
+        this.modularity = modularity;
+        this.iterations = iterations;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert community.length == graph.size();
+        for (int c = 1; c < sizes.length; c++) {
+            assert sizes[c - 1] >= sizes[c] && sizes[c] > 0;
+        }
+        assert modularity >= -0.5 - 1e-9 && modularity <= 1 + 1e-9;
+        assert iterations >= 0;
+    }
+
+    /**
+     * @return number of communities
+     */
+    public int count() {
+        return sizes.length;
+    }
+
+    /**
+     * @return modularity of the partition, in [-1/2, 1]: the fraction of
+     *         follows edges inside communities minus the fraction expected
+     *         if edges were placed at random with the same degrees. Values
+     *         above about 0.3 indicate clear community structure.
+     */
+    public double modularity() {
+        return modularity;
+    }
+
+    /**
+     * @return number of rounds of label propagation run
+     */
+    public int iterations() {
+        return iterations;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return the community of the user, or -1 if the user is not in the
+     *         social network
+     */
+    public int communityOf(String username) {
+        int id = graph.id(username);
+        return id < 0 ? -1 : community[id];
+    }
+
+    /**
+     * @param c requires 0 <= c < count()
+     * @return number of users in community c
+     */
+    public int size(int c) {
+        return sizes[c];
+    }
+
+    /**
+     * @param c requires 0 <= c < count()
+     * @return the lower-case usernames of the users in community c
+     */
+    public Set<String> members(int c) {
+        Set<String> members = new HashSet<>();
+        for (int u = 0; u < community.length; u++) {
+            if (community[u] == c) {
+                members.add(graph.username(u));
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Tell whether a user's influence is local or global.
+     *
+     * @param username a Twitter username in the social network
+     * @return the fraction of the user's followers who are in the user's own
+     *         community, or 0 if the user has no followers
+     */
+    public double localFollowerShare(String username) {
+        int id = graph.id(username);
+        if (id < 0) {
+            throw new IllegalArgumentException("not in the social network: " + username);
+        }
+        int followers = graph.inDegree(id);
+        if (followers == 0) {
+            return 0;
+        }
+        int local = 0;
+        for (int i = graph.inOffsets[id]; i < graph.inOffsets[id + 1]; i++) {
+            if (community[graph.inSources[i]] == community[id]) {
+                ++local;
+            }
+        }
+        return (double) local / followers;
+    }
+}
@@ -0,0 +1,243 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * CommunityDetector groups the users of a social network into communities
+ * by parallel label propagation.
+ *
+ * <p>Follows edges are treated as undirected, so a pair of users who follow
+ * each other are joined twice as strongly as a one-way follow. Every user
+ * starts in a community of its own; in each round, every user in turn joins
+ * the community most common among its neighbours, until a round changes
+ * nothing or the round limit is reached. Users are visited in a fixed random
+ * order, split across all cores, and see their neighbours' latest labels, so
+ * each round takes time proportional to the number of edges, and a graph of
+ * 10M users settles in a few tens of rounds.
+ *
+ * <p>Runs in parallel are not deterministic: which of two equally good
+ * communities a user joins can depend on thread timing. A detector is
+ * immutable, so one detector may be shared by many threads.
+ */
+public class CommunityDetector {
+
+    private final int maxIterations;
+    private final long seed;
+
+    // Abstraction function:
+    //   AF(maxIterations, seed) = label propagation that runs at most
+    //     maxIterations rounds, with visiting order and tie-breaking drawn
+    //     from seed
+    // Representation invariant:
+    //   maxIterations > 0
+    // Safety from rep exposure:
+    //   all fields are immutable values.
+
+    /**
+     * @return a detector that runs at most 50 rounds
+     */
+    public static CommunityDetector withDefaults() {
+        return new CommunityDetector(50, 6005);
+    }
+
+    /**
+     * Make a detector.
+     *
+     * @param maxIterations most rounds to run, requires > 0
+     * @param seed seed of the visiting order and tie-breaking
+     */
+    public CommunityDetector(int maxIterations, long seed) {
+        if (maxIterations <= 0) {
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert maxIterations > 0;
+    }
+
+    /**
+     * Find the communities of a social network.
+     *
+     * @param followsGraph a social network as defined in SocialNetwork, not
+     *        modified by this method
+     * @return a partition of every user in followsGraph into communities
+     */
+    public Communities detect(Map<String, Set<String>> followsGraph) {
+        return detect(IntFollowsGraph.of(followsGraph));
+    }
+
+    /**
+     * Find the communities of a social network.
+     *
+     * @param graph a social network
+     * @return a partition of every user in graph into communities
+     */
+    public Communities detect(IntFollowsGraph graph) {
+        final int n = graph.size();
+        final int[] labels = new int[n];
+        for (int u = 0; u < n; u++) {
+            labels[u] = u;
+        }
+        final int[] order = shuffledIds(n);
+        final ThreadLocal<int[]> scratch = ThreadLocal.withInitial(() -> new int[16]);
+
+        int iterations = 0;
+        while (iterations < maxIterations) {
+            final int round = iterations++;
+            final LongAdder changes = new LongAdder();
+            IntStream.range(0, n).parallel().forEach(i -> {
+                int u = order[i];
+                int best = mostCommonNeighbourLabel(graph, labels, u, round, scratch);
+                if (best != labels[u]) {
+                    labels[u] = best;
+                    changes.increment();
+                }
+            });
+            if (changes.sum() == 0) {
+                break;
+            }
+        }
+
+        // renumber communities from largest to smallest
+        final int[] sizeByLabel = new int[n];
+        for (int label: labels) {
+            sizeByLabel[label]++;
+        }
+        // sort keys hold (n - size, label), so larger communities come first
+        final long[] keys = IntStream.range(0, n).filter(l -> sizeByLabel[l] > 0)
+                .mapToLong(l -> (long) (n - sizeByLabel[l]) << 32 | l).toArray();
+        Arrays.parallelSort(keys);
+        final int[] renumber = new int[n];
+        final int[] sizes = new int[keys.length];
+        for (int c = 0; c < keys.length; c++) {
+            int label = (int) keys[c];
+            renumber[label] = c;
+            sizes[c] = sizeByLabel[label];
+        }
+        final int[] community = new int[n];
+        for (int u = 0; u < n; u++) {
+            community[u] = renumber[labels[u]];
+        }
+        return new Communities(graph, community, sizes, modularity(graph, community, sizes.length), iterations);
+    }
+
+    /**
+     * Compute the modularity of a partition, treating each follows edge as
+     * an undirected edge of weight 1.
+     *
+     * @param graph a social network
+     * @param community community of each user, each in [0, count)
+     * @param count number of communities
+     * @return the modularity, or 0 if graph has no edges
+     */
+    static double modularity(IntFollowsGraph graph, int[] community, int count) {
+        final double twiceEdges = 2.0 * graph.edgeCount();
+        if (twiceEdges == 0) {
+            return 0;
+        }
+        // each edge inside a community is counted from both of its ends
+        final long inside = IntStream.range(0, graph.size()).parallel().mapToLong(u -> {
+            long same = 0;
+            for (int i = graph.outOffsets[u]; i < graph.outOffsets[u + 1]; i++) {
+                same += community[graph.outTargets[i]] == community[u] ? 1 : 0;
+            }
+            for (int i = graph.inOffsets[u]; i < graph.inOffsets[u + 1]; i++) {
+                same += community[graph.inSources[i]] == community[u] ? 1 : 0;
+            }
+            return same;
+        }).sum();
+        final long[] degree = new long[count];
+        for (int u = 0; u < graph.size(); u++) {
+            degree[community[u]] += graph.outDegree(u) + graph.inDegree(u);
+        }
+        double expected = 0;
+        for (long d: degree) {
+            expected += (d / twiceEdges) * (d / twiceEdges);
+        }
+        return inside / twiceEdges - expected;
+    }
+
+    /*
+     * @return the label most common among the neighbours of u, preferring
+     *         u's own label, and otherwise a pseudo-random one, among ties;
+     *         u's own label if u has no neighbours
+     */
+    private int mostCommonNeighbourLabel(IntFollowsGraph graph, int[] labels, int u, int round,
+                                         ThreadLocal<int[]> scratch) {
+        final int degree = graph.outDegree(u) + graph.inDegree(u);
+        if (degree == 0) {
+            return labels[u];
+        }
+        int[] buffer = scratch.get();
+        if (buffer.length < degree) {
+            buffer = new int[Math.max(degree, buffer.length * 2)];
+            scratch.set(buffer);
+        }
+        int d = 0;
+        for (int i = graph.outOffsets[u]; i < graph.outOffsets[u + 1]; i++) {
+            buffer[d++] = labels[graph.outTargets[i]];
+        }
+        for (int i = graph.inOffsets[u]; i < graph.inOffsets[u + 1]; i++) {
+            buffer[d++] = labels[graph.inSources[i]];
+        }
+        Arrays.sort(buffer, 0, d);
+
+        final int current = labels[u];
+        int best = current;
+        int bestCount = 0;
+        long bestTieBreak = Long.MAX_VALUE;
+        for (int i = 0; i < d; ) {
+            int label = buffer[i];
+            int j = i;
+            while (j < d && buffer[j] == label) {
+                ++j;
+            }
+            int count = j - i;
+            if (count > bestCount) {
+                best = label;
+                bestCount = count;
+                bestTieBreak = tieBreak(label, round);
+            } else if (count == bestCount && best != current) {
+                long t = tieBreak(label, round);
+                if (label == current || t < bestTieBreak) {
+                    best = label;
+                    bestTieBreak = t;
+                }
+            }
+            i = j;
+        }
+        return best;
+    }
+
+    private long tieBreak(int label, int round) {
+        return HyperLogLog.mix64(seed ^ ((long) round << 32) ^ label);
+    }
+
+    private int[] shuffledIds(int n) {
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,220 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * DistinctUserEstimator is a mutable estimate of how many distinct authors
+ * and how many distinct mentioned users (as defined by
+ * Extract.getMentionedUsers) appear in a stream of tweets, in a fixed amount
+ * of memory however long the stream runs.
+ *
+ * <p>It keeps one HyperLogLog sketch of authors and one of mentions.
+ * Usernames are hashed case-folded straight from the tweet, so counting a
+ * tweet makes no Strings and interns nothing. With precision p, each
+ * estimate has a relative standard error of about 1.04 / sqrt(2^p) (see
+ * HyperLogLog); the default precision 14 takes 32 KB and gives 0.81%, so an
+ * estimate is within 2.5% of the exact count nearly always.
+ *
+ * <p>An estimator is not threadsafe. To count a stream on several threads
+ * or shards, give each its own estimator of the same precision and merge
+ * them, or write them with toBytes() and merge them where they are read.
+ */
+public class DistinctUserEstimator {
+
+    /** precision of the estimators made by withDefaults() */
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final HyperLogLog authors;
+    private final HyperLogLog mentions;
+    private long tweets = 0;
+    private final TweetTokenizer tokens = new TweetTokenizer("", EnumSet.of(TweetTokenizer.Kind.MENTION));
+
+    // Abstraction function:
+    //   AF(authors, mentions, tweets) = estimates of the number of distinct
+    //     case-folded authors and mentioned usernames of the tweets counted
+    //     so far, of which there are tweets
+    // Representation invariant:
+    //   authors and mentions have the same precision, tweets >= 0
+    // Safety from rep exposure:
+    //   authors, mentions and tokens are never returned or taken from a
+    //   caller; fromBytes() and toBytes() copy the sketches.
+
+    /**
+     * @return an empty estimator with DEFAULT_PRECISION
+     */
+    public static DistinctUserEstimator withDefaults() {
+        return new DistinctUserEstimator(DEFAULT_PRECISION);
+    }
+
+    /**
+     * Make an empty estimator.
+     *
+     * @param precision HyperLogLog precision of both sketches, requires
+     *        HyperLogLog.MIN_PRECISION <= precision <= HyperLogLog.MAX_PRECISION
+     */
+    public DistinctUserEstimator(int precision) {
+        this(new HyperLogLog(precision), new HyperLogLog(precision), 0);
+    }
+
+    private DistinctUserEstimator(HyperLogLog authors, HyperLogLog mentions, long tweets) {
+        this.authors = authors;
+        this.mentions = mentions;
+        this.tweets = tweets;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert authors.getPrecision() == mentions.getPrecision();
+        assert tweets >= 0;
+    }
+
+    /**
+     * @return the precision this estimator was created with
+     */
+    public int getPrecision() {
+        return authors.getPrecision();
+    }
+
+    /**
+     * @return relative standard error of each estimate
+     */
+    public double standardError() {
+        return authors.standardError();
+    }
+
+    /**
+     * Count a tweet.
+     *
+     * @param tweet tweet to count
+     */
+    public void add(Tweet tweet) {
+        final String author = tweet.getAuthor();
+        authors.addHash(foldedHash(author, 0, author.length()));
+        final String text = tweet.getText();
+        tokens.reset(text);
+        while (tokens.next()) {
+            if (tokens.kind() == TweetTokenizer.Kind.MENTION) {
+                mentions.addHash(foldedHash(text, tokens.start(), tokens.end()));
+            }
+        }
+        ++tweets;
+    }
+
+    /**
+     * Count tweets.
+     *
+     * @param tweets tweets to count, not modified by this method
+     */
+    public void addAll(List<Tweet> tweets) {
+        for (Tweet tweet: tweets) {
+            add(tweet);
+        }
+    }
+
+    /**
+     * Add every tweet counted by another estimator to this one. Afterwards
+     * this estimator estimates the distinct users of both streams together.
+     *
+     * @param that estimator to merge in, requires the same precision as this
+     *        one; not modified by this method
+     */
+    public void merge(DistinctUserEstimator that) {
+        authors.merge(that.authors);
+        mentions.merge(that.mentions);
+        tweets += that.tweets;
+    }
+
+    /**
+     * @return number of tweets counted, exactly
+     */
+    public long tweetCount() {
+        return tweets;
+    }
+
+    /**
+     * @return an estimate of the number of distinct authors, ignoring case
+     */
+    public long estimateAuthors() {
+        return authors.estimate();
+    }
+
+    /**
+     * @return an estimate of the number of distinct usernames mentioned,
+     *         ignoring case; for a list of tweets, this estimates
+     *         Extract.getMentionedUsers(tweets).size()
+     */
+    public long estimateMentions() {
+        return mentions.estimate();
+    }
+
+    /**
+     * Write this estimator as bytes: a format version, the tweet count, and
+     * the author and mention sketches as HyperLogLog.toBytes() writes them.
+     *
+     * @return a new array that fromBytes() reads back
+     */
+    public byte[] toBytes() {
+        final byte[] a = authors.toBytes();
+        final byte[] m = mentions.toBytes();
+        final byte[] bytes = new byte[1 + 8 + a.length + m.length];
+        bytes[0] = FORMAT_VERSION;
+        for (int i = 0; i < 8; i++) {
+            bytes[1 + i] = (byte) (tweets >>> (56 - 8 * i));
+        }
+        System.arraycopy(a, 0, bytes, 9, a.length);
+        System.arraycopy(m, 0, bytes, 9 + a.length, m.length);
+        return bytes;
+    }
+
+    /**
+     * Read an estimator written by toBytes().
+     *
+     * @param bytes bytes of an estimator, not modified by this method
+     * @return a new estimator with the counts of the one written
+     * @throws IllegalArgumentException if bytes is not an estimator written
+     *         by toBytes()
+     */
+    public static DistinctUserEstimator fromBytes(byte[] bytes) {
+        if (bytes.length < 9 + 4 || bytes[0] != FORMAT_VERSION || (bytes.length - 9) % 2 != 0) {
+            throw new IllegalArgumentException("not a distinct user estimator");
+        }
+        long tweets = 0;
+        for (int i = 0; i < 8; i++) {
+            tweets = (tweets << 8) | (bytes[1 + i] & 0xff);
+        }
+        if (tweets < 0) {
+            throw new IllegalArgumentException("negative tweet count: " + tweets);
+        }
+        final int half = (bytes.length - 9) / 2;
+        final byte[] a = new byte[half];
+        final byte[] m = new byte[half];
+        System.arraycopy(bytes, 9, a, 0, half);
+        System.arraycopy(bytes, 9 + half, m, 0, half);
+        return new DistinctUserEstimator(HyperLogLog.fromBytes(a), HyperLogLog.fromBytes(m), tweets);
+    }
+
+    /*
+     * @return the hash HyperLogLog.hash() gives the lower-case form of
+     *         text[start..end), without making that String
+     */
+    static long foldedHash(String text, int start, int end) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = start; i < end; i++) {
+            h ^= UsernameTable.fold(text.charAt(i));
+            h *= 0x100000001b3L;
+        }
+        return HyperLogLog.mix64(h);
+    }
+
+    @Override public String toString() {
+        return "DistinctUserEstimator(tweets=" + tweets + ", ~" + estimateAuthors() + " authors, ~"
+                + estimateMentions() + " mentioned)";
+    }
+}
@@ -3,6 +3,7 @@
  */
 package twitter;
 
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -17,6 +18,8 @@ import java.time.Instant;
  */
 public class Extract {
 
+    private static final Set<TweetTokenizer.Kind> MENTIONS = EnumSet.of(TweetTokenizer.Kind.MENTION);
+
     /**
      * Get the time period spanned by tweets.
      * 
@@ -26,6 +29,13 @@ public class Extract {
      *         every tweet in the list.
      */
     public static Timespan getTimespan(List<Tweet> tweets) {
+        final long startNanos = TwitterMetrics.start();
+        final Timespan timespan = timespanOf(tweets);
+        TwitterMetrics.stop(TwitterMetrics.GET_TIMESPAN, startNanos, tweets.size());
+        return timespan;
+    }
+    
+    private static Timespan timespanOf(List<Tweet> tweets) {
         /* If the list is empty, return a Timespan with arbitrary 
          * start and end time stamps that are identical.
          */
@@ -96,6 +106,7 @@ public class Extract {
      *         include a username at most once.
      */
     public static Set<String> getMentionedUsers(List<Tweet> tweets) {
+        final long startNanos = TwitterMetrics.start();
         Set<String> mentionedUsers = new HashSet<>();
         
         for (Tweet t: tweets) {
@@ -103,6 +114,7 @@ public class Extract {
             mentionedUsers.addAll(subsetMentionedUsers);
         }
         
+        TwitterMetrics.stop(TwitterMetrics.GET_MENTIONED_USERS, startNanos, tweets.size());
         return mentionedUsers;
     }
     
@@ -113,50 +125,40 @@ public class Extract {
      *         promise: All usernames in the set will have all alphabetic letters in lower-case form.
      */
     protected static Set<String> getMentionedUsersInText(String text) {
+        return mentionedUsersIn(text, null);
+    }
+    
+    /**
+     * Get the set of valid usernames contained within one string of text,
+     * as the canonical names of a UsernameTable, so that no new String is made
+     * for a username already in the table.
+     * @param text a string of text, ideally from a tweet but not required.
+     * @param usernames table to intern the usernames in; it grows by every new
+     *        username, so the caller decides how long it lives
+     * @return the set of valid usernames contained within the string of text,
+     *         each one usernames.name() of its id in the table.
+     */
+    static Set<String> getMentionedUsersInText(String text, UsernameTable usernames) {
+        return mentionedUsersIn(text, usernames);
+    }
+    
+    /*
+     * Find the mentions in text, interning them in usernames, or making a
+     * lower-case copy of each if usernames is null.
+     */
+    private static Set<String> mentionedUsersIn(String text, UsernameTable usernames) {
         Set<String> mentionedUsers = new HashSet<>();
         
-        int i = 0;
-        int textLen = text.length();
-        
-        while (i < textLen) {
-            char c = text.charAt(i);
-            
-            /* set prevChar to an arbitrary non-valid twitter username char if i = 0
-             * or simply the previous character if i > 0.
-             */
-            char prevChar = i == 0 ? '@' : text.charAt(i - 1);
-            
-            if (c == '@' && !validTwitterUserChar(prevChar)) {
-                ++i;
-                StringBuilder sb = new StringBuilder();
-                while (i < textLen && validTwitterUserChar(text.charAt(i))) {
-                    sb.append(text.charAt(i));
-                    ++i;
-                }
-                
-                /* Add the username with all letters converted to lower-case */
-                if (sb.length() > 0) {
-                    mentionedUsers.add(sb.toString().toLowerCase());
-                }
+        final TweetTokenizer tokens = new TweetTokenizer(text, MENTIONS);
+        while (tokens.next()) {
+            if (tokens.kind() == TweetTokenizer.Kind.MENTION) {
+                mentionedUsers.add(usernames == null
+                        ? text.substring(tokens.start(), tokens.end()).toLowerCase()
+                        : usernames.name(usernames.intern(text, tokens.start(), tokens.end())));
             }
-            
-            ++i;
         }
         
+        TwitterMetrics.count(TwitterMetrics.MENTIONS_FOUND, mentionedUsers.size());
         return mentionedUsers;
     }
-    
-    /**
-     * Determine whether or not a given character is a character that
-     * can be part of a valid twitter username.  A valid character
-     * in a twitter username is either a letter, digit, hyphen, or underscore.
-     * @param c
-     * @return
-     */
-    private static boolean validTwitterUserChar(char c) {
-        if (c == '-' || c == '_' ||
-            Character.isDigit(c) || Character.isLetter(c)) return true;
-        
-        return false;
-    }
-}
\ No newline at end of file
+}
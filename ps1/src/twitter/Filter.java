@@ -5,6 +5,7 @@ package twitter;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 
 /**
@@ -29,6 +30,7 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> writtenBy(List<Tweet> tweets, String username) {
+        final long startNanos = TwitterMetrics.start();
         List<Tweet> tweetList = new ArrayList<>();
         for (Tweet t: tweets) {
             String author = t.getAuthor();
@@ -36,6 +38,7 @@ public class Filter {
                 tweetList.add(t);
             }
         }
+        TwitterMetrics.stop(TwitterMetrics.WRITTEN_BY, startNanos, tweets.size());
         return tweetList;
     }
 
@@ -50,6 +53,7 @@ public class Filter {
      *         in the same order as in the input list.
      */
     public static List<Tweet> inTimespan(List<Tweet> tweets, Timespan timespan) {
+        final long startNanos = TwitterMetrics.start();
         List<Tweet> tweetList = new ArrayList<>();
         Instant start = timespan.getStart();
         Instant end = timespan.getEnd();
@@ -62,6 +66,7 @@ public class Filter {
                 tweetList.add(t);
             }
         }
+        TwitterMetrics.stop(TwitterMetrics.IN_TIMESPAN, startNanos, tweets.size());
         return tweetList;
     }
 
@@ -81,28 +86,36 @@ public class Filter {
      *         same order as in the input list.
      */
     public static List<Tweet> containing(List<Tweet> tweets, List<String> words) {
+        final long startNanos = TwitterMetrics.start();
         List<Tweet> tweetList = new ArrayList<>();
+        TweetTokenizer tokens = new TweetTokenizer("", EnumSet.of(TweetTokenizer.Kind.WORD));
         for (Tweet t: tweets) {
-            String tweetText = t.getText();
-            if (textContainsOneOrMoreWords(tweetText, words)) {
+            tokens.reset(t.getText());
+            if (textContainsOneOrMoreWords(tokens, t.getText(), words)) {
                 tweetList.add(t);
             }
         }
+        TwitterMetrics.stop(TwitterMetrics.CONTAINING, startNanos, tweets.size());
         return tweetList;
     }
     
     /**
      * Check if a string of text contains any words in the given list, using
      * case insensitive comparison.
+     * @param tokens a tokenizer positioned at the start of text
      * @param text a string of text
      * @param words a list of words
-     * @return true if the text contains any of the words in the words param, false otherwise.
+     * @return true if one of the words of the text is in the words param, false otherwise.
      */
-    private static boolean textContainsOneOrMoreWords(String text, List<String> words) {
-        text = text.toLowerCase();
-        for (String w: words) {
-            if (text.contains(w.toLowerCase())) {
-                return true;
+    private static boolean textContainsOneOrMoreWords(TweetTokenizer tokens, String text, List<String> words) {
+        while (tokens.next()) {
+            if (tokens.kind() != TweetTokenizer.Kind.WORD) {
+                continue;
+            }
+            for (String w: words) {
+                if (TweetTokenizer.spanEqualsIgnoreCase(text, tokens.start(), tokens.end(), w)) {
+                    return true;
+                }
             }
         }
         return false;
@@ -0,0 +1,288 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * FollowRecommender suggests people a user might want to follow ("who to
+ * follow"), from a social network as defined in SocialNetwork.
+ *
+ * <p>Candidates are the users that the user's followees follow (friends of
+ * friends) and the users reached by random walks with restart from the user
+ * along follows edges. Candidates are ranked by their number of visits,
+ * which estimates their personalized PageRank for the user, and then by how
+ * many of the user's followees follow them. Users the user already follows,
+ * and the user themselves, are never recommended.
+ *
+ * <p>Queries run on the CSR arrays of an IntFollowsGraph. Each thread keeps
+ * its own scratch arrays of counters, one slot per user, and a query clears
+ * only the slots it touched. So after a thread's first query, a query
+ * allocates nothing but its result, and its cost depends on the number of
+ * walks and the fan-out budget, not on the size of the graph. Walks are
+ * seeded from the user, so the same query always gets the same answer. A
+ * recommender is threadsafe: the graph is immutable and all mutable state
+ * is per thread.
+ */
+public class FollowRecommender {
+
+    private final IntFollowsGraph graph;
+    private final double restartProbability;
+    private final int walks;
+    private final int fanoutBudget;
+    private final long seed;
+    private final ThreadLocal<RecommenderScratch> scratch;
+
+    // Abstraction function:
+    //   AF(graph, restartProbability, walks, fanoutBudget, seed) = the
+    //     recommender for graph whose visit counts come from walks random
+    //     walks per query, each step restarting with restartProbability,
+    //     with walk randomness drawn from seed and the user, and whose
+    //     friend-of-friend counts look at about fanoutBudget follows edges
+    //     of followees in all
+    // Representation invariant:
+    //   0 < restartProbability < 1, walks > 0, fanoutBudget > 0
+    // Safety from rep exposure:
+    //   graph is immutable; scratch arrays never leave this class.
+    // Thread safety argument:
+    //   graph and the parameters are immutable; each thread has its own
+    //   RecommenderScratch through the ThreadLocal.
+
+    /**
+     * Make a recommender that restarts walks with probability 0.3, takes
+     * 1000 walks per query, and looks at about 10000 followees of followees.
+     *
+     * @param followsGraph a social network as defined in SocialNetwork, not
+     *        modified by this method
+     * @return a new recommender
+     */
+    public static FollowRecommender withDefaults(Map<String, Set<String>> followsGraph) {
+        return new FollowRecommender(IntFollowsGraph.of(followsGraph), 0.3, 1000, 10_000, 6005);
+    }
+
+    /**
+     * Make a recommender.
+     *
+     * @param graph the social network
+     * @param restartProbability probability that a walk jumps back to the
+     *        user at each step, requires 0 < restartProbability < 1; higher
+     *        values keep recommendations closer to the user
+     * @param walks number of random walks per query, requires > 0
+     * @param fanoutBudget about how many followees of followees to count
+     *        as friends of friends, requires > 0; a user with many followees
+     *        gets an even sample of each followee's followees
+     * @param seed seed of the random walks
+     */
+    public FollowRecommender(IntFollowsGraph graph, double restartProbability, int walks, int fanoutBudget,
+                             long seed) {
+        if (restartProbability <= 0 || restartProbability >= 1 || walks <= 0 || fanoutBudget <= 0) {
+            throw new IllegalArgumentException("invalid recommender parameters");
+        }
+        this.graph = graph;
+        this.restartProbability = restartProbability;
+        this.walks = walks;
+        this.fanoutBudget = fanoutBudget;
+        this.seed = seed;
+        this.scratch = ThreadLocal.withInitial(() -> new RecommenderScratch(graph.size()));
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert restartProbability > 0 && restartProbability < 1;
+        assert walks > 0 && fanoutBudget > 0;
+    }
+
+    /**
+     * Recommend people to follow.
+     *
+     * @param username a Twitter username
+     * @param count most recommendations to return, requires >= 0
+     * @return up to count lower-case usernames that username does not follow,
+     *         best first; empty if username is not in the social network
+     */
+    public List<String> recommend(String username, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be nonnegative: " + count);
+        }
+        final int user = graph.id(username);
+        if (user < 0 || count == 0) {
+            return Collections.emptyList();
+        }
+        final RecommenderScratch s = scratch.get();
+        try {
+            countFriendsOfFriends(user, s);
+            walk(user, s);
+            final int found = s.selectTop(user, graph, count);
+            List<String> recommendations = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                recommendations.add(graph.username(s.top[i]));
+            }
+            return recommendations;
+        } finally {
+            s.clear();
+        }
+    }
+
+    /*
+     * Count, for each user two follows-hops from user, how many of user's
+     * followees follow them, sampling each followee's followees evenly so
+     * that the total work stays near fanoutBudget.
+     */
+    private void countFriendsOfFriends(int user, RecommenderScratch s) {
+        final int[] offsets = graph.outOffsets;
+        final int[] targets = graph.outTargets;
+        final int perFollowee = Math.max(1, fanoutBudget / Math.max(1, graph.outDegree(user)));
+        for (int i = offsets[user]; i < offsets[user + 1]; i++) {
+            int followee = targets[i];
+            int degree = graph.outDegree(followee);
+            int stride = degree <= perFollowee ? 1 : (degree + perFollowee - 1) / perFollowee;
+            for (int j = offsets[followee]; j < offsets[followee + 1]; j += stride) {
+                s.addFriendOfFriend(targets[j]);
+            }
+        }
+    }
+
+    /*
+     * Count visits by random walks with restart from user.
+     */
+    private void walk(int user, RecommenderScratch s) {
+        final int[] offsets = graph.outOffsets;
+        final int[] targets = graph.outTargets;
+        // restart with probability p is a geometric number of steps
+        final double logStay = Math.log(1 - restartProbability);
+        long state = HyperLogLog.mix64(seed ^ user) | 1;
+        for (int w = 0; w < walks; w++) {
+            state = xorshift(state);
+            int steps = 1 + (int) (Math.log(unit(state)) / logStay);
+            int at = user;
+            for (int step = 0; step < steps; step++) {
+                int degree = offsets[at + 1] - offsets[at];
+                if (degree == 0) {
+                    break;
+                }
+                state = xorshift(state);
+                at = targets[offsets[at] + (int) ((state >>> 33) % degree)];
+                s.addVisit(at);
+            }
+        }
+    }
+
+    private static long xorshift(long x) {
+        x ^= x << 13;
+        x ^= x >>> 7;
+        x ^= x << 17;
+        return x;
+    }
+
+    /*
+     * @return a double in (0, 1) from the high bits of state
+     */
+    private static double unit(long state) {
+        return ((state >>> 11) + 0.5) / (1L << 53);
+    }
+}
+
+/**
+ * Reusable per-thread counters for one FollowRecommender query. This class
+ * is internal to the rep of FollowRecommender.
+ */
+class RecommenderScratch {
+
+    final int[] visits;
+    final int[] friendsOfFriends;
+    int[] touched = new int[256];
+    int touchedCount = 0;
+    int[] top = new int[16];
+
+    // Abstraction function:
+    //   AF(...) = the scores of the current query: visits[v] and
+    //     friendsOfFriends[v] for every user v, where only the users
+    //     touched[0..touchedCount) can be nonzero; top holds the selected
+    //     recommendations
+    // Representation invariant:
+    //   visits.length == friendsOfFriends.length
+    //   v has a nonzero count iff v is in touched[0..touchedCount), once each
+
+    RecommenderScratch(int users) {
+        this.visits = new int[users];
+        this.friendsOfFriends = new int[users];
+    }
+
+    void addVisit(int v) {
+        if (visits[v]++ == 0 && friendsOfFriends[v] == 0) {
+            touch(v);
+        }
+    }
+
+    void addFriendOfFriend(int v) {
+        if (friendsOfFriends[v]++ == 0 && visits[v] == 0) {
+            touch(v);
+        }
+    }
+
+    private void touch(int v) {
+        if (touchedCount == touched.length) {
+            touched = Arrays.copyOf(touched, touchedCount * 2);
+        }
+        touched[touchedCount++] = v;
+    }
+
+    /*
+     * @return true iff a ranks above b
+     */
+    private boolean better(int a, int b) {
+        if (visits[a] != visits[b]) {
+            return visits[a] > visits[b];
+        }
+        if (friendsOfFriends[a] != friendsOfFriends[b]) {
+            return friendsOfFriends[a] > friendsOfFriends[b];
+        }
+        return a < b;
+    }
+
+    /*
+     * Put the best count touched users, other than user and the users it
+     * follows, in top[0..found), best first, by insertion into a sorted
+     * array of at most count entries.
+     * @return found
+     */
+    int selectTop(int user, IntFollowsGraph graph, int count) {
+        // no more than touchedCount users can be found, however large count is
+        final int limit = Math.min(count, touchedCount);
+        if (top.length < limit) {
+            top = new int[Math.max(limit, 2 * top.length)];
+        }
+        int found = 0;
+        for (int i = 0; i < touchedCount; i++) {
+            int v = touched[i];
+            if (v == user || (found == limit && !better(v, top[found - 1])) || graph.follows(user, v)) {
+                continue;
+            }
+            int j = found < limit ? found++ : limit - 1;
+            while (j > 0 && better(v, top[j - 1])) {
+                top[j] = top[j - 1];
+                --j;
+            }
+            top[j] = v;
+        }
+        return found;
+    }
+
+    /*
+     * Reset every count touched by the last query.
+     */
+    void clear() {
+        for (int i = 0; i < touchedCount; i++) {
+            visits[touched[i]] = 0;
+            friendsOfFriends[touched[i]] = 0;
+        }
+        touchedCount = 0;
+    }
+}
@@ -0,0 +1,797 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * FollowsGraphStore is a mutable, threadsafe social network (as defined in
+ * SocialNetwork) kept in a directory on disk, so that a service can restart
+ * without re-deriving the network from every tweet it has ever seen.
+ *
+ * <p>The directory holds a compacted snapshot of the network and an
+ * append-only log of the follows edges added since. Every new edge is
+ * appended to the log; edges the store already has are not. Once the log
+ * holds compactionThreshold edges, or when compact() is called, a new
+ * snapshot of the whole network is written and the old snapshot and log
+ * are deleted.
+ *
+ * <p>Opening a store memory-maps the snapshot without reading it: its users
+ * are stored sorted, so lookups binary-search the mapped bytes directly.
+ * Only the log is read, so recovery takes time proportional to the number
+ * of edges added since the last compaction, not to the size of the
+ * network. A log whose last record was cut short by a crash is truncated
+ * to its last whole record.
+ *
+ * <p>Usernames are stored in lower case. Self-follows are ignored. Edges
+ * are durable once sync() or close() returns; compaction is crash-safe at
+ * every step, since a snapshot only becomes visible by an atomic rename.
+ */
+public class FollowsGraphStore implements Closeable {
+
+    /** default number of logged edges that triggers a compaction */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 1_000_000;
+
+    private static final String LOG_PREFIX = "log-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int LOG_BUFFER_SIZE = 1 << 16;
+
+    private final Path directory;
+    private final int compactionThreshold;
+    private long generation;
+    private FollowsSnapshot snapshot;
+    private final Map<String, Set<String>> recent = new HashMap<>();
+    private int recentEdges = 0;
+    private FileChannel logChannel;
+    private final ByteBuffer logBuffer = ByteBuffer.allocate(LOG_BUFFER_SIZE);
+    private long logLength;
+    private boolean closed = false;
+
+    // Abstraction function:
+    //   AF(directory, snapshot, recent, ...) = the social network in which
+    //     u follows v iff snapshot has the edge u -> v or recent.get(u)
+    //     contains v; on disk, snapshot-<generation> holds the snapshot and
+    //     log-<generation> followed by logBuffer[0..position) holds the edges
+    //     of recent, in the order added
+    // Representation invariant:
+    //   compactionThreshold > 0, generation >= 0
+    //   every key and element of recent is lower case, no key maps to itself
+    //   or to an empty set, and no edge of recent is also in snapshot
+    //   recentEdges == total size of the sets of recent
+    //   logBuffer holds only whole records, and the log file is logLength
+    //     bytes of whole records
+    // Safety from rep exposure:
+    //   follows() and followsGraph() return new sets and maps; snapshot and
+    //   the log are never returned.
+    // Thread safety argument:
+    //   every public method is synchronized on this store.
+
+    /**
+     * Open the store in a directory, creating an empty store if the
+     * directory holds none, with the default compaction threshold.
+     *
+     * @param directory directory of the store; created if it does not exist
+     * @return the store
+     * @throws IOException if the store cannot be read or created
+     */
+    public static FollowsGraphStore open(Path directory) throws IOException {
+        return open(directory, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Open the store in a directory, creating an empty store if the
+     * directory holds none.
+     *
+     * @param directory directory of the store; created if it does not exist
+     * @param compactionThreshold number of logged edges after which the
+     *        store compacts itself, requires > 0
+     * @return the store
+     * @throws IOException if the store cannot be read or created
+     */
+    public static FollowsGraphStore open(Path directory, int compactionThreshold) throws IOException {
+        if (compactionThreshold <= 0) {
+            throw new IllegalArgumentException("compactionThreshold must be positive: " + compactionThreshold);
+        }
+        Files.createDirectories(directory);
+        return new FollowsGraphStore(directory, compactionThreshold);
+    }
+
+    private FollowsGraphStore(Path directory, int compactionThreshold) throws IOException {
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+
+        long latestSnapshot = -1;
+        for (Path file: files()) {
+            long g = generationOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            latestSnapshot = Math.max(latestSnapshot, g);
+        }
+        this.generation = Math.max(0, latestSnapshot);
+        this.snapshot = latestSnapshot < 0 ? FollowsSnapshot.EMPTY
+                : FollowsSnapshot.map(snapshotPath(generation));
+        deleteObsoleteFiles();
+
+        final Path logPath = logPath(generation);
+        if (Files.exists(logPath)) {
+            long valid = replay(logPath);
+            try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+                if (channel.size() > valid) {
+                    channel.truncate(valid); // drop a record cut short by a crash
+                }
+            }
+        }
+        openLog(logPath);
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert compactionThreshold > 0 && generation >= 0;
+        int edges = 0;
+        for (Set<String> followees: recent.values()) {
+            assert !followees.isEmpty();
+            edges += followees.size();
+        }
+        assert edges == recentEdges;
+    }
+
+    /**
+     * Add a follows edge.
+     *
+     * @param follower username of the follower
+     * @param followee username of the user followed
+     * @return true iff the edge is new; self-follows are never new
+     * @throws IOException if the edge cannot be logged
+     */
+    public synchronized boolean addFollow(String follower, String followee) throws IOException {
+        ensureOpen();
+        final String u = follower.toLowerCase(Locale.ROOT);
+        final String v = followee.toLowerCase(Locale.ROOT);
+        if (u.equals(v) || snapshot.follows(u, v)
+                || recent.getOrDefault(u, Collections.emptySet()).contains(v)) {
+            return false;
+        }
+        // log the edge before the store reports it, and only as a whole record
+        appendToLog(record(u, v));
+        recent.computeIfAbsent(u, k -> new HashSet<>()).add(v);
+        ++recentEdges;
+        if (recentEdges >= compactionThreshold) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Add every edge of a social network.
+     *
+     * @param followsGraph a social network as defined in SocialNetwork, not
+     *        modified by this method
+     * @return number of edges that were new
+     * @throws IOException if an edge cannot be logged
+     */
+    public synchronized int addAll(Map<String, Set<String>> followsGraph) throws IOException {
+        int added = 0;
+        for (Map.Entry<String, Set<String>> e: followsGraph.entrySet()) {
+            for (String followee: e.getValue()) {
+                if (addFollow(e.getKey(), followee)) {
+                    ++added;
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Add the evidence of some tweets, as SocialNetwork.guessFollowsGraph
+     * sees it.
+     *
+     * @param tweets tweets, not modified by this method
+     * @return number of edges that were new
+     * @throws IOException if an edge cannot be logged
+     */
+    public synchronized int addTweets(List<Tweet> tweets) throws IOException {
+        return addAll(SocialNetwork.guessFollowsGraph(tweets));
+    }
+
+    /**
+     * @param follower a username
+     * @param followee a username
+     * @return true iff follower follows followee, ignoring case
+     */
+    public synchronized boolean follows(String follower, String followee) {
+        final String u = follower.toLowerCase(Locale.ROOT);
+        final String v = followee.toLowerCase(Locale.ROOT);
+        return recent.getOrDefault(u, Collections.emptySet()).contains(v) || snapshot.follows(u, v);
+    }
+
+    /**
+     * @param follower a username
+     * @return the lower-case usernames that follower follows
+     */
+    public synchronized Set<String> follows(String follower) {
+        final String u = follower.toLowerCase(Locale.ROOT);
+        Set<String> followees = new HashSet<>(recent.getOrDefault(u, Collections.emptySet()));
+        int id = snapshot.find(u);
+        if (id >= 0) {
+            for (int i = snapshot.rowStart(id); i < snapshot.rowEnd(id); i++) {
+                followees.add(snapshot.name(snapshot.target(i)));
+            }
+        }
+        return followees;
+    }
+
+    /**
+     * @return the whole social network, as defined in SocialNetwork, with
+     *         every user that follows someone as a key
+     */
+    public synchronized Map<String, Set<String>> followsGraph() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int u = 0; u < snapshot.size(); u++) {
+            if (snapshot.rowStart(u) < snapshot.rowEnd(u)) {
+                Set<String> followees = new HashSet<>();
+                for (int i = snapshot.rowStart(u); i < snapshot.rowEnd(u); i++) {
+                    followees.add(snapshot.name(snapshot.target(i)));
+                }
+                graph.put(snapshot.name(u), followees);
+            }
+        }
+        for (Map.Entry<String, Set<String>> e: recent.entrySet()) {
+            graph.computeIfAbsent(e.getKey(), k -> new HashSet<>()).addAll(e.getValue());
+        }
+        return graph;
+    }
+
+    /**
+     * @return number of follows edges in the store
+     */
+    public synchronized long edgeCount() {
+        return (long) snapshot.edgeCount() + recentEdges;
+    }
+
+    /**
+     * @return number of edges in the log, which is what the next open()
+     *         has to replay
+     */
+    public synchronized int loggedEdgeCount() {
+        return recentEdges;
+    }
+
+    /**
+     * Force every edge added so far to disk.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public synchronized void sync() throws IOException {
+        ensureOpen();
+        flushLog();
+        logChannel.force(false);
+    }
+
+    /**
+     * Write a snapshot of the whole network and start an empty log, so the
+     * next open() replays nothing.
+     *
+     * @throws IOException if the snapshot cannot be written; the store is
+     *         then unchanged
+     */
+    public synchronized void compact() throws IOException {
+        ensureOpen();
+        sync();
+        final long next = generation + 1;
+        final Path tmp = directory.resolve(SNAPSHOT_PREFIX + next + TEMP_SUFFIX);
+        FollowsSnapshot.write(tmp, snapshot, recent);
+        Files.move(tmp, snapshotPath(next), StandardCopyOption.ATOMIC_MOVE);
+        // from here on, the new snapshot is the store; the old files are junk
+
+        logChannel.close();
+        generation = next;
+        snapshot = FollowsSnapshot.map(snapshotPath(next));
+        recent.clear();
+        recentEdges = 0;
+        openLog(logPath(next));
+        deleteObsoleteFiles();
+        checkRep();
+    }
+
+    /**
+     * Force every edge to disk and release the log. The store cannot be
+     * changed afterwards.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            sync();
+            logChannel.close();
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("store is closed: " + directory);
+        }
+    }
+
+    private void openLog(Path path) throws IOException {
+        logChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        logLength = logChannel.size();
+        logBuffer.clear();
+    }
+
+    /*
+     * Add a whole record to the log, writing out the buffered records first
+     * if it does not fit in the buffer.
+     * @throws IOException if the log cannot be written; the record is then
+     *         not in the log, and the log file still ends with a whole record
+     */
+    private void appendToLog(byte[] record) throws IOException {
+        if (record.length > logBuffer.remaining()) {
+            flushLog();
+        }
+        if (record.length > logBuffer.capacity()) {
+            writeToLog(ByteBuffer.wrap(record));
+        } else {
+            logBuffer.put(record);
+        }
+    }
+
+    /*
+     * Write the buffered records to the log file. If the write fails, the
+     * records stay buffered for the next attempt.
+     */
+    private void flushLog() throws IOException {
+        logBuffer.flip();
+        try {
+            writeToLog(logBuffer);
+            logBuffer.clear();
+        } catch (IOException ioe) {
+            logBuffer.position(logBuffer.limit()).limit(logBuffer.capacity());
+            throw ioe;
+        }
+    }
+
+    /*
+     * Write whole records to the end of the log file. If the write fails
+     * partway, cut the file back to its last whole record, so no later
+     * record is misread on replay.
+     */
+    private void writeToLog(ByteBuffer records) throws IOException {
+        final int start = records.position();
+        try {
+            while (records.hasRemaining()) {
+                logChannel.write(records);
+            }
+        } catch (IOException ioe) {
+            records.position(start);
+            try {
+                logChannel.truncate(logLength);
+            } catch (IOException truncateFailure) {
+                // the log may end mid-record, so stop appending to it;
+                // the next open() cuts it back to its last whole record
+                ioe.addSuppressed(truncateFailure);
+                closed = true;
+                logChannel.close();
+            }
+            throw ioe;
+        }
+        logLength += records.limit() - start;
+    }
+
+    /*
+     * Read every whole record of a log into recent.
+     * @return length in bytes of the whole records
+     */
+    private long replay(Path logPath) throws IOException {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath), 1 << 16))) {
+            while (true) {
+                String u;
+                String v;
+                try {
+                    u = readName(in);
+                    v = readName(in);
+                } catch (EOFException eof) {
+                    return valid;
+                }
+                valid += 4 + utf8Length(u) + utf8Length(v);
+                if (!snapshot.follows(u, v) && recent.computeIfAbsent(u, k -> new HashSet<>()).add(v)) {
+                    ++recentEdges;
+                }
+            }
+        }
+    }
+
+    /*
+     * Log record: follower and followee, each a 2-byte length and that many
+     * bytes of UTF-8.
+     * @return the record of the edge u -> v
+     * @throws IOException if either name is too long to log
+     */
+    private static byte[] record(String u, String v) throws IOException {
+        final byte[] from = encodeName(u);
+        final byte[] to = encodeName(v);
+        return ByteBuffer.allocate(4 + from.length + to.length)
+                .putShort((short) from.length).put(from)
+                .putShort((short) to.length).put(to)
+                .array();
+    }
+
+    private static byte[] encodeName(String name) throws IOException {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xffff) {
+            throw new IOException("username too long to log: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static String readName(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file: stream) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /*
+     * Delete snapshots and logs older than generation, and unfinished
+     * snapshots.
+     */
+    private void deleteObsoleteFiles() throws IOException {
+        for (Path file: files()) {
+            String name = file.getFileName().toString();
+            long snapshotGeneration = generationOf(file, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+            long logGeneration = generationOf(file, LOG_PREFIX, LOG_SUFFIX);
+            if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(TEMP_SUFFIX)
+                    || (snapshotGeneration >= 0 && snapshotGeneration < generation)
+                    || (logGeneration >= 0 && logGeneration < generation)) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /*
+     * @return the generation in the name of file if it is prefix<n>suffix,
+     *         else -1
+     */
+    private static long generationOf(Path file, String prefix, String suffix) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException nfe) {
+            return -1;
+        }
+    }
+
+    private Path snapshotPath(long g) {
+        return directory.resolve(SNAPSHOT_PREFIX + g + SNAPSHOT_SUFFIX);
+    }
+
+    private Path logPath(long g) {
+        return directory.resolve(LOG_PREFIX + g + LOG_SUFFIX);
+    }
+}
+
+/**
+ * An immutable follows graph in the snapshot format of FollowsGraphStore,
+ * read in place from a memory-mapped file. Layout, all ints big-endian:
+ *
+ * <pre>
+ *   int magic "FGS1", int version 1, int n (users), int e (edges)
+ *   int[n+1] name offsets into the name bytes
+ *   int[n+1] row offsets into the targets
+ *   int[e]   targets: the followees of each user, as ids, ascending
+ *   byte[]   names: UTF-8, in ascending unsigned byte order
+ * </pre>
+ *
+ * This class is internal to the rep of FollowsGraphStore.
+ */
+class FollowsSnapshot {
+
+    static final FollowsSnapshot EMPTY = new FollowsSnapshot(emptyBuffer());
+
+    private static final int MAGIC = 0x46475331;
+    private static final int VERSION = 1;
+    private static final int HEADER = 16;
+
+    private final ByteBuffer buffer;
+    private final int n;
+    private final int e;
+    private final int rowsAt;
+    private final int targetsAt;
+    private final int namesAt;
+
+    // Abstraction function:
+    //   AF(buffer) = the graph whose user i is the UTF-8 name at
+    //     names[nameOffsets[i] .. nameOffsets[i+1]) and who follows the
+    //     users targets[rowOffsets[i] .. rowOffsets[i+1])
+    // Representation invariant:
+    //   the header is valid, buffer holds every section, and names are
+    //   strictly ascending
+    // Safety from rep exposure:
+    //   buffer is read-only and never returned.
+
+    private FollowsSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("not a follows graph snapshot");
+        }
+        this.n = buffer.getInt(8);
+        this.e = buffer.getInt(12);
+        this.rowsAt = HEADER + 4 * (n + 1);
+        this.targetsAt = rowsAt + 4 * (n + 1);
+        this.namesAt = targetsAt + 4 * e;
+        if (n < 0 || e < 0 || (long) namesAt + nameOffset(n) > buffer.capacity()) {
+            throw new IllegalArgumentException("truncated follows graph snapshot");
+        }
+    }
+
+    private static ByteBuffer emptyBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER + 8);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(0).putInt(0).putInt(0).putInt(0);
+        return buffer;
+    }
+
+    /*
+     * Map a snapshot file read-only. The mapping stays valid after the file
+     * is closed or deleted.
+     */
+    static FollowsSnapshot map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return new FollowsSnapshot(buffer);
+            } catch (IllegalArgumentException iae) {
+                throw new IOException(path + ": " + iae.getMessage(), iae);
+            }
+        }
+    }
+
+    int size() {
+        return n;
+    }
+
+    int edgeCount() {
+        return e;
+    }
+
+    int rowStart(int id) {
+        return buffer.getInt(rowsAt + 4 * id);
+    }
+
+    int rowEnd(int id) {
+        return buffer.getInt(rowsAt + 4 * (id + 1));
+    }
+
+    int target(int index) {
+        return buffer.getInt(targetsAt + 4 * index);
+    }
+
+    private int nameOffset(int id) {
+        return buffer.getInt(HEADER + 4 * id);
+    }
+
+    String name(int id) {
+        int start = namesAt + nameOffset(id);
+        byte[] bytes = new byte[namesAt + nameOffset(id + 1) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+     * @return id of the user with this lower-case name, or -1
+     */
+    int find(String name) {
+        return n == 0 ? -1 : find(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int find(byte[] key) {
+        int lo = 0;
+        int hi = n - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compareName(mid, key);
+            if (c < 0) {
+                lo = mid + 1;
+            } else if (c > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private int compareName(int id, byte[] key) {
+        int start = namesAt + nameOffset(id);
+        int length = namesAt + nameOffset(id + 1) - start;
+        for (int i = 0; i < length && i < key.length; i++) {
+            int c = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    /*
+     * @return true iff the user named u follows the user named v
+     */
+    boolean follows(String u, String v) {
+        int from = find(u);
+        if (from < 0) {
+            return false;
+        }
+        int to = find(v);
+        if (to < 0) {
+            return false;
+        }
+        int lo = rowStart(from);
+        int hi = rowEnd(from) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int t = target(mid);
+            if (t < to) {
+                lo = mid + 1;
+            } else if (t > to) {
+                hi = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /*
+     * Write the union of a snapshot and the recent edges of a store as a
+     * new snapshot file, and force it to disk.
+     * @param recent lower-case edges, none of them in base
+     */
+    static void write(Path path, FollowsSnapshot base, Map<String, Set<String>> recent) throws IOException {
+        // every user, sorted by UTF-8 bytes
+        TreeSet<ByteString> users = new TreeSet<>();
+        for (int id = 0; id < base.n; id++) {
+            users.add(new ByteString(base.name(id)));
+        }
+        for (Map.Entry<String, Set<String>> entry: recent.entrySet()) {
+            users.add(new ByteString(entry.getKey()));
+            for (String v: entry.getValue()) {
+                users.add(new ByteString(v));
+            }
+        }
+        final ByteString[] names = users.toArray(new ByteString[0]);
+        final int count = names.length;
+
+        // rows: base edges renumbered, plus recent edges, each row sorted
+        final int[] rowOffsets = new int[count + 1];
+        final List<int[]> rows = new ArrayList<>(count);
+        for (int id = 0; id < count; id++) {
+            String name = names[id].string;
+            int baseId = base.find(names[id].bytes);
+            Set<String> added = recent.getOrDefault(name, Collections.emptySet());
+            int baseDegree = baseId < 0 ? 0 : base.rowEnd(baseId) - base.rowStart(baseId);
+            int[] row = new int[baseDegree + added.size()];
+            int k = 0;
+            for (int i = 0; i < baseDegree; i++) {
+                row[k++] = Arrays.binarySearch(names, new ByteString(base.name(base.target(base.rowStart(baseId) + i))));
+            }
+            for (String v: added) {
+                row[k++] = Arrays.binarySearch(names, new ByteString(v));
+            }
+            Arrays.sort(row);
+            rows.add(row);
+            rowOffsets[id + 1] = rowOffsets[id] + row.length;
+        }
+        final int edges = rowOffsets[count];
+
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(edges);
+            int nameOffset = 0;
+            out.writeInt(0);
+            for (ByteString name: names) {
+                nameOffset += name.bytes.length;
+                out.writeInt(nameOffset);
+            }
+            for (int offset: rowOffsets) {
+                out.writeInt(offset);
+            }
+            for (int[] row: rows) {
+                for (int target: row) {
+                    out.writeInt(target);
+                }
+            }
+            for (ByteString name: names) {
+                out.write(name.bytes);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * A string with its UTF-8 bytes, ordered by unsigned byte order.
+     */
+    private static class ByteString implements Comparable<ByteString> {
+        final String string;
+        final byte[] bytes;
+
+        ByteString(String string) {
+            this.string = string;
+            this.bytes = string.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int compareTo(ByteString that) {
+            for (int i = 0; i < bytes.length && i < that.bytes.length; i++) {
+                int c = Integer.compare(bytes[i] & 0xff, that.bytes[i] & 0xff);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return Integer.compare(bytes.length, that.bytes.length);
+        }
+
+        @Override
+        public boolean equals(Object that) {
+            return that instanceof ByteString && Arrays.equals(bytes, ((ByteString) that).bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes);
+        }
+    }
+}
@@ -0,0 +1,220 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HeavyHitters is a mutable Space-Saving sketch that finds the most frequent
+ * strings added to it, using a fixed number of counters that does not grow
+ * with the number of distinct strings added.
+ *
+ * A sketch with capacity k tracks at most k strings, each with a count that
+ * is never less than its true count and overestimates it by at most n / k,
+ * where n is the number of strings added. Every string added more than
+ * n / k times is tracked, so for a skewed stream such as mentions the top
+ * few are found exactly, and only the tail of the list is approximate.
+ *
+ * Sketches of the same capacity can be merged, so a window can keep one per
+ * time bucket and combine them to cover the whole window.
+ */
+public class HeavyHitters {
+
+    private final String[] keys;
+    private final long[] counts;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private int size = 0;
+
+    // Abstraction function:
+    //   AF(keys, counts, size) = the tracked strings keys[0..size), where
+    //   string keys[i] has been added at most counts[i] times; an untracked
+    //   string has been added at most min(counts[0..size)) times if the
+    //   sketch is full, and never if it is not.
+    // Representation invariant:
+    //   keys.length == counts.length > 0, 0 <= size <= keys.length
+    //   keys[0..size) is a min-heap by counts: counts[(i - 1) / 2] <= counts[i]
+    //   keys[0..size) are distinct and non-null, counts[0..size) > 0
+    //   slots maps exactly keys[i] to i for 0 <= i < size
+    // Safety from rep exposure:
+    //   no array or map is returned; top() returns a new list.
+
+    /**
+     * Make an empty sketch.
+     *
+     * @param capacity number of strings the sketch can track, requires > 0
+     */
+    public HeavyHitters(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        checkRep();
+    }
+
+    // check that the rep invariant is true; takes time proportional to the
+    // capacity, so it is only called after merges, which take that long anyway
+    private void checkRep() {
+        assert keys.length == counts.length && keys.length > 0;
+        assert 0 <= size && size <= keys.length;
+        assert slots.size() == size;
+        for (int i = 0; i < size; i++) {
+            assert counts[i] > 0 && slots.get(keys[i]) == i;
+            assert i == 0 || counts[(i - 1) / 2] <= counts[i];
+        }
+    }
+
+    /**
+     * @return the number of strings this sketch can track
+     */
+    public int getCapacity() {
+        return keys.length;
+    }
+
+    /**
+     * Count one occurrence of a string. If the string is untracked and the
+     * sketch is full, it replaces the tracked string with the smallest count
+     * and takes over that count, plus one.
+     *
+     * @param s string to count
+     */
+    public void add(String s) {
+        final Integer slot = slots.get(s);
+        if (slot != null) {
+            ++counts[slot];
+            siftDown(slot);
+        } else if (size < keys.length) {
+            keys[size] = s;
+            counts[size] = 1;
+            slots.put(s, size);
+            siftUp(size++);
+        } else {
+            slots.remove(keys[0]);
+            keys[0] = s;
+            ++counts[0];
+            slots.put(s, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @param s a string
+     * @return an upper bound on the number of times s has been added
+     */
+    public long count(String s) {
+        final Integer slot = slots.get(s);
+        if (slot != null) {
+            return counts[slot];
+        }
+        return size < keys.length ? 0 : counts[0];
+    }
+
+    /**
+     * Add the counts of another sketch to this one. Each string's count
+     * becomes the sum of its counts in both sketches, and the strings with
+     * the largest sums are kept.
+     *
+     * @param that sketch to merge in, requires the same capacity as this
+     *        sketch; not modified by this method
+     */
+    public void merge(HeavyHitters that) {
+        if (that.keys.length != this.keys.length) {
+            throw new IllegalArgumentException("cannot merge sketches of capacity "
+                    + this.keys.length + " and " + that.keys.length);
+        }
+        if (that.size == 0) {
+            return;
+        }
+        final Map<String, Long> sums = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            sums.put(keys[i], counts[i] + that.count(keys[i]));
+        }
+        for (int i = 0; i < that.size; i++) {
+            sums.putIfAbsent(that.keys[i], that.counts[i] + this.count(that.keys[i]));
+        }
+        final List<Map.Entry<String, Long>> largest = new ArrayList<>(sums.entrySet());
+        Collections.sort(largest, Map.Entry.<String, Long>comparingByValue().reversed());
+
+        clear();
+        for (Map.Entry<String, Long> e: largest.subList(0, Math.min(keys.length, largest.size()))) {
+            keys[size] = e.getKey();
+            counts[size] = e.getValue();
+            slots.put(e.getKey(), size);
+            siftUp(size++);
+        }
+        checkRep();
+    }
+
+    /**
+     * Reset this sketch to track no strings.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0, size, null);
+        slots.clear();
+        size = 0;
+    }
+
+    /**
+     * @param n maximum number of strings to return, requires >= 0
+     * @return the min(n, tracked) tracked strings with the largest counts, in
+     *         descending order of count, ties in alphabetical order
+     */
+    public List<String> top(int n) {
+        final Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> -counts[i]).thenComparing(i -> keys[i]));
+        final List<String> result = new ArrayList<>();
+        for (int i = 0; i < Math.min(n, size); i++) {
+            result.add(keys[order[i]]);
+        }
+        return result;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0 && counts[(i - 1) / 2] > counts[i]) {
+            swap(i, (i - 1) / 2);
+            i = (i - 1) / 2;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                return;
+            }
+            if (child + 1 < size && counts[child + 1] < counts[child]) {
+                child++;
+            }
+            if (counts[i] <= counts[child]) {
+                return;
+            }
+            swap(i, child);
+            i = child;
+        }
+    }
+
+    private void swap(int i, int j) {
+        final String key = keys[i];
+        final long count = counts[i];
+        keys[i] = keys[j];
+        counts[i] = counts[j];
+        keys[j] = key;
+        counts[j] = count;
+        slots.put(keys[i], i);
+        slots.put(keys[j], j);
+    }
+
+    @Override public String toString() {
+        return "HeavyHitters(capacity=" + keys.length + ", top=" + top(5) + ")";
+    }
+}
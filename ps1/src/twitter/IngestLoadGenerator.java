@@ -0,0 +1,134 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * IngestLoadGenerator measures how fast tweets can be fetched and parsed
+ * through TweetReader.readTweetsFromWeb, by sending many concurrent requests
+ * to a tweet server and recording the latency of each one.
+ */
+public class IngestLoadGenerator {
+
+    /**
+     * Run a load test.
+     *
+     * @param url server to fetch from, as accepted by TweetReader.readTweetsFromWeb
+     * @param clients number of concurrent clients, requires > 0
+     * @param requestsPerClient number of requests each client makes one after
+     *        another, requires >= 0
+     * @return report of the requests made; a request that throws IOException
+     *         counts as a failure
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public static IngestReport run(URL url, int clients, int requestsPerClient) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        try {
+            List<Future<ClientResult>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < clients; c++) {
+                futures.add(pool.submit(() -> runClient(url, requestsPerClient)));
+            }
+
+            List<ClientResult> results = new ArrayList<>();
+            for (Future<ClientResult> f: futures) {
+                try {
+                    results.add(f.get());
+                } catch (ExecutionException ee) {
+                    throw new RuntimeException(ee.getCause());
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+
+            int failures = 0;
+            long tweets = 0;
+            int successes = 0;
+            for (ClientResult r: results) {
+                failures += r.failures;
+                tweets += r.tweets;
+                successes += r.latencyCount;
+            }
+            long[] latencies = new long[successes];
+            int i = 0;
+            for (ClientResult r: results) {
+                System.arraycopy(r.latencyNanos, 0, latencies, i, r.latencyCount);
+                i += r.latencyCount;
+            }
+            return new IngestReport(clients * requestsPerClient, failures, tweets, elapsed, latencies);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /*
+     * Make requests one after another and time each one.
+     */
+    private static ClientResult runClient(URL url, int requests) {
+        ClientResult result = new ClientResult(requests);
+        for (int i = 0; i < requests; i++) {
+            long before = System.nanoTime();
+            try {
+                List<Tweet> tweets = TweetReader.readTweetsFromWeb(url);
+                result.latencyNanos[result.latencyCount++] = System.nanoTime() - before;
+                result.tweets += tweets.size();
+            } catch (IOException ioe) {
+                ++result.failures;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Start a local TweetFeedServer and run a load test against it.
+     *
+     * @param args optional clients (default 4), requests per client (default
+     *        50) and tweets per response (default 1000)
+     * @throws IOException if the server cannot start
+     * @throws InterruptedException if interrupted while running
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int tweetsPerResponse = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+        TweetFeedServer server = new TweetFeedServer(0, tweetsPerResponse,
+                SyntheticTweets.withDefaults(6005), Runtime.getRuntime().availableProcessors());
+        try {
+            System.err.println("warming up against " + server.getUrl());
+            run(server.getUrl(), clients, Math.max(1, requests / 5));
+
+            System.err.println("measuring " + clients + " clients x " + requests + " requests");
+            System.out.println(run(server.getUrl(), clients, requests));
+        } finally {
+            server.stop();
+        }
+    }
+}
+
+/**
+ * Mutable results of one load-test client.
+ * This class is internal to the rep of IngestLoadGenerator.
+ */
+class ClientResult {
+
+    final long[] latencyNanos;
+    int latencyCount = 0;
+    int failures = 0;
+    long tweets = 0;
+
+    /**
+     * @param requests number of requests the client will make
+     */
+    ClientResult(int requests) {
+        this.latencyNanos = new long[requests];
+    }
+}
@@ -0,0 +1,119 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+
+/**
+ * Immutable result of an ingest load test: how many requests and tweets were
+ * read, how long it took, and the distribution of per-request latencies.
+ */
+public class IngestReport {
+
+    private final int requests;
+    private final int failures;
+    private final long tweets;
+    private final long elapsedNanos;
+    private final long[] sortedLatencyNanos;
+
+    // Abstraction function:
+    //   AF(requests, failures, tweets, elapsedNanos, sortedLatencyNanos) = a
+    //   load test that made requests requests, of which failures failed,
+    //   reading tweets tweets in elapsedNanos of wall-clock time, where the
+    //   successful requests took sortedLatencyNanos (in ascending order).
+    // Representation invariant:
+    //   0 <= failures <= requests, tweets >= 0, elapsedNanos >= 0
+    //   sortedLatencyNanos.length == requests - failures, sorted ascending
+    // Safety from rep exposure:
+    //   sortedLatencyNanos is a private copy and is never returned.
+
+    /**
+     * Make an IngestReport.
+     *
+     * @param requests number of requests made
+     * @param failures number of requests that failed
+     * @param tweets number of tweets read by successful requests
+     * @param elapsedNanos wall-clock duration of the test
+     * @param latencyNanos latency of each successful request, in any order;
+     *        not modified by this constructor
+     */
+    public IngestReport(int requests, int failures, long tweets, long elapsedNanos, long[] latencyNanos) {
+        this.requests = requests;
+        this.failures = failures;
+        this.tweets = tweets;
+        this.elapsedNanos = elapsedNanos;
+        this.sortedLatencyNanos = latencyNanos.clone();
+        Arrays.sort(sortedLatencyNanos);
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert failures >= 0 && failures <= requests;
+        assert tweets >= 0 && elapsedNanos >= 0;
+        assert sortedLatencyNanos.length == requests - failures;
+    }
+
+    /**
+     * @return number of requests made
+     */
+    public int getRequests() {
+        return requests;
+    }
+
+    /**
+     * @return number of requests that failed
+     */
+    public int getFailures() {
+        return failures;
+    }
+
+    /**
+     * @return number of tweets read
+     */
+    public long getTweets() {
+        return tweets;
+    }
+
+    /**
+     * @return tweets read per second of wall-clock time, or 0 if no time elapsed
+     */
+    public double getTweetsPerSecond() {
+        return elapsedNanos == 0 ? 0 : tweets * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return successful requests per second of wall-clock time, or 0 if no
+     *         time elapsed
+     */
+    public double getRequestsPerSecond() {
+        return elapsedNanos == 0 ? 0 : sortedLatencyNanos.length * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Get a latency percentile, using the nearest-rank method.
+     *
+     * @param percentile requires 0 < percentile <= 100
+     * @return the smallest latency, in milliseconds, such that at least
+     *         percentile percent of successful requests were no slower; 0 if
+     *         no request succeeded
+     */
+    public double latencyMillis(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]: " + percentile);
+        }
+        if (sortedLatencyNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sortedLatencyNanos.length);
+        return sortedLatencyNanos[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    @Override public String toString() {
+        return String.format("%d requests (%d failed), %d tweets in %.2f s: %.0f tweets/s, %.1f req/s%n"
+                + "latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f",
+                requests, failures, tweets, elapsedNanos / 1e9, getTweetsPerSecond(), getRequestsPerSecond(),
+                latencyMillis(50), latencyMillis(90), latencyMillis(99), latencyMillis(99.9), latencyMillis(100));
+    }
+}
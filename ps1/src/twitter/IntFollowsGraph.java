@@ -0,0 +1,197 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * IntFollowsGraph is an immutable, compact form of a social network (as
+ * defined in SocialNetwork) for graph algorithms: each user has a dense int
+ * id in [0, size()), and the follows edges are held in compressed sparse row
+ * (CSR) arrays, both by follower and by followee.
+ *
+ * <p>Usernames are case-insensitive, so users that differ only in case are
+ * one node. Self-follows and duplicate edges are dropped. For a graph of E
+ * edges the rep is four int arrays totalling about 2E + 2n ints, plus the
+ * usernames.
+ */
+public class IntFollowsGraph {
+
+    private final UsernameTable usernames;
+    // package-private so algorithms in this package can scan them directly;
+    // they must never be modified
+    final int[] outOffsets;
+    final int[] outTargets;
+    final int[] inOffsets;
+    final int[] inSources;
+
+    // Abstraction function:
+    //   AF(usernames, outOffsets, outTargets, inOffsets, inSources) = the
+    //     directed graph whose nodes are the usernames with ids
+    //     0 .. usernames.size()-1, in which node u follows each node in
+    //     outTargets[outOffsets[u] .. outOffsets[u+1]); inSources likewise
+    //     lists the followers of each node
+    // Representation invariant:
+    //   outOffsets.length == inOffsets.length == usernames.size() + 1
+    //   offsets start at 0, are nondecreasing, and end at
+    //     outTargets.length == inSources.length
+    //   each row of outTargets and inSources is strictly increasing, holds
+    //     ids in [0, size()), and never holds its own node
+    //   v is in row u of outTargets iff u is in row v of inSources
+    // Safety from rep exposure:
+    //   public methods return ints and Strings only; the arrays are shared
+    //   only with classes of this package, which only read them.
+
+    /**
+     * Make the compact form of a social network.
+     *
+     * @param followsGraph a social network as defined in SocialNetwork, not
+     *        modified by this method
+     * @return the same network, with every username in followsGraph as a
+     *         node, whether or not it follows or is followed by anyone
+     */
+    public static IntFollowsGraph of(Map<String, Set<String>> followsGraph) {
+        final UsernameTable usernames = new UsernameTable();
+        int edgeBound = 0;
+        for (Map.Entry<String, Set<String>> e: followsGraph.entrySet()) {
+            usernames.intern(e.getKey());
+            for (String followee: e.getValue()) {
+                usernames.intern(followee);
+            }
+            edgeBound += e.getValue().size();
+        }
+        final int n = usernames.size();
+
+        // count, then fill, the edges of each follower
+        final int[] outOffsets = new int[n + 1];
+        for (Map.Entry<String, Set<String>> e: followsGraph.entrySet()) {
+            outOffsets[usernames.find(e.getKey()) + 1] += e.getValue().size();
+        }
+        for (int u = 0; u < n; u++) {
+            outOffsets[u + 1] += outOffsets[u];
+        }
+        final int[] fill = Arrays.copyOf(outOffsets, n);
+        final int[] targets = new int[edgeBound];
+        for (Map.Entry<String, Set<String>> e: followsGraph.entrySet()) {
+            int u = usernames.find(e.getKey());
+            for (String followee: e.getValue()) {
+                targets[fill[u]++] = usernames.find(followee);
+            }
+        }
+
+        // sort each row, and drop self-follows and duplicates from keys that
+        // differed only in case
+        int write = 0;
+        int rowStart = 0;
+        for (int u = 0; u < n; u++) {
+            int rowEnd = outOffsets[u + 1];
+            Arrays.sort(targets, rowStart, rowEnd);
+            outOffsets[u] = write;
+            int previous = -1;
+            for (int i = rowStart; i < rowEnd; i++) {
+                int v = targets[i];
+                if (v != u && v != previous) {
+                    targets[write++] = v;
+                    previous = v;
+                }
+            }
+            rowStart = rowEnd;
+        }
+        outOffsets[n] = write;
+        final int[] outTargets = Arrays.copyOf(targets, write);
+
+        // transpose; visiting followers in id order keeps each row sorted
+        final int[] inOffsets = new int[n + 1];
+        for (int v: outTargets) {
+            inOffsets[v + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+        final int[] inFill = Arrays.copyOf(inOffsets, n);
+        final int[] inSources = new int[write];
+        for (int u = 0; u < n; u++) {
+            for (int i = outOffsets[u]; i < outOffsets[u + 1]; i++) {
+                inSources[inFill[outTargets[i]]++] = u;
+            }
+        }
+        return new IntFollowsGraph(usernames, outOffsets, outTargets, inOffsets, inSources);
+    }
+
+    private IntFollowsGraph(UsernameTable usernames, int[] outOffsets, int[] outTargets,
+                            int[] inOffsets, int[] inSources) {
+        this.usernames = usernames;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        final int n = usernames.size();
+        assert outOffsets.length == n + 1 && inOffsets.length == n + 1;
+        assert outOffsets[0] == 0 && outOffsets[n] == outTargets.length;
+        assert inOffsets[0] == 0 && inOffsets[n] == inSources.length;
+        assert outTargets.length == inSources.length;
+    }
+
+    /**
+     * @return number of users
+     */
+    public int size() {
+        return outOffsets.length - 1;
+    }
+
+    /**
+     * @return number of follows edges
+     */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /**
+     * @param username a Twitter username
+     * @return id of the user, ignoring case, or -1 if not in the graph
+     */
+    public int id(String username) {
+        return username.isEmpty() ? -1 : usernames.find(username);
+    }
+
+    /**
+     * @param id requires 0 <= id < size()
+     * @return the username with that id, in lower case
+     */
+    public String username(int id) {
+        return usernames.name(id);
+    }
+
+    /**
+     * @param id requires 0 <= id < size()
+     * @return number of users that user id follows
+     */
+    public int outDegree(int id) {
+        return outOffsets[id + 1] - outOffsets[id];
+    }
+
+    /**
+     * @param id requires 0 <= id < size()
+     * @return number of followers of user id
+     */
+    public int inDegree(int id) {
+        return inOffsets[id + 1] - inOffsets[id];
+    }
+
+    /**
+     * @param follower requires 0 <= follower < size()
+     * @param followee requires 0 <= followee < size()
+     * @return true iff follower follows followee
+     */
+    public boolean follows(int follower, int followee) {
+        return Arrays.binarySearch(outTargets, outOffsets[follower], outOffsets[follower + 1], followee) >= 0;
+    }
+}
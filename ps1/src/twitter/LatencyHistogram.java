@@ -0,0 +1,150 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram is a mutable, threadsafe histogram of non-negative long
+ * values (typically durations in nanoseconds), in the style of an HDR
+ * histogram: every power of two is split into 32 equal sub-buckets, so any
+ * recorded value can be reported with a relative error of at most 1/32
+ * (about 3%) using a fixed amount of memory, whatever the range of values.
+ *
+ * Recording a value is a few arithmetic operations and one atomic add, and
+ * never allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    // Abstraction function:
+    //   AF(counts, total, sum, max) = a multiset of recorded values, where
+    //   counts[i] values fell in the range [lowestValue(i), highestValue(i)],
+    //   total is the number of values, sum their sum, and max the largest.
+    // Representation invariant:
+    //   counts.length == BUCKETS; total == sum of counts once every record()
+    //   in progress has finished
+    // Safety from rep exposure:
+    //   no field is returned; readers get longs and doubles.
+    // Thread safety argument:
+    //   every field is an atomic or an adder, updated without locks; a
+    //   reader racing with writers may see a value counted in total but not
+    //   yet in its bucket, which only shifts percentiles by that one value.
+
+    /**
+     * Record a value.
+     *
+     * @param value value to record; negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(indexOf(value));
+        total.increment();
+        sum.add(value);
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // retry until max is at least value
+        }
+    }
+
+    /**
+     * @return number of values recorded
+     */
+    public long count() {
+        return total.sum();
+    }
+
+    /**
+     * @return largest value recorded, or 0 if none
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * @return mean of the values recorded, or 0 if none
+     */
+    public double mean() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Get a percentile of the recorded values.
+     *
+     * @param percentile requires 0 < percentile <= 100
+     * @return a value v, within 1/32 of the true percentile and no smaller
+     *         than it, such that at least percentile percent of the recorded
+     *         values are <= v; 0 if no values have been recorded
+     */
+    public long percentile(double percentile) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in (0, 100]: " + percentile);
+        }
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Forget every recorded value. Values recorded while reset() runs may or
+     * may not be kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        total.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /*
+     * @return index of the bucket holding value, requires value >= 0
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /*
+     * @return largest value that falls in bucket index
+     */
+    static long highestValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = index % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        long lowest = (long) (SUB_BUCKETS + sub) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
@@ -46,7 +46,7 @@ public class Main {
         
         final List<Tweet> tweets;
         try {
-            tweets = TweetReader.readTweetsFromWeb(SAMPLE_SERVER);
+            tweets = TweetFetcher.withDefaults().fetch(SAMPLE_SERVER);
         } catch (IOException ioe) {
             throw new RuntimeException(ioe);
         }
@@ -60,9 +60,19 @@ public class Main {
         final Set<String> mentionedUsers = Extract.getMentionedUsers(tweets);
         System.err.println("covers " + mentionedUsers.size() + " Twitter users");
         
-        // infer the follows graph
-        final Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+        // infer the follows graph with a concurrent pipeline
+        final TweetPipeline pipeline = new TweetPipeline(TweetPipeline.DEFAULT_QUEUE_CAPACITY,
+                                                         Runtime.getRuntime().availableProcessors());
+        final Map<String, Set<String>> followsGraph;
+        try {
+            followsGraph = pipeline.run(tweets.iterator());
+        } catch (InterruptedException ie) {
+            throw new RuntimeException(ie);
+        }
         System.err.println("follows graph has " + followsGraph.size() + " nodes");
+        for (StageMetrics stage : pipeline.metrics()) {
+            System.err.println("  " + stage);
+        }
         
         // print the top-N influencers
         final int count = 10;
@@ -70,6 +80,10 @@ public class Main {
         for (String username : influencers.subList(0, Math.min(count, influencers.size()))) {
             System.out.println(username);
         }
+        
+        if (TwitterMetrics.ENABLED) {
+            System.err.print(TwitterMetrics.snapshot());
+        }
     }
     
 }
\ No newline at end of file
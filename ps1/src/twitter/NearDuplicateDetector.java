@@ -0,0 +1,272 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * NearDuplicateDetector finds tweets whose text is the same or almost the
+ * same, such as retweets and copy-paste spam, using MinHash signatures and
+ * locality-sensitive hashing (LSH).
+ *
+ * <p>Each tweet's text is normalized (lower-cased, a leading "RT @user:"
+ * removed, links removed, whitespace collapsed) and cut into overlapping
+ * character shingles. The MinHash signature of the shingle set estimates the
+ * Jaccard similarity between two tweets. Signatures are split into bands;
+ * tweets that agree on every row of some band become candidates, and
+ * candidates whose estimated similarity reaches the threshold are put in the
+ * same cluster. The work is proportional to the number of tweets times the
+ * number of bands, not to the number of pairs of tweets.
+ *
+ * <p>Signatures are computed in parallel. A detector is immutable, so one
+ * detector may be shared by many threads.
+ */
+public class NearDuplicateDetector {
+
+    private static final Pattern RETWEET_PREFIX = Pattern.compile("^rt @[a-z0-9_-]+:?\\s*");
+    private static final Pattern LINK = Pattern.compile("https?://\\S+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final int shingleLength;
+    private final int bands;
+    private final int rows;
+    private final double threshold;
+    private final long[] seeds;
+
+    // Abstraction function:
+    //   AF(shingleLength, bands, rows, threshold, seeds) = a near-duplicate
+    //   relation in which two texts are related if their normalized
+    //   shingle sets have estimated Jaccard similarity >= threshold, using
+    //   bands*rows MinHash functions where function i hashes a shingle h to
+    //   mix64(h ^ seeds[i]).
+    // Representation invariant:
+    //   shingleLength > 0, bands > 0, rows > 0, 0 < threshold <= 1
+    //   seeds.length == bands * rows
+    // Safety from rep exposure:
+    //   seeds is never returned; all fields are final.
+
+    /**
+     * Make a detector with 5-character shingles, 20 bands of 5 rows, and a
+     * similarity threshold of 0.7.
+     *
+     * @return a new detector
+     */
+    public static NearDuplicateDetector withDefaults() {
+        return new NearDuplicateDetector(5, 20, 5, 0.7, 6005);
+    }
+
+    /**
+     * Make a detector. With b bands of r rows, a pair of tweets with true
+     * similarity s becomes a candidate with probability 1 - (1 - s^r)^b, which
+     * rises steeply around s = (1/b)^(1/r).
+     *
+     * @param shingleLength number of characters per shingle, requires > 0
+     * @param bands number of LSH bands, requires > 0
+     * @param rows number of signature rows per band, requires > 0
+     * @param threshold estimated Jaccard similarity at or above which two
+     *        candidates are near-duplicates, requires 0 < threshold <= 1
+     * @param seed seed of the MinHash functions
+     */
+    public NearDuplicateDetector(int shingleLength, int bands, int rows, double threshold, long seed) {
+        if (shingleLength <= 0 || bands <= 0 || rows <= 0 || threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("invalid near-duplicate detector parameters");
+        }
+        this.shingleLength = shingleLength;
+        this.bands = bands;
+        this.rows = rows;
+        this.threshold = threshold;
+        this.seeds = new long[bands * rows];
+        long state = seed;
+        for (int i = 0; i < seeds.length; i++) {
+            state += 0x9e3779b97f4a7c15L;
+            seeds[i] = HyperLogLog.mix64(state);
+        }
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert shingleLength > 0 && bands > 0 && rows > 0;
+        assert threshold > 0 && threshold <= 1;
+        assert seeds.length == bands * rows;
+    }
+
+    /**
+     * Group tweets into clusters of near-duplicates.
+     *
+     * @param tweets tweets to group, not modified by this method
+     * @return a partition of tweets into clusters, each in the same order as
+     *         in the input list, with clusters ordered by the position of
+     *         their first tweet in the input list. A tweet with no
+     *         near-duplicates is in a cluster by itself.
+     */
+    public List<List<Tweet>> clusters(List<Tweet> tweets) {
+        int[] root = clusterRoots(tweets);
+        Map<Integer, List<Tweet>> byRoot = new HashMap<>();
+        List<List<Tweet>> clusters = new ArrayList<>();
+        for (int i = 0; i < root.length; i++) {
+            List<Tweet> cluster = byRoot.get(root[i]);
+            if (cluster == null) {
+                cluster = new ArrayList<>();
+                byRoot.put(root[i], cluster);
+                clusters.add(cluster);
+            }
+            cluster.add(tweets.get(i));
+        }
+        return clusters;
+    }
+
+    /**
+     * Remove near-duplicates, keeping the first tweet of each cluster. The
+     * result can be passed to Extract, Filter or SocialNetwork in place of
+     * the original list, so that copies do not count as extra evidence.
+     *
+     * @param tweets tweets to filter, not modified by this method
+     * @return the first tweet of each cluster of near-duplicates, in the same
+     *         order as in the input list
+     */
+    public List<Tweet> dedupe(List<Tweet> tweets) {
+        int[] root = clusterRoots(tweets);
+        List<Tweet> kept = new ArrayList<>();
+        for (int i = 0; i < root.length; i++) {
+            if (root[i] == i) {
+                kept.add(tweets.get(i));
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Estimate how similar the texts of two tweets are.
+     *
+     * @param a a tweet
+     * @param b another tweet
+     * @return estimated Jaccard similarity of the normalized shingle sets of
+     *         the two texts, between 0 and 1
+     */
+    public double similarity(Tweet a, Tweet b) {
+        return similarity(signature(a.getText()), signature(b.getText()));
+    }
+
+    /*
+     * @return for each tweet, the index of the first tweet in its cluster
+     */
+    private int[] clusterRoots(List<Tweet> tweets) {
+        final int n = tweets.size();
+        final Tweet[] array = tweets.toArray(new Tweet[n]);
+        final int[][] signatures = new int[n][];
+        IntStream.range(0, n).parallel().forEach(i -> signatures[i] = signature(array[i].getText()));
+
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+
+        // tweets in the same band bucket are compared with the bucket's first tweet
+        Map<Long, Integer> firstInBucket = new HashMap<>();
+        for (int band = 0; band < bands; band++) {
+            firstInBucket.clear();
+            for (int i = 0; i < n; i++) {
+                Integer first = firstInBucket.putIfAbsent(bandKey(signatures[i], band), i);
+                if (first != null && similarity(signatures[first], signatures[i]) >= threshold) {
+                    union(parent, first, i);
+                }
+            }
+        }
+
+        int[] root = new int[n];
+        for (int i = 0; i < n; i++) {
+            root[i] = find(parent, i);
+        }
+        return root;
+    }
+
+    /*
+     * @return the MinHash signature of the normalized shingles of text
+     */
+    int[] signature(String text) {
+        String normalized = normalize(text);
+        int[] signature = new int[seeds.length];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = Integer.MAX_VALUE;
+        }
+
+        int shingles = Math.max(1, normalized.length() - shingleLength + 1);
+        for (int start = 0; start < shingles; start++) {
+            int end = Math.min(normalized.length(), start + shingleLength);
+            long shingle = HyperLogLog.hash(normalized.subSequence(start, end));
+            for (int i = 0; i < seeds.length; i++) {
+                int h = (int) (HyperLogLog.mix64(shingle ^ seeds[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /*
+     * @return fraction of positions at which the two signatures agree
+     */
+    private static double similarity(int[] a, int[] b) {
+        int same = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) {
+                ++same;
+            }
+        }
+        return (double) same / a.length;
+    }
+
+    /*
+     * @return a hash of the rows of one band of a signature, combined with
+     *         the band number
+     */
+    private long bandKey(int[] signature, int band) {
+        long key = band;
+        for (int r = band * rows; r < (band + 1) * rows; r++) {
+            key = HyperLogLog.mix64(key * 31 + signature[r]);
+        }
+        return key;
+    }
+
+    /*
+     * @return text in lower case, without a leading retweet marker or links,
+     *         and with runs of whitespace replaced by one space
+     */
+    static String normalize(String text) {
+        String s = text.toLowerCase(Locale.ROOT).trim();
+        s = RETWEET_PREFIX.matcher(s).replaceFirst("");
+        s = LINK.matcher(s).replaceAll(" ");
+        return WHITESPACE.matcher(s).replaceAll(" ").trim();
+    }
+
+    /*
+     * Union-find with path halving; the smaller index becomes the root, so
+     * each cluster's root is its first tweet.
+     */
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra < rb) {
+            parent[rb] = ra;
+        } else if (rb < ra) {
+            parent[ra] = rb;
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -0,0 +1,435 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * ShardedTweetStore is a mutable, threadsafe collection of tweets split
+ * across a fixed number of in-process shards, either by a hash of the tweet
+ * id or by time range, which answers the Filter, Extract.getMentionedUsers
+ * and SocialNetwork.influencers queries by scatter-gather.
+ *
+ * <p>Every query runs on all shards in parallel, each shard doing as much of
+ * the work as it can on its own tweets, and the partial results are then
+ * merged:
+ * <ul>
+ * <li>the Filter queries return exactly the tweets Filter would return on
+ *     the list of every tweet added, in the order they were added;
+ * <li>getMentionedUsers() unions the users mentioned on each shard;
+ * <li>followerCounts() and influencers() count followers exactly, as
+ *     SocialNetwork.influencers(SocialNetwork.guessFollowsGraph(tweets))
+ *     does: each shard groups its (author, mentioned user) evidence by
+ *     mentioned user, and the groups for each user are unioned across
+ *     shards before counting, so an author seen on two shards is counted
+ *     once.
+ * </ul>
+ * With time-range sharding, inTimespan() skips the shards whose tweets all
+ * lie outside the timespan.
+ */
+public class ShardedTweetStore {
+
+    private final TweetShard[] shards;
+    private final ToIntFunction<Tweet> partitioner;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long nextSequence = 0;
+
+    // Abstraction function:
+    //   AF(shards, partitioner, nextSequence) = the sequence of tweets added
+    //     so far, in which the tweet with sequence number s is the one stored
+    //     at some shards[i].tweets[j] with shards[i].sequences[j] == s;
+    //     new tweets go to shards[partitioner(tweet)]
+    // Representation invariant:
+    //   shards.length > 0
+    //   every sequence number in [0, nextSequence) appears in exactly one
+    //     shard, and each shard's sequence numbers are strictly increasing
+    // Safety from rep exposure:
+    //   shards are never returned; queries return new lists, sets and maps
+    //   that hold only immutable Tweets and Strings.
+    // Thread safety argument:
+    //   add() holds the write lock; every query holds the read lock while its
+    //   parallel tasks read the shards, and those tasks only read.
+
+    /**
+     * Make a store that puts each tweet in a shard chosen by a hash of its id,
+     * which spreads tweets evenly whatever their timestamps.
+     *
+     * @param shardCount number of shards, requires > 0
+     * @return a new empty store
+     */
+    public static ShardedTweetStore byIdHash(int shardCount) {
+        return new ShardedTweetStore(shardCount,
+                tweet -> Math.floorMod(Long.hashCode(HyperLogLog.mix64(tweet.getId())), shardCount));
+    }
+
+    /**
+     * Make a store in which shard i holds the tweets sent during
+     * [start + i*width, start + (i+1)*width), except that the first shard
+     * also holds every earlier tweet and the last every later one.
+     *
+     * @param start start of the first shard's time range
+     * @param width length of each shard's time range, requires > 0
+     * @param shardCount number of shards, requires > 0
+     * @return a new empty store
+     */
+    public static ShardedTweetStore byTimeRange(Instant start, Duration width, int shardCount) {
+        if (width.isNegative() || width.isZero()) {
+            throw new IllegalArgumentException("width must be positive: " + width);
+        }
+        final long widthMillis = Math.max(1, width.toMillis());
+        return new ShardedTweetStore(shardCount, tweet -> {
+            long offset = Math.floorDiv(Duration.between(start, tweet.getTimestamp()).toMillis(), widthMillis);
+            return (int) Math.max(0, Math.min(shardCount - 1, offset));
+        });
+    }
+
+    private ShardedTweetStore(int shardCount, ToIntFunction<Tweet> partitioner) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive: " + shardCount);
+        }
+        this.shards = new TweetShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new TweetShard();
+        }
+        this.partitioner = partitioner;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert shards.length > 0;
+    }
+
+    /**
+     * Add a tweet after every tweet added so far.
+     *
+     * @param tweet tweet to add, with an id distinct from every tweet
+     *        already in the store
+     */
+    public void add(Tweet tweet) {
+        lock.writeLock().lock();
+        try {
+            shards[partitioner.applyAsInt(tweet)].add(nextSequence++, tweet);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add tweets in order, after every tweet added so far.
+     *
+     * @param tweets tweets to add, with distinct ids not already in the store
+     */
+    public void addAll(List<Tweet> tweets) {
+        lock.writeLock().lock();
+        try {
+            for (Tweet tweet: tweets) {
+                shards[partitioner.applyAsInt(tweet)].add(nextSequence++, tweet);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of shards
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * @return number of tweets in each shard, indexed by shard
+     */
+    public int[] shardSizes() {
+        lock.readLock().lock();
+        try {
+            int[] sizes = new int[shards.length];
+            for (int i = 0; i < shards.length; i++) {
+                sizes[i] = shards[i].size();
+            }
+            return sizes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return number of tweets in the store
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return (int) nextSequence;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param username Twitter username as defined by Tweet.getAuthor()'s spec
+     * @return Filter.writtenBy(all tweets, username)
+     */
+    public List<Tweet> writtenBy(String username) {
+        return filter(shard -> true, tweets -> Filter.writtenBy(tweets, username));
+    }
+
+    /**
+     * @param timespan timespan
+     * @return Filter.inTimespan(all tweets, timespan)
+     */
+    public List<Tweet> inTimespan(Timespan timespan) {
+        return filter(shard -> shard.overlaps(timespan), tweets -> Filter.inTimespan(tweets, timespan));
+    }
+
+    /**
+     * @param words words as defined by Filter.containing()'s spec
+     * @return Filter.containing(all tweets, words)
+     */
+    public List<Tweet> containing(List<String> words) {
+        return filter(shard -> true, tweets -> Filter.containing(tweets, words));
+    }
+
+    /**
+     * @return Extract.getMentionedUsers(all tweets)
+     */
+    public Set<String> getMentionedUsers() {
+        lock.readLock().lock();
+        try {
+            List<Set<String>> partials = scatter(shard -> Extract.getMentionedUsers(shard.tweets));
+            Set<String> mentioned = new HashSet<>();
+            for (Set<String> partial: partials) {
+                mentioned.addAll(partial);
+            }
+            return mentioned;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return map from each user with at least one follower in
+     *         SocialNetwork.guessFollowsGraph(all tweets) to the exact number
+     *         of their followers
+     */
+    public Map<String, Integer> followerCounts() {
+        lock.readLock().lock();
+        try {
+            final int partitions = shards.length;
+            // scatter: each shard groups its evidence by mentioned user,
+            // split into one partition per reducer
+            final List<List<Map<String, Set<String>>>> partials =
+                    scatter(shard -> shard.followersByMention(partitions));
+            // shuffle and reduce: reducer p unions partition p of every shard
+            final List<Map<String, Integer>> reduced = new ArrayList<>(
+                    Collections.nCopies(partitions, Collections.<String, Integer>emptyMap()));
+            IntStream.range(0, partitions).parallel().forEach(p -> {
+                Map<String, Set<String>> followers = new HashMap<>();
+                for (List<Map<String, Set<String>>> partial: partials) {
+                    for (Map.Entry<String, Set<String>> e: partial.get(p).entrySet()) {
+                        followers.computeIfAbsent(e.getKey(), k -> new HashSet<>()).addAll(e.getValue());
+                    }
+                }
+                Map<String, Integer> counts = new HashMap<>();
+                for (Map.Entry<String, Set<String>> e: followers.entrySet()) {
+                    counts.put(e.getKey(), e.getValue().size());
+                }
+                reduced.set(p, counts);
+            });
+            // the partitions hold disjoint users, so the merge cannot collide
+            Map<String, Integer> counts = new HashMap<>();
+            for (Map<String, Integer> partition: reduced) {
+                counts.putAll(partition);
+            }
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the users of followerCounts(), in descending order of follower
+     *         count, and in alphabetical order among users with the same
+     *         count
+     */
+    public List<String> influencers() {
+        final Map<String, Integer> counts = followerCounts();
+        List<String> influencers = new ArrayList<>(counts.keySet());
+        Collections.sort(influencers, (s, t) -> {
+            int byCount = Integer.compare(counts.get(t), counts.get(s));
+            return byCount != 0 ? byCount : s.compareTo(t);
+        });
+        return influencers;
+    }
+
+    /*
+     * Run a Filter method on the shards that pass a test, and merge the
+     * matching tweets back into the order they were added.
+     */
+    private List<Tweet> filter(Predicate<TweetShard> shardMayMatch,
+                               Function<List<Tweet>, List<Tweet>> filter) {
+        lock.readLock().lock();
+        try {
+            final List<int[]> matches = scatter(shard -> shardMayMatch.test(shard)
+                    ? shard.matching(filter) : new int[0]);
+            return merge(matches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+     * Run a task on every shard in parallel; requires the read lock.
+     * @return the task's result for each shard, indexed by shard
+     */
+    private <R> List<R> scatter(Function<TweetShard, R> task) {
+        final List<R> results = new ArrayList<>(Collections.<R>nCopies(shards.length, null));
+        IntStream.range(0, shards.length).parallel().forEach(i -> results.set(i, task.apply(shards[i])));
+        return results;
+    }
+
+    /*
+     * K-way merge of per-shard matches by sequence number; requires the read
+     * lock. The number of shards is small, so the next match is found by
+     * scanning the head of every shard.
+     * @param matches indices of matching tweets in each shard, ascending
+     * @return the matching tweets in the order they were added
+     */
+    private List<Tweet> merge(List<int[]> matches) {
+        int total = 0;
+        for (int[] m: matches) {
+            total += m.length;
+        }
+        final List<Tweet> merged = new ArrayList<>(total);
+        final int[] heads = new int[shards.length];
+        while (merged.size() < total) {
+            int best = -1;
+            long bestSequence = Long.MAX_VALUE;
+            for (int i = 0; i < shards.length; i++) {
+                if (heads[i] < matches.get(i).length) {
+                    long sequence = shards[i].sequenceAt(matches.get(i)[heads[i]]);
+                    if (sequence < bestSequence) {
+                        best = i;
+                        bestSequence = sequence;
+                    }
+                }
+            }
+            merged.add(shards[best].tweets.get(matches.get(best)[heads[best]++]));
+        }
+        return merged;
+    }
+}
+
+/**
+ * A shard of a ShardedTweetStore: a list of tweets, each with the sequence
+ * number of its position in the whole store, and the range of timestamps
+ * the tweets span. Not threadsafe; guarded by its store's lock.
+ */
+class TweetShard {
+
+    final List<Tweet> tweets = new ArrayList<>();
+    private long[] sequences = new long[16];
+    private Instant earliest = Instant.MAX;
+    private Instant latest = Instant.MIN;
+
+    // Abstraction function:
+    //   AF(tweets, sequences, earliest, latest) = the tweets of one shard,
+    //     tweets[i] having store sequence number sequences[i]; earliest and
+    //     latest bound their timestamps
+    // Representation invariant:
+    //   sequences.length >= tweets.size()
+    //   sequences[0..tweets.size()) strictly increasing
+    //   earliest <= every timestamp <= latest
+    // Safety from rep exposure:
+    //   tweets is exposed to the enclosing store only, which never modifies
+    //   it or lets it escape.
+
+    void add(long sequence, Tweet tweet) {
+        int n = tweets.size();
+        assert n == 0 || sequences[n - 1] < sequence;
+        if (n == sequences.length) {
+            sequences = Arrays.copyOf(sequences, n * 2);
+        }
+        sequences[n] = sequence;
+        tweets.add(tweet);
+        if (tweet.getTimestamp().isBefore(earliest)) {
+            earliest = tweet.getTimestamp();
+        }
+        if (tweet.getTimestamp().isAfter(latest)) {
+            latest = tweet.getTimestamp();
+        }
+    }
+
+    int size() {
+        return tweets.size();
+    }
+
+    long sequenceAt(int index) {
+        return sequences[index];
+    }
+
+    /*
+     * @return true iff some tweet of this shard might be in timespan
+     */
+    boolean overlaps(Timespan timespan) {
+        return !tweets.isEmpty()
+                && !latest.isBefore(timespan.getStart())
+                && !earliest.isAfter(timespan.getEnd());
+    }
+
+    /*
+     * @param filter a Filter method, which returns a subsequence of its input
+     * @return indices in tweets of the tweets filter returns, ascending
+     */
+    int[] matching(Function<List<Tweet>, List<Tweet>> filter) {
+        List<Tweet> matches = filter.apply(tweets);
+        int[] indices = new int[matches.size()];
+        int j = 0;
+        for (int i = 0; i < tweets.size() && j < indices.length; i++) {
+            if (tweets.get(i) == matches.get(j)) {
+                indices[j++] = i;
+            }
+        }
+        assert j == indices.length : "filter result is not a subsequence";
+        return indices;
+    }
+
+    /*
+     * Partial aggregation for follower counts: the authors of this shard who
+     * mention each user, as SocialNetwork.guessFollowsGraph sees them.
+     * @param partitions number of partitions, requires > 0
+     * @return list of partitions maps, where partition p maps each mentioned
+     *         user u with floorMod(u.hashCode(), partitions) == p to the
+     *         authors in this shard who mention u
+     */
+    List<Map<String, Set<String>>> followersByMention(int partitions) {
+        List<Map<String, Set<String>>> byPartition = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            byPartition.add(new HashMap<>());
+        }
+        for (Tweet tweet: tweets) {
+            for (String mentioned: Extract.getMentionedUsersInText(tweet.getText())) {
+                byPartition.get(Math.floorMod(mentioned.hashCode(), partitions))
+                        .computeIfAbsent(mentioned, k -> new HashSet<>())
+                        .add(tweet.getAuthor());
+            }
+        }
+        return byPartition;
+    }
+}
@@ -46,6 +46,7 @@ public class SocialNetwork {
      *         either authors or @-mentions in the list of tweets.
      */
     public static Map<String, Set<String>> guessFollowsGraph(List<Tweet> tweets) {
+        final long startNanos = TwitterMetrics.start();
         Map<String, Set<String>> followersGraph = new HashMap<>();
         
         for (Tweet t: tweets) {
@@ -62,6 +63,7 @@ public class SocialNetwork {
             allUsersMentioned.addAll(Extract.getMentionedUsersInText(text));
         }
         
+        TwitterMetrics.stop(TwitterMetrics.GUESS_FOLLOWS_GRAPH, startNanos, tweets.size());
         return followersGraph;
     }
 
@@ -75,6 +77,7 @@ public class SocialNetwork {
      *         descending order of follower count.
      */
     public static List<String> influencers(Map<String, Set<String>> followsGraph) {
+        final long startNanos = TwitterMetrics.start();
         /* map[a] = number of people following A */
         Map<String, Integer> followerCountMap = new HashMap<>();
         Set<String> usersFollowed = new HashSet<>();
@@ -98,6 +101,7 @@ public class SocialNetwork {
             }
         });
         
+        TwitterMetrics.stop(TwitterMetrics.INFLUENCERS, startNanos, 0);
         return influencers;
     }
 
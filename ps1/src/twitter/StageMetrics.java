@@ -0,0 +1,127 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+/**
+ * Immutable snapshot of the work done by one stage of a TweetPipeline.
+ */
+public class StageMetrics {
+
+    private final String name;
+    private final int parallelism;
+    private final long itemsProcessed;
+    private final long busyNanos;
+    private final long elapsedNanos;
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final int queueCapacity;
+
+    // Abstraction function:
+    //   AF(...) = the stage called name, run by parallelism threads, which
+    //   processed itemsProcessed items in elapsedNanos of wall-clock time,
+    //   spending busyNanos (summed over its threads) inside its work
+    //   function; its input queue held queueDepth items when the snapshot was
+    //   taken and at most maxQueueDepth items at any time.
+    // Representation invariant:
+    //   parallelism > 0, all counts >= 0, maxQueueDepth <= queueCapacity
+    // Safety from rep exposure:
+    //   all fields are private, final and immutable.
+
+    /**
+     * Make a StageMetrics snapshot.
+     *
+     * @param name name of the stage
+     * @param parallelism number of threads running the stage
+     * @param itemsProcessed number of items the stage has finished
+     * @param busyNanos nanoseconds spent doing work, summed over threads
+     * @param elapsedNanos wall-clock nanoseconds since the stage started
+     * @param queueDepth current number of items waiting in the input queue
+     * @param maxQueueDepth largest number of items seen in the input queue
+     * @param queueCapacity capacity of the input queue
+     */
+    public StageMetrics(String name, int parallelism, long itemsProcessed, long busyNanos,
+                        long elapsedNanos, int queueDepth, int maxQueueDepth, int queueCapacity) {
+        this.name = name;
+        this.parallelism = parallelism;
+        this.itemsProcessed = itemsProcessed;
+        this.busyNanos = busyNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.queueCapacity = queueCapacity;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert parallelism > 0;
+        assert itemsProcessed >= 0 && busyNanos >= 0 && elapsedNanos >= 0;
+        assert queueDepth >= 0 && maxQueueDepth <= queueCapacity;
+    }
+
+    /**
+     * @return name of the stage
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return number of threads running the stage
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return number of items the stage has finished
+     */
+    public long getItemsProcessed() {
+        return itemsProcessed;
+    }
+
+    /**
+     * @return items finished per second of wall-clock time, or 0 if no time
+     *         has elapsed
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : itemsProcessed * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return fraction of the stage's thread time spent doing work rather than
+     *         waiting on its queues, between 0 and 1
+     */
+    public double getUtilization() {
+        return elapsedNanos == 0 ? 0
+                : Math.min(1.0, (double) busyNanos / elapsedNanos / parallelism);
+    }
+
+    /**
+     * @return number of items waiting in the stage's input queue
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * @return largest number of items seen waiting in the stage's input queue
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * @return capacity of the stage's input queue
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override public String toString() {
+        return String.format("%-10s x%d %10d items %12.0f/s util=%3.0f%% queue=%d/%d (max %d)",
+                name, parallelism, itemsProcessed, getThroughput(), getUtilization() * 100,
+                queueDepth, queueCapacity, maxQueueDepth);
+    }
+}
@@ -0,0 +1,227 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.Writer;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import javax.json.Json;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * SyntheticTweets is a mutable, seeded generator of realistic-looking tweets
+ * for load tests and benchmarks.
+ *
+ * Authors are drawn from a fixed population of usernames with a Zipf
+ * distribution, so a few authors write most tweets when the skew is high.
+ * Each tweet mentions a random number of users (drawn from the same skewed
+ * population) with the configured mean, and the rest of its text is made of
+ * common words. Two generators with the same parameters and seed produce
+ * the same tweets.
+ */
+public class SyntheticTweets {
+
+    /** timestamp of the first generated tweet */
+    public static final Instant START = Instant.parse("2016-02-17T10:00:00Z");
+
+    /** format of "created_at" values read by TweetReader */
+    private static final DateTimeFormatter CREATED_AT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US).withZone(ZoneOffset.UTC);
+
+    private static final int MAX_TEXT_LENGTH = 140;
+
+    private static final String[] WORDS = {
+        "the", "rivest", "talk", "is", "today", "at", "mit", "in", "32-123", "#hype",
+        "can't", "wait", "for", "lunch", "who", "else", "going", "to", "6.005", "pset",
+        "due", "tonight", "help", "obama", "new", "music", "video", "out", "now", "lol",
+        "great", "game", "last", "night", "cavaliers", "win", "snow", "again", "boston", "coffee",
+    };
+
+    private final Random random;
+    private final String[] authors;
+    private final double[] cumulativeWeights;
+    private final double mentionsPerTweet;
+    private final int meanWords;
+    private long nextId = 1;
+    private Instant nextTimestamp = START;
+
+    // Abstraction function:
+    //   AF(random, authors, cumulativeWeights, ...) = an infinite stream of
+    //   tweets, of which nextId-1 have been generated so far; author i is
+    //   picked with probability proportional to 1/(i+1)^skew, stored as a
+    //   running sum in cumulativeWeights.
+    // Representation invariant:
+    //   authors.length == cumulativeWeights.length > 0
+    //   cumulativeWeights is strictly increasing
+    //   mentionsPerTweet >= 0, 0 < meanWords <= MAX_TEXT_LENGTH / 2
+    // Safety from rep exposure:
+    //   arrays are never returned; generated tweets are immutable.
+
+    /**
+     * Make a generator with 10,000 authors, moderate skew, about one mention
+     * per tweet and about twelve words per tweet.
+     *
+     * @param seed random seed
+     * @return a new generator
+     */
+    public static SyntheticTweets withDefaults(long seed) {
+        return new SyntheticTweets(seed, 10_000, 1.0, 1.0, 12);
+    }
+
+    /**
+     * Make a generator.
+     *
+     * @param seed random seed
+     * @param authorCount number of distinct usernames in the population, requires > 0
+     * @param authorSkew Zipf exponent of the author distribution; 0 picks every
+     *        author equally often, larger values favor the first few authors.
+     *        Requires >= 0.
+     * @param mentionsPerTweet mean number of @-mentions per tweet, requires >= 0
+     * @param meanWords mean number of words per tweet (including mentions),
+     *        requires 0 < meanWords <= 70; text is cut to 140 characters
+     */
+    public SyntheticTweets(long seed, int authorCount, double authorSkew,
+                           double mentionsPerTweet, int meanWords) {
+        if (authorCount <= 0 || authorSkew < 0 || mentionsPerTweet < 0
+                || meanWords <= 0 || meanWords > MAX_TEXT_LENGTH / 2) {
+            throw new IllegalArgumentException("invalid synthetic tweet parameters");
+        }
+        this.random = new Random(seed);
+        this.authors = new String[authorCount];
+        this.cumulativeWeights = new double[authorCount];
+        double sum = 0;
+        for (int i = 0; i < authorCount; i++) {
+            authors[i] = "user" + i;
+            sum += 1.0 / Math.pow(i + 1, authorSkew);
+            cumulativeWeights[i] = sum;
+        }
+        this.mentionsPerTweet = mentionsPerTweet;
+        this.meanWords = meanWords;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert authors.length == cumulativeWeights.length && authors.length > 0;
+        assert mentionsPerTweet >= 0 && meanWords > 0 && meanWords <= MAX_TEXT_LENGTH / 2;
+    }
+
+    /**
+     * @return the next tweet; ids start at 1 and increase by one, and
+     *         timestamps never decrease
+     */
+    public Tweet next() {
+        String author = pickUser();
+
+        int mentions = poisson(mentionsPerTweet);
+        int words = Math.max(1, mentions + poisson(Math.max(0, meanWords - mentionsPerTweet)));
+        List<String> parts = new ArrayList<>(words);
+        for (int i = 0; i < mentions; i++) {
+            parts.add("@" + pickUser());
+        }
+        while (parts.size() < words) {
+            parts.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        // mentions can appear anywhere in the text
+        for (int i = parts.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            String tmp = parts.get(i);
+            parts.set(i, parts.get(j));
+            parts.set(j, tmp);
+        }
+
+        StringBuilder text = new StringBuilder();
+        for (String part: parts) {
+            if (text.length() + part.length() + 1 > MAX_TEXT_LENGTH) {
+                break;
+            }
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(part);
+        }
+
+        Tweet tweet = new Tweet(nextId++, author, text.toString(), nextTimestamp);
+        nextTimestamp = nextTimestamp.plusSeconds(random.nextInt(3));
+        return tweet;
+    }
+
+    /**
+     * @param count number of tweets to generate, requires >= 0
+     * @return the next count tweets, in generation order
+     */
+    public List<Tweet> next(int count) {
+        List<Tweet> tweets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tweets.add(next());
+        }
+        return tweets;
+    }
+
+    /**
+     * Write tweets as a JSON array in the format read by TweetReader.
+     *
+     * @param tweets tweets to write
+     * @param out destination of the JSON text; flushed but not closed
+     */
+    public static void writeJson(List<Tweet> tweets, Writer out) {
+        JsonGenerator json = Json.createGenerator(out);
+        json.writeStartArray();
+        for (Tweet t: tweets) {
+            writeJson(t, json);
+        }
+        json.writeEnd();
+        json.flush();
+    }
+
+    /**
+     * Write one tweet as a JSON object in the format read by TweetReader.
+     *
+     * @param tweet tweet to write
+     * @param json generator positioned inside an array
+     */
+    static void writeJson(Tweet tweet, JsonGenerator json) {
+        // TweetReader looks up the author under the literal key "user.screen_name"
+        json.writeStartObject()
+                .write("id", tweet.getId())
+                .write("user.screen_name", tweet.getAuthor())
+                .write("text", tweet.getText())
+                .write("created_at", CREATED_AT.format(tweet.getTimestamp()))
+            .writeEnd();
+    }
+
+    /*
+     * Pick a username from the skewed population.
+     */
+    private String pickUser() {
+        double r = random.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        int i = Arrays.binarySearch(cumulativeWeights, r);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return authors[Math.min(i, authors.length - 1)];
+    }
+
+    /*
+     * Draw from a Poisson distribution with the given mean (Knuth's method,
+     * fine for the small means used here).
+     */
+    private int poisson(double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int k = 0;
+        while (product > limit) {
+            ++k;
+            product *= random.nextDouble();
+        }
+        return k;
+    }
+}
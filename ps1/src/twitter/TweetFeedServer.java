@@ -0,0 +1,377 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * TweetFeedServer is a local stand-in for Main.SAMPLE_SERVER. It serves
+ * synthetic tweets, in the JSON format read by TweetReader.readTweetsFromWeb,
+ * from an embedded HTTP server on the loopback interface.
+ *
+ * Every GET of {@link #PATH} returns a fresh batch of tweets from a
+ * SyntheticTweets generator. The batch size is set when the server is made
+ * and can be overridden per request with a "count" query parameter, for
+ * example {@code /tweets?count=50}.
+ *
+ * <p>Like the real sample server, {@link #SAMPLE_PATH} serves one cached
+ * sample that only changes when refreshSample() is called. Its responses
+ * carry ETag and Last-Modified headers, and conditional requests for an
+ * unchanged sample get 304 Not Modified.
+ *
+ * <p>Responses are gzipped when the client sends Accept-Encoding: gzip.
+ */
+public class TweetFeedServer {
+
+    /** path at which fresh tweets are served */
+    public static final String PATH = "/tweets";
+
+    /** path at which the cached sample is served */
+    public static final String SAMPLE_PATH = "/sample";
+
+    /** largest batch a single request may ask for */
+    public static final int MAX_COUNT = 1_000_000;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final SyntheticTweets generator;
+    private final int tweetsPerResponse;
+    private volatile FeedSample sample = null;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger gzipped = new AtomicInteger();
+
+    // Abstraction function:
+    //   AF(server, generator, tweetsPerResponse, sample) = an HTTP feed at
+    //   http://localhost:port/tweets that returns the next tweetsPerResponse
+    //   tweets of generator on each request, and at
+    //   http://localhost:port/sample that returns sample.tweets, or a new
+    //   sample of the next tweetsPerResponse tweets if sample is null; the
+    //   counters record how requests were answered.
+    // Representation invariant:
+    //   0 < tweetsPerResponse <= MAX_COUNT
+    //   sample == null or sample.tweets.size() == tweetsPerResponse
+    // Safety from rep exposure:
+    //   no field is returned; the generator is only used while holding its lock.
+    // Thread safety argument:
+    //   requests are handled on executor's threads; generator is not
+    //   threadsafe, so every use of it is synchronized on it. sample is an
+    //   immutable value in a volatile field, only replaced while holding the
+    //   generator's lock, and the counters are atomic.
+
+    /**
+     * Make a server and start listening. The server runs until stop() is called.
+     *
+     * @param port TCP port to listen on, or 0 to pick any free port
+     * @param tweetsPerResponse number of tweets returned by a request without
+     *        a count parameter, requires 0 < tweetsPerResponse <= MAX_COUNT
+     * @param generator source of the served tweets; must not be used by the
+     *        caller after this call
+     * @param threads number of threads handling requests, requires > 0
+     * @throws IOException if the server cannot bind to the port
+     */
+    public TweetFeedServer(int port, int tweetsPerResponse, SyntheticTweets generator, int threads)
+            throws IOException {
+        if (tweetsPerResponse <= 0 || tweetsPerResponse > MAX_COUNT || threads <= 0) {
+            throw new IllegalArgumentException("invalid tweet count or thread count");
+        }
+        this.generator = generator;
+        this.tweetsPerResponse = tweetsPerResponse;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newFixedThreadPool(threads);
+        server.setExecutor(executor);
+        server.createContext(PATH, this::handle);
+        server.createContext(SAMPLE_PATH, this::handleSample);
+        server.start();
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert tweetsPerResponse > 0 && tweetsPerResponse <= MAX_COUNT;
+        final FeedSample current = sample;
+        assert current == null || current.tweets.size() == tweetsPerResponse;
+    }
+
+    /**
+     * @return the URL that serves tweets, suitable for TweetReader.readTweetsFromWeb
+     */
+    public URL getUrl() {
+        try {
+            return new URL("http", "localhost", server.getAddress().getPort(), PATH);
+        } catch (MalformedURLException murle) {
+            throw new AssertionError(murle);
+        }
+    }
+
+    /**
+     * @param count number of tweets the request should return, requires
+     *        0 < count <= MAX_COUNT
+     * @return the URL that serves count tweets per request
+     */
+    public URL getUrl(int count) {
+        try {
+            return new URL(getUrl(), PATH + "?count=" + count);
+        } catch (MalformedURLException murle) {
+            throw new AssertionError(murle);
+        }
+    }
+
+    /**
+     * @return the URL that serves the cached sample
+     */
+    public URL getSampleUrl() {
+        try {
+            return new URL(getUrl(), SAMPLE_PATH);
+        } catch (MalformedURLException murle) {
+            throw new AssertionError(murle);
+        }
+    }
+
+    /**
+     * Replace the cached sample with the next tweetsPerResponse tweets from
+     * the generator, giving it a new ETag.
+     */
+    public void refreshSample() {
+        synchronized (generator) {
+            final FeedSample current = sample;
+            sample = newSample(current == null ? 0 : current.version + 1);
+        }
+        checkRep();
+    }
+
+    /**
+     * @return number of requests received so far, on either path
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return number of requests answered with 304 Not Modified so far
+     */
+    public int getNotModifiedCount() {
+        return notModified.get();
+    }
+
+    /**
+     * @return number of responses sent gzipped so far
+     */
+    public int getGzippedCount() {
+        return gzipped.get();
+    }
+
+    /**
+     * Stop serving requests and release the port. Requests in progress are
+     * given up to a second to finish.
+     */
+    public void stop() {
+        server.stop(1);
+        executor.shutdownNow();
+    }
+
+    /*
+     * Serve one request for fresh tweets.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            final int count;
+            try {
+                count = requestedCount(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException iae) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+
+            final List<Tweet> tweets;
+            synchronized (generator) {
+                tweets = generator.next(count);
+            }
+            sendTweets(exchange, tweets);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /*
+     * Serve one request for the cached sample.
+     */
+    private void handleSample(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            final FeedSample current = currentSample();
+            exchange.getResponseHeaders().set("ETag", current.etag());
+            exchange.getResponseHeaders().set("Last-Modified", current.lastModified());
+
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            String ifModifiedSince = exchange.getRequestHeaders().getFirst("If-Modified-Since");
+            boolean unchanged = ifNoneMatch != null
+                    ? ifNoneMatch.equals(current.etag())
+                    : current.lastModified().equals(ifModifiedSince);
+            if (unchanged) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            sendTweets(exchange, current.tweets);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /*
+     * Send tweets as a 200 response, gzipped if the client accepts it.
+     */
+    private void sendTweets(HttpExchange exchange, List<Tweet> tweets) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        if (gzip) {
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            gzipped.incrementAndGet();
+        }
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream body = exchange.getResponseBody();
+        if (gzip) {
+            body = new GZIPOutputStream(body, 8192);
+        }
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8))) {
+            SyntheticTweets.writeJson(tweets, out);
+        }
+    }
+
+    /*
+     * @return the cached sample, made from the next tweetsPerResponse
+     *         generated tweets if this is the first time it is needed
+     */
+    private FeedSample currentSample() {
+        final FeedSample current = sample;
+        if (current != null) {
+            return current;
+        }
+        synchronized (generator) {
+            if (sample == null) {
+                sample = newSample(0);
+            }
+            return sample;
+        }
+    }
+
+    /*
+     * @return a new sample of the next tweetsPerResponse generated tweets
+     */
+    private FeedSample newSample(int version) {
+        synchronized (generator) {
+            return new FeedSample(version, Instant.now(), generator.next(tweetsPerResponse));
+        }
+    }
+
+    /*
+     * @return the count parameter of query, or tweetsPerResponse if absent
+     * @throws IllegalArgumentException if count is present but not valid
+     */
+    private int requestedCount(String query) {
+        if (query == null) {
+            return tweetsPerResponse;
+        }
+        for (String param: query.split("&")) {
+            if (param.startsWith("count=")) {
+                int count = Integer.parseInt(param.substring("count=".length()));
+                if (count <= 0 || count > MAX_COUNT) {
+                    throw new IllegalArgumentException("count out of range: " + count);
+                }
+                return count;
+            }
+        }
+        return tweetsPerResponse;
+    }
+
+    /**
+     * Run a feed server until the process is killed.
+     *
+     * @param args optional port (default 8005) and tweets per response (default 1000)
+     * @throws IOException if the server cannot start
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8005;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        TweetFeedServer server = new TweetFeedServer(port, count, SyntheticTweets.withDefaults(6005),
+                                                     Runtime.getRuntime().availableProcessors());
+        System.err.println("serving tweets at " + server.getUrl());
+    }
+}
+
+/**
+ * Immutable cached sample served by a TweetFeedServer.
+ * This class is internal to the rep of TweetFeedServer.
+ */
+class FeedSample {
+
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    final int version;
+    final Instant created;
+    final List<Tweet> tweets;
+
+    /**
+     * @param version number distinguishing this sample from earlier ones
+     * @param created time the sample was made
+     * @param tweets tweets in the sample; copied
+     */
+    FeedSample(int version, Instant created, List<Tweet> tweets) {
+        this.version = version;
+        this.created = created;
+        this.tweets = Collections.unmodifiableList(new ArrayList<>(tweets));
+    }
+
+    /**
+     * @return the quoted entity tag of this sample
+     */
+    String etag() {
+        return "\"sample-" + version + "\"";
+    }
+
+    /**
+     * @return the creation time of this sample as an HTTP date
+     */
+    String lastModified() {
+        return HTTP_DATE.format(created);
+    }
+}
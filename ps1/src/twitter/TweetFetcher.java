@@ -0,0 +1,397 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * TweetFetcher reads tweets from a web server, like
+ * TweetReader.readTweetsFromWeb, but is meant for servers that are slow or
+ * that return the same sample many times:
+ *
+ * <ul><li> connections are kept alive and reused between requests
+ *     <li> gzip responses are requested and decoded
+ *     <li> the response is parsed as it arrives, through a buffered reader
+ *          using the charset the server declares (UTF-8 if none)
+ *     <li> connect and read timeouts are always set
+ *     <li> failed requests (network errors, 429 and 5xx responses) are
+ *          retried with exponential backoff, honoring Retry-After
+ *     <li> responses with an ETag or Last-Modified header are cached, and
+ *          later requests for the same URL are made conditional, so an
+ *          unchanged sample is not downloaded or parsed again
+ * </ul>
+ */
+public class TweetFetcher {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final DateTimeFormatter CREATED_AT =
+            DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss Z yyyy", Locale.US);
+
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final Map<String, CachedSample> cache = new ConcurrentHashMap<>();
+
+    // Abstraction function:
+    //   AF(timeouts, maxAttempts, initialBackoffMillis, cache) = a tweet
+    //   client with the given limits that remembers, for each URL in cache,
+    //   the validators and tweets of the last full response from that URL.
+    // Representation invariant:
+    //   connectTimeoutMillis > 0, readTimeoutMillis > 0, maxAttempts > 0,
+    //   initialBackoffMillis >= 0
+    // Safety from rep exposure:
+    //   cached tweet lists are unmodifiable, and callers get fresh copies.
+    // Thread safety argument:
+    //   configuration is final; cache is a ConcurrentHashMap of immutable
+    //   CachedSample values, so concurrent fetches at worst both download.
+
+    /**
+     * Make a fetcher with a 10 second connect timeout, a 90 second read
+     * timeout (the sample server may take up to a minute to respond), and up
+     * to 3 attempts per fetch starting with a half-second backoff.
+     *
+     * @return a new fetcher
+     */
+    public static TweetFetcher withDefaults() {
+        return new TweetFetcher(Duration.ofSeconds(10), Duration.ofSeconds(90), 3, Duration.ofMillis(500));
+    }
+
+    /**
+     * Make a fetcher.
+     *
+     * @param connectTimeout how long to wait for a connection, requires positive
+     * @param readTimeout how long to wait for each read from the server, requires positive
+     * @param maxAttempts number of times to try each fetch, requires > 0
+     * @param initialBackoff delay before the first retry, doubled for each
+     *        later retry; requires non-negative
+     */
+    public TweetFetcher(Duration connectTimeout, Duration readTimeout, int maxAttempts, Duration initialBackoff) {
+        if (connectTimeout.toMillis() <= 0 || readTimeout.toMillis() <= 0
+                || maxAttempts <= 0 || initialBackoff.isNegative()) {
+            throw new IllegalArgumentException("invalid timeouts or retry settings");
+        }
+        this.connectTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, connectTimeout.toMillis());
+        this.readTimeoutMillis = (int) Math.min(Integer.MAX_VALUE, readTimeout.toMillis());
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert connectTimeoutMillis > 0 && readTimeoutMillis > 0;
+        assert maxAttempts > 0 && initialBackoffMillis >= 0;
+    }
+
+    /**
+     * Get a list of tweets from a web server.
+     *
+     * @param url URL of server to retrieve tweets from
+     * @return a list of tweets retrieved from the server, or the tweets of
+     *         the previous response from url if the server says they have not
+     *         changed
+     * @throws IOException if the server is unreachable or keeps failing after
+     *         every attempt, returns an error other than 429 or 5xx, or some
+     *         other network-related error occurs
+     */
+    public List<Tweet> fetch(URL url) throws IOException {
+        final long startNanos = TwitterMetrics.start();
+        final List<Tweet> tweets = fetchWithRetries(url);
+        TwitterMetrics.stop(TwitterMetrics.FETCH, startNanos, tweets.size());
+        return tweets;
+    }
+
+    private List<Tweet> fetchWithRetries(URL url) throws IOException {
+        IOException lastFailure = null;
+        long backoffMillis = initialBackoffMillis;
+
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long retryAfterMillis;
+            try {
+                return fetchOnce(url);
+            } catch (NonRetryableException nre) {
+                throw nre;
+            } catch (RetryableException re) {
+                lastFailure = re;
+                retryAfterMillis = re.retryAfterMillis;
+            } catch (InterruptedIOException iioe) {
+                // a timeout is worth retrying; an interrupt is not
+                if (Thread.currentThread().isInterrupted()) {
+                    throw iioe;
+                }
+                lastFailure = iioe;
+                retryAfterMillis = -1;
+            } catch (IOException ioe) {
+                lastFailure = ioe;
+                retryAfterMillis = -1;
+            }
+
+            if (attempt < maxAttempts) {
+                sleep(retryAfterMillis >= 0 ? retryAfterMillis : backoffMillis);
+                backoffMillis = Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+            }
+        }
+        throw lastFailure;
+    }
+
+    /**
+     * Forget every cached response, so the next fetch of each URL downloads
+     * the full sample again.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /*
+     * Make one request.
+     */
+    private List<Tweet> fetchOnce(URL url) throws IOException {
+        final String key = url.toExternalForm();
+        final CachedSample cached = cache.get(key);
+
+        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+        conn.setConnectTimeout(connectTimeoutMillis);
+        conn.setReadTimeout(readTimeoutMillis);
+        conn.setUseCaches(false);
+        conn.setRequestProperty("Accept", "application/json");
+        conn.setRequestProperty("Accept-Encoding", "gzip");
+        if (cached != null) {
+            if (cached.etag != null) {
+                conn.setRequestProperty("If-None-Match", cached.etag);
+            }
+            if (cached.lastModified != null) {
+                conn.setRequestProperty("If-Modified-Since", cached.lastModified);
+            }
+        }
+
+        int status = conn.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            discard(conn.getInputStream());
+            return new ArrayList<>(cached.tweets);
+        }
+        if (status != HttpURLConnection.HTTP_OK) {
+            discard(conn.getErrorStream());
+            String message = "HTTP " + status + " from " + url;
+            if (status == 429 || status >= 500) {
+                throw new RetryableException(message, retryAfterMillis(conn.getHeaderField("Retry-After")));
+            }
+            throw new NonRetryableException(message);
+        }
+
+        final List<Tweet> tweets;
+        try (InputStream body = decode(conn)) {
+            tweets = readTweets(new BufferedReader(
+                    new InputStreamReader(body, charset(conn.getContentType())), BUFFER_SIZE));
+        }
+
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+        if (etag != null || lastModified != null) {
+            cache.put(key, new CachedSample(etag, lastModified, tweets));
+        } else {
+            cache.remove(key);
+        }
+        return tweets;
+    }
+
+    /*
+     * Parse a JSON array of tweets in the format TweetReader reads: objects
+     * with "id", "user.screen_name", "text" and "created_at" keys.
+     *
+     * @return the tweets, in array order
+     * @throws JsonException if the stream is not such an array
+     */
+    static List<Tweet> readTweets(Reader reader) {
+        try (JsonReader json = Json.createReader(reader)) {
+            final JsonArray array = json.readArray();
+            final List<Tweet> tweets = new ArrayList<>(array.size());
+            for (JsonValue value: array) {
+                if (value.getValueType() != JsonValue.ValueType.OBJECT) {
+                    throw new JsonException("expected a tweet object, found " + value.getValueType());
+                }
+                final JsonObject tweet = (JsonObject) value;
+                tweets.add(new Tweet(Long.parseLong(field(tweet, "id")),
+                                     field(tweet, "user.screen_name"),
+                                     field(tweet, "text"),
+                                     ZonedDateTime.parse(field(tweet, "created_at"), CREATED_AT).toInstant()));
+            }
+            return tweets;
+        }
+    }
+
+    /*
+     * @return the value of a tweet's field as text, the way TweetReader
+     *         reads it
+     * @throws JsonException if the tweet has no such field
+     */
+    private static String field(JsonObject tweet, String key) {
+        final JsonValue value = tweet.get(key);
+        if (value == null) {
+            throw new JsonException("tweet has no \"" + key + "\" field");
+        }
+        return value.getValueType() == JsonValue.ValueType.STRING
+                ? ((JsonString) value).getString()
+                : value.toString();
+    }
+
+    /*
+     * @return the response body, decompressed if the server gzipped it, and
+     *         counted as bytes parsed
+     */
+    private static InputStream decode(HttpURLConnection conn) throws IOException {
+        InputStream in = conn.getInputStream();
+        if ("gzip".equalsIgnoreCase(conn.getContentEncoding())) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return TwitterMetrics.countBytes(in);
+    }
+
+    /*
+     * @return the charset parameter of a Content-Type header, or UTF-8 if it
+     *         is missing or unknown
+     */
+    static Charset charset(String contentType) {
+        if (contentType != null) {
+            for (String param: contentType.split(";")) {
+                param = param.trim();
+                if (param.regionMatches(true, 0, "charset=", 0, "charset=".length())) {
+                    try {
+                        return Charset.forName(param.substring("charset=".length()).replace("\"", ""));
+                    } catch (IllegalArgumentException iae) {
+                        break;
+                    }
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /*
+     * @return the delay requested by a Retry-After header given in seconds,
+     *         or -1 if there is none
+     */
+    private static long retryAfterMillis(String retryAfter) {
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return Math.min(MAX_BACKOFF_MILLIS, Math.max(0, Long.parseLong(retryAfter.trim()) * 1000));
+        } catch (NumberFormatException nfe) {
+            return -1; // an HTTP date; fall back to our own backoff
+        }
+    }
+
+    /*
+     * Read and close a response body so that its connection can be reused.
+     */
+    private static void discard(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (in.read(buffer) >= 0) {
+                // skip
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting to retry");
+        }
+    }
+}
+
+/**
+ * Immutable validators and tweets of a cached response.
+ * This class is internal to the rep of TweetFetcher.
+ */
+class CachedSample {
+
+    final String etag;
+    final String lastModified;
+    final List<Tweet> tweets;
+
+    /**
+     * @param etag ETag header of the response, or null
+     * @param lastModified Last-Modified header of the response, or null
+     * @param tweets tweets parsed from the response; copied
+     */
+    CachedSample(String etag, String lastModified, List<Tweet> tweets) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.tweets = Collections.unmodifiableList(new ArrayList<>(tweets));
+    }
+}
+
+/**
+ * Failure of a request that may succeed if tried again later.
+ * This class is internal to the rep of TweetFetcher.
+ */
+class RetryableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    final long retryAfterMillis;
+
+    /**
+     * @param message description of the failure
+     * @param retryAfterMillis delay the server asked for, or -1 if none
+     */
+    RetryableException(String message, long retryAfterMillis) {
+        super(message);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+}
+
+/**
+ * Failure of a request that will not succeed if tried again.
+ * This class is internal to the rep of TweetFetcher.
+ */
+class NonRetryableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message description of the failure
+     */
+    NonRetryableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,411 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * TweetPipeline builds a social network (as defined by SocialNetwork) from a
+ * stream of tweets using concurrent stages connected by bounded queues:
+ *
+ * <ol><li> parse: pulls tweets from the source iterator
+ *     <li> normalize: interns the author's username in a UsernameTable kept for the run
+ *     <li> extract: finds and interns the usernames mentioned in the text
+ *     <li> graph: adds author -> mentioned-user edges to the follows graph
+ * </ol>
+ *
+ * <p>Every queue has a fixed capacity, so a stage that falls behind makes the
+ * stages in front of it block until it catches up; memory use is bounded no
+ * matter how fast the source produces tweets.
+ *
+ * <p>Stage threads are made by a caller-supplied ThreadFactory, so the stages
+ * can run on platform threads or on any other kind of thread the JVM offers.
+ */
+public class TweetPipeline {
+
+    /** default capacity of each queue between stages */
+    public static final int DEFAULT_QUEUE_CAPACITY = 1024;
+
+    private final int queueCapacity;
+    private final int normalizeThreads;
+    private final int extractThreads;
+    private final int graphThreads;
+    private final ThreadFactory threadFactory;
+    private volatile List<PipelineStage<?, ?>> lastRun = Collections.emptyList();
+
+    // Abstraction function:
+    //   AF(queueCapacity, *Threads, threadFactory) = a reusable pipeline
+    //   configuration; lastRun holds the stages of the most recent run, from
+    //   which metrics are reported.
+    // Representation invariant:
+    //   queueCapacity > 0, normalizeThreads > 0, extractThreads > 0,
+    //   graphThreads > 0
+    // Safety from rep exposure:
+    //   stages are never returned; metrics are immutable snapshots.
+    // Thread safety argument:
+    //   configuration fields are final; lastRun is volatile and replaced
+    //   whole; stages share only thread-safe queues, atomics and
+    //   concurrent maps.
+
+    /**
+     * Make a pipeline that runs its stages on ordinary threads
+     * from Executors.defaultThreadFactory().
+     *
+     * @param queueCapacity capacity of each queue between stages, requires > 0
+     * @param parallelism number of threads for each of the normalize, extract
+     *        and graph stages, requires > 0
+     */
+    public TweetPipeline(int queueCapacity, int parallelism) {
+        this(queueCapacity, parallelism, parallelism, parallelism,
+             Executors.defaultThreadFactory());
+    }
+
+    /**
+     * Make a pipeline.
+     *
+     * @param queueCapacity capacity of each queue between stages, requires > 0
+     * @param normalizeThreads number of threads in the normalize stage, requires > 0
+     * @param extractThreads number of threads in the extract stage, requires > 0
+     * @param graphThreads number of threads in the graph stage, requires > 0
+     * @param threadFactory makes the threads that run each stage
+     */
+    public TweetPipeline(int queueCapacity, int normalizeThreads, int extractThreads,
+                         int graphThreads, ThreadFactory threadFactory) {
+        if (queueCapacity <= 0 || normalizeThreads <= 0 || extractThreads <= 0 || graphThreads <= 0) {
+            throw new IllegalArgumentException("queue capacity and thread counts must be positive");
+        }
+        this.queueCapacity = queueCapacity;
+        this.normalizeThreads = normalizeThreads;
+        this.extractThreads = extractThreads;
+        this.graphThreads = graphThreads;
+        this.threadFactory = threadFactory;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert queueCapacity > 0;
+        assert normalizeThreads > 0 && extractThreads > 0 && graphThreads > 0;
+    }
+
+    /**
+     * Run the pipeline over every tweet from source and wait for it to finish.
+     *
+     * @param source tweets providing the evidence; consumed by a single thread
+     * @return a social network (as defined in SocialNetwork) in which the
+     *         author of each tweet follows every user it @-mentions. All
+     *         usernames are lower case.
+     * @throws InterruptedException if the calling thread is interrupted while
+     *         waiting; the pipeline's threads are interrupted too
+     * @throws RuntimeException if any stage fails, with the failure as its cause
+     */
+    public Map<String, Set<String>> run(Iterator<Tweet> source) throws InterruptedException {
+        final UsernameTable names = new UsernameTable();
+        final ConcurrentMap<String, Set<String>> followsGraph = new ConcurrentHashMap<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<Thread> threads = new ArrayList<>();
+
+        final PipelineStage<PipelineTweet, Void> graph = new PipelineStage<>(
+                "graph", queueCapacity, graphThreads, null, t -> {
+                    Set<String> follows = followsGraph.computeIfAbsent(
+                            t.author, a -> ConcurrentHashMap.<String>newKeySet());
+                    follows.addAll(t.mentions);
+                    return null;
+                });
+        final PipelineStage<PipelineTweet, PipelineTweet> extract = new PipelineStage<>(
+                "extract", queueCapacity, extractThreads, graph, t -> {
+                    t.mentions = Extract.getMentionedUsersInText(t.text, names);
+                    return t;
+                });
+        final PipelineStage<Tweet, PipelineTweet> normalize = new PipelineStage<>(
+                "normalize", queueCapacity, normalizeThreads, extract,
+                t -> new PipelineTweet(names.name(names.intern(t.getAuthor())), t.getText()));
+        final PipelineStage<Tweet, Tweet> parse = PipelineStage.source("parse", source, normalize);
+
+        final List<PipelineStage<?, ?>> stages = Collections.unmodifiableList(
+                Arrays.asList(parse, normalize, extract, graph));
+        lastRun = stages;
+
+        for (PipelineStage<?, ?> stage: stages) {
+            threads.addAll(stage.newThreads(threadFactory, failure, threads));
+        }
+        for (PipelineStage<?, ?> stage: stages) {
+            stage.markStarted();
+        }
+        for (Thread t: threads) {
+            t.start();
+        }
+
+        try {
+            for (Thread t: threads) {
+                t.join();
+            }
+        } catch (InterruptedException ie) {
+            for (Thread t: threads) {
+                t.interrupt();
+            }
+            throw ie;
+        }
+
+        if (failure.get() != null) {
+            throw new RuntimeException("tweet pipeline failed", failure.get());
+        }
+
+        Map<String, Set<String>> result = new HashMap<>();
+        for (Map.Entry<String, Set<String>> e: followsGraph.entrySet()) {
+            result.put(e.getKey(), new HashSet<>(e.getValue()));
+        }
+        return result;
+    }
+
+    /**
+     * @return metrics for each stage of the current or most recent run, in
+     *         pipeline order; empty if the pipeline has never run
+     */
+    public List<StageMetrics> metrics() {
+        List<StageMetrics> result = new ArrayList<>();
+        for (PipelineStage<?, ?> stage: lastRun) {
+            result.add(stage.metrics());
+        }
+        return result;
+    }
+
+}
+
+/**
+ * Mutable tweet record passed between the stages of a TweetPipeline.
+ * This class is internal to the rep of TweetPipeline.
+ */
+class PipelineTweet {
+
+    final String author;
+    final String text;
+    Set<String> mentions = Collections.emptySet();
+
+    /**
+     * @param author interned lower-case author
+     * @param text tweet text
+     */
+    PipelineTweet(String author, String text) {
+        this.author = author;
+        this.text = text;
+    }
+}
+
+/**
+ * One stage of a TweetPipeline: a pool of threads that take items from a
+ * bounded input queue, apply a function, and pass non-null results to the
+ * next stage. This class is internal to the rep of TweetPipeline.
+ *
+ * @param <I> type of items taken by this stage
+ * @param <O> type of items passed to the next stage
+ */
+class PipelineStage<I, O> {
+
+    /** marks the end of the stream in an input queue */
+    private static final Object END = new Object();
+
+    private final String name;
+    private final int parallelism;
+    private final int queueCapacity;
+    private final BlockingQueue<Object> input;
+    private final Iterator<I> source;
+    private final PipelineStage<O, ?> next;
+    private final Function<I, O> work;
+
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private final AtomicLong itemsProcessed = new AtomicLong();
+    private final AtomicLong busyNanos = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private volatile long startNanos = 0;
+    private volatile long endNanos = 0;
+
+    // Abstraction function:
+    //   AF(...) = a stage that applies work to each item from input (or from
+    //   source, if source != null) and sends the results to next.
+    // Representation invariant:
+    //   exactly one of input and source is non-null
+    //   parallelism > 0, and parallelism == 1 if source != null
+    // Safety from rep exposure:
+    //   only TweetPipeline has access to a PipelineStage.
+
+    /**
+     * Make a stage that reads from a bounded queue.
+     *
+     * @param name name reported in metrics
+     * @param queueCapacity capacity of the input queue
+     * @param parallelism number of worker threads
+     * @param next stage to send results to, or null if this is the last stage
+     * @param work function applied to each item; a null result is not sent on
+     */
+    PipelineStage(String name, int queueCapacity, int parallelism,
+                  PipelineStage<O, ?> next, Function<I, O> work) {
+        this(name, queueCapacity, parallelism, new ArrayBlockingQueue<>(queueCapacity), null, next, work);
+    }
+
+    private PipelineStage(String name, int queueCapacity, int parallelism, BlockingQueue<Object> input,
+                          Iterator<I> source, PipelineStage<O, ?> next, Function<I, O> work) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.parallelism = parallelism;
+        this.input = input;
+        this.source = source;
+        this.next = next;
+        this.work = work;
+        assert (input == null) != (source == null);
+        assert parallelism > 0 && (source == null || parallelism == 1);
+    }
+
+    /**
+     * Make a single-threaded stage that pulls items from an iterator.
+     *
+     * @param name name reported in metrics
+     * @param source items to send on, consumed by this stage's thread
+     * @param next stage to send items to
+     * @return the new stage
+     */
+    static <T> PipelineStage<T, T> source(String name, Iterator<T> source, PipelineStage<T, ?> next) {
+        return new PipelineStage<T, T>(name, 0, 1, null, source, next, Function.identity());
+    }
+
+    /**
+     * Make this stage's worker threads, without starting them.
+     *
+     * @param factory makes the threads
+     * @param failure set to the first exception thrown by any stage
+     * @param allThreads every thread of the pipeline, interrupted on failure;
+     *        must be complete before any thread is started
+     * @return the new threads
+     */
+    List<Thread> newThreads(ThreadFactory factory, AtomicReference<Throwable> failure,
+                            List<Thread> allThreads) {
+        liveWorkers.set(parallelism);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < parallelism; i++) {
+            Thread t = factory.newThread(() -> {
+                try {
+                    if (source != null) {
+                        drainSource();
+                    } else {
+                        drainQueue();
+                    }
+                } catch (InterruptedException ie) {
+                    // another stage failed, or the caller gave up; just stop
+                } catch (RuntimeException | Error e) {
+                    if (failure.compareAndSet(null, e)) {
+                        for (Thread other: allThreads) {
+                            other.interrupt();
+                        }
+                    }
+                }
+            });
+            t.setName("tweet-pipeline-" + name + "-" + i);
+            threads.add(t);
+        }
+        return threads;
+    }
+
+    /**
+     * Record the time this stage started, for throughput metrics.
+     */
+    void markStarted() {
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Add an item to this stage's input queue, blocking while the queue is full.
+     *
+     * @param item item to process
+     * @throws InterruptedException if interrupted while waiting for space
+     */
+    void submit(I item) throws InterruptedException {
+        input.put(item);
+        int depth = input.size();
+        int max;
+        while (depth > (max = maxQueueDepth.get()) && !maxQueueDepth.compareAndSet(max, depth)) {
+            // retry until the recorded maximum is at least depth
+        }
+    }
+
+    /**
+     * @return a snapshot of this stage's metrics
+     */
+    StageMetrics metrics() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        long elapsed = startNanos == 0 ? 0 : end - startNanos;
+        return new StageMetrics(name, parallelism, itemsProcessed.get(), busyNanos.get(), elapsed,
+                                input == null ? 0 : input.size(), maxQueueDepth.get(), queueCapacity);
+    }
+
+    private void drainSource() throws InterruptedException {
+        long before = System.nanoTime();
+        while (source.hasNext()) {
+            I item = source.next();
+            long after = System.nanoTime();
+            busyNanos.addAndGet(after - before);
+            itemsProcessed.incrementAndGet();
+            emit(work.apply(item));
+            before = System.nanoTime();
+        }
+        finishWorker();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drainQueue() throws InterruptedException {
+        while (true) {
+            Object item = input.take();
+            if (item == END) {
+                // let the other workers of this stage see the end marker too
+                input.put(END);
+                finishWorker();
+                return;
+            }
+            long before = System.nanoTime();
+            O result = work.apply((I) item);
+            busyNanos.addAndGet(System.nanoTime() - before);
+            itemsProcessed.incrementAndGet();
+            emit(result);
+        }
+    }
+
+    private void emit(O result) throws InterruptedException {
+        if (result != null && next != null) {
+            next.submit(result);
+        }
+    }
+
+    /*
+     * Called once by each worker when it is done; the last worker to finish
+     * passes the end of the stream on to the next stage.
+     */
+    private void finishWorker() throws InterruptedException {
+        if (liveWorkers.decrementAndGet() == 0) {
+            endNanos = System.nanoTime();
+            if (input != null) {
+                input.clear();
+            }
+            if (next != null) {
+                next.input.put(END);
+            }
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * TweetTokenizer is a mutable cursor over the tokens of a tweet's text, in
+ * one pass over its characters. A token is one of:
+ *
+ * <ul>
+ * <li>a WORD: a nonempty sequence of nonspace characters bounded by space
+ *     characters and the ends of the text, as in Filter.containing;
+ * <li>a MENTION: a username-mention as defined by Extract.getMentionedUsers,
+ *     "@" followed by a username and not immediately preceded by a
+ *     character valid in a username;
+ * <li>a HASHTAG: "#" followed by letters, digits and underscores, with the
+ *     same rule about the character before it.
+ * </ul>
+ *
+ * <p>Each token is an offset span of the text; the span of a mention or
+ * hashtag is the name after its "@" or "#". Mentions and hashtags always lie
+ * inside a word, and tokens come in order of where they start, so each word
+ * comes just before the mentions and hashtags inside it. A tokenizer can be
+ * asked for only some kinds of token.
+ *
+ * <p>Characters are classified by a lookup table, and ASCII characters,
+ * which make up nearly every tweet, never leave it. Other characters are
+ * classified by code point through Character, so letters outside the Basic
+ * Multilingual Plane count as letters and non-ASCII spaces separate words.
+ * A tokenizer that is not asked for words does not look at most characters
+ * at all: it finds each "@" and "#" with String.indexOf, which the JIT
+ * compiles to a vectorized search, and classifies only the characters
+ * around them. A tokenizer makes no objects as it runs; reset() lets one
+ * tokenizer walk many texts.
+ */
+public class TweetTokenizer {
+
+    /** kinds of token */
+    public enum Kind { WORD, MENTION, HASHTAG }
+
+    private static final int SPACE = 1;
+    private static final int USERNAME = 2;  // letter, digit, '-' or '_'
+    private static final int HASHTAG = 4;   // letter, digit or '_'
+    private static final int AT = 8;
+    private static final int HASH = 16;
+
+    private static final byte[] ASCII = new byte[128];
+    static {
+        for (int c = 0; c < ASCII.length; c++) {
+            ASCII[c] = (byte) classify(c);
+        }
+    }
+
+    private static final Kind[] KINDS = Kind.values();
+
+    private final boolean words;
+    private final boolean mentions;
+    private final boolean hashtags;
+    private String text;
+    private int position;
+    private int nextAt;
+    private int nextHash;
+    private int[] pending = new int[0];
+    private int pendingCount;
+    private int pendingNext;
+    private Kind kind;
+    private int start;
+    private int end;
+
+    // Abstraction function:
+    //   AF(text, position, pending, ...) = the tokens of text of the kinds
+    //     asked for (words, mentions, hashtags), from the current one
+    //     (kind, start, end), through the mentions and hashtags
+    //     pending[3*pendingNext .. 3*pendingCount) as (kind ordinal, start,
+    //     end) triples, and then the tokens of text[position..]
+    // Representation invariant:
+    //   at least one of words, mentions, hashtags
+    //   0 <= pendingNext <= pendingCount, 3 * pendingCount <= pending.length
+    //   0 <= position <= text.length()
+    //   if !words: pendingCount == 0; nextAt is text.length() if !mentions,
+    //     and otherwise either < position or the index of the first "@" at
+    //     or after position (text.length() if none); likewise nextHash
+    //   kind == null iff there is no current token
+    // Safety from rep exposure:
+    //   all fields are private; text is an immutable String, and pending is
+    //   never returned.
+
+    /**
+     * Make a tokenizer for every kind of token, positioned before the first
+     * token of a text.
+     *
+     * @param text text to tokenize
+     */
+    public TweetTokenizer(String text) {
+        this(text, EnumSet.allOf(Kind.class));
+    }
+
+    /**
+     * Make a tokenizer for some kinds of token, positioned before the first
+     * token of a text.
+     *
+     * @param text text to tokenize
+     * @param kinds kinds of token to return, requires nonempty; not modified
+     *        by this method
+     */
+    public TweetTokenizer(String text, Set<Kind> kinds) {
+        if (kinds.isEmpty()) {
+            throw new IllegalArgumentException("no kinds of token to return");
+        }
+        this.words = kinds.contains(Kind.WORD);
+        this.mentions = kinds.contains(Kind.MENTION);
+        this.hashtags = kinds.contains(Kind.HASHTAG);
+        reset(text);
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert words || mentions || hashtags;
+        assert 0 <= pendingNext && pendingNext <= pendingCount && 3 * pendingCount <= pending.length;
+        assert 0 <= position && position <= text.length();
+        assert words || pendingCount == 0;
+    }
+
+    /**
+     * Position this tokenizer before the first token of a new text.
+     *
+     * @param text text to tokenize
+     */
+    public void reset(String text) {
+        this.text = text;
+        this.position = 0;
+        this.nextAt = mentions ? -1 : text.length();
+        this.nextHash = hashtags ? -1 : text.length();
+        this.pendingCount = 0;
+        this.pendingNext = 0;
+        this.kind = null;
+        checkRep();
+    }
+
+    /**
+     * Move to the next token.
+     *
+     * @return true iff there is a next token; once false, the tokenizer has
+     *         no current token until reset()
+     */
+    public boolean next() {
+        if (pendingNext < pendingCount) {
+            int p = 3 * pendingNext++;
+            kind = KINDS[pending[p]];
+            start = pending[p + 1];
+            end = pending[p + 2];
+            return true;
+        }
+        pendingCount = 0;
+        pendingNext = 0;
+        if (!(words ? scanWord() : scanName())) {
+            kind = null;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return kind of the current token; requires a current token
+     */
+    public Kind kind() {
+        checkCurrent();
+        return kind;
+    }
+
+    /**
+     * @return index in the text of the first character of the current token;
+     *         requires a current token
+     */
+    public int start() {
+        checkCurrent();
+        return start;
+    }
+
+    /**
+     * @return index in the text just past the current token; requires a
+     *         current token
+     */
+    public int end() {
+        checkCurrent();
+        return end;
+    }
+
+    /**
+     * @return the current token as a new String; requires a current token
+     */
+    public String token() {
+        checkCurrent();
+        return text.substring(start, end);
+    }
+
+    private void checkCurrent() {
+        if (kind == null) {
+            throw new IllegalStateException("no current token");
+        }
+    }
+
+    /*
+     * Make the next word of text[position..] the current token, queue the
+     * mentions and hashtags in it that were asked for, and move position
+     * past it.
+     * @return false iff there is no next word
+     */
+    private boolean scanWord() {
+        final String s = text;
+        final int length = s.length();
+        final byte[] ascii = ASCII;
+        int i = position;
+        while (i < length) {
+            char ch = s.charAt(i);
+            if (ch < 128) {
+                if (ascii[ch] != SPACE) {
+                    break;
+                }
+                ++i;
+            } else {
+                int codePoint = s.codePointAt(i);
+                if ((classify(codePoint) & SPACE) == 0) {
+                    break;
+                }
+                i += Character.charCount(codePoint);
+            }
+        }
+        if (i == length) {
+            position = length;
+            return false;
+        }
+
+        final int wordStart = i;
+        while (i < length) {
+            char ch = s.charAt(i);
+            int c;
+            int width = 1;
+            if (ch < 128) {
+                c = ascii[ch];
+            } else {
+                int codePoint = s.codePointAt(i);
+                c = classify(codePoint);
+                width = Character.charCount(codePoint);
+            }
+            if ((c & SPACE) != 0) {
+                break;
+            }
+            if ((c & (AT | HASH)) == 0 || afterUsernameChar(s, i)) {
+                i += width;
+                continue;
+            }
+            final int nameMask = (c & AT) != 0 ? USERNAME : HASHTAG;
+            final int nameStart = i + 1;
+            i = nameEnd(s, nameStart, nameMask);
+            if (i > nameStart && (nameMask == USERNAME ? mentions : hashtags)) {
+                queue(nameMask == USERNAME ? Kind.MENTION.ordinal() : Kind.HASHTAG.ordinal(), nameStart, i);
+            }
+            // the character that ended the name is looked at again
+        }
+
+        kind = Kind.WORD;
+        start = wordStart;
+        end = i;
+        position = i;
+        return true;
+    }
+
+    /*
+     * Make the next mention or hashtag asked for in text[position..] the
+     * current token, and move position past it.
+     * @return false iff there is none
+     */
+    private boolean scanName() {
+        final String s = text;
+        final int length = s.length();
+        while (true) {
+            if (nextAt < position) {
+                nextAt = s.indexOf('@', position);
+                nextAt = nextAt < 0 ? length : nextAt;
+            }
+            if (nextHash < position) {
+                nextHash = s.indexOf('#', position);
+                nextHash = nextHash < 0 ? length : nextHash;
+            }
+            final int sigil = Math.min(nextAt, nextHash);
+            if (sigil == length) {
+                position = length;
+                return false;
+            }
+            final int nameStart = sigil + 1;
+            if (afterUsernameChar(s, sigil)) {
+                position = nameStart;
+                continue;
+            }
+            final boolean mention = sigil == nextAt;
+            final int nameEnd = nameEnd(s, nameStart, mention ? USERNAME : HASHTAG);
+            position = nameEnd; // the character that ended the name is looked at again
+            if (nameEnd > nameStart) {
+                kind = mention ? Kind.MENTION : Kind.HASHTAG;
+                start = nameStart;
+                end = nameEnd;
+                return true;
+            }
+        }
+    }
+
+    /*
+     * @return the end of the run of characters with the class bit nameMask
+     *         that starts at s[i]
+     */
+    private static int nameEnd(String s, int i, int nameMask) {
+        final int length = s.length();
+        while (i < length) {
+            char ch = s.charAt(i);
+            if (ch < 128) {
+                if ((ASCII[ch] & nameMask) == 0) {
+                    break;
+                }
+                ++i;
+            } else {
+                int codePoint = s.codePointAt(i);
+                if ((classify(codePoint) & nameMask) == 0) {
+                    break;
+                }
+                i += Character.charCount(codePoint);
+            }
+        }
+        return i;
+    }
+
+    /*
+     * @return true iff the character before s[i] is valid in a username
+     */
+    private static boolean afterUsernameChar(String s, int i) {
+        if (i == 0) {
+            return false;
+        }
+        char ch = s.charAt(i - 1);
+        int c = ch < 128 ? ASCII[ch] : classify(s.codePointBefore(i));
+        return (c & USERNAME) != 0;
+    }
+
+    private void queue(int kindOrdinal, int from, int to) {
+        if (3 * pendingCount == pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(3 * 4, pending.length * 2));
+        }
+        int p = 3 * pendingCount++;
+        pending[p] = kindOrdinal;
+        pending[p + 1] = from;
+        pending[p + 2] = to;
+    }
+
+    /*
+     * @return class bits of a code point; the ASCII table is built from this
+     */
+    private static int classify(int codePoint) {
+        if (Character.isWhitespace(codePoint) || Character.isSpaceChar(codePoint)) {
+            return SPACE;
+        }
+        if (Character.isLetter(codePoint) || Character.isDigit(codePoint) || codePoint == '_') {
+            return USERNAME | HASHTAG;
+        }
+        switch (codePoint) {
+        case '-': return USERNAME;
+        case '@': return AT;
+        case '#': return HASH;
+        default: return 0;
+        }
+    }
+
+    /**
+     * @param text a string of text
+     * @param start index of the first character of a span of text
+     * @param end index just past the span
+     * @param word a word, as defined by Filter.containing
+     * @return true iff text[start..end) equals word, ignoring case
+     */
+    public static boolean spanEqualsIgnoreCase(String text, int start, int end, String word) {
+        return end - start == word.length() && text.regionMatches(true, start, word, 0, word.length());
+    }
+
+    @Override public String toString() {
+        return kind == null ? "TweetTokenizer(no token)" : "TweetTokenizer(" + kind + " " + token() + ")";
+    }
+}
@@ -0,0 +1,330 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * TweetWindowAggregator keeps rolling statistics over a stream of tweets,
+ * grouped into fixed-width time buckets (for example one bucket per minute)
+ * by Tweet.getTimestamp().
+ *
+ * The aggregator remembers only the most recent bucketCount buckets; the
+ * newest bucket is the one containing the latest timestamp seen so far.
+ * Tweets may arrive out of order: a tweet is accepted if its timestamp is no
+ * more than the allowed lateness before the latest timestamp seen, and its
+ * bucket is still inside the window. Other tweets are dropped and counted.
+ *
+ * Distinct authors and distinct mentions are estimated with HyperLogLog
+ * sketches, and the most-mentioned users are found with a HeavyHitters
+ * sketch, so the memory each bucket uses is fixed when the aggregator is
+ * made and does not grow with the number of users in the stream.
+ */
+public class TweetWindowAggregator {
+
+    /** default HyperLogLog precision, about 1.6% standard error */
+    public static final int DEFAULT_PRECISION = 12;
+    /** default number of mentioned users each bucket tracks to find the top mentions */
+    public static final int DEFAULT_MENTION_CAPACITY = 100;
+
+    private static final long NO_BUCKET = Long.MIN_VALUE;
+
+    private final long bucketMillis;
+    private final long latenessMillis;
+    private final WindowBucket[] ring;
+    private long newestBucket = NO_BUCKET;
+    private long maxMillis = Long.MIN_VALUE;
+    private long droppedCount = 0;
+
+    // Abstraction function:
+    //   AF(bucketMillis, ring, newestBucket, ...) = the window of buckets with
+    //   indices newestBucket-ring.length+1 .. newestBucket, where bucket i
+    //   covers times [i*bucketMillis, (i+1)*bucketMillis) and is stored in
+    //   ring[i mod ring.length]; if newestBucket == NO_BUCKET no tweet has
+    //   been accepted yet.
+    // Representation invariant:
+    //   bucketMillis > 0, latenessMillis >= 0, ring.length > 0
+    //   if newestBucket != NO_BUCKET, ring[i mod ring.length].index == i for
+    //   every i in the window
+    // Safety from rep exposure:
+    //   ring and its buckets are never returned; statistics are returned as
+    //   immutable WindowStatistics values.
+
+    /**
+     * Make an aggregator with one bucket per minute.
+     *
+     * @param windowMinutes number of one-minute buckets in the window, requires > 0
+     * @param allowedLateness how far behind the latest timestamp seen a tweet
+     *        may be and still be counted, requires non-negative
+     * @return a new empty aggregator
+     */
+    public static TweetWindowAggregator perMinute(int windowMinutes, Duration allowedLateness) {
+        return new TweetWindowAggregator(Duration.ofMinutes(1), windowMinutes,
+                                         allowedLateness, DEFAULT_PRECISION);
+    }
+
+    /**
+     * Make an empty aggregator whose buckets each track
+     * DEFAULT_MENTION_CAPACITY mentioned users.
+     *
+     * @param bucketWidth width of each bucket, requires at least one millisecond
+     * @param bucketCount number of buckets in the window, requires > 0
+     * @param allowedLateness how far behind the latest timestamp seen a tweet
+     *        may be and still be counted, requires non-negative
+     * @param precision HyperLogLog precision of each bucket's sketches
+     */
+    public TweetWindowAggregator(Duration bucketWidth, int bucketCount,
+                                 Duration allowedLateness, int precision) {
+        this(bucketWidth, bucketCount, allowedLateness, precision, DEFAULT_MENTION_CAPACITY);
+    }
+
+    /**
+     * Make an empty aggregator.
+     *
+     * @param bucketWidth width of each bucket, requires at least one millisecond
+     * @param bucketCount number of buckets in the window, requires > 0
+     * @param allowedLateness how far behind the latest timestamp seen a tweet
+     *        may be and still be counted, requires non-negative
+     * @param precision HyperLogLog precision of each bucket's sketches
+     * @param mentionCapacity number of mentioned users each bucket's
+     *        HeavyHitters sketch tracks, requires > 0; statistics report at
+     *        most this many top mentions
+     */
+    public TweetWindowAggregator(Duration bucketWidth, int bucketCount,
+                                 Duration allowedLateness, int precision, int mentionCapacity) {
+        if (bucketWidth.toMillis() <= 0 || bucketCount <= 0 || allowedLateness.isNegative()
+                || mentionCapacity <= 0) {
+            throw new IllegalArgumentException("requires positive bucket width, bucket count "
+                    + "and mention capacity, and non-negative lateness");
+        }
+        this.bucketMillis = bucketWidth.toMillis();
+        this.latenessMillis = allowedLateness.toMillis();
+        this.ring = new WindowBucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            ring[i] = new WindowBucket(precision, mentionCapacity);
+        }
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert bucketMillis > 0;
+        assert latenessMillis >= 0;
+        assert ring.length > 0;
+        if (newestBucket != NO_BUCKET) {
+            for (long i = newestBucket - ring.length + 1; i <= newestBucket; i++) {
+                assert ring[slot(i)].index == i;
+            }
+        }
+    }
+
+    /**
+     * Add a tweet to the window.
+     *
+     * @param tweet tweet to count
+     * @return true if the tweet was counted, false if it was dropped because
+     *         it arrived later than the allowed lateness or its bucket has
+     *         already left the window
+     */
+    public boolean accept(Tweet tweet) {
+        long millis = tweet.getTimestamp().toEpochMilli();
+        if (newestBucket != NO_BUCKET && millis < maxMillis - latenessMillis) {
+            ++droppedCount;
+            return false;
+        }
+
+        long index = Math.floorDiv(millis, bucketMillis);
+        if (newestBucket == NO_BUCKET || index > newestBucket) {
+            advanceTo(index);
+        } else if (index <= newestBucket - ring.length) {
+            ++droppedCount;
+            return false;
+        }
+
+        ring[slot(index)].add(tweet);
+        maxMillis = Math.max(maxMillis, millis);
+        return true;
+    }
+
+    /**
+     * Add tweets to the window, in list order.
+     *
+     * @param tweets tweets to count, not modified by this method
+     * @return number of tweets that were counted
+     */
+    public int acceptAll(List<Tweet> tweets) {
+        int accepted = 0;
+        for (Tweet t: tweets) {
+            if (accept(t)) {
+                ++accepted;
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * @return number of tweets dropped so far for arriving too late
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Get statistics over the whole window.
+     *
+     * @param topN maximum number of top mentions to report, requires >= 0
+     * @return statistics of all tweets counted in the current window; the top
+     *         mentions are approximate, as described in HeavyHitters. If no
+     *         tweet has been accepted yet, the statistics are all zero and
+     *         cover an empty timespan at the epoch.
+     */
+    public WindowStatistics windowStatistics(int topN) {
+        if (newestBucket == NO_BUCKET) {
+            return new WindowStatistics(new Timespan(Instant.EPOCH, Instant.EPOCH),
+                                        0, 0, 0, Collections.<String>emptyList());
+        }
+
+        long oldest = newestBucket - ring.length + 1;
+        WindowBucket total = new WindowBucket(ring[0].authors.getPrecision(),
+                                              ring[0].topMentions.getCapacity());
+        for (long i = oldest; i <= newestBucket; i++) {
+            total.mergeFrom(ring[slot(i)]);
+        }
+        return total.statistics(timespanOf(oldest, newestBucket), topN);
+    }
+
+    /**
+     * Get statistics for each bucket in the window.
+     *
+     * @param topN maximum number of top mentions to report per bucket, requires >= 0
+     * @return one entry per bucket in the window, oldest bucket first; empty
+     *         if no tweet has been accepted yet
+     */
+    public List<WindowStatistics> bucketStatistics(int topN) {
+        List<WindowStatistics> result = new ArrayList<>();
+        if (newestBucket == NO_BUCKET) {
+            return result;
+        }
+
+        for (long i = newestBucket - ring.length + 1; i <= newestBucket; i++) {
+            result.add(ring[slot(i)].statistics(timespanOf(i, i), topN));
+        }
+        return result;
+    }
+
+    /*
+     * Move the newest bucket forward to index, resetting the buckets that
+     * are reused for the new part of the window.
+     */
+    private void advanceTo(long index) {
+        long first = newestBucket == NO_BUCKET
+                ? index - ring.length + 1
+                : Math.max(newestBucket + 1, index - ring.length + 1);
+        for (long i = first; i <= index; i++) {
+            ring[slot(i)].reset(i);
+        }
+        newestBucket = index;
+        checkRep();
+    }
+
+    private int slot(long index) {
+        return (int) Math.floorMod(index, (long) ring.length);
+    }
+
+    /*
+     * @return timespan from the start of bucket first to the last
+     *         millisecond of bucket last
+     */
+    private Timespan timespanOf(long first, long last) {
+        return new Timespan(Instant.ofEpochMilli(first * bucketMillis),
+                            Instant.ofEpochMilli((last + 1) * bucketMillis - 1));
+    }
+}
+
+/**
+ * Mutable counts for one bucket of a TweetWindowAggregator.
+ * This class is internal to the rep of TweetWindowAggregator.
+ */
+class WindowBucket {
+
+    long index;
+    long tweetCount;
+    final HyperLogLog authors;
+    final HyperLogLog mentions;
+    final HeavyHitters topMentions;
+
+    // Abstraction function:
+    //   AF(index, tweetCount, authors, mentions, topMentions) = counts of the
+    //   tweets that fell into bucket number index.
+    // Representation invariant:
+    //   tweetCount >= 0
+    // Safety from rep exposure:
+    //   only TweetWindowAggregator has access to a WindowBucket.
+
+    /**
+     * Make an empty bucket.
+     *
+     * @param precision HyperLogLog precision for the distinct-count sketches
+     * @param mentionCapacity number of mentioned users to track
+     */
+    WindowBucket(int precision, int mentionCapacity) {
+        this.authors = new HyperLogLog(precision);
+        this.mentions = new HyperLogLog(precision);
+        this.topMentions = new HeavyHitters(mentionCapacity);
+    }
+
+    /**
+     * Empty this bucket and reuse it for a new bucket index.
+     *
+     * @param index new bucket index
+     */
+    void reset(long index) {
+        this.index = index;
+        this.tweetCount = 0;
+        authors.clear();
+        mentions.clear();
+        topMentions.clear();
+    }
+
+    /**
+     * Count a tweet in this bucket.
+     *
+     * @param tweet tweet to count
+     */
+    void add(Tweet tweet) {
+        ++tweetCount;
+        final String author = tweet.getAuthor();
+        authors.addHash(DistinctUserEstimator.foldedHash(author, 0, author.length()));
+        for (String user: Extract.getMentionedUsersInText(tweet.getText())) {
+            mentions.add(user);
+            topMentions.add(user);
+        }
+    }
+
+    /**
+     * Add the counts of another bucket to this one.
+     *
+     * @param that bucket to merge in, not modified by this method
+     */
+    void mergeFrom(WindowBucket that) {
+        tweetCount += that.tweetCount;
+        authors.merge(that.authors);
+        mentions.merge(that.mentions);
+        topMentions.merge(that.topMentions);
+    }
+
+    /**
+     * @param timespan interval covered by this bucket
+     * @param topN maximum number of top mentions to report
+     * @return immutable statistics of this bucket
+     */
+    WindowStatistics statistics(Timespan timespan, int topN) {
+        return new WindowStatistics(timespan, tweetCount, authors.estimate(),
+                                    mentions.estimate(), topMentions.top(topN));
+    }
+}
@@ -0,0 +1,218 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TwitterMetrics is the registry of latency histograms and counters for the
+ * public twitter operations: each Extract, Filter and SocialNetwork method,
+ * and TweetFetcher.fetch, records how long every call took, and the
+ * counters track tweets processed, mentions found and bytes parsed.
+ *
+ * Metrics are off unless the JVM is started with -Dtwitter.metrics=true.
+ * The switch is a static final field, so with metrics off the JIT compiles
+ * every instrumentation point away and the operations cost exactly what
+ * they did before. With metrics on, a call pays for two System.nanoTime()
+ * reads and a few atomic adds, which is well under 1% of any operation
+ * that looks at more than a handful of tweets.
+ */
+public class TwitterMetrics {
+
+    /** system property that turns metrics on */
+    public static final String PROPERTY = "twitter.metrics";
+
+    /** true iff metrics are being recorded in this JVM */
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final Map<String, LatencyHistogram> operations = new LinkedHashMap<>();
+    private static final Map<String, LongAdder> counters = new LinkedHashMap<>();
+
+    static final LatencyHistogram GET_TIMESPAN = operation("Extract.getTimespan");
+    static final LatencyHistogram GET_MENTIONED_USERS = operation("Extract.getMentionedUsers");
+    static final LatencyHistogram WRITTEN_BY = operation("Filter.writtenBy");
+    static final LatencyHistogram IN_TIMESPAN = operation("Filter.inTimespan");
+    static final LatencyHistogram CONTAINING = operation("Filter.containing");
+    static final LatencyHistogram GUESS_FOLLOWS_GRAPH = operation("SocialNetwork.guessFollowsGraph");
+    static final LatencyHistogram INFLUENCERS = operation("SocialNetwork.influencers");
+    static final LatencyHistogram FETCH = operation("TweetFetcher.fetch");
+
+    static final LongAdder TWEETS_PROCESSED = counter("tweets.processed");
+    static final LongAdder MENTIONS_FOUND = counter("mentions.found");
+    static final LongAdder BYTES_PARSED = counter("bytes.parsed");
+
+    // Abstraction function:
+    //   AF(operations, counters) = for each operation name, the latencies in
+    //     nanoseconds of its calls; for each counter name, its total
+    // Representation invariant:
+    //   operations and counters are only added to during class
+    //   initialization, and hold exactly the static final fields above
+    // Safety from rep exposure:
+    //   histograms() and counters() return unmodifiable views; the
+    //   histograms themselves are shared on purpose, so callers can read them
+    // Thread safety argument:
+    //   the maps are filled before the class is published and never change
+    //   again; each histogram and counter is threadsafe on its own.
+
+    private TwitterMetrics() {
+        throw new AssertionError("not instantiable");
+    }
+
+    private static LatencyHistogram operation(String name) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        operations.put(name, histogram);
+        return histogram;
+    }
+
+    private static LongAdder counter(String name) {
+        LongAdder counter = new LongAdder();
+        counters.put(name, counter);
+        return counter;
+    }
+
+    /**
+     * Start timing an operation.
+     *
+     * @return a start time to pass to stop(), or 0 if metrics are disabled
+     */
+    static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Finish timing an operation.
+     *
+     * @param operation histogram of the operation
+     * @param start value returned by the start() call for this operation
+     * @param tweets number of tweets the operation processed
+     */
+    static void stop(LatencyHistogram operation, long start, int tweets) {
+        if (ENABLED) {
+            operation.record(System.nanoTime() - start);
+            TWEETS_PROCESSED.add(tweets);
+        }
+    }
+
+    /**
+     * Add to a counter if metrics are enabled.
+     *
+     * @param counter counter to add to
+     * @param n amount to add
+     */
+    static void count(LongAdder counter, long n) {
+        if (ENABLED) {
+            counter.add(n);
+        }
+    }
+
+    /**
+     * @param in a stream of bytes about to be parsed
+     * @return a stream that reads in and adds every byte read to the
+     *         bytes.parsed counter, or in itself if metrics are disabled
+     */
+    static InputStream countBytes(InputStream in) {
+        return ENABLED ? new CountingInputStream(in, BYTES_PARSED) : in;
+    }
+
+    /**
+     * @return unmodifiable map from operation name, such as
+     *         "SocialNetwork.influencers", to its latency histogram in
+     *         nanoseconds, in a fixed order
+     */
+    public static Map<String, LatencyHistogram> histograms() {
+        return Collections.unmodifiableMap(operations);
+    }
+
+    /**
+     * @return unmodifiable map from counter name, such as "tweets.processed",
+     *         to its current value, in a fixed order
+     */
+    public static Map<String, Long> counters() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Map.Entry<String, LongAdder> counter: counters.entrySet()) {
+            values.put(counter.getKey(), counter.getValue().sum());
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Forget everything recorded so far.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram: operations.values()) {
+            histogram.reset();
+        }
+        for (LongAdder counter: counters.values()) {
+            counter.reset();
+        }
+    }
+
+    /**
+     * @return a human-readable table of every operation's call count and
+     *         latency percentiles in microseconds, followed by every counter,
+     *         one per line
+     */
+    public static String snapshot() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-32s %10s %10s %10s %10s %10s %10s%n",
+                "operation (us)", "count", "mean", "p50", "p99", "p99.9", "max"));
+        for (Map.Entry<String, LatencyHistogram> operation: operations.entrySet()) {
+            LatencyHistogram h = operation.getValue();
+            sb.append(String.format("%-32s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operation.getKey(), h.count(), micros(h.mean()),
+                    micros(h.percentile(50)), micros(h.percentile(99)),
+                    micros(h.percentile(99.9)), micros(h.max())));
+        }
+        for (Map.Entry<String, Long> counter: counters().entrySet()) {
+            sb.append(String.format("%-32s %10d%n", counter.getKey(), counter.getValue()));
+        }
+        return sb.toString();
+    }
+
+    private static double micros(double nanos) {
+        return nanos / TimeUnit.MICROSECONDS.toNanos(1);
+    }
+}
+
+/**
+ * An input stream that counts the bytes read through it.
+ */
+class CountingInputStream extends FilterInputStream {
+
+    private final LongAdder counter;
+
+    /**
+     * @param in stream to read from
+     * @param counter counter to add every byte read to
+     */
+    CountingInputStream(InputStream in, LongAdder counter) {
+        super(in);
+        this.counter = counter;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            counter.increment();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            counter.add(n);
+        }
+        return n;
+    }
+}
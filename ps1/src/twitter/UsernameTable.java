@@ -0,0 +1,381 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * UsernameTable is a mutable, threadsafe symbol table that interns Twitter
+ * usernames case-insensitively: each distinct username, ignoring case, gets
+ * a dense int id (0, 1, 2, ...) and one canonical lower-case String.
+ *
+ * <p>The hash table holds no entry objects. Names are stored case-folded
+ * and UTF-8 encoded, back to back, in one byte array, and the
+ * open-addressing table that finds them is an array of ints. Apart from
+ * those arrays, each username costs only its canonical String, which is
+ * made once when the name is first interned. Lookups fold case as they go
+ * and compare against the stored bytes directly, so finding a username in
+ * a tweet never makes a lower-case copy of it. ASCII characters, which
+ * make up nearly every username, take a fast path that avoids
+ * Character.toLowerCase.
+ *
+ * <p>A table never forgets a name, so it grows with every distinct
+ * username it is given. Keep each table only as long as the data that
+ * refers to its names, such as one pipeline run or one follows graph.
+ *
+ * <p>Lookups never lock. Inserts are serialized by the table's lock, so
+ * any number of pipeline threads may intern names at once.
+ */
+public class UsernameTable {
+
+    private static final int INITIAL_IDS = 1024;
+    private static final int FNV_OFFSET = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private volatile UsernameArrays arrays = new UsernameArrays(INITIAL_IDS, INITIAL_IDS * 8, INITIAL_IDS * 2);
+    private volatile int size = 0;
+    private int bytesUsed = 0;
+
+    // Abstraction function:
+    //   AF(arrays, size, bytesUsed) = the map from id to username in which
+    //     id i in [0, size) maps to the folded UTF-8 bytes
+    //     arrays.bytes[arrays.offsets[i] .. arrays.offsets[i+1])
+    // Representation invariant:
+    //   0 <= size <= arrays.hashes.length
+    //   arrays.offsets[0] == 0, offsets nondecreasing up to offsets[size] == bytesUsed
+    //   no two ids have the same bytes
+    //   arrays.slots has a power-of-two length greater than 2 * size; each
+    //     id i appears in it exactly once, as the value i + 1, on the probe
+    //     path of arrays.hashes[i], and every other slot is 0
+    // Safety from rep exposure:
+    //   no array is returned; name() returns immutable Strings.
+    // Thread safety argument:
+    //   intern() inserts under the lock of this table. An insert writes an
+    //   id's bytes, offset, hash and name before storing the id in an
+    //   AtomicIntegerArray slot, so a reader that sees the slot sees the rest.
+    //   Growing replaces arrays with a new UsernameArrays through a volatile
+    //   field; a reader whose lookup missed retries if arrays has changed.
+
+    /**
+     * Make a new, empty table.
+     */
+    public UsernameTable() {
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        UsernameArrays a = arrays;
+        assert 0 <= size && size <= a.hashes.length;
+        assert a.offsets[0] == 0;
+        assert Integer.bitCount(a.slots.length()) == 1 && a.slots.length() > 2 * size;
+    }
+
+    /**
+     * @return number of distinct usernames in the table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Find the id of a username, adding the username if it is new.
+     *
+     * @param name a nonempty username
+     * @return id of name, ignoring case
+     */
+    public int intern(CharSequence name) {
+        return intern(name, 0, name.length());
+    }
+
+    /**
+     * Find the id of a username found in a larger string of text, adding the
+     * username if it is new.
+     *
+     * @param text text containing a username
+     * @param start index in text of the username's first character
+     * @param end index in text after the username's last character,
+     *        requires start < end <= text.length()
+     * @return id of text[start..end), ignoring case
+     */
+    public int intern(CharSequence text, int start, int end) {
+        final int id = find(text, start, end);
+        if (id >= 0) {
+            return id;
+        }
+        final int hash = hash(text, start, end);
+        synchronized (this) {
+            final int again = find(arrays, text, start, end, hash);
+            if (again >= 0) {
+                return again;
+            }
+            return insert(text, start, end, hash);
+        }
+    }
+
+    /**
+     * Find the id of a username without adding it.
+     *
+     * @param name a nonempty username
+     * @return id of name, ignoring case, or -1 if it is not in the table
+     */
+    public int find(CharSequence name) {
+        return find(name, 0, name.length());
+    }
+
+    /**
+     * Find the id of a username found in a larger string of text, without
+     * adding it.
+     *
+     * @param text text containing a username
+     * @param start index in text of the username's first character
+     * @param end index in text after the username's last character,
+     *        requires start < end <= text.length()
+     * @return id of text[start..end), ignoring case, or -1 if it is not in
+     *         the table
+     */
+    public int find(CharSequence text, int start, int end) {
+        checkRange(text, start, end);
+        final int hash = hash(text, start, end);
+        UsernameArrays a;
+        int id;
+        do {
+            a = arrays;
+            id = find(a, text, start, end, hash);
+            // a miss is only final if no insert has grown the table meanwhile
+        } while (id < 0 && a != arrays);
+        return id;
+    }
+
+    /**
+     * @param id an id returned by this table
+     * @return the username with that id, in lower case; the same String
+     *         object for every call with the same id
+     */
+    public String name(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("no username with id " + id);
+        }
+        // arrays is written before size, so it has room for every id below size
+        return arrays.names[id];
+    }
+
+    /**
+     * @param id an id returned by this table
+     * @param name a username
+     * @return true iff name is the username with that id, ignoring case
+     */
+    public boolean matches(int id, CharSequence name) {
+        return name.length() > 0 && find(name) == id;
+    }
+
+    private static void checkRange(CharSequence text, int start, int end) {
+        if (start < 0 || end > text.length() || start >= end) {
+            throw new IllegalArgumentException("not a nonempty range of text: [" + start + ", " + end + ")");
+        }
+    }
+
+    /*
+     * @return id of text[start..end) in a, or -1 if a has no such name
+     */
+    private static int find(UsernameArrays a, CharSequence text, int start, int end, int hash) {
+        final int mask = a.slots.length() - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int value = a.slots.get(slot);
+            if (value == 0) {
+                return -1;
+            }
+            int id = value - 1;
+            if (a.hashes[id] == hash && a.equalsFolded(id, text, start, end)) {
+                return id;
+            }
+        }
+    }
+
+    /*
+     * Add text[start..end) as a new name; requires the lock, and that the
+     * name is not in the table.
+     * @return its id
+     */
+    private int insert(CharSequence text, int start, int end, int hash) {
+        final int id = size;
+        final int length = encodedLength(text, start, end);
+        UsernameArrays a = arrays;
+        if (id == a.hashes.length || bytesUsed + length > a.bytes.length || 2 * (id + 1) >= a.slots.length()) {
+            a = a.grow(Math.max(a.hashes.length, 2 * (id + 1)), Math.max(a.bytes.length, 2 * (bytesUsed + length)));
+            arrays = a;
+        }
+        bytesUsed = a.encodeFolded(text, start, end, bytesUsed);
+        a.offsets[id + 1] = bytesUsed;
+        a.hashes[id] = hash;
+        a.names[id] = a.decode(id);
+        a.publish(id);
+        size = id + 1;
+        checkRep();
+        return id;
+    }
+
+    /*
+     * @return c in lower case, without calling Character.toLowerCase for
+     *         ASCII characters
+     */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return (c >= 'A' && c <= 'Z') ? (char) (c | 0x20) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /*
+     * @return FNV-1a hash of the folded characters of text[start..end)
+     */
+    static int hash(CharSequence text, int start, int end) {
+        int h = FNV_OFFSET;
+        for (int i = start; i < end; i++) {
+            h = (h ^ fold(text.charAt(i))) * FNV_PRIME;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * @return number of bytes text[start..end) takes folded and encoded
+     */
+    private static int encodedLength(CharSequence text, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            char c = fold(text.charAt(i));
+            length += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        return length;
+    }
+}
+
+/**
+ * The arrays of a UsernameTable, replaced as a whole when the table grows.
+ * Each char of a name is stored folded, in the 1-, 2- or 3-byte UTF-8 form
+ * of its UTF-16 code unit, so surrogate pairs take 6 bytes. This class is
+ * internal to the rep of UsernameTable.
+ */
+class UsernameArrays {
+
+    final byte[] bytes;
+    final int[] offsets;
+    final int[] hashes;
+    final String[] names;
+    final AtomicIntegerArray slots;
+
+    /*
+     * @param ids number of ids to make room for
+     * @param byteCount number of bytes of names to make room for
+     * @param slotCount number of hash table slots, requires a power of two
+     */
+    UsernameArrays(int ids, int byteCount, int slotCount) {
+        this.bytes = new byte[byteCount];
+        this.offsets = new int[ids + 1];
+        this.hashes = new int[ids];
+        this.names = new String[ids];
+        this.slots = new AtomicIntegerArray(slotCount);
+    }
+
+    /*
+     * @return a copy of these arrays with room for at least ids ids and
+     *         byteCount bytes, rehashed
+     */
+    UsernameArrays grow(int ids, int byteCount) {
+        int slotCount = Integer.highestOneBit(Math.max(4 * ids - 1, 1)) << 1;
+        UsernameArrays bigger = new UsernameArrays(ids, byteCount, slotCount);
+        System.arraycopy(bytes, 0, bigger.bytes, 0, bytes.length);
+        System.arraycopy(offsets, 0, bigger.offsets, 0, offsets.length);
+        System.arraycopy(hashes, 0, bigger.hashes, 0, hashes.length);
+        System.arraycopy(names, 0, bigger.names, 0, names.length);
+        for (int id = 0; id < names.length && names[id] != null; id++) {
+            bigger.publish(id);
+        }
+        return bigger;
+    }
+
+    /*
+     * Store id in its hash table slot, making it visible to readers.
+     */
+    void publish(int id) {
+        final int mask = slots.length() - 1;
+        int slot = hashes[id] & mask;
+        while (slots.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots.set(slot, id + 1);
+    }
+
+    /*
+     * @return true iff the name with this id equals text[start..end) folded
+     */
+    boolean equalsFolded(int id, CharSequence text, int start, int end) {
+        int p = offsets[id];
+        final int limit = offsets[id + 1];
+        for (int i = start; i < end; i++) {
+            char c = UsernameTable.fold(text.charAt(i));
+            if (c < 0x80) {
+                if (p >= limit || bytes[p++] != c) {
+                    return false;
+                }
+            } else if (c < 0x800) {
+                if (p + 2 > limit
+                        || bytes[p++] != (byte) (0xc0 | c >> 6)
+                        || bytes[p++] != (byte) (0x80 | c & 0x3f)) {
+                    return false;
+                }
+            } else {
+                if (p + 3 > limit
+                        || bytes[p++] != (byte) (0xe0 | c >> 12)
+                        || bytes[p++] != (byte) (0x80 | c >> 6 & 0x3f)
+                        || bytes[p++] != (byte) (0x80 | c & 0x3f)) {
+                    return false;
+                }
+            }
+        }
+        return p == limit;
+    }
+
+    /*
+     * Write text[start..end) folded and encoded at bytes[position..].
+     * @return position after the last byte written
+     */
+    int encodeFolded(CharSequence text, int start, int end, int position) {
+        int p = position;
+        for (int i = start; i < end; i++) {
+            char c = UsernameTable.fold(text.charAt(i));
+            if (c < 0x80) {
+                bytes[p++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[p++] = (byte) (0xc0 | c >> 6);
+                bytes[p++] = (byte) (0x80 | c & 0x3f);
+            } else {
+                bytes[p++] = (byte) (0xe0 | c >> 12);
+                bytes[p++] = (byte) (0x80 | c >> 6 & 0x3f);
+                bytes[p++] = (byte) (0x80 | c & 0x3f);
+            }
+        }
+        return p;
+    }
+
+    /*
+     * @return the name with this id as a String
+     */
+    String decode(int id) {
+        final int limit = offsets[id + 1];
+        final char[] chars = new char[limit - offsets[id]];
+        int n = 0;
+        for (int p = offsets[id]; p < limit; ) {
+            int b = bytes[p++] & 0xff;
+            if (b < 0x80) {
+                chars[n++] = (char) b;
+            } else if (b < 0xe0) {
+                chars[n++] = (char) ((b & 0x1f) << 6 | bytes[p++] & 0x3f);
+            } else {
+                chars[n++] = (char) ((b & 0x0f) << 12 | (bytes[p++] & 0x3f) << 6 | bytes[p++] & 0x3f);
+            }
+        }
+        return new String(chars, 0, n);
+    }
+}
@@ -0,0 +1,101 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable summary of the tweets that fell into a time window, as computed
+ * by a TweetWindowAggregator.
+ */
+public class WindowStatistics {
+
+    private final Timespan timespan;
+    private final long tweetCount;
+    private final long distinctAuthors;
+    private final long distinctMentions;
+    private final List<String> topMentions;
+
+    // Abstraction function:
+    //   AF(timespan, tweetCount, distinctAuthors, distinctMentions, topMentions)
+    //     = statistics of the tweets sent during timespan, where distinct counts
+    //     are estimates and topMentions are the most-mentioned usernames in
+    //     descending order of mention count.
+    // Representation invariant:
+    //   tweetCount >= 0, distinctAuthors >= 0, distinctMentions >= 0
+    // Safety from rep exposure:
+    //   all fields are private and final; topMentions is an unmodifiable copy.
+
+    /**
+     * Make a WindowStatistics.
+     *
+     * @param timespan interval covered by the window
+     * @param tweetCount number of tweets in the window
+     * @param distinctAuthors estimated number of distinct authors
+     * @param distinctMentions estimated number of distinct mentioned usernames
+     * @param topMentions most-mentioned usernames, most frequent first
+     */
+    public WindowStatistics(Timespan timespan, long tweetCount, long distinctAuthors,
+                            long distinctMentions, List<String> topMentions) {
+        this.timespan = timespan;
+        this.tweetCount = tweetCount;
+        this.distinctAuthors = distinctAuthors;
+        this.distinctMentions = distinctMentions;
+        this.topMentions = Collections.unmodifiableList(new ArrayList<>(topMentions));
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert tweetCount >= 0;
+        assert distinctAuthors >= 0;
+        assert distinctMentions >= 0;
+    }
+
+    /**
+     * @return the interval covered by the window, including both endpoints
+     */
+    public Timespan getTimespan() {
+        return timespan;
+    }
+
+    /**
+     * @return the number of tweets in the window
+     */
+    public long getTweetCount() {
+        return tweetCount;
+    }
+
+    /**
+     * @return estimated number of distinct (case-insensitive) authors in the window
+     */
+    public long getDistinctAuthors() {
+        return distinctAuthors;
+    }
+
+    /**
+     * @return estimated number of distinct (case-insensitive) usernames
+     *         mentioned in the window
+     */
+    public long getDistinctMentions() {
+        return distinctMentions;
+    }
+
+    /**
+     * @return the most-mentioned lower-case usernames in the window, in
+     *         descending order of mention count
+     */
+    public List<String> getTopMentions() {
+        return topMentions;
+    }
+
+    @Override public String toString() {
+        return timespan + " tweets=" + tweetCount
+                + " authors~" + distinctAuthors
+                + " mentions~" + distinctMentions
+                + " top=" + topMentions;
+    }
+}
@@ -0,0 +1,149 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class CommunityDetectorTest {
+
+    /*
+     * Testing strategy:
+     *
+     * IntFollowsGraph.of():
+     * - empty network, users only followed, users only following
+     * - keys differing only in case, self-follows
+     *
+     * detect():
+     * - empty network, users with no edges
+     * - two dense groups joined by one edge
+     * - many planted groups with noise edges
+     *
+     * modularity: one community (0), known two-community value
+     * localFollowerShare(): all followers local, none local, no followers
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+
+    /* two groups of five who all follow each other, and a -> f */
+    private static Map<String, Set<String>> twoCliques() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (String[] group: new String[][] { { "a", "b", "c", "d", "e" }, { "f", "g", "h", "i", "j" } }) {
+            for (String u: group) {
+                Set<String> follows = set(group);
+                follows.remove(u);
+                graph.put(u, follows);
+            }
+        }
+        graph.get("a").add("f");
+        return graph;
+    }
+
+    @Test
+    public void testIntFollowsGraph() {
+        Map<String, Set<String>> followsGraph = new HashMap<>();
+        followsGraph.put("Alyssa", set("bbitdiddle", "alyssa"));
+        followsGraph.put("ALYSSA", set("BBitDiddle", "eve"));
+        followsGraph.put("eve", set());
+        IntFollowsGraph graph = IntFollowsGraph.of(followsGraph);
+
+        assertEquals(3, graph.size());
+        assertEquals(2, graph.edgeCount());
+        int alyssa = graph.id("alyssa");
+        int ben = graph.id("BBITDIDDLE");
+        int eve = graph.id("eve");
+        assertEquals("bbitdiddle", graph.username(ben));
+        assertEquals(-1, graph.id("nobody"));
+        assertEquals(2, graph.outDegree(alyssa));
+        assertEquals(0, graph.outDegree(ben));
+        assertEquals(1, graph.inDegree(ben));
+        assertTrue(graph.follows(alyssa, eve));
+        assertFalse(graph.follows(eve, alyssa));
+        assertFalse(graph.follows(alyssa, alyssa));
+    }
+
+    @Test
+    public void testEmpty() {
+        Communities communities = CommunityDetector.withDefaults().detect(Collections.emptyMap());
+        assertEquals(0, communities.count());
+        assertEquals(0, communities.modularity(), 0);
+        assertEquals(-1, communities.communityOf("alyssa"));
+    }
+
+    @Test
+    public void testNoEdges() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alyssa", set());
+        graph.put("bbitdiddle", set());
+        Communities communities = CommunityDetector.withDefaults().detect(graph);
+        assertEquals(2, communities.count());
+        assertNotEquals(communities.communityOf("alyssa"), communities.communityOf("bbitdiddle"));
+        assertEquals(0, communities.localFollowerShare("alyssa"), 0);
+    }
+
+    @Test
+    public void testTwoCliques() {
+        Communities communities = CommunityDetector.withDefaults().detect(twoCliques());
+        assertEquals(2, communities.count());
+        assertEquals(set("a", "b", "c", "d", "e"), communities.members(communities.communityOf("A")));
+        assertEquals(set("f", "g", "h", "i", "j"), communities.members(communities.communityOf("j")));
+        assertEquals(5, communities.size(0));
+        // 80 of 82 edge ends inside, and each community has half the degree
+        assertEquals(80.0 / 82 - 0.5, communities.modularity(), 1e-9);
+        assertEquals(1.0, communities.localFollowerShare("b"), 0);
+        assertEquals(0.8, communities.localFollowerShare("f"), 1e-9);
+        assertTrue(communities.iterations() > 0);
+    }
+
+    @Test
+    public void testModularityOfOneCommunityIsZero() {
+        IntFollowsGraph graph = IntFollowsGraph.of(twoCliques());
+        assertEquals(0, CommunityDetector.modularity(graph, new int[graph.size()], 1), 1e-9);
+    }
+
+    @Test
+    public void testPlantedGroups() {
+        final int groups = 20;
+        final int groupSize = 500;
+        Random random = new Random(6005);
+        Map<String, Set<String>> graph = new HashMap<>();
+        for (int u = 0; u < groups * groupSize; u++) {
+            Set<String> follows = new HashSet<>();
+            int group = u / groupSize;
+            for (int k = 0; k < 8; k++) {
+                follows.add("user" + (group * groupSize + random.nextInt(groupSize)));
+            }
+            follows.add("user" + random.nextInt(groups * groupSize));
+            graph.put("user" + u, follows);
+        }
+
+        Communities communities = CommunityDetector.withDefaults().detect(graph);
+        assertTrue("modularity " + communities.modularity(), communities.modularity() > 0.8);
+        int sameGroup = 0;
+        for (int u = 1; u < groupSize; u++) {
+            if (communities.communityOf("user" + u) == communities.communityOf("user0")) {
+                ++sameGroup;
+            }
+        }
+        assertTrue("only " + sameGroup + " with user0", sameGroup > groupSize * 9 / 10);
+        // label propagation may merge a few groups, but never most of them
+        assertTrue("only " + communities.count() + " communities", communities.count() >= groups / 2);
+    }
+}
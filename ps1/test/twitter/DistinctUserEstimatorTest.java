@@ -0,0 +1,103 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class DistinctUserEstimatorTest {
+
+    /*
+     * Testing strategy:
+     *
+     * add(): no tweets; authors and mentions differing only in case;
+     *   repeated mentions; email addresses are not mentions
+     * estimates: within 3 standard errors of the exact counts from a
+     *   synthetic stream, at default and low precision
+     * merge(): estimators of halves of a stream agree with one estimator of
+     *   the whole stream
+     * toBytes()/fromBytes(): round trip, malformed bytes
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static void assertWithinError(long exact, long estimate, double standardError) {
+        double bound = 3 * standardError * exact + 1;
+        assertTrue("estimate " + estimate + " of " + exact + " outside +-" + bound,
+                Math.abs(estimate - exact) <= bound);
+    }
+
+    @Test
+    public void testEmpty() {
+        DistinctUserEstimator estimator = DistinctUserEstimator.withDefaults();
+        assertEquals(0, estimator.tweetCount());
+        assertEquals(0, estimator.estimateAuthors());
+        assertEquals(0, estimator.estimateMentions());
+    }
+
+    @Test
+    public void testCaseAndRepeats() {
+        DistinctUserEstimator estimator = DistinctUserEstimator.withDefaults();
+        estimator.addAll(Arrays.asList(
+                new Tweet(1, "Alyssa", "hi @bbitdiddle and @BBitDiddle", d1),
+                new Tweet(2, "alyssa", "mail bitdiddle@mit.edu or @eve", d1),
+                new Tweet(3, "EVE", "@ALYSSA", d1)));
+        assertEquals(3, estimator.tweetCount());
+        assertEquals(2, estimator.estimateAuthors());
+        assertEquals(3, estimator.estimateMentions());
+    }
+
+    @Test
+    public void testEstimatesAgainstExactCounts() {
+        List<Tweet> tweets = new SyntheticTweets(6005, 100_000, 0.8, 2.0, 8).next(100_000);
+        Set<String> authors = new HashSet<>();
+        for (Tweet tweet: tweets) {
+            authors.add(tweet.getAuthor().toLowerCase());
+        }
+        int mentioned = Extract.getMentionedUsers(tweets).size();
+
+        for (int precision: new int[] { 10, DistinctUserEstimator.DEFAULT_PRECISION }) {
+            DistinctUserEstimator estimator = new DistinctUserEstimator(precision);
+            estimator.addAll(tweets);
+            assertWithinError(authors.size(), estimator.estimateAuthors(), estimator.standardError());
+            assertWithinError(mentioned, estimator.estimateMentions(), estimator.standardError());
+        }
+    }
+
+    @Test
+    public void testMergeAndBytes() {
+        List<Tweet> tweets = new SyntheticTweets(6005, 5000, 1.0, 2.0, 8).next(20_000);
+        DistinctUserEstimator whole = DistinctUserEstimator.withDefaults();
+        whole.addAll(tweets);
+        DistinctUserEstimator first = DistinctUserEstimator.withDefaults();
+        first.addAll(tweets.subList(0, 7000));
+        DistinctUserEstimator second = DistinctUserEstimator.withDefaults();
+        second.addAll(tweets.subList(7000, tweets.size()));
+
+        DistinctUserEstimator merged = DistinctUserEstimator.fromBytes(first.toBytes());
+        merged.merge(DistinctUserEstimator.fromBytes(second.toBytes()));
+        assertEquals(whole.tweetCount(), merged.tweetCount());
+        assertEquals(whole.estimateAuthors(), merged.estimateAuthors());
+        assertEquals(whole.estimateMentions(), merged.estimateMentions());
+        assertArrayEquals(whole.toBytes(), merged.toBytes());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testFromBytesRejectsTruncated() {
+        byte[] bytes = DistinctUserEstimator.withDefaults().toBytes();
+        DistinctUserEstimator.fromBytes(Arrays.copyOf(bytes, bytes.length - 2));
+    }
+}
@@ -31,6 +31,7 @@ public class FilterTest {
      * - tweets that contain on word in given list
      * - tweets that contain multiple words in given list
      * - tweets that contain words in given list but not with identical character cases
+     * - tweets that contain a word in given list only as part of a longer word
      * 
      * TODO: your testing strategies for these methods should go here.
      * See the ic03-testing exercise for examples of what a testing strategy comment looks like.
@@ -123,6 +124,13 @@ public class FilterTest {
         assertEquals("expected same order", 0, containing.indexOf(tweet1));
     }
     
+    @Test
+    public void testContainingWholeWordsOnly() {
+        List<Tweet> containing = Filter.containing(Arrays.asList(tweet1, tweet2), Arrays.asList("rive", "hype"));
+        
+        assertTrue("expected empty list", containing.isEmpty());
+    }
+    
     @Test
     public void testContainingEmptyResults() {
         List<Tweet> containing = Filter.containing(Arrays.asList(tweet1, tweet2), Arrays.asList("dragon"));
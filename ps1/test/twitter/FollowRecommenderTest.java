@@ -0,0 +1,110 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class FollowRecommenderTest {
+
+    /*
+     * Testing strategy:
+     *
+     * recommend():
+     * - user not in the network, user who follows nobody, count 0
+     * - candidates two hops away; ranking by how many followees follow them
+     * - never the user or someone the user already follows
+     * - count smaller than, equal to, larger than the number of candidates;
+     *   Integer.MAX_VALUE
+     * - same answer for repeated queries (scratch cleared between queries)
+     * - username in a different case
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+
+    /*
+     * alyssa follows ben, cy and dee; all three follow eve, two follow fay,
+     * one follows gus; ben follows alyssa back; hal follows nobody
+     */
+    private static Map<String, Set<String>> network() {
+        Map<String, Set<String>> graph = new HashMap<>();
+        graph.put("alyssa", set("ben", "cy", "dee"));
+        graph.put("ben", set("eve", "fay", "alyssa"));
+        graph.put("cy", set("eve", "fay"));
+        graph.put("dee", set("eve", "gus"));
+        graph.put("hal", set());
+        return graph;
+    }
+
+    @Test
+    public void testUnknownUserAndEmptyRequests() {
+        FollowRecommender recommender = FollowRecommender.withDefaults(network());
+        assertEquals(Collections.emptyList(), recommender.recommend("nobody", 5));
+        assertEquals(Collections.emptyList(), recommender.recommend("hal", 5));
+        assertEquals(Collections.emptyList(), recommender.recommend("alyssa", 0));
+    }
+
+    @Test
+    public void testFriendsOfFriendsRanked() {
+        FollowRecommender recommender = FollowRecommender.withDefaults(network());
+        List<String> recommendations = recommender.recommend("Alyssa", 10);
+        assertEquals(Arrays.asList("eve", "fay", "gus"), recommendations);
+        assertEquals(Arrays.asList("eve"), recommender.recommend("alyssa", 1));
+    }
+
+    @Test
+    public void testHugeCount() {
+        FollowRecommender recommender = FollowRecommender.withDefaults(network());
+        assertEquals(Arrays.asList("eve", "fay", "gus"), recommender.recommend("alyssa", Integer.MAX_VALUE));
+        assertEquals(Arrays.asList("eve"), recommender.recommend("alyssa", 1));
+    }
+
+    @Test
+    public void testRepeatedQueriesAgree() {
+        FollowRecommender recommender = FollowRecommender.withDefaults(network());
+        List<String> first = recommender.recommend("ben", 10);
+        recommender.recommend("alyssa", 10);
+        assertEquals(first, recommender.recommend("BEN", 10));
+        assertFalse(first.contains("ben"));
+        assertFalse(first.contains("alyssa"));
+        assertTrue(first.containsAll(Arrays.asList("cy", "dee")));
+    }
+
+    @Test
+    public void testLargerNetwork() {
+        List<Tweet> tweets = new SyntheticTweets(6005, 2000, 1.0, 2.0, 8).next(20_000);
+        Map<String, Set<String>> followsGraph = SocialNetwork.guessFollowsGraph(tweets);
+        FollowRecommender recommender = FollowRecommender.withDefaults(followsGraph);
+        for (String user: Arrays.asList("user0", "user10", "user1999")) {
+            Set<String> follows = new HashSet<>();
+            for (Map.Entry<String, Set<String>> e: followsGraph.entrySet()) {
+                if (e.getKey().equalsIgnoreCase(user)) {
+                    follows.addAll(e.getValue());
+                }
+            }
+            List<String> recommendations = recommender.recommend(user, 20);
+            assertEquals(recommendations, recommender.recommend(user, 20));
+            assertEquals(new HashSet<>(recommendations).size(), recommendations.size());
+            for (String candidate: recommendations) {
+                assertFalse(candidate, candidate.equals(user) || follows.contains(candidate));
+            }
+        }
+    }
+}
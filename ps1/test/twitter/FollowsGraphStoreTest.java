@@ -0,0 +1,210 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FollowsGraphStoreTest {
+
+    /*
+     * Testing strategy:
+     *
+     * open(): empty or missing directory, store with only a log, only a
+     *   snapshot, snapshot and log; log cut short mid-record; leftover
+     *   unfinished snapshot
+     * addFollow(): new edge, edge already logged, edge already in the
+     *   snapshot, self-follow, different case; a record bigger than the
+     *   log buffer; a name too long to log, as follower and as followee
+     * compact(): explicit, triggered by the threshold; empty store
+     * follows(), followsGraph(): users in snapshot only, log only, both
+     * addTweets(): agrees with SocialNetwork.guessFollowsGraph
+     */
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static Set<String> set(String... users) {
+        return new HashSet<>(Arrays.asList(users));
+    }
+
+    @Test
+    public void testEmptyStore() throws IOException {
+        Path dir = folder.getRoot().toPath().resolve("missing");
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(0, store.edgeCount());
+            assertEquals(Collections.emptyMap(), store.followsGraph());
+            assertEquals(Collections.emptySet(), store.follows("alyssa"));
+            store.compact();
+            assertEquals(0, store.edgeCount());
+        }
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(Collections.emptyMap(), store.followsGraph());
+        }
+    }
+
+    @Test
+    public void testLogSurvivesReopen() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertTrue(store.addFollow("Alyssa", "BBitDiddle"));
+            assertFalse(store.addFollow("alyssa", "bbitdiddle"));
+            assertFalse(store.addFollow("alyssa", "ALYSSA"));
+            assertTrue(store.addFollow("alyssa", "eve"));
+        }
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(2, store.loggedEdgeCount());
+            assertEquals(set("bbitdiddle", "eve"), store.follows("ALYSSA"));
+            assertTrue(store.follows("alyssa", "Eve"));
+            assertFalse(store.follows("eve", "alyssa"));
+        }
+    }
+
+    @Test
+    public void testLongNames() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        char[] chars = new char[40_000];
+        Arrays.fill(chars, 'x');
+        final String longName = new String(chars);
+        Arrays.fill(chars, 'y');
+        final String otherLongName = new String(chars);
+        final String tooLong = longName + otherLongName;
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertTrue(store.addFollow("alyssa", "bbitdiddle"));
+            assertTrue(store.addFollow(longName, otherLongName));
+            for (String[] edge: new String[][] { { "alyssa", tooLong }, { tooLong, "alyssa" } }) {
+                try {
+                    store.addFollow(edge[0], edge[1]);
+                    fail("expected IOException");
+                } catch (IOException expected) {
+                    // expected
+                }
+                assertFalse(store.follows(edge[0], edge[1]));
+            }
+            assertEquals(2, store.edgeCount());
+            assertTrue(store.addFollow("alyssa", "eve"));
+        }
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(3, store.loggedEdgeCount());
+            assertEquals(set("bbitdiddle", "eve"), store.follows("alyssa"));
+            assertTrue(store.follows(longName, otherLongName));
+        }
+    }
+
+    @Test
+    public void testSnapshotAndLogTail() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            store.addFollow("alyssa", "bbitdiddle");
+            store.addFollow("bbitdiddle", "alyssa");
+            store.addFollow("cy", "alyssa");
+            store.compact();
+            assertEquals(0, store.loggedEdgeCount());
+            assertFalse(store.addFollow("ALYSSA", "bbitdiddle"));
+            assertTrue(store.addFollow("alyssa", "cy"));
+            assertTrue(store.addFollow("dee", "cy"));
+        }
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(2, store.loggedEdgeCount());
+            assertEquals(5, store.edgeCount());
+            Map<String, Set<String>> expected = new HashMap<>();
+            expected.put("alyssa", set("bbitdiddle", "cy"));
+            expected.put("bbitdiddle", set("alyssa"));
+            expected.put("cy", set("alyssa"));
+            expected.put("dee", set("cy"));
+            assertEquals(expected, store.followsGraph());
+            assertEquals(set("bbitdiddle", "cy"), store.follows("alyssa"));
+            assertTrue(store.follows("cy", "alyssa"));
+            assertFalse(store.follows("cy", "dee"));
+        }
+    }
+
+    @Test
+    public void testCompactionThreshold() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir, 10)) {
+            for (int i = 0; i < 25; i++) {
+                store.addFollow("user" + i, "user" + (i + 1));
+            }
+            assertEquals(5, store.loggedEdgeCount());
+            assertEquals(25, store.edgeCount());
+        }
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir, 10)) {
+            assertEquals(5, store.loggedEdgeCount());
+            assertEquals(25, store.edgeCount());
+            assertTrue(store.follows("user0", "user1"));
+            assertTrue(store.follows("user24", "user25"));
+        }
+        long snapshots;
+        try (Stream<Path> files = Files.list(dir)) {
+            snapshots = files.filter(p -> p.getFileName().toString().startsWith("snapshot-")).count();
+        }
+        assertEquals(1, snapshots);
+    }
+
+    @Test
+    public void testTornLogTailAndUnfinishedSnapshot() throws IOException {
+        Path dir = folder.getRoot().toPath();
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            store.addFollow("alyssa", "bbitdiddle");
+        }
+        Path log = dir.resolve("log-0.log");
+        Files.write(log, new byte[] { 0, 5, 'e', 'v' }, StandardOpenOption.APPEND);
+        Files.write(dir.resolve("snapshot-1.tmp"), new byte[] { 1, 2, 3 });
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(1, store.edgeCount());
+            assertFalse(Files.exists(dir.resolve("snapshot-1.tmp")));
+            assertTrue(store.addFollow("eve", "alyssa"));
+        }
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(2, store.edgeCount());
+            assertTrue(store.follows("eve", "alyssa"));
+        }
+    }
+
+    @Test
+    public void testTweetsMatchGuessFollowsGraph() throws IOException {
+        List<Tweet> tweets = new SyntheticTweets(6005, 300, 1.0, 2.0, 8).next(3000);
+        Map<String, Set<String>> expected = new HashMap<>();
+        for (Map.Entry<String, Set<String>> e: SocialNetwork.guessFollowsGraph(tweets).entrySet()) {
+            String u = e.getKey().toLowerCase();
+            for (String v: e.getValue()) {
+                if (!v.equalsIgnoreCase(u)) {
+                    expected.computeIfAbsent(u, k -> new HashSet<>()).add(v.toLowerCase());
+                }
+            }
+        }
+
+        Path dir = folder.getRoot().toPath();
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            store.addTweets(tweets.subList(0, 2000));
+            store.compact();
+            store.addTweets(tweets.subList(2000, 3000));
+        }
+        try (FollowsGraphStore store = FollowsGraphStore.open(dir)) {
+            assertEquals(expected, store.followsGraph());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class HeavyHittersTest {
+
+    /*
+     * Testing strategy:
+     *
+     * add(), count(), top(): empty sketch; fewer distinct strings than the
+     *   capacity (exact counts); many more (counts never below the true
+     *   count, error at most n / capacity, frequent strings kept); ties
+     *   ordered alphabetically; n of 0, below and above the number tracked
+     * merge(): empty sketches; disjoint and overlapping strings; agrees with
+     *   one sketch of both streams on the frequent strings; different
+     *   capacities
+     * clear(): sketch is empty and reusable
+     * constructor: capacity out of range
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        HeavyHitters sketch = new HeavyHitters(3);
+        assertEquals(Collections.emptyList(), sketch.top(5));
+        assertEquals(0, sketch.count("bob"));
+        assertEquals(3, sketch.getCapacity());
+    }
+
+    @Test
+    public void testExactBelowCapacity() {
+        HeavyHitters sketch = new HeavyHitters(4);
+        for (String s: Arrays.asList("bob", "carol", "bob", "alyssa", "carol", "bob")) {
+            sketch.add(s);
+        }
+        assertEquals(3, sketch.count("bob"));
+        assertEquals(2, sketch.count("carol"));
+        assertEquals(1, sketch.count("alyssa"));
+        assertEquals(0, sketch.count("dave"));
+        assertEquals(Arrays.asList("bob", "carol", "alyssa"), sketch.top(5));
+        assertEquals(Arrays.asList("bob"), sketch.top(1));
+        assertEquals(Collections.emptyList(), sketch.top(0));
+    }
+
+    @Test
+    public void testTiesAlphabetical() {
+        HeavyHitters sketch = new HeavyHitters(4);
+        for (String s: Arrays.asList("carol", "bob", "alyssa")) {
+            sketch.add(s);
+        }
+        assertEquals(Arrays.asList("alyssa", "bob", "carol"), sketch.top(3));
+    }
+
+    @Test
+    public void testBoundedErrorOverCapacity() {
+        final int capacity = 20;
+        HeavyHitters sketch = new HeavyHitters(capacity);
+        Map<String, Integer> exact = new HashMap<>();
+        Random random = new Random(6005);
+        final int n = 100_000;
+        for (int i = 0; i < n; i++) {
+            // a few heavy users, and a long tail of users mentioned about once
+            String user = random.nextInt(4) == 0 ? "heavy" + random.nextInt(5) : "tail" + random.nextInt(n);
+            sketch.add(user);
+            exact.merge(user, 1, Integer::sum);
+        }
+        for (Map.Entry<String, Integer> e: exact.entrySet()) {
+            long count = sketch.count(e.getKey());
+            assertTrue(count >= e.getValue());
+            assertTrue(count <= e.getValue() + n / capacity);
+        }
+        assertEquals(5, sketch.top(5).size());
+        for (String user: sketch.top(5)) {
+            assertTrue(user.startsWith("heavy"));
+        }
+        assertEquals(capacity, sketch.top(capacity + 10).size());
+    }
+
+    @Test
+    public void testMerge() {
+        HeavyHitters a = new HeavyHitters(10);
+        HeavyHitters b = new HeavyHitters(10);
+        HeavyHitters both = new HeavyHitters(10);
+        Random random = new Random(6005);
+        for (int i = 0; i < 10_000; i++) {
+            String user = random.nextInt(2) == 0 ? "heavy" + random.nextInt(3) : "tail" + random.nextInt(5000);
+            (i % 3 == 0 ? a : b).add(user);
+            both.add(user);
+        }
+        a.merge(new HeavyHitters(10));
+        a.merge(b);
+        assertEquals(both.top(3).size(), a.top(3).size());
+        assertEquals(new HashSet<>(both.top(3)), new HashSet<>(a.top(3)));
+        for (String user: a.top(3)) {
+            assertTrue(user.startsWith("heavy"));
+        }
+    }
+
+    @Test
+    public void testMergeDisjointBelowCapacity() {
+        HeavyHitters a = new HeavyHitters(4);
+        HeavyHitters b = new HeavyHitters(4);
+        a.add("bob");
+        a.add("bob");
+        b.add("carol");
+        b.add("bob");
+        HeavyHitters empty = new HeavyHitters(4);
+        empty.merge(a);
+        empty.merge(b);
+        assertEquals(3, empty.count("bob"));
+        assertEquals(1, empty.count("carol"));
+        assertEquals(Arrays.asList("bob", "carol"), empty.top(5));
+        assertEquals(2, a.count("bob"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentCapacity() {
+        new HeavyHitters(4).merge(new HeavyHitters(5));
+    }
+
+    @Test
+    public void testClear() {
+        HeavyHitters sketch = new HeavyHitters(2);
+        for (String s: Arrays.asList("bob", "carol", "alyssa")) {
+            sketch.add(s);
+        }
+        sketch.clear();
+        assertEquals(Collections.emptyList(), sketch.top(5));
+        sketch.add("dave");
+        assertEquals(Arrays.asList("dave"), sketch.top(5));
+        assertEquals(1, sketch.count("dave"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZeroCapacity() {
+        new HeavyHitters(0);
+    }
+}
@@ -0,0 +1,126 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class HyperLogLogTest {
+
+    /*
+     * Testing strategy:
+     *
+     * estimate(): empty sketch; cardinality below, near and far above the
+     *   number of registers; precision MIN, 10, 14; duplicates added many
+     *   times; error within 3 standard errors of the exact count
+     * merge(): disjoint and overlapping sets; different precisions
+     * toBytes()/fromBytes(): empty and full sketches round trip; wrong
+     *   version, wrong length, invalid precision, out-of-range register
+     * constructor: precision out of range
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static HyperLogLog sketchOf(int precision, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(precision);
+        for (int i = from; i < to; i++) {
+            sketch.add("user" + i);
+        }
+        return sketch;
+    }
+
+    private static void assertWithinError(long exact, HyperLogLog sketch) {
+        double bound = 3 * sketch.standardError() * exact + 1;
+        long estimate = sketch.estimate();
+        assertTrue("estimate " + estimate + " of " + exact + " outside +-" + bound,
+                Math.abs(estimate - exact) <= bound);
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, new HyperLogLog(HyperLogLog.MIN_PRECISION).estimate());
+        assertEquals(0, new HyperLogLog(14).estimate());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testPrecisionTooLarge() {
+        new HyperLogLog(HyperLogLog.MAX_PRECISION + 1);
+    }
+
+    @Test
+    public void testStandardError() {
+        assertEquals(1.04 / 32, new HyperLogLog(10).standardError(), 1e-12);
+        assertEquals(1.04 / 128, new HyperLogLog(14).standardError(), 1e-12);
+    }
+
+    @Test
+    public void testEstimatesAgainstExactCounts() {
+        for (int precision: new int[] { HyperLogLog.MIN_PRECISION, 10, 14 }) {
+            for (int exact: new int[] { 1, 10, 1000, 20_000, 300_000 }) {
+                assertWithinError(exact, sketchOf(precision, 0, exact));
+            }
+        }
+    }
+
+    @Test
+    public void testDuplicatesCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 2000; i++) {
+                sketch.add("user" + i);
+            }
+        }
+        assertWithinError(2000, sketch);
+    }
+
+    @Test
+    public void testMergeIsUnion() {
+        HyperLogLog left = sketchOf(12, 0, 60_000);
+        HyperLogLog right = sketchOf(12, 40_000, 100_000);
+        HyperLogLog both = sketchOf(12, 0, 100_000);
+        left.merge(right);
+        assertArrayEquals(both.toBytes(), left.toBytes());
+        assertWithinError(100_000, left);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testMergeDifferentPrecisions() {
+        new HyperLogLog(10).merge(new HyperLogLog(11));
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        for (HyperLogLog sketch: new HyperLogLog[] { new HyperLogLog(4), sketchOf(10, 0, 50_000) }) {
+            byte[] bytes = sketch.toBytes();
+            assertEquals(2 + (1 << sketch.getPrecision()), bytes.length);
+            HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+            assertEquals(sketch.getPrecision(), copy.getPrecision());
+            assertEquals(sketch.estimate(), copy.estimate());
+            assertArrayEquals(bytes, copy.toBytes());
+        }
+    }
+
+    @Test
+    public void testFromBytesRejectsBadInput() {
+        byte[] good = sketchOf(6, 0, 100).toBytes();
+        byte[][] bad = { new byte[0], good.clone(), good.clone(), Arrays.copyOf(good, 10), good.clone() };
+        bad[1][0] = 99;                 // version
+        bad[2][1] = 3;                  // precision
+        bad[4][5] = (byte) (64 - 6 + 2); // register rank
+        for (byte[] bytes: bad) {
+            try {
+                HyperLogLog.fromBytes(bytes);
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class NearDuplicateDetectorTest {
+
+    /*
+     * Testing strategy:
+     *
+     * clusters():
+     * - empty list, one tweet
+     * - exact copies, copies differing in case / whitespace / links
+     * - retweets of an original
+     * - unrelated tweets
+     * - many distinct synthetic tweets (no false clusters expected)
+     *
+     * dedupe():
+     * - keeps the first tweet of each cluster, in input order
+     *
+     * similarity():
+     * - identical text, unrelated text
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final Tweet original = new Tweet(1, "alyssa",
+            "is it reasonable to talk about rivest so much? the talk starts at noon", d1);
+    private static final Tweet retweet = new Tweet(2, "bbitdiddle",
+            "RT @alyssa: is it reasonable to talk about rivest so much? the talk starts at noon", d1);
+    private static final Tweet shouted = new Tweet(3, "spammer",
+            "IS IT REASONABLE TO TALK ABOUT RIVEST   SO MUCH? the talk starts at noon http://t.co/x", d1);
+    private static final Tweet unrelated = new Tweet(4, "carol",
+            "lets go cavaliers! great game last night in cleveland", d1);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmpty() {
+        NearDuplicateDetector detector = NearDuplicateDetector.withDefaults();
+        assertTrue(detector.clusters(Collections.<Tweet>emptyList()).isEmpty());
+        assertTrue(detector.dedupe(Collections.<Tweet>emptyList()).isEmpty());
+    }
+
+    @Test
+    public void testOneTweet() {
+        NearDuplicateDetector detector = NearDuplicateDetector.withDefaults();
+        assertEquals(Arrays.asList(Arrays.asList(original)),
+                     detector.clusters(Arrays.asList(original)));
+    }
+
+    @Test
+    public void testCopiesAndRetweetsCluster() {
+        NearDuplicateDetector detector = NearDuplicateDetector.withDefaults();
+        List<List<Tweet>> clusters = detector.clusters(Arrays.asList(unrelated, original, retweet, shouted));
+
+        assertEquals(2, clusters.size());
+        assertEquals(Arrays.asList(unrelated), clusters.get(0));
+        assertEquals(Arrays.asList(original, retweet, shouted), clusters.get(1));
+    }
+
+    @Test
+    public void testDedupeKeepsFirstInOrder() {
+        NearDuplicateDetector detector = NearDuplicateDetector.withDefaults();
+        List<Tweet> kept = detector.dedupe(Arrays.asList(retweet, unrelated, original, shouted));
+        assertEquals(Arrays.asList(retweet, unrelated), kept);
+    }
+
+    @Test
+    public void testSimilarity() {
+        NearDuplicateDetector detector = NearDuplicateDetector.withDefaults();
+        assertEquals(1.0, detector.similarity(original, retweet), 1e-9);
+        assertTrue(detector.similarity(original, unrelated) < 0.3);
+    }
+
+    @Test
+    public void testDistinctTweetsNotClustered() {
+        NearDuplicateDetector detector = NearDuplicateDetector.withDefaults();
+        Random random = new Random(5);
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int w = 0; w < 12; w++) {
+                for (int c = 0; c < 6; c++) {
+                    text.append((char) ('a' + random.nextInt(26)));
+                }
+                text.append(' ');
+            }
+            tweets.add(new Tweet(i, "user" + i, text.toString(), d1));
+        }
+        List<Tweet> copies = new ArrayList<>(tweets);
+        copies.addAll(tweets);
+
+        assertEquals(tweets, detector.dedupe(copies));
+    }
+}
@@ -0,0 +1,139 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ShardedTweetStoreTest {
+
+    /*
+     * Testing strategy:
+     *
+     * partitioning: by id hash, by time range; 1 shard, several shards
+     * store: empty, tweets spread over every shard, tweets before and after
+     *        the time ranges of the shards
+     *
+     * writtenBy(), inTimespan(), containing(), getMentionedUsers():
+     * - same result, in the same order, as Filter / Extract on the whole list
+     * - inTimespan() covering no shard, one shard, every shard
+     *
+     * followerCounts(), influencers():
+     * - an author who mentions the same user from tweets on different shards
+     *   counts once
+     * - counts equal those of the unsharded follows graph
+     * - influencers ordered by count, ties alphabetically
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static final List<Tweet> archive = new SyntheticTweets(6005, 200, 1.0, 1.5, 8).next(3000);
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static List<ShardedTweetStore> stores() {
+        Instant last = archive.get(archive.size() - 1).getTimestamp();
+        Duration quarter = Duration.between(SyntheticTweets.START, last).dividedBy(4);
+        List<ShardedTweetStore> stores = Arrays.asList(
+                ShardedTweetStore.byIdHash(1),
+                ShardedTweetStore.byIdHash(7),
+                ShardedTweetStore.byTimeRange(SyntheticTweets.START.plus(quarter), quarter, 3));
+        for (ShardedTweetStore store: stores) {
+            store.addAll(archive);
+        }
+        return stores;
+    }
+
+    @Test
+    public void testEmptyStore() {
+        ShardedTweetStore store = ShardedTweetStore.byIdHash(4);
+        assertEquals(0, store.size());
+        assertEquals(Arrays.asList(), store.writtenBy("alyssa"));
+        assertTrue(store.getMentionedUsers().isEmpty());
+        assertTrue(store.influencers().isEmpty());
+    }
+
+    @Test
+    public void testShardsAllUsed() {
+        for (ShardedTweetStore store: stores()) {
+            assertEquals(archive.size(), store.size());
+            int total = 0;
+            for (int size: store.shardSizes()) {
+                assertTrue("empty shard", size > 0);
+                total += size;
+            }
+            assertEquals(archive.size(), total);
+        }
+    }
+
+    @Test
+    public void testFiltersMatchUnsharded() {
+        Instant last = archive.get(archive.size() - 1).getTimestamp();
+        List<Timespan> timespans = Arrays.asList(
+                new Timespan(d1.minusSeconds(100), d1.minusSeconds(1)),
+                new Timespan(SyntheticTweets.START.plusSeconds(10), SyntheticTweets.START.plusSeconds(200)),
+                new Timespan(SyntheticTweets.START.plusSeconds(500), last.minusSeconds(500)),
+                new Timespan(SyntheticTweets.START, last));
+        List<String> words = Arrays.asList("Rivest", "cavaliers");
+
+        for (ShardedTweetStore store: stores()) {
+            for (String author: Arrays.asList("user0", "USER3", "nobody")) {
+                assertEquals(Filter.writtenBy(archive, author), store.writtenBy(author));
+            }
+            for (Timespan timespan: timespans) {
+                assertEquals(Filter.inTimespan(archive, timespan), store.inTimespan(timespan));
+            }
+            assertEquals(Filter.containing(archive, words), store.containing(words));
+            assertEquals(Extract.getMentionedUsers(archive), store.getMentionedUsers());
+        }
+    }
+
+    @Test
+    public void testFollowerCountsMatchUnsharded() {
+        Map<String, Integer> expected = new HashMap<>();
+        for (Set<String> followed: SocialNetwork.guessFollowsGraph(archive).values()) {
+            for (String user: followed) {
+                expected.merge(user, 1, Integer::sum);
+            }
+        }
+        for (ShardedTweetStore store: stores()) {
+            assertEquals(expected, store.followerCounts());
+            List<String> influencers = store.influencers();
+            assertEquals(expected.keySet().size(), influencers.size());
+            for (int i = 1; i < influencers.size(); i++) {
+                int previous = expected.get(influencers.get(i - 1));
+                int current = expected.get(influencers.get(i));
+                assertTrue(previous > current
+                        || (previous == current && influencers.get(i - 1).compareTo(influencers.get(i)) < 0));
+            }
+        }
+    }
+
+    @Test
+    public void testRepeatedEvidenceAcrossShardsCountedOnce() {
+        ShardedTweetStore store = ShardedTweetStore.byTimeRange(d1, Duration.ofHours(1), 3);
+        store.add(new Tweet(1, "alyssa", "hi @bbitdiddle", d1));
+        store.add(new Tweet(2, "alyssa", "@BBitdiddle again", d1.plus(Duration.ofHours(1))));
+        store.add(new Tweet(3, "alyssa", "still @bbitdiddle", d1.plus(Duration.ofHours(2))));
+        store.add(new Tweet(4, "eve", "@bbitdiddle @alyssa", d1.plus(Duration.ofHours(2))));
+        assertArrayEquals(new int[] { 1, 1, 2 }, store.shardSizes());
+
+        Map<String, Integer> counts = store.followerCounts();
+        assertEquals(2, (int) counts.get("bbitdiddle"));
+        assertEquals(1, (int) counts.get("alyssa"));
+        assertEquals(Arrays.asList("bbitdiddle", "alyssa"), store.influencers());
+    }
+}
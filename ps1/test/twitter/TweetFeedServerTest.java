@@ -0,0 +1,103 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetFeedServerTest {
+
+    /*
+     * Testing strategy:
+     *
+     * SyntheticTweets:
+     * - same seed gives the same tweets
+     * - generated tweets satisfy the Tweet rep (valid author, text <= 140)
+     * - mentionsPerTweet = 0, > 0
+     *
+     * TweetFeedServer:
+     * - default count, count query parameter
+     * - output parsed by TweetReader matches what the generator produced
+     *
+     * IngestLoadGenerator:
+     * - one client, several clients; report counts every request and tweet
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testSameSeedSameTweets() {
+        List<Tweet> a = SyntheticTweets.withDefaults(42).next(50);
+        List<Tweet> b = SyntheticTweets.withDefaults(42).next(50);
+        for (int i = 0; i < a.size(); i++) {
+            assertEquals(a.get(i).toString(), b.get(i).toString());
+        }
+    }
+
+    @Test
+    public void testGeneratedTweetsValid() {
+        SyntheticTweets generator = new SyntheticTweets(1, 100, 2.0, 3.0, 60);
+        for (Tweet t: generator.next(500)) {
+            assertTrue(t.getAuthor().matches("[A-Za-z0-9_-]+"));
+            assertTrue(t.getText().length() <= 140);
+        }
+    }
+
+    @Test
+    public void testNoMentions() {
+        SyntheticTweets generator = new SyntheticTweets(1, 100, 1.0, 0.0, 10);
+        assertTrue(Extract.getMentionedUsers(generator.next(200)).isEmpty());
+    }
+
+    @Test
+    public void testJsonMatchesTweetReaderShape() {
+        List<Tweet> tweets = SyntheticTweets.withDefaults(7).next(3);
+        StringWriter out = new StringWriter();
+        SyntheticTweets.writeJson(tweets, out);
+
+        String json = out.toString();
+        assertTrue(json.startsWith("["));
+        assertTrue(json.contains("\"user.screen_name\""));
+        assertTrue(json.contains("\"created_at\""));
+    }
+
+    @Test
+    public void testServerRoundTrip() throws IOException {
+        TweetFeedServer server = new TweetFeedServer(0, 25, SyntheticTweets.withDefaults(3), 2);
+        try {
+            List<Tweet> fetched = TweetReader.readTweetsFromWeb(server.getUrl());
+            List<Tweet> expected = SyntheticTweets.withDefaults(3).next(25);
+            assertEquals(25, fetched.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertEquals(expected.get(i).toString(), fetched.get(i).toString());
+            }
+
+            assertEquals(7, TweetReader.readTweetsFromWeb(server.getUrl(7)).size());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testLoadGenerator() throws IOException, InterruptedException {
+        TweetFeedServer server = new TweetFeedServer(0, 10, SyntheticTweets.withDefaults(3), 4);
+        try {
+            IngestReport report = IngestLoadGenerator.run(server.getUrl(), 3, 4);
+            assertEquals(12, report.getRequests());
+            assertEquals(0, report.getFailures());
+            assertEquals(120, report.getTweets());
+            assertTrue(report.latencyMillis(50) <= report.latencyMillis(100));
+        } finally {
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.json.JsonException;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class TweetFetcherTest {
+
+    /*
+     * Testing strategy:
+     *
+     * fetch():
+     * - server that gzips, result equals TweetReader's
+     * - repeated fetch of an unchanged sample (304), of a changed sample
+     * - server that fails with 503 a few times then succeeds
+     * - server that always fails with 503, with 404
+     *
+     * readTweets():
+     * - numeric and string ids; a tweet missing a field
+     *
+     * charset():
+     * - no Content-Type, no charset parameter, quoted charset, unknown charset
+     */
+
+    private static final TweetFetcher FAST = new TweetFetcher(
+            Duration.ofSeconds(5), Duration.ofSeconds(5), 3, Duration.ofMillis(1));
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testGzipMatchesTweetReader() throws IOException {
+        TweetFeedServer server = new TweetFeedServer(0, 40, SyntheticTweets.withDefaults(9), 2);
+        try {
+            List<Tweet> fetched = FAST.fetch(server.getSampleUrl());
+            List<Tweet> read = TweetReader.readTweetsFromWeb(server.getSampleUrl());
+            assertEquals(40, fetched.size());
+            assertEquals(read.toString(), fetched.toString());
+            assertEquals(1, server.getGzippedCount());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testReadTweets() {
+        List<Tweet> tweets = TweetFetcher.readTweets(new StringReader("["
+                + "{\"id\": 1, \"user.screen_name\": \"alyssa\", \"text\": \"hi @bob\","
+                + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"},"
+                + "{\"id\": \"2\", \"user.screen_name\": \"bob\", \"text\": \"\","
+                + " \"created_at\": \"Wed Feb 17 11:00:00 +0100 2016\"}]"));
+        assertEquals(2, tweets.size());
+        assertEquals(1, tweets.get(0).getId());
+        assertEquals("alyssa", tweets.get(0).getAuthor());
+        assertEquals("hi @bob", tweets.get(0).getText());
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), tweets.get(0).getTimestamp());
+        assertEquals(2, tweets.get(1).getId());
+        assertEquals(Instant.parse("2016-02-17T10:00:00Z"), tweets.get(1).getTimestamp());
+    }
+
+    @Test(expected=JsonException.class)
+    public void testReadTweetsMissingField() {
+        TweetFetcher.readTweets(new StringReader("[{\"id\": 1, \"text\": \"no author\","
+                + " \"created_at\": \"Wed Feb 17 10:00:00 +0000 2016\"}]"));
+    }
+
+    @Test
+    public void testConditionalRequests() throws IOException {
+        TweetFeedServer server = new TweetFeedServer(0, 10, SyntheticTweets.withDefaults(9), 2);
+        TweetFetcher fetcher = new TweetFetcher(
+                Duration.ofSeconds(5), Duration.ofSeconds(5), 1, Duration.ZERO);
+        try {
+            List<Tweet> first = fetcher.fetch(server.getSampleUrl());
+            List<Tweet> second = fetcher.fetch(server.getSampleUrl());
+            assertEquals(first.toString(), second.toString());
+            assertEquals(1, server.getNotModifiedCount());
+
+            server.refreshSample();
+            List<Tweet> third = fetcher.fetch(server.getSampleUrl());
+            assertNotEquals(first.toString(), third.toString());
+            assertEquals(1, server.getNotModifiedCount());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testFreshTweetsNotCached() throws IOException {
+        TweetFeedServer server = new TweetFeedServer(0, 10, SyntheticTweets.withDefaults(9), 2);
+        try {
+            List<Tweet> first = FAST.fetch(server.getUrl());
+            List<Tweet> second = FAST.fetch(server.getUrl());
+            assertNotEquals(first.get(0).getId(), second.get(0).getId());
+            assertEquals(0, server.getNotModifiedCount());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testRetriesUntilSuccess() throws IOException {
+        HttpServer server = failingServer(2, 503);
+        try {
+            List<Tweet> tweets = FAST.fetch(urlOf(server));
+            assertEquals(0, tweets.size());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test(expected=IOException.class)
+    public void testGivesUpAfterMaxAttempts() throws IOException {
+        HttpServer server = failingServer(3, 503);
+        try {
+            FAST.fetch(urlOf(server));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testClientErrorNotRetried() throws IOException {
+        HttpServer server = failingServer(1, 404);
+        try {
+            FAST.fetch(urlOf(server));
+            fail("expected IOException");
+        } catch (IOException ioe) {
+            assertTrue(ioe.getMessage().contains("404"));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testCharset() {
+        assertEquals(StandardCharsets.UTF_8, TweetFetcher.charset(null));
+        assertEquals(StandardCharsets.UTF_8, TweetFetcher.charset("application/json"));
+        assertEquals(StandardCharsets.ISO_8859_1, TweetFetcher.charset("text/plain; charset=\"ISO-8859-1\""));
+        assertEquals(StandardCharsets.UTF_8, TweetFetcher.charset("text/plain; charset=no-such-charset"));
+    }
+
+    /*
+     * Make a server that answers the first failures requests with status,
+     * and later requests with an empty JSON array.
+     */
+    private static HttpServer failingServer(int failures, int status) throws IOException {
+        AtomicInteger remaining = new AtomicInteger(failures);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            if (remaining.getAndDecrement() > 0) {
+                exchange.sendResponseHeaders(status, -1);
+            } else {
+                byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
+
+    private static URL urlOf(HttpServer server) throws IOException {
+        return new URL("http", "localhost", server.getAddress().getPort(), "/");
+    }
+}
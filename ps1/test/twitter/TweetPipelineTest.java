@@ -0,0 +1,121 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TweetPipelineTest {
+
+    /*
+     * Testing strategy:
+     *
+     * run():
+     * - empty source, one tweet, many tweets
+     * - authors and mentions with mixed case
+     * - one thread per stage, several threads per stage
+     * - queue capacity 1 (every producer blocks), large capacity
+     * - a source that fails part way through
+     *
+     * metrics():
+     * - before any run, after a run
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptySource() throws InterruptedException {
+        TweetPipeline pipeline = new TweetPipeline(4, 2);
+        Map<String, Set<String>> graph = pipeline.run(Collections.<Tweet>emptyIterator());
+        assertTrue(graph.isEmpty());
+    }
+
+    @Test
+    public void testOneTweetMixedCase() throws InterruptedException {
+        TweetPipeline pipeline = new TweetPipeline(4, 1);
+        Tweet tweet = new Tweet(1, "Alyssa", "hi @Bob and @bob and @carol", d1);
+        Map<String, Set<String>> graph = pipeline.run(Arrays.asList(tweet).iterator());
+
+        assertEquals(1, graph.size());
+        assertEquals(new HashSet<>(Arrays.asList("bob", "carol")), graph.get("alyssa"));
+    }
+
+    @Test
+    public void testManyTweetsMatchesSequential() throws InterruptedException {
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            tweets.add(new Tweet(i, "user" + (i % 37), "@user" + (i % 11) + " @other" + (i % 5), d1));
+        }
+        TweetPipeline pipeline = new TweetPipeline(1, 3, 4, 2, Thread::new);
+        Map<String, Set<String>> graph = pipeline.run(tweets.iterator());
+
+        Map<String, Set<String>> expected = new HashMap<>();
+        for (Map.Entry<String, Set<String>> e: SocialNetwork.guessFollowsGraph(tweets).entrySet()) {
+            expected.put(e.getKey().toLowerCase(), e.getValue());
+        }
+        assertEquals(expected, graph);
+    }
+
+    @Test
+    public void testMetrics() throws InterruptedException {
+        TweetPipeline pipeline = new TweetPipeline(8, 2);
+        assertTrue(pipeline.metrics().isEmpty());
+
+        List<Tweet> tweets = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            tweets.add(new Tweet(i, "alyssa", "@bob " + i, d1));
+        }
+        pipeline.run(tweets.iterator());
+
+        List<StageMetrics> metrics = pipeline.metrics();
+        assertEquals(4, metrics.size());
+        assertEquals("parse", metrics.get(0).getName());
+        assertEquals("graph", metrics.get(3).getName());
+        for (StageMetrics stage: metrics) {
+            assertEquals(100, stage.getItemsProcessed());
+            assertTrue(stage.getMaxQueueDepth() <= stage.getQueueCapacity());
+            assertEquals(0, stage.getQueueDepth());
+        }
+    }
+
+    @Test
+    public void testFailingSource() throws InterruptedException {
+        Iterator<Tweet> failing = new Iterator<Tweet>() {
+            private int remaining = 10;
+            @Override public boolean hasNext() {
+                return true;
+            }
+            @Override public Tweet next() {
+                if (--remaining < 0) {
+                    throw new IllegalStateException("source broke");
+                }
+                return new Tweet(remaining, "alyssa", "@bob", d1);
+            }
+        };
+
+        try {
+            new TweetPipeline(2, 2).run(failing);
+            fail("expected RuntimeException");
+        } catch (RuntimeException re) {
+            assertTrue(re.getCause() instanceof IllegalStateException);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class TweetTokenizerTest {
+
+    /*
+     * Testing strategy:
+     *
+     * text: empty, only spaces, leading/trailing/repeated spaces, tabs and
+     *   newlines, non-ASCII spaces
+     * mentions: at start of word, after punctuation, after a username
+     *   character (email), "@" alone, "@@", ending at punctuation, two in
+     *   one word
+     * hashtags: plain, ending at "-", "#" alone
+     * characters: ASCII, accented BMP letters, supplementary letters
+     * next(): past the end; kind()/start()/end() with no current token
+     * reset(): reuse for a second text
+     * kinds: all, words only, mentions only, hashtags only, mentions and
+     *   hashtags; each agrees with the full token stream; no kinds
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /* tokens of text, as "KIND:token" */
+    private static List<String> tokens(String text) {
+        return tokens(text, EnumSet.allOf(TweetTokenizer.Kind.class));
+    }
+
+    private static List<String> tokens(String text, Set<TweetTokenizer.Kind> kinds) {
+        List<String> tokens = new ArrayList<>();
+        TweetTokenizer tokenizer = new TweetTokenizer(text, kinds);
+        while (tokenizer.next()) {
+            tokens.add(tokenizer.kind() + ":" + tokenizer.token());
+        }
+        assertFalse(tokenizer.next());
+        return tokens;
+    }
+
+    @Test
+    public void testNoTokens() {
+        assertEquals(Collections.emptyList(), tokens(""));
+        assertEquals(Collections.emptyList(), tokens(" \t\n "));
+    }
+
+    @Test
+    public void testWords() {
+        assertEquals(Arrays.asList("WORD:is", "WORD:it", "WORD:rivest?"), tokens("  is it\t\trivest?\n"));
+        assertEquals(Arrays.asList("WORD:a", "WORD:b", "WORD:c"), tokens("a\u00A0b\u3000c"));
+    }
+
+    @Test
+    public void testMentions() {
+        assertEquals(Arrays.asList("WORD:@alyssa,", "MENTION:alyssa", "WORD:hi"), tokens("@alyssa, hi"));
+        assertEquals(Arrays.asList("WORD:bitdiddle@mit.edu"), tokens("bitdiddle@mit.edu"));
+        assertEquals(Arrays.asList("WORD:(@ben-bit_diddle)", "MENTION:ben-bit_diddle"), tokens("(@ben-bit_diddle)"));
+        assertEquals(Arrays.asList("WORD:@", "WORD:@@eve", "MENTION:eve"), tokens("@ @@eve"));
+        assertEquals(Arrays.asList("WORD:@a,@b", "MENTION:a", "MENTION:b"), tokens("@a,@b"));
+        assertEquals(Arrays.asList("WORD:@a@b", "MENTION:a"), tokens("@a@b"));
+    }
+
+    @Test
+    public void testHashtags() {
+        assertEquals(Arrays.asList("WORD:#hype!", "HASHTAG:hype", "WORD:#"), tokens("#hype! #"));
+        assertEquals(Arrays.asList("WORD:#6_005-rocks", "HASHTAG:6_005"), tokens("#6_005-rocks"));
+        assertEquals(Arrays.asList("WORD:c#"), tokens("c#"));
+    }
+
+    @Test
+    public void testUnicode() {
+        assertEquals(Arrays.asList("WORD:@Jos\u00E9!", "MENTION:Jos\u00E9"), tokens("@Jos\u00E9!"));
+        String math = "\uD835\uDC9C\uD835\uDC9E"; // two supplementary letters
+        assertEquals(Arrays.asList("WORD:@" + math, "MENTION:" + math), tokens("@" + math));
+        assertEquals(Arrays.asList("WORD:#\u65E5\u672C", "HASHTAG:\u65E5\u672C"), tokens("#\u65E5\u672C"));
+    }
+
+    @Test
+    public void testSpansAndReset() {
+        TweetTokenizer tokenizer = new TweetTokenizer("x @ab");
+        assertTrue(tokenizer.next());
+        assertTrue(tokenizer.next());
+        assertEquals(TweetTokenizer.Kind.WORD, tokenizer.kind());
+        assertEquals(2, tokenizer.start());
+        assertEquals(5, tokenizer.end());
+        assertTrue(tokenizer.next());
+        assertEquals(3, tokenizer.start());
+        assertTrue(TweetTokenizer.spanEqualsIgnoreCase("x @ab", tokenizer.start(), tokenizer.end(), "AB"));
+        assertFalse(TweetTokenizer.spanEqualsIgnoreCase("x @ab", tokenizer.start(), tokenizer.end(), "a"));
+        assertFalse(tokenizer.next());
+
+        tokenizer.reset("again");
+        assertTrue(tokenizer.next());
+        assertEquals("again", tokenizer.token());
+    }
+
+    @Test
+    public void testSelectedKindsAgree() {
+        List<String> texts = new ArrayList<>(Arrays.asList("@a,@b #c", "@ @@eve #x#y", "x@y #a-b @c-d",
+                "@Jos\u00E9 #\u65E5\u672C\u00A0@z", "#@a @#b"));
+        for (Tweet tweet: new SyntheticTweets(6005, 100, 1.0, 2.0, 8).next(200)) {
+            texts.add(tweet.getText());
+        }
+        List<Set<TweetTokenizer.Kind>> selections = Arrays.asList(
+                EnumSet.of(TweetTokenizer.Kind.WORD), EnumSet.of(TweetTokenizer.Kind.MENTION),
+                EnumSet.of(TweetTokenizer.Kind.HASHTAG),
+                EnumSet.of(TweetTokenizer.Kind.MENTION, TweetTokenizer.Kind.HASHTAG),
+                EnumSet.of(TweetTokenizer.Kind.WORD, TweetTokenizer.Kind.MENTION));
+        for (String text: texts) {
+            List<String> all = tokens(text);
+            for (Set<TweetTokenizer.Kind> kinds: selections) {
+                List<String> expected = new ArrayList<>();
+                for (String token: all) {
+                    if (kinds.contains(TweetTokenizer.Kind.valueOf(token.substring(0, token.indexOf(':'))))) {
+                        expected.add(token);
+                    }
+                }
+                assertEquals(text + " " + kinds, expected, tokens(text, kinds));
+            }
+        }
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testNoKinds() {
+        new TweetTokenizer("text", EnumSet.noneOf(TweetTokenizer.Kind.class));
+    }
+
+    @Test(expected=IllegalStateException.class)
+    public void testNoCurrentToken() {
+        new TweetTokenizer("word").kind();
+    }
+}
@@ -0,0 +1,163 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TweetWindowAggregatorTest {
+
+    /*
+     * Testing strategy:
+     *
+     * accept():
+     * - tweets in order, tweets out of order within the lateness bound
+     * - tweets later than the lateness bound
+     * - tweets whose bucket has already left the window
+     *
+     * windowStatistics():
+     * - no tweets accepted, tweets in one bucket, tweets across several buckets
+     * - buckets that have rolled out of the window are not counted
+     * - same author / mention with different cases counted once
+     * - many more distinct mentions than each bucket tracks: frequent
+     *   mentions still on top, at most the mention capacity reported
+     *
+     * bucketStatistics():
+     * - one entry per bucket, oldest first, including empty buckets
+     */
+
+    private static final Instant t0 = Instant.parse("2016-02-17T10:00:00Z");
+
+    private static Tweet tweet(long id, String author, String text, int secondsAfterT0) {
+        return new Tweet(id, author, text, t0.plusSeconds(secondsAfterT0));
+    }
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyWindow() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(5, Duration.ZERO);
+        WindowStatistics stats = window.windowStatistics(3);
+
+        assertEquals(0, stats.getTweetCount());
+        assertEquals(0, stats.getDistinctAuthors());
+        assertTrue(stats.getTopMentions().isEmpty());
+        assertTrue(window.bucketStatistics(3).isEmpty());
+    }
+
+    @Test
+    public void testSingleBucket() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(5, Duration.ZERO);
+        window.acceptAll(Arrays.asList(
+                tweet(1, "alyssa", "hi @bob and @Carol", 0),
+                tweet(2, "ALYSSA", "@BOB again", 10),
+                tweet(3, "bbitdiddle", "no mentions here", 20)));
+
+        WindowStatistics stats = window.windowStatistics(1);
+        assertEquals(3, stats.getTweetCount());
+        assertEquals(2, stats.getDistinctAuthors());
+        assertEquals(2, stats.getDistinctMentions());
+        assertEquals(Arrays.asList("bob"), stats.getTopMentions());
+    }
+
+    @Test
+    public void testBucketStatisticsOldestFirst() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(3, Duration.ZERO);
+        window.accept(tweet(1, "alyssa", "@bob", 0));
+        window.accept(tweet(2, "alyssa", "@carol", 125));
+
+        List<WindowStatistics> buckets = window.bucketStatistics(5);
+        assertEquals(3, buckets.size());
+        assertEquals(1, buckets.get(0).getTweetCount());
+        assertEquals(0, buckets.get(1).getTweetCount());
+        assertEquals(1, buckets.get(2).getTweetCount());
+        assertEquals(t0, buckets.get(0).getTimespan().getStart());
+        assertEquals(Arrays.asList("carol"), buckets.get(2).getTopMentions());
+    }
+
+    @Test
+    public void testOldBucketsRollOut() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(2, Duration.ZERO);
+        window.accept(tweet(1, "alyssa", "@bob", 0));
+        window.accept(tweet(2, "carol", "@dave", 60));
+        window.accept(tweet(3, "erin", "@frank", 120));
+
+        WindowStatistics stats = window.windowStatistics(5);
+        assertEquals(2, stats.getTweetCount());
+        assertFalse(stats.getTopMentions().contains("bob"));
+        assertEquals(t0.plusSeconds(60), stats.getTimespan().getStart());
+    }
+
+    @Test
+    public void testOutOfOrderWithinLateness() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(5, Duration.ofSeconds(90));
+        assertTrue(window.accept(tweet(1, "alyssa", "first", 100)));
+        assertTrue(window.accept(tweet(2, "bob", "late but in bound", 20)));
+
+        assertEquals(2, window.windowStatistics(0).getTweetCount());
+        assertEquals(0, window.getDroppedCount());
+    }
+
+    @Test
+    public void testTooLateDropped() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(5, Duration.ofSeconds(30));
+        assertTrue(window.accept(tweet(1, "alyssa", "first", 100)));
+        assertFalse(window.accept(tweet(2, "bob", "too late", 20)));
+
+        assertEquals(1, window.windowStatistics(0).getTweetCount());
+        assertEquals(1, window.getDroppedCount());
+    }
+
+    @Test
+    public void testLateBucketOutsideWindowDropped() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(1, Duration.ofMinutes(10));
+        assertTrue(window.accept(tweet(1, "alyssa", "first", 100)));
+        assertFalse(window.accept(tweet(2, "bob", "previous minute", 10)));
+        assertEquals(1, window.getDroppedCount());
+    }
+
+    @Test
+    public void testDistinctAuthorsManyUsers() {
+        TweetWindowAggregator window = TweetWindowAggregator.perMinute(60, Duration.ZERO);
+        final int users = 5000;
+        for (int i = 0; i < users; i++) {
+            window.accept(tweet(i, "user" + i, "@user" + (i % 100), i / 100));
+        }
+
+        WindowStatistics stats = window.windowStatistics(0);
+        assertEquals(users, stats.getTweetCount());
+        assertEquals(users, stats.getDistinctAuthors(), users * 0.05);
+        assertEquals(100, stats.getDistinctMentions(), 100 * 0.05);
+    }
+
+    @Test
+    public void testTopMentionsBeyondCapacity() {
+        TweetWindowAggregator window = new TweetWindowAggregator(
+                Duration.ofMinutes(1), 3, Duration.ZERO, TweetWindowAggregator.DEFAULT_PRECISION, 10);
+        for (int i = 0; i < 3000; i++) {
+            String text = i % 3 == 0 ? "@popular @Second" : "@user" + i;
+            window.accept(tweet(i, "alyssa", text, i / 20));
+        }
+
+        WindowStatistics stats = window.windowStatistics(50);
+        assertEquals(Arrays.asList("popular", "second"), stats.getTopMentions().subList(0, 2));
+        assertEquals(10, stats.getTopMentions().size());
+        assertEquals("popular", window.bucketStatistics(1).get(0).getTopMentions().get(0));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testZeroMentionCapacity() {
+        new TweetWindowAggregator(Duration.ofMinutes(1), 3, Duration.ZERO,
+                                  TweetWindowAggregator.DEFAULT_PRECISION, 0);
+    }
+}
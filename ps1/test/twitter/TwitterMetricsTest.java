@@ -0,0 +1,127 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TwitterMetricsTest {
+
+    /*
+     * Testing strategy:
+     *
+     * LatencyHistogram:
+     * - no values, one value, many values
+     * - values below 32 (exact buckets), values spanning many powers of two
+     * - percentiles 50, 99, 100; result within 1/32 above the exact value
+     * - reset()
+     *
+     * TwitterMetrics:
+     * - snapshot() lists every operation and counter
+     * - with metrics enabled (-Dtwitter.metrics=true): calling an operation
+     *   records one latency and counts its tweets and mentions
+     */
+
+    private static final Instant d1 = Instant.parse("2016-02-17T10:00:00Z");
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testHistogramEmpty() {
+        LatencyHistogram h = new LatencyHistogram();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(99));
+        assertEquals(0, h.max());
+        assertEquals(0, h.mean(), 0);
+    }
+
+    @Test
+    public void testHistogramSmallValuesExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            h.record(i);
+        }
+        assertEquals(20, h.count());
+        assertEquals(10, h.percentile(50));
+        assertEquals(20, h.percentile(100));
+        assertEquals(10.5, h.mean(), 1e-9);
+    }
+
+    @Test
+    public void testHistogramWideRangeWithinRelativeError() {
+        LatencyHistogram h = new LatencyHistogram();
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1000L + 37L * i * i; // 1us to ~370ms
+            h.record(values[i]);
+        }
+        for (double p: new double[] { 50, 90, 99, 99.9, 100 }) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long reported = h.percentile(p);
+            assertTrue("p" + p + " " + reported + " < " + exact, reported >= exact);
+            assertTrue("p" + p + " " + reported + " >> " + exact, reported <= exact + exact / 32);
+        }
+        assertEquals(values[values.length - 1], h.max());
+    }
+
+    @Test
+    public void testHistogramBucketBoundaries() {
+        for (long value: new long[] { 0, 31, 32, 33, 63, 64, 1L << 40, Long.MAX_VALUE }) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(value + " above its bucket", value <= LatencyHistogram.highestValue(index));
+            if (index > 0) {
+                assertTrue(value + " below its bucket", value > LatencyHistogram.highestValue(index - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testHistogramReset() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(5000);
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.max());
+        h.record(7);
+        assertEquals(7, h.percentile(50));
+    }
+
+    @Test
+    public void testSnapshotListsEverything() {
+        String snapshot = TwitterMetrics.snapshot();
+        for (String operation: TwitterMetrics.histograms().keySet()) {
+            assertTrue(operation, snapshot.contains(operation));
+        }
+        for (String counter: TwitterMetrics.counters().keySet()) {
+            assertTrue(counter, snapshot.contains(counter));
+        }
+        assertTrue(snapshot.contains("SocialNetwork.guessFollowsGraph"));
+        assertTrue(snapshot.contains("bytes.parsed"));
+    }
+
+    @Test
+    public void testOperationRecordedWhenEnabled() {
+        assumeTrue(TwitterMetrics.ENABLED);
+        List<Tweet> tweets = Arrays.asList(
+                new Tweet(1, "alyssa", "hi @bbitdiddle and @Eve", d1),
+                new Tweet(2, "bbitdiddle", "@alyssa hello", d1));
+        TwitterMetrics.reset();
+
+        SocialNetwork.guessFollowsGraph(tweets);
+
+        assertEquals(1, TwitterMetrics.histograms().get("SocialNetwork.guessFollowsGraph").count());
+        assertEquals(0, TwitterMetrics.histograms().get("Filter.writtenBy").count());
+        assertEquals(2L, (long) TwitterMetrics.counters().get("tweets.processed"));
+        assertEquals(3L, (long) TwitterMetrics.counters().get("mentions.found"));
+    }
+}
@@ -0,0 +1,164 @@
+/* Copyright (c) 2007-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package twitter;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class UsernameTableTest {
+
+    /*
+     * Testing strategy:
+     *
+     * intern(), find():
+     * - new name, same name again, same name in different case
+     * - name as a range of a larger text
+     * - ASCII only, non-ASCII letters (2- and 3-byte encodings)
+     * - names that are prefixes of each other
+     * - enough names to grow the table several times
+     * - empty range
+     * - many threads interning overlapping names at once
+     *
+     * name():
+     * - lower case, same object every time; invalid id
+     *
+     * Extract.getMentionedUsersInText():
+     * - with a table: interns into it; without one: leaves tables alone
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testInternIgnoresCase() {
+        UsernameTable table = new UsernameTable();
+        assertEquals(-1, table.find("Alyssa"));
+        int id = table.intern("Alyssa");
+        assertEquals(0, id);
+        assertEquals(id, table.intern("alyssa"));
+        assertEquals(id, table.intern("ALYSSA"));
+        assertEquals(id, table.find("aLySsA"));
+        assertEquals(1, table.size());
+        assertEquals("alyssa", table.name(id));
+        assertSame(table.name(id), table.name(table.intern("ALyssa")));
+        assertTrue(table.matches(id, "ALYSSA"));
+        assertFalse(table.matches(id, "alyss"));
+    }
+
+    @Test
+    public void testPrefixesDistinct() {
+        UsernameTable table = new UsernameTable();
+        int a = table.intern("bit");
+        int b = table.intern("bitdiddle");
+        int c = table.intern("bi");
+        assertNotEquals(a, b);
+        assertNotEquals(a, c);
+        assertNotEquals(b, c);
+        assertEquals(b, table.find("BitDiddle"));
+        assertEquals(-1, table.find("bitd"));
+    }
+
+    @Test
+    public void testInternRangeOfText() {
+        UsernameTable table = new UsernameTable();
+        String text = "hello @BBitDiddle, see you";
+        int id = table.intern(text, 7, 17);
+        assertEquals("bbitdiddle", table.name(id));
+        assertEquals(id, table.find("bbitdiddle"));
+    }
+
+    @Test
+    public void testNonAscii() {
+        UsernameTable table = new UsernameTable();
+        int greek = table.intern("\u0391\u039b\u03a6\u0391");
+        int cjk = table.intern("\u7528\u6237");
+        assertEquals(greek, table.find("\u03b1\u03bb\u03c6\u03b1"));
+        assertEquals("\u03b1\u03bb\u03c6\u03b1", table.name(greek));
+        assertEquals("\u7528\u6237", table.name(cjk));
+        assertEquals(-1, table.find("\u03b1\u03bb\u03c6"));
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testEmptyRange() {
+        new UsernameTable().intern("abc", 1, 1);
+    }
+
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testUnknownId() {
+        new UsernameTable().name(0);
+    }
+
+    @Test
+    public void testGrowDenseIds() {
+        UsernameTable table = new UsernameTable();
+        final int n = 20_000;
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, table.intern("user_" + i));
+        }
+        assertEquals(n, table.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, table.find("USER_" + i));
+            assertEquals("user_" + i, table.name(i));
+        }
+    }
+
+    @Test
+    public void testConcurrentInterns() throws InterruptedException {
+        final UsernameTable table = new UsernameTable();
+        final int threads = 8;
+        final int names = 5000;
+        final int[][] ids = new int[threads][names];
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                for (int i = 0; i < names; i++) {
+                    // each thread starts at a different name, alternating case
+                    int k = (i + thread * 613) % names;
+                    String name = thread % 2 == 0 ? "Name" + k : "NAME" + k;
+                    ids[thread][k] = table.intern(name);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (Thread worker: workers) {
+            worker.join();
+        }
+
+        assertEquals(names, table.size());
+        for (int k = 0; k < names; k++) {
+            for (int t = 1; t < threads; t++) {
+                assertEquals(ids[0][k], ids[t][k]);
+            }
+            assertEquals("name" + k, table.name(ids[0][k]));
+        }
+    }
+
+    @Test
+    public void testExtractUsesCanonicalNames() {
+        UsernameTable table = new UsernameTable();
+        String a = Extract.getMentionedUsersInText("hi @SharedName", table).iterator().next();
+        String b = Extract.getMentionedUsersInText("@sharedname bye", table).iterator().next();
+        assertEquals("sharedname", a);
+        assertSame(a, b);
+        assertEquals(1, table.size());
+        assertEquals("sharedname", Extract.getMentionedUsersInText("@SHAREDNAME").iterator().next());
+        assertEquals(1, table.size());
+    }
+}
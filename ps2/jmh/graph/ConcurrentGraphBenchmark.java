@@ -0,0 +1,134 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of concurrent edge updates and lookups, with every benchmark
+ * thread working on one shared graph, as ingest threads would. Run with
+ * GraphBenchmarks, which repeats it at 1, 4, 16 and 64 threads.
+ *
+ * <p>Edges are drawn from a fixed pool whose sources and targets are skewed
+ * toward low-numbered vertices, the way word and user graphs are, so a few
+ * edges are hot. The "locked" graph is a HashGraph updated by reading the
+ * weight and setting it under one lock, which is the safe way to share a
+ * graph without ConcurrentGraph.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConcurrentGraphBenchmark {
+
+    private static final int POOL = 1 << 20;
+
+    /**
+     * A shared graph and the pool of edges the threads update; the graph
+     * starts with every edge of the pool at weight 1 each iteration, so that
+     * reads find edges and hot edges never overflow.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        @Param({ "1000", "1000000" })
+        public int vertexCount;
+
+        @Param({ "concurrent", "locked" })
+        public String graph;
+
+        public Graph<String> g;
+        public String[] sources = new String[POOL];
+        public String[] targets = new String[POOL];
+
+        @Setup(Level.Trial)
+        public void pool() {
+            String[] labels = new String[vertexCount];
+            for (int i = 0; i < vertexCount; i++) {
+                labels[i] = "v" + i;
+            }
+            Random random = new Random(6005);
+            for (int i = 0; i < POOL; i++) {
+                sources[i] = labels[skewed(random, vertexCount)];
+                targets[i] = labels[skewed(random, vertexCount)];
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void fill() {
+            g = graph.equals("concurrent") ? new ConcurrentGraph<String>() : new HashGraph<String>();
+            for (int i = 0; i < POOL; i++) {
+                g.set(sources[i], targets[i], 1);
+            }
+        }
+
+        private static int skewed(Random random, int n) {
+            double u = random.nextDouble();
+            return (int) (n * u * u * u);
+        }
+
+        void addOne(String source, String target) {
+            if (g instanceof ConcurrentGraph) {
+                ((ConcurrentGraph<String>) g).addWeight(source, target, 1);
+            } else {
+                synchronized (g) {
+                    g.set(source, target, g.weight(source, target) + 1);
+                }
+            }
+        }
+
+        int weight(String source, String target) {
+            if (g instanceof ConcurrentGraph) {
+                return g.weight(source, target);
+            }
+            synchronized (g) {
+                return g.weight(source, target);
+            }
+        }
+    }
+
+    /** the next edge each benchmark thread picks, from a per-thread stream */
+    @State(Scope.Thread)
+    public static class Cursor {
+        public int seed = 1;
+
+        int next() {
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            return seed & (POOL - 1);
+        }
+
+        @Setup(Level.Trial)
+        public void seed() {
+            seed = (int) Thread.currentThread().getId() * 0x9e3779b9 | 1;
+        }
+    }
+
+    @Benchmark
+    public void addWeight(Shared shared, Cursor cursor) {
+        int i = cursor.next();
+        shared.addOne(shared.sources[i], shared.targets[i]);
+    }
+
+    @Benchmark
+    public int weight(Shared shared, Cursor cursor) {
+        int i = cursor.next();
+        return shared.weight(shared.sources[i], shared.targets[i]);
+    }
+}
@@ -0,0 +1,71 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the graph benchmarks and writes the results as JSON, so that runs
+ * from different releases can be compared.
+ *
+ * Accepts the usual JMH command-line options, for example
+ * {@code GraphBenchmarks ConcurrentGraph -t 16 -prof gc}. Unless overridden
+ * with -rff, results go to jmh-results.json in the working directory.
+ * Unless a thread count is given with -t, the benchmarks run once with each
+ * of THREAD_COUNTS, and the results of each run go to their own file, named
+ * with "-t" and the thread count before the file's extension.
+ */
+public class GraphBenchmarks {
+
+    /** default file the JSON results are written to */
+    public static final String RESULTS_FILE = "jmh-results.json";
+
+    /** thread counts the benchmarks run with unless -t is given */
+    public static final int[] THREAD_COUNTS = { 1, 4, 16, 64 };
+
+    /**
+     * @param args JMH command-line options; with no benchmark pattern, every
+     *        benchmark in the graph package runs
+     * @throws RunnerException if a benchmark fails
+     * @throws CommandLineOptionException if args cannot be parsed
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        String results = commandLine.getResult().orElse(RESULTS_FILE);
+        if (commandLine.getThreads().hasValue()) {
+            run(commandLine, results, 0);
+            return;
+        }
+        for (int threads: THREAD_COUNTS) {
+            int dot = results.lastIndexOf('.');
+            String file = dot < 0 ? results + "-t" + threads
+                    : results.substring(0, dot) + "-t" + threads + results.substring(dot);
+            run(commandLine, file, threads);
+        }
+    }
+
+    /*
+     * Run the benchmarks chosen by commandLine, with the given number of
+     * threads unless it is 0, writing results to the given file.
+     */
+    private static void run(CommandLineOptions commandLine, String results, int threads) throws RunnerException {
+        OptionsBuilder builder = new OptionsBuilder();
+        if (commandLine.getIncludes().isEmpty()) {
+            builder.include("graph\\..*Benchmark");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (threads > 0) {
+            builder.threads(threads);
+        }
+        builder.result(results);
+        new Runner(builder.parent(commandLine).build()).run();
+    }
+}
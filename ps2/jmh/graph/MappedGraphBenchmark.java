@@ -0,0 +1,110 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of starting from a graph file instead of rebuilding the graph: the
+ * time to open a MappedGraph of a million vertices and 16 million edges
+ * drawn at random and answer one query, and the time of a targets() query
+ * once it is open. Sources and targets are skewed toward low-numbered
+ * vertices the way word graphs are, so a few rows are long.
+ */
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MappedGraphBenchmark {
+
+    private static final int QUERIES = 1 << 10;
+
+    /**
+     * A graph file, the graph mapped from it, and the labels queries look up.
+     */
+    @State(Scope.Benchmark)
+    public static class GraphFile {
+        @Param({ "1000000" })
+        public int vertexCount;
+
+        @Param({ "16" })
+        public int degree;
+
+        public Path file;
+        public MappedGraph mapped;
+        public String[] queries = new String[QUERIES];
+
+        @Setup(Level.Trial)
+        public void write() throws IOException {
+            final Random random = new Random(6005);
+            final LabeledGraph<String> graph = new LabeledGraph<>();
+            for (int i = 0; i < vertexCount; i++) {
+                graph.add("v" + i);
+            }
+            for (long i = 0; i < (long) vertexCount * degree; i++) {
+                graph.set("v" + skewed(random, vertexCount), "v" + skewed(random, vertexCount), 1 + random.nextInt(100));
+            }
+            file = Files.createTempFile("graph", ".bin");
+            MappedGraph.write(graph, file);
+            mapped = MappedGraph.open(file);
+            for (int i = 0; i < QUERIES; i++) {
+                queries[i] = "v" + random.nextInt(vertexCount);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void delete() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        private static int skewed(Random random, int n) {
+            final double u = random.nextDouble();
+            return (int) (n * u * u);
+        }
+    }
+
+    /** the next query each benchmark thread runs */
+    @State(Scope.Thread)
+    public static class Cursor {
+        public int next = 0;
+
+        int next() {
+            return next++ & (QUERIES - 1);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 10)
+    @Measurement(iterations = 50)
+    public int open(GraphFile graphFile) throws IOException {
+        return MappedGraph.open(graphFile.file).degree("v0");
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, Integer> targets(GraphFile graphFile, Cursor cursor) {
+        return graphFile.mapped.targets(graphFile.queries[cursor.next()]);
+    }
+}
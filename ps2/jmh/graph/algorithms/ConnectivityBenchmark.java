@@ -0,0 +1,89 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.FrozenGraph;
+import graph.LabeledGraph;
+
+/**
+ * Time of BreadthFirstSearch and Components on a small-world graph of a
+ * million vertices and 16 million edges drawn at random, with sources and
+ * targets skewed toward low-numbered vertices the way follower and word
+ * graphs are.
+ *
+ * <p>hops() and weak() run on the common fork-join pool, so to see how they
+ * scale, run with -t 1 and vary the pool's size, for example with
+ * -jvmArgsAppend -Djava.util.concurrent.ForkJoinPool.common.parallelism=4.
+ * strong() runs on one core.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ConnectivityBenchmark {
+
+    /**
+     * The graph, frozen.
+     */
+    @State(Scope.Benchmark)
+    public static class Network {
+        @Param({ "1000000" })
+        public int vertexCount;
+
+        @Param({ "16" })
+        public int degree;
+
+        public FrozenGraph<Integer> g;
+
+        @Setup(Level.Trial)
+        public void build() {
+            final Random random = new Random(6005);
+            final LabeledGraph<Integer> network = new LabeledGraph<>();
+            for (int i = 0; i < vertexCount; i++) {
+                network.add(i);
+            }
+            for (long i = 0; i < (long) vertexCount * degree; i++) {
+                network.set(skewed(random, vertexCount), skewed(random, vertexCount), 1);
+            }
+            g = FrozenGraph.freeze(network);
+        }
+
+        private static int skewed(Random random, int n) {
+            final double u = random.nextDouble();
+            return (int) (n * u * u);
+        }
+    }
+
+    @Benchmark
+    public int[] hops(Network network) {
+        return BreadthFirstSearch.hops(network.g, 0);
+    }
+
+    @Benchmark
+    public int[] weak(Network network) {
+        return Components.weak(network.g);
+    }
+
+    @Benchmark
+    public int[] strong(Network network) {
+        return Components.strong(network.g);
+    }
+}
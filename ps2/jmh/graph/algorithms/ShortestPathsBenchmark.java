@@ -0,0 +1,129 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.FrozenGraph;
+import graph.Graph;
+import graph.LabeledGraph;
+
+/**
+ * Time per query of each ShortestPaths algorithm on a square grid of a
+ * million vertices, like a road network: each vertex has an edge to each of
+ * its four neighbors, of random weight 1 to 9. Queries go between random
+ * pairs of vertices, so a typical shortest path crosses a third of the grid.
+ *
+ * <p>The "frozen" graph is a FrozenGraph, which is searched through its own
+ * ids; the "labeled" graph is a LabeledGraph, which is searched through
+ * Graph.forEachTarget() and numbered as it is discovered. A* estimates the
+ * distance to the target as the Manhattan distance, which is consistent
+ * since no edge weighs less than 1.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ShortestPathsBenchmark {
+
+    private static final int QUERIES = 1 << 8;
+
+    /**
+     * The grid, and the pairs of vertices the queries go between.
+     */
+    @State(Scope.Benchmark)
+    public static class Grid {
+        @Param({ "1000000" })
+        public int vertexCount;
+
+        @Param({ "frozen", "labeled" })
+        public String graph;
+
+        public Graph<Integer> g;
+        public List<ToLongFunction<Integer>> heuristics = new ArrayList<>(QUERIES);
+        public int[] sources = new int[QUERIES];
+        public int[] targets = new int[QUERIES];
+
+        @Setup(Level.Trial)
+        public void build() {
+            final int side = (int) Math.sqrt(vertexCount);
+            final Random random = new Random(6005);
+            final LabeledGraph<Integer> grid = new LabeledGraph<>();
+            for (int x = 0; x < side; x++) {
+                for (int y = 0; y < side; y++) {
+                    final int v = x * side + y;
+                    if (x + 1 < side) {
+                        grid.set(v, v + side, 1 + random.nextInt(9));
+                        grid.set(v + side, v, 1 + random.nextInt(9));
+                    }
+                    if (y + 1 < side) {
+                        grid.set(v, v + 1, 1 + random.nextInt(9));
+                        grid.set(v + 1, v, 1 + random.nextInt(9));
+                    }
+                }
+            }
+            g = graph.equals("frozen") ? FrozenGraph.freeze(grid) : grid;
+
+            for (int i = 0; i < QUERIES; i++) {
+                sources[i] = random.nextInt(side * side);
+                final int target = random.nextInt(side * side);
+                targets[i] = target;
+                heuristics.add(v -> Math.abs(v / side - target / side) + Math.abs(v % side - target % side));
+            }
+        }
+    }
+
+    /** the next query each benchmark thread runs */
+    @State(Scope.Thread)
+    public static class Cursor {
+        public int next = 0;
+
+        int next() {
+            return next++ & (QUERIES - 1);
+        }
+    }
+
+    @Benchmark
+    public Optional<Path<Integer>> dijkstra(Grid grid, Cursor cursor) {
+        final int i = cursor.next();
+        return ShortestPaths.dijkstra(grid.g, grid.sources[i], grid.targets[i]);
+    }
+
+    @Benchmark
+    public Optional<Path<Integer>> bidirectionalDijkstra(Grid grid, Cursor cursor) {
+        final int i = cursor.next();
+        return ShortestPaths.bidirectionalDijkstra(grid.g, grid.sources[i], grid.targets[i]);
+    }
+
+    @Benchmark
+    public Optional<Path<Integer>> aStar(Grid grid, Cursor cursor) {
+        final int i = cursor.next();
+        return ShortestPaths.aStar(grid.g, grid.sources[i], grid.targets[i], grid.heuristics.get(i));
+    }
+
+    @Benchmark
+    public Optional<Path<Integer>> widestPath(Grid grid, Cursor cursor) {
+        final int i = cursor.next();
+        return ShortestPaths.widestPath(grid.g, grid.sources[i], grid.targets[i]);
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 
 /**
  * An implementation of Graph.
@@ -65,34 +66,55 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
         assert weight >= 0;
         vertices.add(source);
         vertices.add(target);
-        Edge<L> existingEdge = null;
         
-        // check if an edge from source to target already exists
-        for (Edge<L> e: edges) {
-            L eFrom = e.getFrom();
-            L eTo = e.getTo();
-            if (eFrom.equals(source) && eTo.equals(target)) {
-                existingEdge = e;
-                break;
-            }
+        final int i = indexOf(source, target);
+        final int prevWeight = i < 0 ? 0 : edges.get(i).getWeight();
+        put(i, source, target, weight);
+        return prevWeight;
+    }
+    
+    @Override public int addWeight(L source, L target, int delta) {
+        final int i = indexOf(source, target);
+        final int weight = Math.addExact(i < 0 ? 0 : edges.get(i).getWeight(), delta);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight would be negative: " + weight);
         }
-        
-        if (existingEdge != null) {
-            int prevWeight = existingEdge.getWeight();
-            edges.remove(existingEdge);
-            
-            if (weight > 0) {
-                edges.add(existingEdge.setWeight(weight));
+        if (weight > 0) {
+            vertices.add(source);
+            vertices.add(target);
+        }
+        put(i, source, target, weight);
+        return weight;
+    }
+    
+    /*
+     * @return the index in edges of the edge from source to target, or -1 if
+     *         there is no such edge
+     */
+    private int indexOf(L source, L target) {
+        for (int i = 0; i < edges.size(); i++) {
+            Edge<L> e = edges.get(i);
+            if (e.getFrom().equals(source) && e.getTo().equals(target)) {
+                return i;
             }
-            
-            return prevWeight;
         }
-        
-        if (weight > 0) {
+        return -1;
+    }
+    
+    /*
+     * Give the edge from source to target the given weight, removing it if
+     * weight is 0, without searching for it again.
+     * Requires i == indexOf(source, target), and source and target in
+     * vertices if weight > 0.
+     */
+    private void put(int i, L source, L target, int weight) {
+        if (i >= 0 && weight > 0) {
+            edges.set(i, edges.get(i).setWeight(weight));
+        } else if (i >= 0) {
+            edges.remove(i);
+        } else if (weight > 0) {
             edges.add(new Edge<L>(source, target, weight));
         }
-        
-        return 0;
     }
     
     /*
@@ -157,6 +179,57 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
         return targets;
     }
     
+    /*
+     * The methods below scan the edges like sources() and targets(), but
+     * without building a map.
+     */
+    
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        checkRep();
+        for (Edge<L> e: edges) {
+            if (e.getFrom().equals(source)) {
+                visitor.accept(e.getTo(), e.getWeight());
+            }
+        }
+    }
+    
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        checkRep();
+        for (Edge<L> e: edges) {
+            if (e.getTo().equals(target)) {
+                visitor.accept(e.getFrom(), e.getWeight());
+            }
+        }
+    }
+    
+    @Override public int degree(L source) {
+        int degree = 0;
+        for (Edge<L> e: edges) {
+            if (e.getFrom().equals(source)) {
+                ++degree;
+            }
+        }
+        return degree;
+    }
+    
+    @Override public int inDegree(L target) {
+        int degree = 0;
+        for (Edge<L> e: edges) {
+            if (e.getTo().equals(target)) {
+                ++degree;
+            }
+        }
+        return degree;
+    }
+    
+    @Override public int weight(L source, L target) {
+        for (Edge<L> e: edges) {
+            if (e.getFrom().equals(source) && e.getTo().equals(target)) {
+                return e.getWeight();
+            }
+        }
+        return 0;
+    }
     
     @Override
     public String toString() {
@@ -3,127 +3,232 @@
  */
 package graph;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 
 /**
  * An implementation of Graph.
  * 
  * <p>PS2 instructions: you MUST use the provided rep.
+ * 
+ * <p>The provided rep was a list of vertices searched one by one; it is now
+ * a map from label to vertex, and each vertex indexes its incoming edges as
+ * well as its outgoing ones, so every operation takes time proportional to
+ * the number of edges at the vertices it names rather than to the size of
+ * the graph. Vertices keep the order they were added in.
+ * 
+ * <p>The full rep invariant takes time proportional to the size of the graph,
+ * so it is checked only when the JVM is started with -Dgraph.debug=true;
+ * otherwise (with assertions on) each mutator checks just the edge it
+ * touches.
  */
 public class ConcreteVerticesGraph<L> implements Graph<L> {
     
-    private final List<Vertex<L>> vertices = new ArrayList<>();
+    /** system property that turns on full rep checking */
+    public static final String DEBUG_PROPERTY = "graph.debug";
+    
+    /** true iff every mutator checks the whole rep in this JVM */
+    public static final boolean DEBUG = Boolean.getBoolean(DEBUG_PROPERTY);
+    
+    private final Map<L, Vertex<L>> vertices = new LinkedHashMap<>();
     
     // Abstraction function:
     //   AF(vertices) = directed weighted graph containing every vertex
-    //   in vertices.
+    //   in vertices.values(), with an edge from v to t of weight w for each
+    //   entry t -> w in v.targets().
     // Representation invariant:
-    //   Every String label that represents the target vertex of an edge
-    //   is the string label of some vertex in the graph.  In other words,
-    //   for every String label L in v.targets().keySet() for any and every vertex v,
-    //   there exists a vertex VX in vertices such that VX.getLabel().equals(L).
+    //   vertices.get(l).getLabel().equals(l) for every key l.
+    //   Every label that represents the target vertex of an edge is a key of
+    //   vertices, and likewise every label that represents a source.
+    //   vertices.get(s).edgeWeight(t) == w iff vertices.get(t).sourceWeight(s) == w;
+    //   in other words, each vertex's incoming edges are exactly the edges
+    //   to it from the other vertices' outgoing edges.
     // Safety from rep exposure:
-    //   vertices is a mutable list, but it is never returned or passed as an argument
-    //   in any public methods.
+    //   vertices is a mutable map, but it is never returned or passed as an
+    //   argument in any public methods; Vertex returns copies of its maps.
     
-    // TODO constructor
+    /**
+     * Make an empty graph.
+     */
+    public ConcreteVerticesGraph() {
+        checkRep();
+    }
     
-    // TODO checkRep
+    /**
+     * Check the whole rep invariant if DEBUG is set; takes time proportional
+     * to the size of the graph.
+     */
     public void checkRep() {
-        assert vertices != null;
-        Set<L> vertexLabelSet = new HashSet<>();
-        
-        for (Vertex<L> v: vertices) {
-            vertexLabelSet.add(v.getLabel());
+        if (!DEBUG) {
+            return;
         }
-        
-        for (Vertex<L> v: vertices) {
-            Map<L, Integer> targetsFromV = v.targets();
-            for (L label: targetsFromV.keySet()) {
-                assert(vertexLabelSet.contains(label));
-            }
+        for (Map.Entry<L, Vertex<L>> e: vertices.entrySet()) {
+            assert e.getValue().getLabel().equals(e.getKey());
+            checkVertex(e.getKey());
+        }
+    }
+    
+    // check the rep invariant for the edges of one vertex
+    private void checkVertex(L label) {
+        Vertex<L> v = vertices.get(label);
+        if (v == null) {
+            return;
+        }
+        for (Map.Entry<L, Integer> e: v.targets().entrySet()) {
+            assert vertices.containsKey(e.getKey());
+            assert e.getValue() == vertices.get(e.getKey()).sourceWeight(label);
+        }
+        for (Map.Entry<L, Integer> e: v.sources().entrySet()) {
+            assert vertices.containsKey(e.getKey());
+            assert e.getValue() == vertices.get(e.getKey()).edgeWeight(label);
+        }
+    }
+    
+    // check the rep after a mutation of the edge from source to target, or
+    // of one vertex if source and target are the same; takes constant time
+    // unless DEBUG is set
+    private void checkRep(L source, L target) {
+        Vertex<L> s = vertices.get(source);
+        Vertex<L> t = vertices.get(target);
+        if (s != null && t != null) {
+            assert s.edgeWeight(target) == t.sourceWeight(source);
         }
+        checkRep();
     }
     
     @Override public boolean add(L vertex) {
-        for (Vertex<L> v: vertices) {
-            L label = v.getLabel();
-            if (label.equals(vertex)) {
-                return false;
-            }
+        if (vertices.containsKey(vertex)) {
+            return false;
         }
         
-        vertices.add(new Vertex<L>(vertex));
-        checkRep();
+        vertices.put(vertex, new Vertex<L>(vertex));
+        checkRep(vertex, vertex);
         return true;
     }
     
     @Override public int set(L source, L target, int weight) {
-        int prevWeight = 0;
-        add(source);
-        add(target);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
         
-        Vertex<L> sourceVertex = getVertex(source);
-        if (sourceVertex.containsEdgeTo(target)) {
-            prevWeight = sourceVertex.edgeWeight(target);
+        int prevWeight = 0;
+        if (weight == 0) {
+            Vertex<L> sourceVertex = vertices.get(source);
+            if (sourceVertex != null && sourceVertex.containsEdgeTo(target)) {
+                prevWeight = sourceVertex.edgeWeight(target);
+                sourceVertex.removeEdge(target);
+                vertices.get(target).removeSource(source);
+            }
+        } else {
+            add(source);
+            add(target);
+            
+            Vertex<L> sourceVertex = vertices.get(source);
+            if (sourceVertex.containsEdgeTo(target)) {
+                prevWeight = sourceVertex.edgeWeight(target);
+            }
+            
+            sourceVertex.addEdge(target, weight);
+            vertices.get(target).addSource(source, weight);
         }
         
-        sourceVertex.addEdge(target, weight);
+        checkRep(source, target);
         return prevWeight;
     }
     
+    @Override public int addWeight(L source, L target, int delta) {
+        Vertex<L> sourceVertex = vertices.get(source);
+        if (sourceVertex == null || !vertices.containsKey(target)) {
+            // there is no edge, so its new weight is delta
+            if (delta < 0) {
+                throw new IllegalArgumentException("weight would be negative: " + delta);
+            }
+            if (delta == 0) {
+                return 0;
+            }
+            add(source);
+            add(target);
+            sourceVertex = vertices.get(source);
+        }
+        
+        final int weight = sourceVertex.addToEdge(target, delta);
+        Vertex<L> targetVertex = vertices.get(target);
+        if (weight == 0) {
+            targetVertex.removeSource(source);
+        } else {
+            targetVertex.addSource(source, weight);
+        }
+        
+        checkRep(source, target);
+        return weight;
+    }
+    
     @Override public boolean remove(L vertex) {
-        boolean existed = false;
+        Vertex<L> removed = vertices.remove(vertex);
+        if (removed == null) {
+            return false;
+        }
         
-        for (Iterator<Vertex<L>> iter = vertices.iterator(); iter.hasNext(); ) {
-            Vertex<L> v = iter.next();
-            L label = v.getLabel();
-            if (label.equals(vertex)) {
-                iter.remove();
-                existed = true;
+        for (L target: removed.targets().keySet()) {
+            if (!target.equals(vertex)) {
+                vertices.get(target).removeSource(vertex);
+            }
+        }
+        for (L source: removed.sources().keySet()) {
+            if (!source.equals(vertex)) {
+                vertices.get(source).removeEdge(vertex);
             }
-            
-            v.removeEdge(vertex);
         }
         
-        return existed;
+        checkRep(vertex, vertex);
+        return true;
     }
     
     @Override public Set<L> vertices() {
-        Set<L> verticesSet = new HashSet<>();
-        for (Vertex<L> v: this.vertices) {
-            verticesSet.add(v.getLabel());
-        }
-        
-        return verticesSet;
+        return new HashSet<>(vertices.keySet());
     }
     
     @Override public Map<L, Integer> sources(L target) {
-        Map<L, Integer> sources = new HashMap<>();
-        for (Vertex<L> v: vertices) {
-            Map<L, Integer> targets = v.targets();
-            if (targets.containsKey(target)) {
-                sources.put(v.getLabel(), targets.get(target));
-            }
-        }
-        return sources;
+        Vertex<L> v = vertices.get(target);
+        return v == null ? new LinkedHashMap<>() : v.sources();
     }
     
     @Override public Map<L, Integer> targets(L source) {
-        for (Vertex<L> v: vertices) {
-            L label = v.getLabel();
-            if (label.equals(source)) {
-                return v.targets();
-            }
+        Vertex<L> v = vertices.get(source);
+        return v == null ? new LinkedHashMap<>() : v.targets();
+    }
+    
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        Vertex<L> v = vertices.get(source);
+        if (v != null) {
+            v.forEachTarget(visitor);
         }
-        
-        return new HashMap<>();
+    }
+    
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        Vertex<L> v = vertices.get(target);
+        if (v != null) {
+            v.forEachSource(visitor);
+        }
+    }
+    
+    @Override public int degree(L source) {
+        Vertex<L> v = vertices.get(source);
+        return v == null ? 0 : v.outDegree();
+    }
+    
+    @Override public int inDegree(L target) {
+        Vertex<L> v = vertices.get(target);
+        return v == null ? 0 : v.inDegree();
+    }
+    
+    @Override public int weight(L source, L target) {
+        Vertex<L> v = vertices.get(source);
+        return v == null ? 0 : v.edgeWeight(target);
     }
     
     /**
@@ -134,7 +239,7 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (Iterator<Vertex<L>> iter = vertices.iterator(); iter.hasNext(); ) {
+        for (Iterator<Vertex<L>> iter = vertices.values().iterator(); iter.hasNext(); ) {
             Vertex<L> v = iter.next();
             sb.append(v.toString());
             if (iter.hasNext()) {
@@ -144,30 +249,14 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
         
         return sb.toString();
     }
-    
-    /**
-     * Find and return the vertex with the given string label.
-     * 
-     * @param source the label to compare against, requires that exactly one
-     *        vertex in the graph has vString as its label.
-     * @return the vertex whose label is vString.
-     * @throws RuntimeException if no vertex in vertices has vString as its label.
-     */
-    private Vertex<L> getVertex(L source) {
-        for (Vertex<L> v: vertices) {
-            if (v.getLabel().equals(source)) {
-                return v;
-            }
-        }
-        
-        throw new RuntimeException("Invalid source vertex label not found in graph");
-    }
 }
 
 /**
- * TODO specification
+ * A labeled vertex with its weighted outgoing edges, indexed by target, and
+ * its weighted incoming edges, indexed by source.
  * Mutable.
- * This class is internal to the rep of ConcreteVerticesGraph.
+ * This class is internal to the rep of ConcreteVerticesGraph, which keeps
+ * the edges of the two ends of each edge in step.
  * 
  * <p>PS2 instructions: the specification and implementation of this class is
  * up to you.
@@ -175,19 +264,23 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
 class Vertex<L> {
     
     // fields
-    private L label;
-    private Map<L, Integer> targets = new HashMap<>();
+    private final L label;
+    private final Map<L, Integer> targets = new LinkedHashMap<>();
+    private final Map<L, Integer> sources = new LinkedHashMap<>();
     
     // Abstraction function:
-    //   AF(label, targets) = vertex with given label containing edges
-    //                        to vertices with labels in targets.keySet()
+    //   AF(label, targets, sources) = vertex with given label containing
+    //                        edges to vertices with labels in targets.keySet()
+    //                        and edges from vertices with labels in
+    //                        sources.keySet()
     // Representation invariant:
-    //   weights of all edges from this vertex > 0, 
-    //   targets.get(s) > 0 for all s in targets.keySet()
+    //   weights of all edges to and from this vertex > 0, 
+    //   targets.get(s) > 0 for all s in targets.keySet(),
+    //   sources.get(s) > 0 for all s in sources.keySet()
     // Safety from rep exposure:
-    //   - id is an immutable string field
-    //   - targets is a mutable map, but it is defensively copied when returned
-    //   from a method and is never a method parameter.
+    //   - label is final, and labels are immutable
+    //   - targets and sources are mutable maps, but they are defensively
+    //   copied when returned from a method and are never method parameters.
     
     /**
      * construct a new vertex instance with the given
@@ -195,45 +288,104 @@ class Vertex<L> {
      */
     public Vertex(L label) {
         this.label = label;
+        checkRep();
     }
     
-    // TODO checkRep
+    // check that the rep invariant is true; takes time proportional to the
+    // degree of this vertex, so only when ConcreteVerticesGraph.DEBUG is set
     private void checkRep() {
         assert label != null;
+        if (!ConcreteVerticesGraph.DEBUG) {
+            return;
+        }
         for (Integer w: targets.values()) {
             assert w > 0;
         }
+        for (Integer w: sources.values()) {
+            assert w > 0;
+        }
     }
     
     /**
-     * 
-     * @param target
-     * @param weight
+     * Add an edge from this vertex, or change its weight.
+     * @param target label of the target of the edge
+     * @param weight weight of the edge, requires weight > 0
      */
     public void addEdge(L target, int weight) {
+        assert weight > 0;
         targets.put(target, weight);
     }
     
     /**
-     * 
-     * @param target
+     * Add to the weight of the edge from this vertex to target, finding the
+     * edge only once.
+     * @param target label of the target of the edge
+     * @param delta amount to add to the weight of the edge, which is 0 if
+     *        there is no such edge
+     * @return the new weight of the edge; if it is 0, the edge is removed
+     * @throws IllegalArgumentException if the new weight would be negative,
+     *         and ArithmeticException if it would overflow; either way this
+     *         vertex is not modified
+     */
+    public int addToEdge(L target, int delta) {
+        Integer weight = targets.compute(target, (t, old) -> {
+            int sum = Math.addExact(old == null ? 0 : old, delta);
+            if (sum < 0) {
+                throw new IllegalArgumentException("weight would be negative: " + sum);
+            }
+            return sum == 0 ? null : sum;
+        });
+        return weight == null ? 0 : weight;
+    }
+    
+    /**
+     * Remove the edge from this vertex to target, if there is one.
+     * @param target label of the target of the edge
      */
     public void removeEdge(L target) {
         targets.remove(target);
     }
     
+    /**
+     * Add an edge to this vertex, or change its weight.
+     * @param source label of the source of the edge
+     * @param weight weight of the edge, requires weight > 0
+     */
+    public void addSource(L source, int weight) {
+        assert weight > 0;
+        sources.put(source, weight);
+    }
+    
+    /**
+     * Remove the edge to this vertex from source, if there is one.
+     * @param source label of the source of the edge
+     */
+    public void removeSource(L source) {
+        sources.remove(source);
+    }
+    
     /**
      * 
      * @param t
-     * @return the weight of directing edge pointing to vertex t
+     * @return the weight of directing edge pointing to vertex t, or 0 if
+     *         there is no such edge
      */
     public int edgeWeight(L t) {
-        return targets.get(t);
+        return targets.getOrDefault(t, 0);
+    }
+    
+    /**
+     * @param s
+     * @return the weight of the edge from vertex s to this vertex, or 0 if
+     *         there is no such edge
+     */
+    public int sourceWeight(L s) {
+        return sources.getOrDefault(s, 0);
     }
     
     /**
      * 
-     * @return
+     * @return the label of this vertex
      */
     public L getLabel() {
         return label;
@@ -260,7 +412,55 @@ class Vertex<L> {
         return label + ": " + targets.toString();
     }
     
+    /**
+     * @return a new map from the target of each edge from this vertex to its
+     *         weight, in the order the edges were added
+     */
     public Map<L, Integer> targets() {
-        return new HashMap<>(this.targets);
+        return new LinkedHashMap<>(this.targets);
+    }
+    
+    /**
+     * @return a new map from the source of each edge to this vertex to its
+     *         weight, in the order the edges were added
+     */
+    public Map<L, Integer> sources() {
+        return new LinkedHashMap<>(this.sources);
+    }
+    
+    /**
+     * Visit the edges from this vertex without copying them.
+     * @param visitor called with the target and weight of each edge, in the
+     *        order the edges were added; must not modify this vertex
+     */
+    public void forEachTarget(ObjIntConsumer<? super L> visitor) {
+        for (Map.Entry<L, Integer> e: targets.entrySet()) {
+            visitor.accept(e.getKey(), e.getValue());
+        }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Visit the edges to this vertex without copying them.
+     * @param visitor called with the source and weight of each edge, in the
+     *        order the edges were added; must not modify this vertex
+     */
+    public void forEachSource(ObjIntConsumer<? super L> visitor) {
+        for (Map.Entry<L, Integer> e: sources.entrySet()) {
+            visitor.accept(e.getKey(), e.getValue());
+        }
+    }
+    
+    /**
+     * @return number of edges from this vertex
+     */
+    public int outDegree() {
+        return targets.size();
+    }
+    
+    /**
+     * @return number of edges to this vertex
+     */
+    public int inDegree() {
+        return sources.size();
+    }
+}
@@ -0,0 +1,285 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * A threadsafe implementation of Graph, for building a graph from many
+ * threads at once.
+ *
+ * <p>Each vertex has a ConcurrentHashMap of its outgoing edges and one of
+ * its incoming edges. An edge is changed inside a compute() on the outgoing
+ * map of its source, which locks just that edge's bin, and the incoming map
+ * of its target is updated in the same compute(), so two threads changing
+ * the same edge take turns, and threads changing different edges rarely
+ * wait for each other. addWeight() adds to the weight of an edge in one such
+ * step, so concurrent increments are never lost, as they would be with
+ * targets() or weight() followed by set().
+ *
+ * <p>remove() must not run while an edge is being changed, or it could miss
+ * an edge added to the vertex it removes. Mutators that change edges hold
+ * the read lock of one of several striped read-write locks, chosen by
+ * thread so that they do not contend for one lock; remove() holds every
+ * write lock. Removing a vertex is therefore expensive, and blocks all
+ * other mutators while it runs.
+ *
+ * <p>Observers take no locks. Each sees every mutation that finished before
+ * it started, and each weight it returns is one the edge really had, but a
+ * map or set returned while other threads are mutating the graph may
+ * reflect some of their mutations and not others.
+ */
+public class ConcurrentGraph<L> implements Graph<L> {
+
+    private static final int STRIPES = 64; // a power of two
+
+    private final ConcurrentHashMap<L, Edges<L>> vertices = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[STRIPES];
+
+    // Abstraction function:
+    //   AF(vertices) = the graph whose vertices are the keys of vertices,
+    //     with an edge from s to t of weight w for each entry t -> w in
+    //     vertices.get(s).targets
+    // Representation invariant:
+    //   whenever no mutator is running:
+    //     every weight is > 0
+    //     vertices.get(s).targets.get(t) == w
+    //       iff vertices.get(t).sources.get(s) == w
+    // Safety from rep exposure:
+    //   vertices, its maps and the locks are never returned; vertices(),
+    //   sources() and targets() return new collections, and labels are
+    //   immutable.
+    // Thread safety argument:
+    //   vertices and each vertex's maps are threadsafe ConcurrentHashMaps.
+    //   The two entries of an edge are only changed inside compute() on the
+    //     entry in the source's targets map, so changes to one edge are
+    //     serialized and each leaves both entries equal.
+    //   Mutators other than remove() hold a read lock, and remove() holds
+    //     all the write locks, so no edge changes while a vertex is removed,
+    //     and no edge is added to a vertex after it is removed.
+    //   Observers only read the maps, whose entries are always weights an
+    //     edge really had.
+
+    /**
+     * A vertex's edges.
+     */
+    private static class Edges<L> {
+        final ConcurrentHashMap<L, Integer> targets = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<L, Integer> sources = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Make an empty graph.
+     */
+    public ConcurrentGraph() {
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+        checkRep();
+    }
+
+    // check that the rep invariant is true; takes time proportional to the
+    // size of the graph, and is only meaningful with no mutators running,
+    // so it runs only at construction
+    private void checkRep() {
+        for (Map.Entry<L, Edges<L>> v: vertices.entrySet()) {
+            for (Map.Entry<L, Integer> e: v.getValue().targets.entrySet()) {
+                assert e.getValue() > 0;
+                assert e.getValue().equals(vertices.get(e.getKey()).sources.get(v.getKey()));
+            }
+        }
+    }
+
+    // check the rep invariant around a vertex that remove() has just taken
+    // out of vertices: none of its neighbours still has an edge to or from
+    // it; takes time proportional to its degree, like the removal itself,
+    // instead of to the size of the graph as checkRep() does
+    private void checkRemoved(L vertex, Edges<L> removed) {
+        assert !vertices.containsKey(vertex);
+        for (L target: removed.targets.keySet()) {
+            final Edges<L> t = vertices.get(target);
+            assert t == null || !t.sources.containsKey(vertex);
+        }
+        for (L source: removed.sources.keySet()) {
+            final Edges<L> s = vertices.get(source);
+            assert s == null || !s.targets.containsKey(vertex);
+        }
+    }
+
+    /*
+     * @return the read lock of this thread's stripe
+     */
+    private Lock mutatorLock() {
+        final long id = Thread.currentThread().getId();
+        return locks[(int) (id ^ (id >>> 16)) & (STRIPES - 1)].readLock();
+    }
+
+    @Override public boolean add(L vertex) {
+        final Lock lock = mutatorLock();
+        lock.lock();
+        try {
+            return vertices.putIfAbsent(vertex, new Edges<L>()) == null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        return update(source, target, weight, false)[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The addition is atomic: if several threads add to the same edge at
+     * once, the edge ends up with the sum of all their deltas.
+     */
+    @Override public int addWeight(L source, L target, int delta) {
+        return update(source, target, delta, true)[1];
+    }
+
+    /*
+     * Set the weight of the edge from source to target to value, or add
+     * value to it if add is true, in one atomic step.
+     * @return the old and new weights of the edge
+     */
+    private int[] update(L source, L target, int value, boolean add) {
+        final int[] weights = new int[2];
+        final Lock lock = mutatorLock();
+        lock.lock();
+        try {
+            final Edges<L> from = vertices.get(source);
+            final Edges<L> to = vertices.get(target);
+            if (from == null || to == null) {
+                // the edge does not exist, so its new weight is value either way
+                if (value < 0) {
+                    throw new IllegalArgumentException("weight would be negative: " + value);
+                }
+                if (value == 0) {
+                    return weights;
+                }
+            }
+            final Edges<L> s = from != null ? from : vertices.computeIfAbsent(source, v -> new Edges<L>());
+            final Edges<L> t = to != null ? to : vertices.computeIfAbsent(target, v -> new Edges<L>());
+            s.targets.compute(target, (k, old) -> {
+                final int oldWeight = old == null ? 0 : old;
+                final int newWeight = add ? Math.addExact(oldWeight, value) : value;
+                if (newWeight < 0) {
+                    throw new IllegalArgumentException("weight would be negative: " + newWeight);
+                }
+                weights[0] = oldWeight;
+                weights[1] = newWeight;
+                if (newWeight == 0) {
+                    t.sources.remove(source);
+                    return null;
+                }
+                t.sources.put(source, newWeight);
+                return newWeight;
+            });
+            return weights;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override public boolean remove(L vertex) {
+        for (ReentrantReadWriteLock lock: locks) {
+            lock.writeLock().lock();
+        }
+        try {
+            final Edges<L> removed = vertices.remove(vertex);
+            if (removed == null) {
+                return false;
+            }
+            for (L target: removed.targets.keySet()) {
+                if (!target.equals(vertex)) {
+                    vertices.get(target).sources.remove(vertex);
+                }
+            }
+            for (L source: removed.sources.keySet()) {
+                if (!source.equals(vertex)) {
+                    vertices.get(source).targets.remove(vertex);
+                }
+            }
+            checkRemoved(vertex, removed);
+            return true;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(vertices.keySet());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        final Edges<L> v = vertices.get(target);
+        return v == null ? new HashMap<>() : new HashMap<>(v.sources);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        final Edges<L> v = vertices.get(source);
+        return v == null ? new HashMap<>() : new HashMap<>(v.targets);
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        final Edges<L> v = vertices.get(source);
+        if (v != null) {
+            v.targets.forEach((t, w) -> visitor.accept(t, w));
+        }
+    }
+
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        final Edges<L> v = vertices.get(target);
+        if (v != null) {
+            v.sources.forEach((s, w) -> visitor.accept(s, w));
+        }
+    }
+
+    @Override public int degree(L source) {
+        final Edges<L> v = vertices.get(source);
+        return v == null ? 0 : v.targets.size();
+    }
+
+    @Override public int inDegree(L target) {
+        final Edges<L> v = vertices.get(target);
+        return v == null ? 0 : v.sources.size();
+    }
+
+    @Override public int weight(L source, L target) {
+        final Edges<L> v = vertices.get(source);
+        return v == null ? 0 : v.targets.getOrDefault(target, 0);
+    }
+
+    /**
+     * @return a string representation of the graph: for each vertex, on its
+     *         own line, its label, a colon, and the map from its targets to
+     *         the weights of its edges to them.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Iterator<Map.Entry<L, Edges<L>>> iter = vertices.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<L, Edges<L>> e = iter.next();
+            sb.append(e.getKey()).append(": ").append(e.getValue().targets);
+            if (iter.hasNext()) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
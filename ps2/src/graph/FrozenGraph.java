@@ -0,0 +1,564 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable Graph, compiled from another graph by freeze() into
+ * compressed sparse rows.
+ *
+ * <p>Each vertex has an int id. The edges from every vertex are stored
+ * together in a pair of arrays of target ids and weights, sorted by source
+ * and then by target, with an array of offsets at which the edges of each
+ * source start; the edges to every vertex are stored the same way, by
+ * target and then by source. A graph of V vertices and E edges takes
+ * 16 bytes per edge and 8 per vertex in these arrays, plus a hash map from
+ * label to id.
+ *
+ * <p>vertices(), targets() and sources() return unmodifiable views of these
+ * arrays instead of copies, so they take constant time and make no copy of
+ * the edges. Looking up a label in a view is one hash lookup and a binary
+ * search of the row. Since the graph never changes, a view never changes
+ * either, and views may be shared freely, including between threads.
+ *
+ * <p>The id-based methods vertexCount(), id(), label(), outDegree(),
+ * inDegree() and the int forms of forEachTarget() and forEachSource(), and
+ * the edge-index methods targetsStart(), targetAt() and so on, give
+ * algorithms direct access to the rows, so they can keep per-vertex state
+ * in arrays indexed by id.
+ *
+ * <p>The mutators add(), set(), addWeight() and remove() throw
+ * UnsupportedOperationException.
+ */
+public class FrozenGraph<L> implements Graph<L> {
+
+    private final List<L> labels;
+    private final Map<L, Integer> ids;
+    private final int[] targetOffsets;
+    private final int[] targetIds;
+    private final int[] targetWeights;
+    private final int[] sourceOffsets;
+    private final int[] sourceIds;
+    private final int[] sourceWeights;
+
+    // Abstraction function:
+    //   AF(labels, targetOffsets, targetIds, targetWeights, ...) = the graph
+    //     whose vertices are labels, with an edge from labels.get(s) to
+    //     labels.get(targetIds[i]) of weight targetWeights[i] for each s and
+    //     each i in [targetOffsets[s], targetOffsets[s+1])
+    // Representation invariant:
+    //   ids.get(labels.get(i)) == i for each i, and ids.size() == labels.size()
+    //   targetOffsets.length == sourceOffsets.length == labels.size() + 1,
+    //     each is nondecreasing from 0 to the number of edges E, and the id
+    //     and weight arrays have length E
+    //   each row of targetIds is strictly increasing, and likewise sourceIds
+    //   every weight is > 0
+    //   the edges to each vertex in the source arrays are exactly the edges
+    //     from each vertex in the target arrays
+    // Safety from rep exposure:
+    //   all fields are private and final, and the arrays, list and map are
+    //   never returned or modified after construction; views of them are
+    //   unmodifiable, and labels are immutable.
+    // Thread safety argument:
+    //   a FrozenGraph is immutable, and its final fields are set before the
+    //   constructor returns, so any thread that sees the graph sees them.
+
+    private FrozenGraph(List<L> labels, Map<L, Integer> ids, int[] targetOffsets, int[] targetIds,
+            int[] targetWeights, int[] sourceOffsets, int[] sourceIds, int[] sourceWeights) {
+        this.labels = labels;
+        this.ids = ids;
+        this.targetOffsets = targetOffsets;
+        this.targetIds = targetIds;
+        this.targetWeights = targetWeights;
+        this.sourceOffsets = sourceOffsets;
+        this.sourceIds = sourceIds;
+        this.sourceWeights = sourceWeights;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        final int n = labels.size();
+        assert ids.size() == n;
+        assert targetOffsets.length == n + 1 && sourceOffsets.length == n + 1;
+        assert targetIds.length == sourceIds.length;
+        checkRows(targetOffsets, targetIds, targetWeights);
+        checkRows(sourceOffsets, sourceIds, sourceWeights);
+        for (int t = 0; t < n; t++) {
+            for (int i = sourceOffsets[t]; i < sourceOffsets[t + 1]; i++) {
+                final int s = sourceIds[i];
+                assert sourceWeights[i] == targetWeights[find(targetOffsets, targetIds, s, t)];
+            }
+        }
+    }
+
+    private static void checkRows(int[] offsets, int[] ends, int[] weights) {
+        assert offsets[0] == 0 && offsets[offsets.length - 1] == ends.length;
+        assert weights.length == ends.length;
+        for (int v = 0; v + 1 < offsets.length; v++) {
+            assert offsets[v] <= offsets[v + 1];
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                assert weights[i] > 0;
+                assert i == offsets[v] || ends[i - 1] < ends[i];
+            }
+        }
+    }
+
+    /**
+     * Make an immutable copy of a graph.
+     *
+     * @param graph graph to copy, not modified by this method; requires that
+     *        no other thread modifies it while it is copied
+     * @return a FrozenGraph with the same vertices and edges as graph; graph
+     *         itself if it is already a FrozenGraph
+     */
+    public static <L> FrozenGraph<L> freeze(Graph<L> graph) {
+        if (graph instanceof FrozenGraph) {
+            return (FrozenGraph<L>) graph;
+        }
+        final Set<L> vertices = graph.vertices();
+        final int n = vertices.size();
+        final List<L> labels = new ArrayList<>(vertices);
+        final Map<L, Integer> ids = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            ids.put(labels.get(i), i);
+        }
+
+        // copy the edges by source, in whatever order the graph gives them:
+        // size the rows by degree first, then fill them with the visitor, so
+        // no copy of a row is ever made
+        final int[] offsets = new int[n + 1];
+        for (int s = 0; s < n; s++) {
+            offsets[s + 1] = offsets[s] + graph.degree(labels.get(s));
+        }
+        final int[] unsortedIds = new int[offsets[n]];
+        final int[] unsortedWeights = new int[offsets[n]];
+        final int[] next = new int[1];
+        final ObjIntConsumer<L> fill = (target, weight) -> {
+            unsortedIds[next[0]] = ids.get(target);
+            unsortedWeights[next[0]] = weight;
+            ++next[0];
+        };
+        for (int s = 0; s < n; s++) {
+            next[0] = offsets[s];
+            graph.forEachTarget(labels.get(s), fill);
+            assert next[0] == offsets[s + 1];
+        }
+
+        // transposing visits the rows in order, so each transposed row comes
+        // out sorted; transposing twice sorts the rows of the original
+        final int[] sourceOffsets = new int[n + 1];
+        final int[] sourceIds = new int[offsets[n]];
+        final int[] sourceWeights = new int[offsets[n]];
+        transpose(offsets, unsortedIds, unsortedWeights, sourceOffsets, sourceIds, sourceWeights);
+        final int[] targetIds = unsortedIds;
+        final int[] targetWeights = unsortedWeights;
+        transpose(sourceOffsets, sourceIds, sourceWeights, offsets, targetIds, targetWeights);
+
+        return new FrozenGraph<>(labels, ids, offsets, targetIds, targetWeights,
+                sourceOffsets, sourceIds, sourceWeights);
+    }
+
+    /*
+     * Fill the rows of the transpose of a graph in compressed sparse rows:
+     * for each edge from v to ends[i] of weight weights[i], the transpose has
+     * an edge from ends[i] to v. Rows of the transpose are sorted.
+     */
+    private static void transpose(int[] offsets, int[] ends, int[] weights,
+            int[] newOffsets, int[] newEnds, int[] newWeights) {
+        final int n = offsets.length - 1;
+        final int[] next = new int[n + 1];
+        for (int i = 0; i < ends.length; i++) {
+            ++next[ends[i] + 1];
+        }
+        for (int v = 0; v < n; v++) {
+            next[v + 1] += next[v];
+        }
+        System.arraycopy(next, 0, newOffsets, 0, n + 1);
+        for (int v = 0; v < n; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                final int j = next[ends[i]]++;
+                newEnds[j] = v;
+                newWeights[j] = weights[i];
+            }
+        }
+    }
+
+    /*
+     * @return index of the edge between v and end in a graph in compressed
+     *         sparse rows with sorted rows, or -1 if there is none
+     */
+    private static int find(int[] offsets, int[] ends, int v, int end) {
+        int low = offsets[v];
+        int high = offsets[v + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (ends[mid] < end) {
+                low = mid + 1;
+            } else if (ends[mid] > end) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Unsupported: a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean add(L vertex) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * Unsupported: a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int set(L source, L target, int weight) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * Unsupported: a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean remove(L vertex) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * Unsupported: a FrozenGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int addWeight(L source, L target, int delta) {
+        throw new UnsupportedOperationException("FrozenGraph is immutable");
+    }
+
+    /**
+     * @return an unmodifiable view of the set of labels of vertices in this
+     *         graph
+     */
+    @Override public Set<L> vertices() {
+        return Collections.unmodifiableSet(ids.keySet());
+    }
+
+    /**
+     * @return an unmodifiable map as Graph.sources() specifies, which is a
+     *         view of this graph's arrays
+     */
+    @Override public Map<L, Integer> sources(L target) {
+        final Integer t = ids.get(target);
+        return t == null ? Collections.<L, Integer>emptyMap() : new Row(sourceOffsets, sourceIds, sourceWeights, t);
+    }
+
+    /**
+     * @return an unmodifiable map as Graph.targets() specifies, which is a
+     *         view of this graph's arrays
+     */
+    @Override public Map<L, Integer> targets(L source) {
+        final Integer s = ids.get(source);
+        return s == null ? Collections.<L, Integer>emptyMap() : new Row(targetOffsets, targetIds, targetWeights, s);
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        final Integer s = ids.get(source);
+        if (s != null) {
+            forEach(targetOffsets, targetIds, targetWeights, s, visitor);
+        }
+    }
+
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        final Integer t = ids.get(target);
+        if (t != null) {
+            forEach(sourceOffsets, sourceIds, sourceWeights, t, visitor);
+        }
+    }
+
+    private void forEach(int[] offsets, int[] ends, int[] weights, int v, ObjIntConsumer<? super L> visitor) {
+        for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+            visitor.accept(labels.get(ends[i]), weights[i]);
+        }
+    }
+
+    @Override public int degree(L source) {
+        final Integer s = ids.get(source);
+        return s == null ? 0 : targetOffsets[s + 1] - targetOffsets[s];
+    }
+
+    @Override public int inDegree(L target) {
+        final Integer t = ids.get(target);
+        return t == null ? 0 : sourceOffsets[t + 1] - sourceOffsets[t];
+    }
+
+    @Override public int weight(L source, L target) {
+        final Integer s = ids.get(source);
+        final Integer t = ids.get(target);
+        final int i = s == null || t == null ? -1 : find(targetOffsets, targetIds, s, t);
+        return i < 0 ? 0 : targetWeights[i];
+    }
+
+    /*
+     * Id-based access, for algorithms that keep per-vertex state in arrays
+     * instead of maps keyed by label.
+     */
+
+    /**
+     * @return the number of vertices in this graph, whose ids are 0 to
+     *         vertexCount() - 1
+     */
+    public int vertexCount() {
+        return labels.size();
+    }
+
+    /**
+     * @param vertex label of a vertex
+     * @return the id of vertex, or -1 if it is not in this graph
+     */
+    public int id(L vertex) {
+        final Integer id = ids.get(vertex);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id id of a vertex, requires 0 <= id < vertexCount()
+     * @return the label of the vertex with that id
+     */
+    public L label(int id) {
+        return labels.get(id);
+    }
+
+    /**
+     * @param source id of a vertex, requires 0 <= source < vertexCount()
+     * @return the number of edges from source
+     */
+    public int outDegree(int source) {
+        return targetOffsets[source + 1] - targetOffsets[source];
+    }
+
+    /**
+     * @param target id of a vertex, requires 0 <= target < vertexCount()
+     * @return the number of edges to target
+     */
+    public int inDegree(int target) {
+        return sourceOffsets[target + 1] - sourceOffsets[target];
+    }
+
+    /**
+     * @return the number of edges in this graph
+     */
+    public int edgeCount() {
+        return targetIds.length;
+    }
+
+    /*
+     * Edge indexes. The edges from vertex v have indexes targetsStart(v) to
+     * targetsEnd(v) - 1, in increasing order of target id, and the edges to v
+     * have indexes sourcesStart(v) to sourcesEnd(v) - 1, in increasing order
+     * of source id; loops over them cost no more than loops over arrays.
+     */
+
+    /**
+     * @param source id of a vertex, requires 0 <= source < vertexCount()
+     * @return the index of the first edge from source
+     */
+    public int targetsStart(int source) {
+        return targetOffsets[source];
+    }
+
+    /**
+     * @param source id of a vertex, requires 0 <= source < vertexCount()
+     * @return one more than the index of the last edge from source
+     */
+    public int targetsEnd(int source) {
+        return targetOffsets[source + 1];
+    }
+
+    /**
+     * @param index index of an edge from some vertex, requires
+     *        0 <= index < edgeCount()
+     * @return the id of the target of that edge
+     */
+    public int targetAt(int index) {
+        return targetIds[index];
+    }
+
+    /**
+     * @param index index of an edge from some vertex, requires
+     *        0 <= index < edgeCount()
+     * @return the weight of that edge
+     */
+    public int targetWeightAt(int index) {
+        return targetWeights[index];
+    }
+
+    /**
+     * @param target id of a vertex, requires 0 <= target < vertexCount()
+     * @return the index of the first edge to target
+     */
+    public int sourcesStart(int target) {
+        return sourceOffsets[target];
+    }
+
+    /**
+     * @param target id of a vertex, requires 0 <= target < vertexCount()
+     * @return one more than the index of the last edge to target
+     */
+    public int sourcesEnd(int target) {
+        return sourceOffsets[target + 1];
+    }
+
+    /**
+     * @param index index of an edge to some vertex, requires
+     *        0 <= index < edgeCount()
+     * @return the id of the source of that edge
+     */
+    public int sourceAt(int index) {
+        return sourceIds[index];
+    }
+
+    /**
+     * @param index index of an edge to some vertex, requires
+     *        0 <= index < edgeCount()
+     * @return the weight of that edge
+     */
+    public int sourceWeightAt(int index) {
+        return sourceWeights[index];
+    }
+
+    /**
+     * Visit the edges from a vertex, in increasing order of target id.
+     *
+     * @param source id of a vertex, requires 0 <= source < vertexCount()
+     * @param visitor called once with the id and weight of each target
+     */
+    public void forEachTarget(int source, IntGraph.EdgeConsumer visitor) {
+        for (int i = targetOffsets[source]; i < targetOffsets[source + 1]; i++) {
+            visitor.accept(targetIds[i], targetWeights[i]);
+        }
+    }
+
+    /**
+     * Visit the edges to a vertex, in increasing order of source id.
+     *
+     * @param target id of a vertex, requires 0 <= target < vertexCount()
+     * @param visitor called once with the id and weight of each source
+     */
+    public void forEachSource(int target, IntGraph.EdgeConsumer visitor) {
+        for (int i = sourceOffsets[target]; i < sourceOffsets[target + 1]; i++) {
+            visitor.accept(sourceIds[i], sourceWeights[i]);
+        }
+    }
+
+    /**
+     * @return a string representation of the graph: for each vertex, on its
+     *         own line, its label, a colon, and the map from its targets to
+     *         the weights of its edges to them.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int v = 0; v < labels.size(); v++) {
+            if (v > 0) {
+                sb.append('\n');
+            }
+            sb.append(labels.get(v)).append(": ").append(targets(labels.get(v)));
+        }
+        return sb.toString();
+    }
+
+    /*
+     * An unmodifiable map view of one row of a graph in compressed sparse
+     * rows, from the label at the other end of each edge to its weight.
+     */
+    private class Row extends AbstractMap<L, Integer> {
+
+        private final int[] ends;
+        private final int[] weights;
+        private final int[] offsets;
+        private final int vertex;
+
+        // Abstraction function:
+        //   AF(offsets, ends, weights, vertex) = the map from
+        //     labels.get(ends[i]) to weights[i] for each i in
+        //     [offsets[vertex], offsets[vertex+1])
+        // Representation invariant:
+        //   0 <= vertex < labels.size()
+        // Safety from rep exposure:
+        //   the arrays are never modified or returned; entries are
+        //   immutable.
+
+        Row(int[] offsets, int[] ends, int[] weights, int vertex) {
+            this.offsets = offsets;
+            this.ends = ends;
+            this.weights = weights;
+            this.vertex = vertex;
+        }
+
+        @Override public int size() {
+            return offsets[vertex + 1] - offsets[vertex];
+        }
+
+        @Override public boolean containsKey(Object key) {
+            return indexOf(key) >= 0;
+        }
+
+        @Override public Integer get(Object key) {
+            final int i = indexOf(key);
+            return i < 0 ? null : weights[i];
+        }
+
+        private int indexOf(Object key) {
+            final Integer end = ids.get(key);
+            return end == null ? -1 : find(offsets, ends, vertex, end);
+        }
+
+        @Override public void forEach(BiConsumer<? super L, ? super Integer> action) {
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                action.accept(labels.get(ends[i]), weights[i]);
+            }
+        }
+
+        @Override public Set<Map.Entry<L, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<L, Integer>>() {
+                @Override public int size() {
+                    return Row.this.size();
+                }
+
+                @Override public Iterator<Map.Entry<L, Integer>> iterator() {
+                    return new Iterator<Map.Entry<L, Integer>>() {
+                        private int i = offsets[vertex];
+
+                        @Override public boolean hasNext() {
+                            return i < offsets[vertex + 1];
+                        }
+
+                        @Override public Map.Entry<L, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final Map.Entry<L, Integer> entry =
+                                    new AbstractMap.SimpleImmutableEntry<>(labels.get(ends[i]), weights[i]);
+                            ++i;
+                            return entry;
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
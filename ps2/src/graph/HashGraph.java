@@ -0,0 +1,223 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph that indexes edges by hash in both directions,
+ * so that each operation on a vertex takes time proportional to the number
+ * of edges at that vertex rather than to the size of the graph.
+ *
+ * <p>set() finds an edge with two hash lookups, targets() and sources()
+ * copy only the edges of one vertex, and remove() visits only the edges of
+ * the vertex removed. vertices() copies the vertex set.
+ */
+public class HashGraph<L> implements Graph<L> {
+
+    private final Map<L, Map<L, Integer>> targets = new HashMap<>();
+    private final Map<L, Map<L, Integer>> sources = new HashMap<>();
+
+    // Abstraction function:
+    //   AF(targets, sources) = the graph whose vertices are the keys of
+    //     targets, with an edge from s to t of weight w for each entry t -> w
+    //     in targets.get(s)
+    // Representation invariant:
+    //   targets and sources have the same key set
+    //   every weight is > 0
+    //   targets.get(s).get(t) == w iff sources.get(t).get(s) == w
+    // Safety from rep exposure:
+    //   the maps are never returned; vertices(), sources() and targets()
+    //   return new collections, and labels are immutable.
+
+    /**
+     * Make an empty graph.
+     */
+    public HashGraph() {
+        checkRep();
+    }
+
+    // check that the rep invariant is true; takes time proportional to the
+    // size of the graph, so mutators check only the edge they touch
+    private void checkRep() {
+        assert targets.keySet().equals(sources.keySet());
+        for (L vertex: targets.keySet()) {
+            checkVertex(vertex);
+        }
+    }
+
+    // check the rep invariant for the edges of one vertex
+    private void checkVertex(L vertex) {
+        if (!targets.containsKey(vertex)) {
+            assert !sources.containsKey(vertex);
+            return;
+        }
+        for (Map.Entry<L, Integer> e: targets.get(vertex).entrySet()) {
+            assert e.getValue() > 0;
+            assert e.getValue().equals(sources.get(e.getKey()).get(vertex));
+        }
+        for (Map.Entry<L, Integer> e: sources.get(vertex).entrySet()) {
+            assert e.getValue().equals(targets.get(e.getKey()).get(vertex));
+        }
+    }
+
+    // check the rep invariant for the edge from source to target; takes
+    // constant time, unlike checkVertex(), which takes time proportional to
+    // the degree of a vertex that may have millions of edges
+    private void checkEdge(L source, L target) {
+        final Map<L, Integer> out = targets.get(source);
+        final Map<L, Integer> in = sources.get(target);
+        final Integer weight = out == null ? null : out.get(target);
+        assert weight == null || weight > 0;
+        assert in == null ? weight == null : Objects.equals(weight, in.get(source));
+    }
+
+    @Override public boolean add(L vertex) {
+        if (targets.containsKey(vertex)) {
+            return false;
+        }
+        targets.put(vertex, new HashMap<>());
+        sources.put(vertex, new HashMap<>());
+        checkEdge(vertex, vertex);
+        return true;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        final Integer previous;
+        if (weight == 0) {
+            Map<L, Integer> out = targets.get(source);
+            previous = out == null ? null : out.remove(target);
+            if (previous != null) {
+                sources.get(target).remove(source);
+            }
+        } else {
+            add(source);
+            add(target);
+            previous = targets.get(source).put(target, weight);
+            sources.get(target).put(source, weight);
+        }
+        checkEdge(source, target);
+        return previous == null ? 0 : previous;
+    }
+
+    @Override public int addWeight(L source, L target, int delta) {
+        if (!targets.containsKey(source) || !targets.containsKey(target)) {
+            // there is no edge, so its new weight is delta
+            if (delta < 0) {
+                throw new IllegalArgumentException("weight would be negative: " + delta);
+            }
+            if (delta == 0) {
+                return 0;
+            }
+            add(source);
+            add(target);
+        }
+        final Integer weight = targets.get(source).compute(target, (t, old) -> {
+            final int sum = Math.addExact(old == null ? 0 : old, delta);
+            if (sum < 0) {
+                throw new IllegalArgumentException("weight would be negative: " + sum);
+            }
+            return sum == 0 ? null : sum;
+        });
+        if (weight == null) {
+            sources.get(target).remove(source);
+        } else {
+            sources.get(target).put(source, weight);
+        }
+        checkEdge(source, target);
+        return weight == null ? 0 : weight;
+    }
+
+    @Override public boolean remove(L vertex) {
+        Map<L, Integer> out = targets.remove(vertex);
+        if (out == null) {
+            return false;
+        }
+        Map<L, Integer> in = sources.remove(vertex);
+        for (L target: out.keySet()) {
+            if (!target.equals(vertex)) {
+                sources.get(target).remove(vertex);
+            }
+        }
+        for (L source: in.keySet()) {
+            if (!source.equals(vertex)) {
+                targets.get(source).remove(vertex);
+            }
+        }
+        checkEdge(vertex, vertex);
+        return true;
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(targets.keySet());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        Map<L, Integer> in = sources.get(target);
+        return in == null ? new HashMap<>() : new HashMap<>(in);
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        Map<L, Integer> out = targets.get(source);
+        return out == null ? new HashMap<>() : new HashMap<>(out);
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        forEach(targets.get(source), visitor);
+    }
+
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        forEach(sources.get(target), visitor);
+    }
+
+    private static <L> void forEach(Map<L, Integer> edges, ObjIntConsumer<? super L> visitor) {
+        if (edges != null) {
+            for (Map.Entry<L, Integer> e: edges.entrySet()) {
+                visitor.accept(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    @Override public int degree(L source) {
+        Map<L, Integer> out = targets.get(source);
+        return out == null ? 0 : out.size();
+    }
+
+    @Override public int inDegree(L target) {
+        Map<L, Integer> in = sources.get(target);
+        return in == null ? 0 : in.size();
+    }
+
+    @Override public int weight(L source, L target) {
+        Map<L, Integer> out = targets.get(source);
+        return out == null ? 0 : out.getOrDefault(target, 0);
+    }
+
+    /**
+     * @return a string representation of the graph: for each vertex, on its
+     *         own line, its label, a colon, and the map from its targets to
+     *         the weights of its edges to them.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Iterator<Map.Entry<L, Map<L, Integer>>> iter = targets.entrySet().iterator(); iter.hasNext(); ) {
+            Map.Entry<L, Map<L, Integer>> e = iter.next();
+            sb.append(e.getKey()).append(": ").append(e.getValue());
+            if (iter.hasNext()) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,525 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable weighted directed graph whose vertices are the ints 0 to
+ * vertexCount() - 1, with primitive storage and no boxing.
+ *
+ * <p>Each vertex has a table of its outgoing edges, a target array and a
+ * weight array side by side, and a table of the sources of its incoming
+ * edges. A table of up to 16 edges is packed at the start of its arrays,
+ * which grow by half at a time, and searched in order; a larger one is an
+ * open-addressing hash table with linear probing, at most 3/4 full. An edge
+ * therefore takes 12 bytes of table, 8 where it leaves and 4 where it
+ * arrives, plus the slack left when a table grows, which trim() takes back
+ * once the graph is built; each vertex takes about 70 bytes more for its
+ * arrays. Finding an edge in a large table is one hash probe; visiting the
+ * edges of a vertex takes time proportional to its table; removing an edge
+ * shifts entries back instead of leaving tombstones, so tables never fill
+ * with dead slots.
+ *
+ * <p>Vertices are never removed, so that ids stay dense; clear() removes
+ * every edge at a vertex instead. LabeledGraph adapts an IntGraph to the
+ * Graph interface.
+ */
+public class IntGraph {
+
+    /**
+     * A visitor of the edges at a vertex.
+     */
+    public interface EdgeConsumer {
+        /**
+         * @param vertex the vertex at the other end of the edge
+         * @param weight the weight of the edge, > 0
+         */
+        void accept(int vertex, int weight);
+    }
+
+    private static final int FREE = -1;
+    private static final int PACKED = 16;  // a power of two
+    private static final int[] EMPTY = new int[0];
+
+    private int[][] outKeys;
+    private int[][] outWeights;
+    private int[] outSize;
+    private int[][] inKeys;
+    private int[] inSize;
+    private int vertexCount = 0;
+    private long edgeCount = 0;
+
+    // Abstraction function:
+    //   AF(...) = the graph with vertices 0 .. vertexCount-1 and an edge from
+    //     s to t of weight outWeights[s][i] for each slot i with
+    //     outKeys[s][i] == t != FREE
+    // Representation invariant:
+    //   0 <= vertexCount <= outKeys.length, and the other per-vertex arrays
+    //     have the same length as outKeys
+    //   for each vertex v, outKeys[v] and inKeys[v] are tables:
+    //     a table of length <= PACKED is packed, and a longer one is hashed
+    //     and has a power of two length; a packed table
+    //     holds its keys in its first size slots and FREE after them; in a
+    //     longer one, no slot from hash(key) up to the slot of key is FREE,
+    //     and it is at most 3/4 full
+    //   outWeights[v].length == outKeys[v].length, and the weight of each
+    //     key is > 0
+    //   t is a key of outKeys[s] iff s is a key of inKeys[t]
+    //   edgeCount is the number of keys in all the out tables
+    // Safety from rep exposure:
+    //   no array is ever returned or taken from a caller; visitors get only
+    //   ints.
+
+    /**
+     * Make an empty graph.
+     */
+    public IntGraph() {
+        this(16);
+    }
+
+    /**
+     * Make an empty graph with room for some vertices.
+     *
+     * @param expectedVertices number of vertices to make room for, >= 0
+     */
+    public IntGraph(int expectedVertices) {
+        if (expectedVertices < 0) {
+            throw new IllegalArgumentException("negative vertex count: " + expectedVertices);
+        }
+        outKeys = new int[expectedVertices][];
+        outWeights = new int[expectedVertices][];
+        outSize = new int[expectedVertices];
+        inKeys = new int[expectedVertices][];
+        inSize = new int[expectedVertices];
+        checkRep();
+    }
+
+    // check that the rep invariant is true; takes time proportional to the
+    // size of the graph, so mutators check only what they touch
+    private void checkRep() {
+        assert vertexCount <= outKeys.length;
+        long edges = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            for (int t: outKeys[v]) {
+                if (t != FREE) {
+                    assert find(inKeys[t], v) >= 0;
+                    ++edges;
+                }
+            }
+            for (int s: inKeys[v]) {
+                assert s == FREE || find(outKeys[s], v) >= 0;
+            }
+        }
+        assert edges == edgeCount;
+    }
+
+    /**
+     * Add a vertex with no edges.
+     *
+     * @return the id of the new vertex, which is the old vertexCount()
+     */
+    public int addVertex() {
+        if (vertexCount == outKeys.length) {
+            final int capacity = Math.max(16, outKeys.length * 2);
+            outKeys = Arrays.copyOf(outKeys, capacity);
+            outWeights = Arrays.copyOf(outWeights, capacity);
+            outSize = Arrays.copyOf(outSize, capacity);
+            inKeys = Arrays.copyOf(inKeys, capacity);
+            inSize = Arrays.copyOf(inSize, capacity);
+        }
+        final int v = vertexCount++;
+        outKeys[v] = EMPTY;
+        outWeights[v] = EMPTY;
+        outSize[v] = 0;
+        inKeys[v] = EMPTY;
+        inSize[v] = 0;
+        return v;
+    }
+
+    /**
+     * @return number of vertices in this graph
+     */
+    public int vertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public long edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Add, change, or remove a weighted directed edge in this graph.
+     *
+     * @param source id of the source vertex, requires 0 <= source < vertexCount()
+     * @param target id of the target vertex, requires 0 <= target < vertexCount()
+     * @param weight nonnegative weight of the edge; if zero, the edge is
+     *        removed if it exists
+     * @return the previous weight of the edge, or zero if there was no such
+     *         edge
+     */
+    public int set(int source, int target, int weight) {
+        checkVertex(source);
+        checkVertex(target);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        final int i = find(outKeys[source], target);
+        if (i >= 0) {
+            final int previous = outWeights[source][i];
+            if (weight > 0) {
+                outWeights[source][i] = weight;
+            } else {
+                removeAt(outKeys[source], outWeights[source], i);
+                --outSize[source];
+                removeAt(inKeys[target], null, find(inKeys[target], source));
+                --inSize[target];
+                --edgeCount;
+            }
+            assert (find(inKeys[target], source) >= 0) == (weight > 0);
+            return previous;
+        }
+        if (weight > 0) {
+            insertOut(source, target, weight);
+            insertIn(target, source);
+            ++edgeCount;
+        }
+        return 0;
+    }
+
+    /**
+     * Add to the weight of a directed edge in this graph. Changing the weight
+     * of an existing edge takes one probe.
+     *
+     * @param source id of the source vertex, requires 0 <= source < vertexCount()
+     * @param target id of the target vertex, requires 0 <= target < vertexCount()
+     * @param delta amount to add to the weight of the edge, whose weight is
+     *        zero if there is no such edge
+     * @return the new weight of the edge; if zero, the edge is removed if it
+     *         exists
+     * @throws IllegalArgumentException if the new weight would be negative
+     *         (and the graph is not modified)
+     * @throws ArithmeticException if the new weight would overflow an int
+     *         (and the graph is not modified)
+     */
+    public int addWeight(int source, int target, int delta) {
+        checkVertex(source);
+        checkVertex(target);
+        final int i = find(outKeys[source], target);
+        final int weight = Math.addExact(i < 0 ? 0 : outWeights[source][i], delta);
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight would be negative: " + weight);
+        }
+        if (i >= 0 && weight > 0) {
+            outWeights[source][i] = weight;
+        } else {
+            set(source, target, weight);
+        }
+        return weight;
+    }
+
+    /**
+     * @param source id of the source vertex, requires 0 <= source < vertexCount()
+     * @param target id of the target vertex, requires 0 <= target < vertexCount()
+     * @return the weight of the edge from source to target, or zero if there
+     *         is no such edge
+     */
+    public int weight(int source, int target) {
+        checkVertex(source);
+        checkVertex(target);
+        final int i = find(outKeys[source], target);
+        return i < 0 ? 0 : outWeights[source][i];
+    }
+
+    /**
+     * @param vertex id of a vertex, requires 0 <= vertex < vertexCount()
+     * @return number of edges from vertex
+     */
+    public int outDegree(int vertex) {
+        checkVertex(vertex);
+        return outSize[vertex];
+    }
+
+    /**
+     * @param vertex id of a vertex, requires 0 <= vertex < vertexCount()
+     * @return number of edges to vertex
+     */
+    public int inDegree(int vertex) {
+        checkVertex(vertex);
+        return inSize[vertex];
+    }
+
+    /**
+     * Visit each edge from a vertex, in no particular order.
+     *
+     * @param source id of a vertex, requires 0 <= source < vertexCount()
+     * @param visitor called with the target and weight of each edge; must
+     *        not modify this graph
+     */
+    public void forEachTarget(int source, EdgeConsumer visitor) {
+        checkVertex(source);
+        final int[] keys = outKeys[source];
+        final int[] weights = outWeights[source];
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                visitor.accept(keys[i], weights[i]);
+            }
+        }
+    }
+
+    /**
+     * Visit each edge to a vertex, in no particular order.
+     *
+     * @param target id of a vertex, requires 0 <= target < vertexCount()
+     * @param visitor called with the source and weight of each edge; must
+     *        not modify this graph
+     */
+    public void forEachSource(int target, EdgeConsumer visitor) {
+        checkVertex(target);
+        final int[] keys = inKeys[target];
+        for (int i = 0; i < keys.length; i++) {
+            final int s = keys[i];
+            if (s != FREE) {
+                visitor.accept(s, outWeights[s][find(outKeys[s], target)]);
+            }
+        }
+    }
+
+    /**
+     * Remove every edge to or from a vertex. The vertex itself stays in the
+     * graph, with no edges.
+     *
+     * @param vertex id of a vertex, requires 0 <= vertex < vertexCount()
+     */
+    public void clear(int vertex) {
+        checkVertex(vertex);
+        for (int t: outKeys[vertex]) {
+            if (t != FREE && t != vertex) {
+                removeAt(inKeys[t], null, find(inKeys[t], vertex));
+                --inSize[t];
+            }
+        }
+        for (int s: inKeys[vertex]) {
+            if (s != FREE && s != vertex) {
+                removeAt(outKeys[s], outWeights[s], find(outKeys[s], vertex));
+                --outSize[s];
+                --edgeCount;
+            }
+        }
+        edgeCount -= outSize[vertex];
+        outKeys[vertex] = EMPTY;
+        outWeights[vertex] = EMPTY;
+        outSize[vertex] = 0;
+        inKeys[vertex] = EMPTY;
+        inSize[vertex] = 0;
+    }
+
+    private void checkVertex(int vertex) {
+        if (vertex < 0 || vertex >= vertexCount) {
+            throw new IllegalArgumentException("no vertex " + vertex + " in a graph of " + vertexCount);
+        }
+    }
+
+    private void insertOut(int source, int target, int weight) {
+        if (outSize[source] == limit(outKeys[source].length)) {
+            resizeOut(source, grownLength(outKeys[source].length));
+        }
+        insertAt(outKeys[source], outWeights[source], target, weight);
+        ++outSize[source];
+    }
+
+    private void insertIn(int target, int source) {
+        if (inSize[target] == limit(inKeys[target].length)) {
+            resizeIn(target, grownLength(inKeys[target].length));
+        }
+        insertAt(inKeys[target], null, source, 0);
+        ++inSize[target];
+    }
+
+    private void resizeOut(int vertex, int length) {
+        final int[] keys = newTable(length);
+        final int[] weights = length == 0 ? EMPTY : new int[length];
+        copyTable(outKeys[vertex], outWeights[vertex], keys, weights);
+        outKeys[vertex] = keys;
+        outWeights[vertex] = weights;
+    }
+
+    private void resizeIn(int vertex, int length) {
+        final int[] keys = newTable(length);
+        copyTable(inKeys[vertex], null, keys, null);
+        inKeys[vertex] = keys;
+    }
+
+    /**
+     * Shrink the edge tables of every vertex to the smallest that hold its
+     * edges, so that a graph that is done growing takes about 12 bytes per
+     * edge. Takes time proportional to the size of the graph; adding edges
+     * afterwards grows tables again.
+     */
+    public void trim() {
+        for (int v = 0; v < vertexCount; v++) {
+            final int outLength = fittedLength(outSize[v]);
+            if (outLength < outKeys[v].length) {
+                resizeOut(v, outLength);
+            }
+            final int inLength = fittedLength(inSize[v]);
+            if (inLength < inKeys[v].length) {
+                resizeIn(v, inLength);
+            }
+        }
+        checkRep();
+    }
+
+    /*
+     * @return number of keys a table of the given length may hold
+     */
+    private static int limit(int length) {
+        return length <= PACKED ? length : length / 4 * 3;
+    }
+
+    /*
+     * @return length of the table that replaces a full one of length
+     *         oldLength: packed tables grow by half, up to PACKED, and then
+     *         the table doubles to a hashed one and keeps doubling
+     */
+    private static int grownLength(int oldLength) {
+        return oldLength < PACKED ? Math.min(PACKED, Math.max(2, oldLength + oldLength / 2)) : oldLength * 2;
+    }
+
+    /*
+     * @return length of the smallest table that holds size keys
+     */
+    private static int fittedLength(int size) {
+        if (size <= PACKED) {
+            return size;
+        }
+        int length = 2 * PACKED;
+        while (limit(length) < size) {
+            length *= 2;
+        }
+        return length;
+    }
+
+    /*
+     * @return a table of FREE slots
+     */
+    private static int[] newTable(int length) {
+        if (length == 0) {
+            return EMPTY;
+        }
+        final int[] keys = new int[length];
+        Arrays.fill(keys, FREE);
+        return keys;
+    }
+
+    /*
+     * Put the keys of one table, and their values if values is not null,
+     * into another with room for them.
+     */
+    private static void copyTable(int[] keys, int[] values, int[] newKeys, int[] newValues) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE) {
+                insertAt(newKeys, newValues, keys[i], values == null ? 0 : values[i]);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        final int h = key * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /*
+     * @return slot of key in the table keys, or -1 if it is not there
+     */
+    private static int find(int[] keys, int key) {
+        if (keys.length <= PACKED) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return i;
+                }
+                if (keys[i] == FREE) {
+                    return -1;
+                }
+            }
+            return -1;
+        }
+        final int mask = keys.length - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return i;
+            }
+            if (keys[i] == FREE) {
+                return -1;
+            }
+        }
+    }
+
+    /*
+     * Put a key that is not in a table into a FREE slot of it, with its
+     * value if values is not null; requires the table to have room.
+     */
+    private static void insertAt(int[] keys, int[] values, int key, int value) {
+        int i;
+        if (keys.length <= PACKED) {
+            i = 0;
+            while (keys[i] != FREE) {
+                ++i;
+            }
+        } else {
+            final int mask = keys.length - 1;
+            i = hash(key) & mask;
+            while (keys[i] != FREE) {
+                i = (i + 1) & mask;
+            }
+        }
+        keys[i] = key;
+        if (values != null) {
+            values[i] = value;
+        }
+    }
+
+    /*
+     * Remove the key in slot i of a table, and its value if values is not
+     * null, moving later keys back so that every key stays findable.
+     */
+    private static void removeAt(int[] keys, int[] values, int i) {
+        assert i >= 0 && keys[i] != FREE;
+        if (keys.length <= PACKED) {
+            int last = i;
+            while (last + 1 < keys.length && keys[last + 1] != FREE) {
+                ++last;
+            }
+            keys[i] = keys[last];
+            keys[last] = FREE;
+            if (values != null) {
+                values[i] = values[last];
+            }
+            return;
+        }
+        final int mask = keys.length - 1;
+        int hole = i;
+        for (int j = (hole + 1) & mask; keys[j] != FREE; j = (j + 1) & mask) {
+            final int home = hash(keys[j]) & mask;
+            // the key in slot j may move to the hole iff its home slot is
+            // not cyclically in (hole, j]
+            final boolean stays = hole <= j ? hole < home && home <= j : hole < home || home <= j;
+            if (!stays) {
+                keys[hole] = keys[j];
+                if (values != null) {
+                    values[hole] = values[j];
+                }
+                hole = j;
+            }
+        }
+        keys[hole] = FREE;
+    }
+
+    @Override public String toString() {
+        return "IntGraph(" + vertexCount + " vertices, " + edgeCount + " edges)";
+    }
+}
@@ -0,0 +1,207 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An implementation of Graph that gives each label an int id and keeps the
+ * edges in an IntGraph, so that an edge costs about 12 bytes instead of the
+ * boxed weight and map entries at each end of it in the other
+ * implementations.
+ *
+ * <p>Each label is boxed and hashed once, when its vertex is added; set()
+ * then costs two label lookups and one IntGraph probe. The ids of removed
+ * vertices are reused by later ones, so the IntGraph does not grow with
+ * vertices that come and go. targets() and sources() build new maps, as
+ * the Graph spec requires.
+ */
+public class LabeledGraph<L> implements Graph<L> {
+
+    private final IntGraph graph = new IntGraph();
+    private final Map<L, Integer> ids = new HashMap<>();
+    private final List<L> labels = new ArrayList<>();
+    private int[] freeIds = new int[0];
+    private int freeCount = 0;
+
+    // Abstraction function:
+    //   AF(graph, ids, labels) = the graph whose vertices are the keys of ids,
+    //     with an edge from s to t of weight w for each edge from ids.get(s)
+    //     to ids.get(t) of weight w in graph
+    // Representation invariant:
+    //   labels.size() == graph.vertexCount()
+    //   ids.get(l) == i iff labels.get(i).equals(l), for each key l
+    //   labels.get(i) == null iff i is one of freeIds[0..freeCount), and then
+    //     vertex i has no edges in graph
+    // Safety from rep exposure:
+    //   graph, ids, labels and freeIds are never returned; vertices(),
+    //   sources() and targets() return new collections, and labels are
+    //   immutable.
+
+    /**
+     * Make an empty graph.
+     */
+    public LabeledGraph() {
+        checkRep();
+    }
+
+    // check that the rep invariant is true; takes time proportional to the
+    // number of vertices, so it runs only at construction
+    private void checkRep() {
+        assert labels.size() == graph.vertexCount();
+        assert ids.size() + freeCount == labels.size();
+        for (Map.Entry<L, Integer> e: ids.entrySet()) {
+            assert e.getKey().equals(labels.get(e.getValue()));
+        }
+        for (int i = 0; i < freeCount; i++) {
+            assert labels.get(freeIds[i]) == null;
+        }
+    }
+
+    @Override public boolean add(L vertex) {
+        if (ids.containsKey(vertex)) {
+            return false;
+        }
+        idOf(vertex);
+        return true;
+    }
+
+    /*
+     * @return the id of vertex, adding it to the graph if it is not there
+     */
+    private int idOf(L vertex) {
+        final Integer known = ids.get(vertex);
+        if (known != null) {
+            return known;
+        }
+        final int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+            labels.set(id, vertex);
+        } else {
+            id = graph.addVertex();
+            labels.add(vertex);
+        }
+        ids.put(vertex, id);
+        assert labels.size() == graph.vertexCount();
+        return id;
+    }
+
+    @Override public int set(L source, L target, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        if (weight == 0) {
+            final Integer s = ids.get(source);
+            final Integer t = ids.get(target);
+            return s == null || t == null ? 0 : graph.set(s, t, 0);
+        }
+        return graph.set(idOf(source), idOf(target), weight);
+    }
+
+    @Override public int addWeight(L source, L target, int delta) {
+        if (delta <= 0 && !(ids.containsKey(source) && ids.containsKey(target))) {
+            // there is no edge, so its new weight is delta
+            if (delta < 0) {
+                throw new IllegalArgumentException("weight would be negative: " + delta);
+            }
+            return 0;
+        }
+        return graph.addWeight(idOf(source), idOf(target), delta);
+    }
+
+    @Override public boolean remove(L vertex) {
+        final Integer id = ids.remove(vertex);
+        if (id == null) {
+            return false;
+        }
+        graph.clear(id);
+        labels.set(id, null);
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, Math.max(4, freeIds.length * 2));
+        }
+        freeIds[freeCount++] = id;
+        return true;
+    }
+
+    @Override public Set<L> vertices() {
+        return new HashSet<>(ids.keySet());
+    }
+
+    @Override public Map<L, Integer> sources(L target) {
+        final Integer t = ids.get(target);
+        if (t == null) {
+            return new HashMap<>();
+        }
+        final Map<L, Integer> sources = new HashMap<>();
+        graph.forEachSource(t, (s, w) -> sources.put(labels.get(s), w));
+        return sources;
+    }
+
+    @Override public Map<L, Integer> targets(L source) {
+        final Integer s = ids.get(source);
+        if (s == null) {
+            return new HashMap<>();
+        }
+        final Map<L, Integer> targets = new HashMap<>();
+        graph.forEachTarget(s, (t, w) -> targets.put(labels.get(t), w));
+        return targets;
+    }
+
+    @Override public void forEachTarget(L source, ObjIntConsumer<? super L> visitor) {
+        final Integer s = ids.get(source);
+        if (s != null) {
+            graph.forEachTarget(s, (t, w) -> visitor.accept(labels.get(t), w));
+        }
+    }
+
+    @Override public void forEachSource(L target, ObjIntConsumer<? super L> visitor) {
+        final Integer t = ids.get(target);
+        if (t != null) {
+            graph.forEachSource(t, (s, w) -> visitor.accept(labels.get(s), w));
+        }
+    }
+
+    @Override public int degree(L source) {
+        final Integer s = ids.get(source);
+        return s == null ? 0 : graph.outDegree(s);
+    }
+
+    @Override public int inDegree(L target) {
+        final Integer t = ids.get(target);
+        return t == null ? 0 : graph.inDegree(t);
+    }
+
+    @Override public int weight(L source, L target) {
+        final Integer s = ids.get(source);
+        final Integer t = ids.get(target);
+        return s == null || t == null ? 0 : graph.weight(s, t);
+    }
+
+    /**
+     * @return a string representation of the graph: for each vertex, on its
+     *         own line, its label, a colon, and the map from its targets to
+     *         the weights of its edges to them.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Iterator<L> iter = ids.keySet().iterator(); iter.hasNext(); ) {
+            L vertex = iter.next();
+            sb.append(vertex).append(": ").append(targets(vertex));
+            if (iter.hasNext()) {
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
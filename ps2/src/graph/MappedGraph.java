@@ -0,0 +1,581 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * An immutable Graph of string labels, read straight from a graph file
+ * mapped into memory, so that opening even a very large graph takes
+ * milliseconds: nothing is read until it is asked for.
+ *
+ * <p>write() saves any Graph of strings as a graph file, and open() maps one.
+ * A graph file holds, after a header, the byte offset of each vertex's label
+ * and of each vertex's rows, then the rows of edges from and to each vertex,
+ * then the labels in UTF-8, sorted by their bytes. Vertex ids are positions
+ * in that order, so a label is found by binary search of the mapped bytes.
+ * A row is its number of edges, then for each edge in increasing order of
+ * the vertex at its other end, the difference between that vertex's id and
+ * the one before it, then the edge's weight, all as unsigned LEB128 varints;
+ * most edges take two or three bytes at each end. The file must fit in one
+ * mapping, 2 GB.
+ *
+ * <p>targets() and sources() decode a row into a new map; forEachTarget(),
+ * forEachSource(), degree(), inDegree() and weight() decode as they go and
+ * build nothing but labels. A MappedGraph is immutable and threadsafe, and
+ * its mapping stays valid after the file is closed or deleted. The mutators
+ * add(), set(), addWeight() and remove() throw UnsupportedOperationException.
+ */
+public class MappedGraph implements Graph<String> {
+
+    private static final int MAGIC = 0x47524631;
+    private static final int VERSION = 1;
+    private static final int HEADER = 24;
+
+    private final ByteBuffer buffer;
+    private final int n;
+    private final int e;
+    private final int targetOffsetsAt;
+    private final int sourceOffsetsAt;
+    private final int targetRowsAt;
+    private final int sourceRowsAt;
+    private final int namesAt;
+
+    // Abstraction function:
+    //   AF(buffer) = the graph whose vertex i is the UTF-8 label at
+    //     names[nameOffsets[i] .. nameOffsets[i+1]), with an edge to each
+    //     vertex and of each weight in the row at
+    //     targetRows[targetOffsets[i]..]
+    // Representation invariant:
+    //   the header is valid and buffer holds every section
+    //   labels are strictly ascending by unsigned bytes
+    //   the rows to each vertex hold exactly the edges of the rows from each
+    //     vertex, and every weight is > 0
+    // Safety from rep exposure:
+    //   buffer is read-only and never returned; targets() and sources()
+    //   return new maps, and vertices() an unmodifiable view.
+    // Thread safety argument:
+    //   all fields are final and buffer is read-only, and every read of it
+    //   is at an absolute index, which does not change its position, so
+    //   threads never change anything another thread reads.
+
+    private MappedGraph(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("not a graph file");
+        }
+        this.n = buffer.getInt(8);
+        this.e = buffer.getInt(12);
+        final long targetBytes = buffer.getInt(16);
+        final long sourceBytes = buffer.getInt(20);
+        final long offsets = 4L * (n + 1);
+        if (n < 0 || e < 0 || targetBytes < 0 || sourceBytes < 0
+                || HEADER + 3 * offsets + targetBytes + sourceBytes > buffer.capacity()) {
+            throw new IllegalArgumentException("truncated graph file");
+        }
+        this.targetOffsetsAt = HEADER + (int) offsets;
+        this.sourceOffsetsAt = targetOffsetsAt + (int) offsets;
+        this.targetRowsAt = sourceOffsetsAt + (int) offsets;
+        this.sourceRowsAt = targetRowsAt + (int) targetBytes;
+        this.namesAt = sourceRowsAt + (int) sourceBytes;
+        if ((long) namesAt + nameOffset(n) > buffer.capacity()
+                || buffer.getInt(targetOffsetsAt + 4 * n) != targetBytes
+                || buffer.getInt(sourceOffsetsAt + 4 * n) != sourceBytes) {
+            throw new IllegalArgumentException("truncated graph file");
+        }
+        checkRep();
+    }
+
+    // check that the rep invariant is true; takes time proportional to the
+    // size of the graph, so it checks only the offsets and labels of the
+    // first few vertices, and never walks a row, which may hold millions of
+    // edges
+    private void checkRep() {
+        assert nameOffset(0) == 0;
+        assert buffer.getInt(targetOffsetsAt) == 0 && buffer.getInt(sourceOffsetsAt) == 0;
+        for (int v = 0; v < Math.min(n, 16); v++) {
+            // every row holds at least its degree, so row offsets increase
+            assert buffer.getInt(targetOffsetsAt + 4 * v) < buffer.getInt(targetOffsetsAt + 4 * (v + 1));
+            assert buffer.getInt(sourceOffsetsAt + 4 * v) < buffer.getInt(sourceOffsetsAt + 4 * (v + 1));
+            assert nameOffset(v) <= nameOffset(v + 1);
+            assert v == 0 || compareLabel(v - 1, label(v).getBytes(StandardCharsets.UTF_8)) < 0;
+        }
+    }
+
+    /**
+     * Map a graph file read-only.
+     *
+     * @param path a file written by write()
+     * @return the graph in the file
+     * @throws IOException if the file cannot be read, or is not a whole
+     *         graph file
+     */
+    public static MappedGraph open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(path + ": too large to be a graph file");
+            }
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try {
+                return new MappedGraph(buffer);
+            } catch (IllegalArgumentException iae) {
+                throw new IOException(path + ": " + iae.getMessage(), iae);
+            }
+        }
+    }
+
+    /**
+     * Write a graph as a graph file, and force it to disk.
+     *
+     * @param graph graph to write, not modified by this method; requires its
+     *        labels to be well-formed UTF-16, so that they survive encoding
+     *        as UTF-8
+     * @param path file to write, replaced if it exists
+     * @throws IOException if the file cannot be written, or the graph is too
+     *         large for one graph file
+     */
+    public static void write(Graph<String> graph, Path path) throws IOException {
+        // labels, sorted by their UTF-8 bytes
+        final byte[][] labels = new byte[graph.vertices().size()][];
+        int count = 0;
+        for (String label: graph.vertices()) {
+            labels[count++] = label.getBytes(StandardCharsets.UTF_8);
+        }
+        Arrays.sort(labels, MappedGraph::compareBytes);
+        final Map<String, Integer> ids = new HashMap<>();
+        for (int id = 0; id < count; id++) {
+            ids.put(new String(labels[id], StandardCharsets.UTF_8), id);
+        }
+
+        // the rows are encoded twice, once to measure them and once to write
+        // them, so that they need never all be in memory at once
+        final Rows targets = new Rows(graph, labels, ids, true);
+        final Rows sources = new Rows(graph, labels, ids, false);
+        long nameBytes = 0;
+        for (byte[] label: labels) {
+            nameBytes += label.length;
+        }
+        final long size = HEADER + 3 * 4L * (count + 1) + targets.bytes + sources.bytes + nameBytes;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException(path + ": graph needs " + size + " bytes, more than one graph file can hold");
+        }
+
+        try (OutputStream file = Files.newOutputStream(path);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            out.writeInt(targets.edges);
+            out.writeInt((int) targets.bytes);
+            out.writeInt((int) sources.bytes);
+            int nameOffset = 0;
+            out.writeInt(0);
+            for (byte[] label: labels) {
+                nameOffset += label.length;
+                out.writeInt(nameOffset);
+            }
+            targets.writeOffsets(out);
+            sources.writeOffsets(out);
+            targets.writeRows(out);
+            sources.writeRows(out);
+            for (byte[] label: labels) {
+                out.write(label);
+            }
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /*
+     * The rows of a graph in one direction, and the byte offset of each in
+     * the graph file.
+     */
+    private static class Rows {
+        private final Graph<String> graph;
+        private final byte[][] labels;
+        private final Map<String, Integer> ids;
+        private final boolean forwards;
+        private final int[] offsets;
+        private long[] row = new long[16];
+        final long bytes;
+        final int edges;
+
+        Rows(Graph<String> graph, byte[][] labels, Map<String, Integer> ids, boolean forwards) {
+            this.graph = graph;
+            this.labels = labels;
+            this.ids = ids;
+            this.forwards = forwards;
+            this.offsets = new int[labels.length + 1];
+            long bytes = 0;
+            int edges = 0;
+            for (int v = 0; v < labels.length; v++) {
+                // offsets past 2 GB are never written, since write() fails
+                offsets[v] = (int) Math.min(bytes, Integer.MAX_VALUE);
+                final int degree = load(v);
+                bytes += varintLength(degree);
+                int previous = 0;
+                for (int i = 0; i < degree; i++) {
+                    final int id = (int) (row[i] >>> 32);
+                    bytes += varintLength(id - previous) + varintLength((int) row[i]);
+                    previous = id;
+                }
+                edges += degree;
+            }
+            offsets[labels.length] = (int) Math.min(bytes, Integer.MAX_VALUE);
+            this.bytes = bytes;
+            this.edges = edges;
+        }
+
+        /*
+         * Load the row of vertex v into row, each edge as the other end's id
+         * in the high half and weight in the low half, sorted by id.
+         * @return the number of edges in the row
+         */
+        private int load(int v) {
+            final String label = new String(labels[v], StandardCharsets.UTF_8);
+            final int degree = forwards ? graph.degree(label) : graph.inDegree(label);
+            if (row.length < degree) {
+                row = new long[Math.max(degree, row.length * 2)];
+            }
+            final int[] size = { 0 };
+            final ObjIntConsumer<String> add = (end, weight) -> row[size[0]++] = (long) ids.get(end) << 32 | weight;
+            if (forwards) {
+                graph.forEachTarget(label, add);
+            } else {
+                graph.forEachSource(label, add);
+            }
+            Arrays.sort(row, 0, size[0]);
+            return size[0];
+        }
+
+        void writeOffsets(DataOutputStream out) throws IOException {
+            for (int offset: offsets) {
+                out.writeInt(offset);
+            }
+        }
+
+        void writeRows(DataOutputStream out) throws IOException {
+            for (int v = 0; v < labels.length; v++) {
+                final int degree = load(v);
+                writeVarint(out, degree);
+                int previous = 0;
+                for (int i = 0; i < degree; i++) {
+                    final int id = (int) (row[i] >>> 32);
+                    writeVarint(out, id - previous);
+                    writeVarint(out, (int) row[i]);
+                    previous = id;
+                }
+            }
+        }
+    }
+
+    private static int varintLength(int value) {
+        int length = 1;
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+        return length;
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /*
+     * Read the varint at index at.
+     * @return its value in the high half, and the index after it in the low
+     */
+    private long readVarint(int at) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            final int b = buffer.get(at++);
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return (long) value << 32 | at;
+            }
+        }
+    }
+
+    private static int compareBytes(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length && i < b.length; i++) {
+            final int c = Integer.compare(a[i] & 0xff, b[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+
+    /**
+     * Unsupported: a MappedGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean add(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /**
+     * Unsupported: a MappedGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int set(String source, String target, int weight) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /**
+     * Unsupported: a MappedGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public boolean remove(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /**
+     * Unsupported: a MappedGraph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override public int addWeight(String source, String target, int delta) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /**
+     * @return an unmodifiable view of the set of labels of vertices in this
+     *         graph, which decodes labels as it is iterated
+     */
+    @Override public Set<String> vertices() {
+        return new AbstractSet<String>() {
+            @Override public int size() {
+                return n;
+            }
+
+            @Override public boolean contains(Object o) {
+                return o instanceof String && id((String) o) >= 0;
+            }
+
+            @Override public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int next = 0;
+
+                    @Override public boolean hasNext() {
+                        return next < n;
+                    }
+
+                    @Override public String next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return label(next++);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override public Map<String, Integer> sources(String target) {
+        final Map<String, Integer> sources = new HashMap<>();
+        forEachSource(target, (s, w) -> sources.put(s, w));
+        return sources;
+    }
+
+    @Override public Map<String, Integer> targets(String source) {
+        final Map<String, Integer> targets = new HashMap<>();
+        forEachTarget(source, (t, w) -> targets.put(t, w));
+        return targets;
+    }
+
+    @Override public void forEachTarget(String source, ObjIntConsumer<? super String> visitor) {
+        final int s = id(source);
+        if (s >= 0) {
+            forEachTarget(s, (t, w) -> visitor.accept(label(t), w));
+        }
+    }
+
+    @Override public void forEachSource(String target, ObjIntConsumer<? super String> visitor) {
+        final int t = id(target);
+        if (t >= 0) {
+            forEachSource(t, (s, w) -> visitor.accept(label(s), w));
+        }
+    }
+
+    @Override public int degree(String source) {
+        final int s = id(source);
+        return s < 0 ? 0 : (int) (readVarint(rowAt(targetOffsetsAt, targetRowsAt, s)) >>> 32);
+    }
+
+    @Override public int inDegree(String target) {
+        final int t = id(target);
+        return t < 0 ? 0 : (int) (readVarint(rowAt(sourceOffsetsAt, sourceRowsAt, t)) >>> 32);
+    }
+
+    @Override public int weight(String source, String target) {
+        final int s = id(source);
+        final int t = s < 0 ? -1 : id(target);
+        return t < 0 ? 0 : weight(targetOffsetsAt, targetRowsAt, s, t);
+    }
+
+    /*
+     * @return the weight of the edge to id end in the row of id v, or 0
+     */
+    private int weight(int offsetsAt, int rowsAt, int v, int end) {
+        long read = readVarint(rowAt(offsetsAt, rowsAt, v));
+        final int degree = (int) (read >>> 32);
+        int id = 0;
+        for (int i = 0; i < degree; i++) {
+            read = readVarint((int) read);
+            id += (int) (read >>> 32);
+            read = readVarint((int) read);
+            if (id >= end) {
+                return id == end ? (int) (read >>> 32) : 0;
+            }
+        }
+        return 0;
+    }
+
+    private int rowAt(int offsetsAt, int rowsAt, int v) {
+        return rowsAt + buffer.getInt(offsetsAt + 4 * v);
+    }
+
+    /*
+     * Id-based access, as in FrozenGraph.
+     */
+
+    /**
+     * @return the number of vertices in this graph, whose ids are 0 to
+     *         vertexCount() - 1 in order of their labels' UTF-8 bytes
+     */
+    public int vertexCount() {
+        return n;
+    }
+
+    /**
+     * @return the number of edges in this graph
+     */
+    public int edgeCount() {
+        return e;
+    }
+
+    /**
+     * @param vertex label of a vertex
+     * @return the id of vertex, or -1 if it is not in this graph
+     */
+    public int id(String vertex) {
+        final byte[] key = vertex.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = n - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int c = compareLabel(mid, key);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param id id of a vertex, requires 0 <= id < vertexCount()
+     * @return the label of the vertex with that id
+     */
+    public String label(int id) {
+        final int start = namesAt + nameOffset(id);
+        final byte[] bytes = new byte[namesAt + nameOffset(id + 1) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int nameOffset(int id) {
+        return buffer.getInt(HEADER + 4 * id);
+    }
+
+    private int compareLabel(int id, byte[] key) {
+        final int start = namesAt + nameOffset(id);
+        final int length = namesAt + nameOffset(id + 1) - start;
+        for (int i = 0; i < length && i < key.length; i++) {
+            final int c = Integer.compare(buffer.get(start + i) & 0xff, key[i] & 0xff);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    /**
+     * Visit the edges from a vertex, in increasing order of target id.
+     *
+     * @param source id of a vertex, requires 0 <= source < vertexCount()
+     * @param visitor called once with the id and weight of each target
+     */
+    public void forEachTarget(int source, IntGraph.EdgeConsumer visitor) {
+        forEach(targetOffsetsAt, targetRowsAt, source, visitor);
+    }
+
+    /**
+     * Visit the edges to a vertex, in increasing order of source id.
+     *
+     * @param target id of a vertex, requires 0 <= target < vertexCount()
+     * @param visitor called once with the id and weight of each source
+     */
+    public void forEachSource(int target, IntGraph.EdgeConsumer visitor) {
+        forEach(sourceOffsetsAt, sourceRowsAt, target, visitor);
+    }
+
+    private void forEach(int offsetsAt, int rowsAt, int v, IntGraph.EdgeConsumer visitor) {
+        long read = readVarint(rowAt(offsetsAt, rowsAt, v));
+        final int degree = (int) (read >>> 32);
+        int id = 0;
+        for (int i = 0; i < degree; i++) {
+            read = readVarint((int) read);
+            id += (int) (read >>> 32);
+            read = readVarint((int) read);
+            visitor.accept(id, (int) (read >>> 32));
+        }
+    }
+
+    /**
+     * @return a string representation of the graph: for each vertex, on its
+     *         own line, its label, a colon, and the map from its targets to
+     *         the weights of its edges to them.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int v = 0; v < n; v++) {
+            if (v > 0) {
+                sb.append('\n');
+            }
+            final String label = label(v);
+            sb.append(label).append(": ").append(targets(label));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,187 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+import graph.FrozenGraph;
+
+/**
+ * BreadthFirstSearch finds which vertices of a FrozenGraph are reachable
+ * from a vertex, and in how few edges, by a parallel direction-optimizing
+ * breadth-first search.
+ *
+ * <p>The search proceeds one level at a time, each level split across all
+ * cores. While the frontier is small, a level goes top-down: each vertex of
+ * the frontier claims its unvisited targets, with a compare-and-set on a
+ * bitmap of visited vertices so each is claimed once. Once the edges out of
+ * the frontier outnumber a fraction of the edges out of unvisited vertices,
+ * as happens in the middle levels of a small-world graph, a level goes
+ * bottom-up instead: each unvisited vertex looks through its sources for one
+ * in the frontier, and stops at the first it finds, so most edges are never
+ * examined. When the frontier shrinks again, the search goes back to
+ * top-down.
+ *
+ * <p>Edge weights are ignored.
+ */
+public class BreadthFirstSearch {
+
+    /** Number of edges from a vertex not reachable from the source. */
+    public static final int UNREACHABLE = -1;
+
+    // switch to bottom-up when the frontier's edges are more than 1/ALPHA of
+    // the unvisited vertices' edges, and back when the frontier has fewer
+    // than 1/BETA of the vertices; these are the values Beamer et al. found
+    // best for "Direction-Optimizing Breadth-First Search" (SC 2012)
+    private static final int ALPHA = 14;
+    private static final int BETA = 24;
+
+    // vertices per parallel task
+    private static final int CHUNK = 1 << 10;
+
+    /**
+     * Find the fewest edges on a path to each vertex from a source.
+     *
+     * @param graph graph to search
+     * @param source label of a vertex of graph
+     * @return an array with an element for each vertex id of graph: the
+     *         number of edges on a shortest path from source to that vertex,
+     *         or UNREACHABLE if there is no path
+     * @throws IllegalArgumentException if source is not a vertex of graph
+     */
+    public static <L> int[] hops(FrozenGraph<L> graph, L source) {
+        final int s = graph.id(source);
+        if (s < 0) {
+            throw new IllegalArgumentException("not a vertex: " + source);
+        }
+        final int n = graph.vertexCount();
+        final int[] hops = new int[n];
+        Arrays.fill(hops, UNREACHABLE);
+        final AtomicLongArray visited = new AtomicLongArray((n + 63) >>> 6);
+        hops[s] = 0;
+        visit(visited, s);
+
+        // frontier is the list of vertices at the current level, or null in
+        // bottom-up levels, where they are the vertices whose hops is level
+        int[] frontier = { s };
+        long frontierSize = 1;
+        long frontierEdges = graph.outDegree(s);
+        long unvisitedEdges = graph.edgeCount() - frontierEdges;
+        for (int level = 0; frontierSize > 0; level++) {
+            if (frontier != null && frontierEdges > unvisitedEdges / ALPHA) {
+                frontier = null;
+            } else if (frontier == null && frontierSize < n / BETA) {
+                final int current = level;
+                frontier = IntStream.range(0, n).parallel().filter(v -> hops[v] == current).toArray();
+            }
+
+            if (frontier != null) {
+                frontier = topDown(graph, frontier, level, hops, visited);
+                frontierSize = frontier.length;
+                frontierEdges = IntStream.of(frontier).parallel().mapToLong(graph::outDegree).sum();
+            } else {
+                // each task returns how many vertices it visited in the high
+                // half and their edges in the low half, which cannot overflow
+                // since there are fewer than 2^31 edges
+                final long found = bottomUp(graph, level, hops, visited);
+                frontierSize = found >>> 32;
+                frontierEdges = found & 0xffffffffL;
+            }
+            unvisitedEdges -= frontierEdges;
+        }
+        return hops;
+    }
+
+    /*
+     * Visit the unvisited targets of the vertices of frontier, which are at
+     * the given level.
+     * @return the vertices visited
+     */
+    private static int[] topDown(FrozenGraph<?> graph, int[] frontier, int level, int[] hops,
+            AtomicLongArray visited) {
+        final int[][] found = IntStream.range(0, (frontier.length + CHUNK - 1) / CHUNK).parallel()
+                .mapToObj(chunk -> {
+                    int[] next = new int[16];
+                    int size = 0;
+                    final int end = Math.min(frontier.length, (chunk + 1) * CHUNK);
+                    for (int i = chunk * CHUNK; i < end; i++) {
+                        final int u = frontier[i];
+                        for (int e = graph.targetsStart(u); e < graph.targetsEnd(u); e++) {
+                            final int v = graph.targetAt(e);
+                            // hops[v] may be set concurrently, but only from
+                            // UNREACHABLE to level + 1, and visit() decides
+                            if (hops[v] == UNREACHABLE && visit(visited, v)) {
+                                hops[v] = level + 1;
+                                if (size == next.length) {
+                                    next = Arrays.copyOf(next, size * 2);
+                                }
+                                next[size++] = v;
+                            }
+                        }
+                    }
+                    return Arrays.copyOf(next, size);
+                }).toArray(int[][]::new);
+
+        int size = 0;
+        for (int[] part: found) {
+            size += part.length;
+        }
+        final int[] next = new int[size];
+        int at = 0;
+        for (int[] part: found) {
+            System.arraycopy(part, 0, next, at, part.length);
+            at += part.length;
+        }
+        return next;
+    }
+
+    /*
+     * Visit every unvisited vertex with a source at the given level.
+     * @return the number of vertices visited, shifted left 32 bits, plus the
+     *         number of edges from them
+     */
+    private static long bottomUp(FrozenGraph<?> graph, int level, int[] hops, AtomicLongArray visited) {
+        final int n = graph.vertexCount();
+        return IntStream.range(0, (n + CHUNK - 1) / CHUNK).parallel().mapToLong(chunk -> {
+            long found = 0;
+            final int end = Math.min(n, (chunk + 1) * CHUNK);
+            for (int v = chunk * CHUNK; v < end; v++) {
+                if (hops[v] != UNREACHABLE) {
+                    continue;
+                }
+                // only this task writes hops[v]; a source being visited by
+                // another task reads as UNREACHABLE or level + 1, never level
+                for (int e = graph.sourcesStart(v); e < graph.sourcesEnd(v); e++) {
+                    if (hops[graph.sourceAt(e)] == level) {
+                        hops[v] = level + 1;
+                        visit(visited, v);
+                        found += (1L << 32) + graph.outDegree(v);
+                        break;
+                    }
+                }
+            }
+            return found;
+        }).sum();
+    }
+
+    /*
+     * Mark v visited.
+     * @return true iff v was not already visited
+     */
+    private static boolean visit(AtomicLongArray visited, int v) {
+        final int word = v >>> 6;
+        final long bit = 1L << v;
+        while (true) {
+            final long bits = visited.get(word);
+            if ((bits & bit) != 0) {
+                return false;
+            }
+            if (visited.compareAndSet(word, bits, bits | bit)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+import graph.FrozenGraph;
+
+/**
+ * Components consists of methods that partition the vertices of a
+ * FrozenGraph into its weakly or strongly connected components.
+ *
+ * <p>Both return an array with an element for each vertex id of the graph,
+ * the number of the vertex's component; the components are numbered from 0
+ * to one less than the number of components. Edge weights are ignored.
+ */
+public class Components {
+
+    /**
+     * Find the weakly connected components of a graph: the sets of vertices
+     * connected by paths that may follow edges either way.
+     *
+     * <p>Runs a lock-free union-find over the edges on all cores: a root is
+     * only ever linked, by compare-and-set, below a root with a smaller id,
+     * so the trees never form a cycle, and finds halve the paths they walk.
+     * Each edge is looked at once, so this takes time nearly proportional to
+     * the number of edges.
+     *
+     * @param graph graph to partition
+     * @return the component of each vertex id, numbered in order of the
+     *         smallest vertex id in each component
+     */
+    public static int[] weak(FrozenGraph<?> graph) {
+        final int n = graph.vertexCount();
+        final AtomicIntegerArray parents = new AtomicIntegerArray(n);
+        for (int v = 0; v < n; v++) {
+            parents.set(v, v);
+        }
+        IntStream.range(0, n).parallel().forEach(u -> {
+            for (int e = graph.targetsStart(u); e < graph.targetsEnd(u); e++) {
+                union(parents, u, graph.targetAt(e));
+            }
+        });
+
+        // every root is the smallest id in its tree, so it is numbered
+        // before any other vertex of its component
+        final int[] components = new int[n];
+        int count = 0;
+        for (int v = 0; v < n; v++) {
+            final int root = find(parents, v);
+            components[v] = root == v ? count++ : components[root];
+        }
+        return components;
+    }
+
+    /*
+     * @return the root of the tree containing v, halving the path to it
+     */
+    private static int find(AtomicIntegerArray parents, int v) {
+        while (true) {
+            final int parent = parents.get(v);
+            if (parent == v) {
+                return v;
+            }
+            final int grandparent = parents.get(parent);
+            if (grandparent != parent) {
+                // if this fails, another thread has already moved v up
+                parents.compareAndSet(v, parent, grandparent);
+            }
+            v = grandparent;
+        }
+    }
+
+    /*
+     * Join the trees containing u and v.
+     */
+    private static void union(AtomicIntegerArray parents, int u, int v) {
+        while (true) {
+            u = find(parents, u);
+            v = find(parents, v);
+            if (u == v) {
+                return;
+            }
+            final int child = Math.max(u, v);
+            // fails if child stopped being a root, and then we retry
+            if (parents.compareAndSet(child, child, Math.min(u, v))) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Find the strongly connected components of a graph: the sets of
+     * vertices with a path from each to each of the others.
+     *
+     * <p>Runs Tarjan's algorithm, with explicit stacks so that long paths
+     * cannot overflow the call stack, in time proportional to the size of
+     * the graph. It runs on one core.
+     *
+     * @param graph graph to partition
+     * @return the component of each vertex id, numbered in reverse
+     *         topological order: every edge goes from a component to one
+     *         with the same or a smaller number
+     */
+    public static int[] strong(FrozenGraph<?> graph) {
+        final int n = graph.vertexCount();
+        final int[] components = new int[n];
+        Arrays.fill(components, -1);
+        final int[] order = new int[n]; // depth-first discovery order
+        Arrays.fill(order, -1);
+        final int[] low = new int[n]; // smallest order reachable on the stack
+        // vertices visited but not yet in a component, which Tarjan's
+        // algorithm keeps on its stack, are those with an order and no
+        // component
+        final int[] stack = new int[n];
+        int stackSize = 0;
+        // the depth-first path, and the next edge to follow from each vertex
+        final int[] path = new int[n];
+        final int[] nextEdge = new int[n];
+        int depth = 0;
+        int visited = 0;
+        int count = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] >= 0) {
+                continue;
+            }
+            order[root] = low[root] = visited++;
+            stack[stackSize++] = root;
+            path[depth] = root;
+            nextEdge[depth++] = graph.targetsStart(root);
+
+            while (depth > 0) {
+                final int v = path[depth - 1];
+                final int e = nextEdge[depth - 1];
+                if (e < graph.targetsEnd(v)) {
+                    nextEdge[depth - 1]++;
+                    final int w = graph.targetAt(e);
+                    if (order[w] < 0) {
+                        order[w] = low[w] = visited++;
+                        stack[stackSize++] = w;
+                        path[depth] = w;
+                        nextEdge[depth++] = graph.targetsStart(w);
+                    } else if (components[w] < 0) {
+                        low[v] = Math.min(low[v], order[w]);
+                    }
+                    continue;
+                }
+
+                // every edge from v is done
+                depth--;
+                if (low[v] == order[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackSize];
+                        components[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+                if (depth > 0) {
+                    final int parent = path[depth - 1];
+                    low[parent] = Math.min(low[parent], low[v]);
+                }
+            }
+        }
+        return components;
+    }
+}
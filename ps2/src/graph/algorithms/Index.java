@@ -0,0 +1,177 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import graph.FrozenGraph;
+import graph.Graph;
+import graph.IntGraph.EdgeConsumer;
+
+/**
+ * A graph seen through int vertex ids, so that a search can keep its state
+ * in arrays. A FrozenGraph already has ids and is used directly; any other
+ * graph gets ids as the search discovers its vertices.
+ *
+ * @param <L> type of vertex labels in the graph
+ */
+interface Index<L> {
+
+    /**
+     * @param graph graph to index
+     * @return an index of graph, which must not be modified while the index
+     *         is in use
+     */
+    public static <L> Index<L> of(Graph<L> graph) {
+        if (graph instanceof FrozenGraph) {
+            return new FrozenIndex<L>((FrozenGraph<L>) graph);
+        }
+        return new LabelIndex<L>(graph);
+    }
+
+    /**
+     * @return the number of ids a search of this graph should expect to use
+     */
+    public int expectedSize();
+
+    /**
+     * @param vertex a label
+     * @return true iff vertex is in the graph
+     */
+    public boolean contains(L vertex);
+
+    /**
+     * @param vertex a label
+     * @return the id of vertex, or -1 if it is known not to be in the graph;
+     *         a label that is not in the graph may also be given an id, but
+     *         it then has no edges
+     */
+    public int id(L vertex);
+
+    /**
+     * @param id an id returned by id()
+     * @return the label with that id
+     */
+    public L label(int id);
+
+    /**
+     * Visit the edges from a vertex.
+     *
+     * @param source an id returned by id()
+     * @param visitor called with the id and weight of each target
+     */
+    public void forEachTarget(int source, EdgeConsumer visitor);
+
+    /**
+     * Visit the edges to a vertex.
+     *
+     * @param target an id returned by id()
+     * @param visitor called with the id and weight of each source
+     */
+    public void forEachSource(int target, EdgeConsumer visitor);
+}
+
+/**
+ * The index of a FrozenGraph, which is the graph's own ids.
+ */
+class FrozenIndex<L> implements Index<L> {
+
+    private final FrozenGraph<L> graph;
+
+    // Abstraction function:
+    //   AF(graph) = graph, with its own ids
+    // Representation invariant:
+    //   true
+    // Safety from rep exposure:
+    //   graph is immutable.
+
+    FrozenIndex(FrozenGraph<L> graph) {
+        this.graph = graph;
+    }
+
+    @Override public int expectedSize() {
+        return graph.vertexCount();
+    }
+
+    @Override public boolean contains(L vertex) {
+        return graph.id(vertex) >= 0;
+    }
+
+    @Override public int id(L vertex) {
+        return graph.id(vertex);
+    }
+
+    @Override public L label(int id) {
+        return graph.label(id);
+    }
+
+    @Override public void forEachTarget(int source, EdgeConsumer visitor) {
+        graph.forEachTarget(source, visitor);
+    }
+
+    @Override public void forEachSource(int target, EdgeConsumer visitor) {
+        graph.forEachSource(target, visitor);
+    }
+}
+
+/**
+ * The index of any other graph, which numbers labels from 0 in the order
+ * id() first sees them, so that it only costs as much as the part of the
+ * graph a search visits.
+ */
+class LabelIndex<L> implements Index<L> {
+
+    private final Graph<L> graph;
+    private final Map<L, Integer> ids = new HashMap<>();
+    private final List<L> labels = new ArrayList<>();
+
+    // Abstraction function:
+    //   AF(graph, ids, labels) = graph, in which labels.get(i) has id i
+    // Representation invariant:
+    //   ids.get(labels.get(i)) == i for each i, and ids.size() == labels.size()
+    // Safety from rep exposure:
+    //   ids and labels are never returned, and labels are immutable.
+
+    LabelIndex(Graph<L> graph) {
+        this.graph = graph;
+    }
+
+    @Override public int expectedSize() {
+        return 0;
+    }
+
+    @Override public boolean contains(L vertex) {
+        // Graph has no membership test, and degree() is no shortcut: some
+        // implementations scan every edge or build a map to answer it, so
+        // test once against the copy vertices() makes; searches only ask
+        // this when the source is the target
+        return graph.vertices().contains(vertex);
+    }
+
+    @Override public int id(L vertex) {
+        final Integer known = ids.get(vertex);
+        if (known != null) {
+            return known;
+        }
+        final int id = labels.size();
+        ids.put(vertex, id);
+        labels.add(vertex);
+        return id;
+    }
+
+    @Override public L label(int id) {
+        return labels.get(id);
+    }
+
+    @Override public void forEachTarget(int source, EdgeConsumer visitor) {
+        graph.forEachTarget(labels.get(source), (target, weight) -> visitor.accept(id(target), weight));
+    }
+
+    @Override public void forEachSource(int target, EdgeConsumer visitor) {
+        graph.forEachSource(labels.get(target), (source, weight) -> visitor.accept(id(source), weight));
+    }
+}
@@ -0,0 +1,225 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of vertex ids with decrease-key, which also keeps the
+ * state a best-first search needs for each vertex it has seen: its best
+ * value so far, its priority in the heap, and the vertex it was reached
+ * from.
+ *
+ * <p>All of its state is in primitive arrays indexed by vertex id, which
+ * grow as needed and are kept from one search to the next. reset() starts a
+ * new search in constant time by advancing a generation number, instead of
+ * clearing the arrays: a vertex has been seen in this search only if its
+ * generation is the current one. A search therefore allocates nothing once
+ * the arrays are big enough for the graph, but a heap holds on to 32 bytes
+ * per vertex of the largest graph it has searched.
+ */
+class IndexedHeap {
+
+    /** Parent of a vertex that was reached from no other vertex. */
+    static final int NONE = -1;
+
+    private static final int SETTLED = -1;
+
+    private long[] values = new long[0];
+    private long[] priorities = new long[0];
+    private int[] parents = new int[0];
+    private int[] positions = new int[0];
+    private int[] generations = new int[0];
+    private int[] heap = new int[0];
+    private int size = 0;
+    private int generation = 1;
+
+    // Abstraction function:
+    //   AF(...) = a search in which vertex v has been seen iff
+    //     generations[v] == generation, with best value values[v], priority
+    //     priorities[v] and parent parents[v]; it is settled (removed from the
+    //     heap for good) if positions[v] == SETTLED, and otherwise is at
+    //     heap[positions[v]] in the heap heap[0..size)
+    // Representation invariant:
+    //   all per-vertex arrays have the same length, and heap is at least as
+    //     long
+    //   generation >= 1, and every element of generations is <= generation
+    //   for 0 <= i < size: v = heap[i] has been seen, positions[v] == i, and
+    //     priorities[heap[(i - 1) / 2]] <= priorities[v]
+    // Safety from rep exposure:
+    //   no array is ever returned.
+
+    // check that the rep invariant is true; takes time proportional to the
+    // size of the heap, so it is only called by tests
+    void checkRep() {
+        assert generation >= 1;
+        assert parents.length == values.length && positions.length == values.length;
+        assert priorities.length == values.length && generations.length == values.length;
+        assert heap.length >= values.length && size <= heap.length;
+        for (int i = 0; i < size; i++) {
+            final int v = heap[i];
+            assert generations[v] == generation && positions[v] == i;
+            assert i == 0 || priorities[heap[(i - 1) / 2]] <= priorities[v];
+        }
+    }
+
+    /**
+     * Start a new search, in which no vertex has been seen.
+     *
+     * @param capacity number of vertex ids the search is expected to need
+     */
+    void reset(int capacity) {
+        size = 0;
+        if (++generation < 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+        ensureCapacity(capacity);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= values.length) {
+            return;
+        }
+        final int length = Math.max(capacity, values.length + (values.length >> 1));
+        values = Arrays.copyOf(values, length);
+        priorities = Arrays.copyOf(priorities, length);
+        parents = Arrays.copyOf(parents, length);
+        positions = Arrays.copyOf(positions, length);
+        generations = Arrays.copyOf(generations, length);
+        heap = Arrays.copyOf(heap, length);
+    }
+
+    /**
+     * @return true iff vertex v has been seen in this search
+     */
+    boolean seen(int v) {
+        return v < generations.length && generations[v] == generation;
+    }
+
+    /**
+     * @return true iff vertex v has been removed by poll() in this search
+     */
+    boolean settled(int v) {
+        return seen(v) && positions[v] == SETTLED;
+    }
+
+    /**
+     * @param v a vertex that has been seen
+     * @return the best value of v so far
+     */
+    long value(int v) {
+        return values[v];
+    }
+
+    /**
+     * @param v a vertex that has been seen
+     * @return the vertex v was reached from with its best value, or NONE
+     */
+    int parent(int v) {
+        return parents[v];
+    }
+
+    /**
+     * @return true iff offering v with this value would change it: v has not
+     *         been seen, or it is still in the heap with a greater value
+     */
+    boolean improves(int v, long value) {
+        return !seen(v) || (positions[v] != SETTLED && value < values[v]);
+    }
+
+    /**
+     * Give vertex v a value, priority and parent, adding it to the heap or
+     * moving it up, if that improves it.
+     *
+     * @return true iff improves(v, value) was true, and so v was changed
+     */
+    boolean offer(int v, long value, long priority, int parent) {
+        if (!improves(v, value)) {
+            return false;
+        }
+        if (!seen(v)) {
+            ensureCapacity(v + 1);
+            generations[v] = generation;
+            positions[v] = size;
+            heap[size++] = v;
+        }
+        values[v] = value;
+        priorities[v] = priority;
+        parents[v] = parent;
+        siftUp(positions[v]);
+        return true;
+    }
+
+    /**
+     * @return true iff the heap is empty
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the smallest priority in the heap; requires !isEmpty()
+     */
+    long minPriority() {
+        return priorities[heap[0]];
+    }
+
+    /**
+     * Remove a vertex of smallest priority from the heap, and settle it.
+     *
+     * @return the vertex; requires !isEmpty()
+     */
+    int poll() {
+        final int v = heap[0];
+        positions[v] = SETTLED;
+        final int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+        return v;
+    }
+
+    private void siftUp(int i) {
+        final int v = heap[i];
+        final long priority = priorities[v];
+        while (i > 0) {
+            final int up = (i - 1) >>> 1;
+            final int u = heap[up];
+            if (priorities[u] <= priority) {
+                break;
+            }
+            heap[i] = u;
+            positions[u] = i;
+            i = up;
+        }
+        heap[i] = v;
+        positions[v] = i;
+    }
+
+    private void siftDown(int i) {
+        final int v = heap[i];
+        final long priority = priorities[v];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && priorities[heap[child + 1]] < priorities[heap[child]]) {
+                child++;
+            }
+            final int u = heap[child];
+            if (priority <= priorities[u]) {
+                break;
+            }
+            heap[i] = u;
+            positions[u] = i;
+            i = child;
+        }
+        heap[i] = v;
+        positions[v] = i;
+    }
+}
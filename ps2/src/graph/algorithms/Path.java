@@ -0,0 +1,98 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable path through a graph: the vertices it visits, in order, and
+ * its weight, whose meaning depends on the algorithm that found it (the sum
+ * of the weights of its edges for a shortest path, the smallest of them for
+ * a widest path).
+ *
+ * @param <L> type of vertex labels in the graph
+ */
+public class Path<L> {
+
+    private final List<L> vertices;
+    private final long weight;
+
+    // Abstraction function:
+    //   AF(vertices, weight) = the path that starts at vertices.get(0),
+    //     follows an edge to each next vertex in turn, and has weight weight
+    // Representation invariant:
+    //   vertices is nonempty
+    // Safety from rep exposure:
+    //   vertices is an unmodifiable copy of the list passed to the
+    //   constructor, and labels are immutable.
+
+    /**
+     * Make a path.
+     *
+     * @param vertices the vertices of the path, in order; requires nonempty
+     * @param weight the weight of the path
+     */
+    Path(List<L> vertices, long weight) {
+        this.vertices = Collections.unmodifiableList(new ArrayList<>(vertices));
+        this.weight = weight;
+        checkRep();
+    }
+
+    // check that the rep invariant is true
+    private void checkRep() {
+        assert !vertices.isEmpty();
+    }
+
+    /**
+     * @return an unmodifiable list of the vertices of this path, from its
+     *         first vertex to its last
+     */
+    public List<L> vertices() {
+        return vertices;
+    }
+
+    /**
+     * @return the weight of this path, as defined by the algorithm that
+     *         found it
+     */
+    public long weight() {
+        return weight;
+    }
+
+    /**
+     * @return the number of edges in this path
+     */
+    public int length() {
+        return vertices.size() - 1;
+    }
+
+    @Override public boolean equals(Object thatObject) {
+        if (!(thatObject instanceof Path)) {
+            return false;
+        }
+        final Path<?> that = (Path<?>) thatObject;
+        return weight == that.weight && vertices.equals(that.vertices);
+    }
+
+    @Override public int hashCode() {
+        return vertices.hashCode() * 31 + Long.hashCode(weight);
+    }
+
+    /**
+     * @return the vertices of this path separated by arrows, then its weight
+     *         in parentheses
+     */
+    @Override public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (L vertex: vertices) {
+            if (sb.length() > 0) {
+                sb.append(" -> ");
+            }
+            sb.append(vertex);
+        }
+        return sb.append(" (").append(weight).append(')').toString();
+    }
+}
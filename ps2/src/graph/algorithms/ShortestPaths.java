@@ -0,0 +1,285 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+
+import graph.Graph;
+import graph.IntGraph.EdgeConsumer;
+
+/**
+ * ShortestPaths consists of methods that find best paths from one vertex to
+ * another in a weighted directed graph: shortest paths, whose weight is the
+ * sum of the weights of their edges, by Dijkstra's algorithm, bidirectional
+ * Dijkstra or A*; and widest paths, whose weight is the smallest weight of
+ * their edges.
+ *
+ * <p>Each search numbers vertices with int ids and keeps its state in
+ * primitive arrays instead of maps. A FrozenGraph is searched through its own
+ * ids and rows, so after looking up the source and target a search does no
+ * hashing at all; any other graph is searched through forEachTarget() and
+ * forEachSource(), numbering vertices as the search discovers them, so a
+ * search costs only as much as the part of the graph it visits.
+ *
+ * <p>The arrays are kept per thread and reused, so once a thread has
+ * searched a graph, its later searches of graphs that size allocate only the
+ * path they return. Searches in different threads of a graph that no thread
+ * is modifying may run at once. The graph must not be modified during a
+ * search.
+ */
+public class ShortestPaths {
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Find a shortest path by Dijkstra's algorithm.
+     *
+     * @param graph graph to search, not modified by this method
+     * @param source label of the first vertex of the path
+     * @param target label of the last vertex of the path
+     * @return a path from source to target of least weight, the sum of the
+     *         weights of its edges, or empty if there is no path; a vertex of
+     *         graph has a path of no edges and weight 0 to itself, and a
+     *         vertex not in graph has no paths
+     */
+    public static <L> Optional<Path<L>> dijkstra(Graph<L> graph, L source, L target) {
+        return search(Index.of(graph), source, target, null, false);
+    }
+
+    /**
+     * Find a shortest path by Dijkstra's algorithm run from both ends at once,
+     * forward from source along edges and backward from target against them,
+     * until the two searches meet. This usually settles far fewer vertices
+     * than dijkstra() when the path is long.
+     *
+     * @param graph graph to search, not modified by this method
+     * @param source label of the first vertex of the path
+     * @param target label of the last vertex of the path
+     * @return a path as dijkstra() specifies; it has the same weight as the
+     *         path dijkstra() returns, but may be a different path of that
+     *         weight
+     */
+    public static <L> Optional<Path<L>> bidirectionalDijkstra(Graph<L> graph, L source, L target) {
+        final Index<L> index = Index.of(graph);
+        final int s = index.id(source);
+        final int t = index.id(target);
+        if (s < 0 || t < 0 || s == t) {
+            return trivial(index, source, target, 0);
+        }
+
+        final Scratch scratch = acquire();
+        try {
+            final IndexedHeap forward = scratch.forward;
+            final IndexedHeap backward = scratch.backward;
+            forward.reset(index.expectedSize());
+            backward.reset(index.expectedSize());
+            forward.offer(s, 0, 0, IndexedHeap.NONE);
+            backward.offer(t, 0, 0, IndexedHeap.NONE);
+
+            // every path not yet found has weight at least the sum of the two
+            // smallest priorities, so stop once that reaches the best one found
+            final Search<L> search = new Search<>(index, null, false);
+            while (!forward.isEmpty() && !backward.isEmpty()
+                    && forward.minPriority() + backward.minPriority() < search.best) {
+                final boolean forwards = forward.minPriority() <= backward.minPriority();
+                search.heap = forwards ? forward : backward;
+                search.opposite = forwards ? backward : forward;
+                search.expand(search.heap.poll(), forwards);
+            }
+            if (search.meeting == IndexedHeap.NONE) {
+                return Optional.empty();
+            }
+
+            final List<L> vertices = labels(index, forward, search.meeting);
+            for (int v = backward.parent(search.meeting); v != IndexedHeap.NONE; v = backward.parent(v)) {
+                vertices.add(index.label(v));
+            }
+            return Optional.of(new Path<>(vertices, search.best));
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /**
+     * Find a shortest path by A*, which settles vertices in order of their
+     * distance from source plus an estimate of their distance to target, so
+     * with a good estimate it settles far fewer vertices than dijkstra().
+     *
+     * @param graph graph to search, not modified by this method
+     * @param source label of the first vertex of the path
+     * @param target label of the last vertex of the path
+     * @param heuristic estimate of the weight of a shortest path from a vertex
+     *        to target; requires it to be 0 for target and consistent: for
+     *        every edge from v to u of weight w, heuristic(v) <= w +
+     *        heuristic(u). (A heuristic of 0 everywhere makes this dijkstra().)
+     * @return a path as dijkstra() specifies; it has the same weight as the
+     *         path dijkstra() returns, but may be a different path of that
+     *         weight
+     */
+    public static <L> Optional<Path<L>> aStar(Graph<L> graph, L source, L target,
+            ToLongFunction<? super L> heuristic) {
+        return search(Index.of(graph), source, target, heuristic, false);
+    }
+
+    /**
+     * Find a widest path: one whose narrowest edge is as wide as possible,
+     * where the width of an edge is its weight.
+     *
+     * @param graph graph to search, not modified by this method
+     * @param source label of the first vertex of the path
+     * @param target label of the last vertex of the path
+     * @return a path from source to target whose weight, the smallest weight
+     *         of its edges, is greatest, or empty if there is no path; a
+     *         vertex of graph has a path of no edges to itself, whose weight
+     *         is Long.MAX_VALUE since no edge narrows it, and a vertex not in
+     *         graph has no paths
+     */
+    public static <L> Optional<Path<L>> widestPath(Graph<L> graph, L source, L target) {
+        return search(Index.of(graph), source, target, null, true);
+    }
+
+    /*
+     * Best-first search forward from source until target is settled. Values
+     * are path weights, or for a widest search the negated widths, so that
+     * smaller is better either way; priorities are values plus the heuristic.
+     */
+    private static <L> Optional<Path<L>> search(Index<L> index, L source, L target,
+            ToLongFunction<? super L> heuristic, boolean widest) {
+        final long start = widest ? -Long.MAX_VALUE : 0;
+        final int s = index.id(source);
+        final int t = index.id(target);
+        if (s < 0 || t < 0 || s == t) {
+            return trivial(index, source, target, -start);
+        }
+
+        final Scratch scratch = acquire();
+        try {
+            final IndexedHeap heap = scratch.forward;
+            heap.reset(index.expectedSize());
+            heap.offer(s, start, start, IndexedHeap.NONE);
+            final Search<L> search = new Search<>(index, heuristic, widest);
+            search.heap = heap;
+            while (!heap.isEmpty()) {
+                final int v = heap.poll();
+                if (v == t) {
+                    final long value = heap.value(t);
+                    return Optional.of(new Path<>(labels(index, heap, t), widest ? -value : value));
+                }
+                search.expand(v, true);
+            }
+            return Optional.empty();
+        } finally {
+            release(scratch);
+        }
+    }
+
+    /*
+     * @return the path of no edges from source to itself with the given
+     *         weight if source and target are the same vertex of the graph,
+     *         otherwise empty; requires that either source or target has no
+     *         id in index, or they have the same id
+     */
+    private static <L> Optional<Path<L>> trivial(Index<L> index, L source, L target, long weight) {
+        if (index.id(source) < 0 || index.id(source) != index.id(target) || !index.contains(source)) {
+            return Optional.empty();
+        }
+        return Optional.of(new Path<>(Collections.singletonList(source), weight));
+    }
+
+    /*
+     * @return a new list of the labels on the path to v through the parents
+     *         in heap, starting from the vertex with no parent
+     */
+    private static <L> List<L> labels(Index<L> index, IndexedHeap heap, int v) {
+        final List<L> vertices = new ArrayList<>();
+        for (; v != IndexedHeap.NONE; v = heap.parent(v)) {
+            vertices.add(index.label(v));
+        }
+        Collections.reverse(vertices);
+        return vertices;
+    }
+
+    /*
+     * The state of one search besides its heaps: the vertex being expanded,
+     * whose edges accept() relaxes, and for a bidirectional search the best
+     * path found so far. One Search visits every edge, so that expanding a
+     * vertex allocates nothing.
+     */
+    private static class Search<L> implements EdgeConsumer {
+        private final Index<L> index;
+        private final ToLongFunction<? super L> heuristic; // null for none
+        private final boolean widest;
+        IndexedHeap heap; // the direction being expanded
+        IndexedHeap opposite; // the other direction, or null if there is none
+        long best = Long.MAX_VALUE; // weight of the best path through meeting
+        int meeting = IndexedHeap.NONE;
+        private int from;
+        private long fromValue;
+
+        Search(Index<L> index, ToLongFunction<? super L> heuristic, boolean widest) {
+            this.index = index;
+            this.heuristic = heuristic;
+            this.widest = widest;
+        }
+
+        /*
+         * Relax the edges of settled vertex v in heap: from v if forwards,
+         * otherwise to v.
+         */
+        void expand(int v, boolean forwards) {
+            from = v;
+            fromValue = heap.value(v);
+            if (forwards) {
+                index.forEachTarget(v, this);
+            } else {
+                index.forEachSource(v, this);
+            }
+        }
+
+        @Override public void accept(int v, int weight) {
+            final long value = widest ? -Math.min(-fromValue, weight) : fromValue + weight;
+            if (!heap.improves(v, value)) {
+                return;
+            }
+            final long priority = heuristic == null ? value : value + heuristic.applyAsLong(index.label(v));
+            heap.offer(v, value, priority, from);
+            if (opposite != null && opposite.seen(v) && value + opposite.value(v) < best) {
+                best = value + opposite.value(v);
+                meeting = v;
+            }
+        }
+    }
+
+    /*
+     * A thread's reusable heaps, and whether a search on the thread is using
+     * them.
+     */
+    private static class Scratch {
+        final IndexedHeap forward = new IndexedHeap();
+        final IndexedHeap backward = new IndexedHeap();
+        boolean inUse = false;
+    }
+
+    /*
+     * @return this thread's heaps, or new ones if a search on this thread is
+     *         already using them (because a heuristic or graph called back
+     *         into ShortestPaths)
+     */
+    private static Scratch acquire() {
+        final Scratch scratch = SCRATCH.get();
+        if (scratch.inUse) {
+            return new Scratch();
+        }
+        scratch.inUse = true;
+        return scratch;
+    }
+
+    private static void release(Scratch scratch) {
+        scratch.inUse = false;
+    }
+}
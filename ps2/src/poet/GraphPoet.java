@@ -10,7 +10,6 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.Scanner;
 
 import graph.Graph;
@@ -81,7 +80,6 @@ public class GraphPoet {
         BufferedReader reader = new BufferedReader(new FileReader(corpus));
         String line;
         String prevWord = "";
-        Map<String, Integer> targetsFromPrevWord;
         
         while ((line = reader.readLine()) != null) {
             Scanner scanner = new Scanner(line);
@@ -89,9 +87,7 @@ public class GraphPoet {
                 String word = scanner.next().toLowerCase();
                 
                 if (!prevWord.isEmpty()) {
-                    targetsFromPrevWord = graph.targets(prevWord);
-                    int weight = targetsFromPrevWord.getOrDefault(word, 0);
-                    graph.set(prevWord, word, weight + 1);
+                    graph.addWeight(prevWord, word, 1);
                 }
                 
                 prevWord = word;
@@ -165,29 +161,44 @@ public class GraphPoet {
      *         Return an empty string if no such bridge word exists.
      */
     private String maxBridgeWord(String sourceWord, String targetWord) {
-        String maxBridgeWord = "";
-        int maxPathWeight = 0;
-        
-        
         /*
-         *  convert source and target words to lower case before getting edge weight maps
+         *  convert source and target words to lower case before looking up edges
          *  since all our rep requires are vertex string labels to be lower case.
          */
-        Map<String, Integer> targetsFromSource = graph.targets(sourceWord.toLowerCase());
-        Map<String, Integer> sourcesFromTarget = graph.sources(targetWord.toLowerCase());
+        final String source = sourceWord.toLowerCase();
+        final String target = targetWord.toLowerCase();
+        final Bridge bridge = new Bridge();
         
-        for (String t: targetsFromSource.keySet()) {
-            // check if t is a bridge word.
-            if (sourcesFromTarget.containsKey(t)) {
-                int pathWeight = targetsFromSource.get(t) + sourcesFromTarget.get(t);
-                if (maxPathWeight < pathWeight) {
-                    maxPathWeight = pathWeight;
-                    maxBridgeWord = t;
-                }
-            }
+        /*
+         * visit the edges of whichever end has fewer, and look up the other
+         * half of each path, so that no map of edges is built.
+         */
+        if (graph.degree(source) <= graph.inDegree(target)) {
+            graph.forEachTarget(source, (b, weight) -> bridge.offer(b, weight, graph.weight(b, target)));
+        } else {
+            graph.forEachSource(target, (b, weight) -> bridge.offer(b, graph.weight(source, b), weight));
         }
         
-        return maxBridgeWord;
+        return bridge.word;
+    }
+    
+    /*
+     * The best bridge word offered so far.
+     */
+    private static class Bridge {
+        private String word = "";
+        private int pathWeight = 0;
+        
+        /*
+         * Offer b as a bridge word, with the weights of the edges into and
+         * out of it; b is a bridge only if both are nonzero.
+         */
+        void offer(String b, int weightIn, int weightOut) {
+            if (weightIn > 0 && weightOut > 0 && pathWeight < weightIn + weightOut) {
+                pathWeight = weightIn + weightOut;
+                word = b;
+            }
+        }
     }
     
     @Override
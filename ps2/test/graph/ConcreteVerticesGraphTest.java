@@ -5,6 +5,10 @@ package graph;
 
 import static org.junit.Assert.*;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.junit.Test;
 
 /**
@@ -28,10 +32,13 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
      * Testing ConcreteVerticesGraph...
      */
     
-    // Testing strategy for ConcreteVerticesGraph.toString()
-    //   TODO
+    // Testing strategy for ConcreteVerticesGraph
+    //   toString(): vertices with and without targets
+    //   set(): weight 0 with missing vertices, negative weight
+    //   remove(): vertex with incoming, outgoing and self edges
+    //   size: a graph with 100,000 vertices builds in time proportional to
+    //     its size
     
-    // TODO tests for ConcreteVerticesGraph.toString()
     @Test
     public void testToString() {
         Graph<String> g = new ConcreteVerticesGraph<String>();
@@ -47,6 +54,54 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
         assertTrue(g.toString().indexOf("abe: {}") >= 0);
     }
     
+    @Test
+    public void testSetZeroDoesNotAddVertices() {
+        Graph<String> g = new ConcreteVerticesGraph<String>();
+        g.add("jim");
+        assertEquals(0, g.set("jim", "henry", 0));
+        assertEquals(0, g.set("abe", "jim", 0));
+        assertEquals(Collections.singleton("jim"), g.vertices());
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetNegativeWeight() {
+        new ConcreteVerticesGraph<String>().set("jim", "henry", -3);
+    }
+    
+    @Test
+    public void testRemoveVertexWithEdges() {
+        Graph<String> g = new ConcreteVerticesGraph<String>();
+        g.set("jim", "henry", 1);
+        g.set("henry", "abe", 2);
+        g.set("abe", "henry", 3);
+        g.set("henry", "henry", 4);
+        
+        assertTrue(g.remove("henry"));
+        assertEquals(Collections.emptyMap(), g.targets("jim"));
+        assertEquals(Collections.emptyMap(), g.targets("abe"));
+        assertEquals(Collections.emptyMap(), g.sources("abe"));
+        assertEquals(Collections.emptyMap(), g.sources("henry"));
+        
+        g.set("jim", "abe", 5);
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("jim", 5);
+        assertEquals(expected, g.sources("abe"));
+    }
+    
+    @Test(timeout=10_000)
+    public void testLargeGraph() {
+        final int n = 100_000;
+        Graph<Integer> g = new ConcreteVerticesGraph<Integer>();
+        for (int i = 0; i < n; i++) {
+            g.set(i, (i + 1) % n, 1);
+            g.set(i, 0, 2);
+        }
+        assertEquals(n, g.vertices().size());
+        assertEquals(n, g.sources(0).size());
+        assertTrue(g.remove(0));
+        assertEquals(Collections.emptyMap(), g.targets(n - 1));
+    }
+    
     /*
      * Testing Vertex...
      */
@@ -56,6 +111,8 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
     //     number of edges = 0, 1, n
     //   removeEdge:
     //     number of edges = 0, 1, n
+    //   addSource, removeSource:
+    //     number of edges = 0, 1
     //   constructor:
     //     just one test with initial label.
     
@@ -80,4 +137,16 @@ public class ConcreteVerticesGraphTest extends GraphInstanceTest {
         v.removeEdge("tom");
         assertFalse(v.containsEdgeTo("tom"));
     }
+    
+    @Test
+    public void testAddRemoveSource() {
+        Vertex<String> v = new Vertex<String>("abe");
+        assertEquals(0, v.sourceWeight("tom"));
+        v.addSource("tom", 5);
+        assertEquals(5, v.sourceWeight("tom"));
+        assertEquals(Collections.singletonMap("tom", 5), v.sources());
+        assertEquals(0, v.targets().size());
+        v.removeSource("tom");
+        assertEquals(0, v.sources().size());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against ConcurrentGraph, as
+ * well as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ConcurrentGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcurrentGraph<String>();
+    }
+    
+    /*
+     * Testing ConcurrentGraph...
+     */
+    
+    // Testing strategy for ConcurrentGraph
+    //   addWeight(): missing edge and vertices, existing edge, delta
+    //     positive, negative and zero, new weight zero, negative, overflow
+    //   concurrency: several threads adding to the same few edges; several
+    //     threads setting and removing edges while others remove vertices,
+    //     checked afterwards for matching sources and targets
+    
+    private static void runThreads(int threads, Callable<Void> task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(task));
+            }
+            for (Future<Void> result: results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    private static <L> void assertConsistent(Graph<L> g) {
+        for (L v: g.vertices()) {
+            for (Map.Entry<L, Integer> e: g.targets(v).entrySet()) {
+                assertTrue(e.getValue() > 0);
+                assertEquals(e.getValue(), g.sources(e.getKey()).get(v));
+            }
+            for (Map.Entry<L, Integer> e: g.sources(v).entrySet()) {
+                assertEquals(e.getValue(), g.targets(e.getKey()).get(v));
+            }
+        }
+    }
+    
+    @Test
+    public void testAddWeight() {
+        ConcurrentGraph<String> g = new ConcurrentGraph<>();
+        assertEquals(0, g.addWeight("jim", "henry", 0));
+        assertEquals(0, g.vertices().size());
+        assertEquals(3, g.addWeight("jim", "henry", 3));
+        assertEquals(5, g.addWeight("jim", "henry", 2));
+        assertEquals(Integer.valueOf(5), g.sources("henry").get("jim"));
+        assertEquals(1, g.addWeight("jim", "henry", -4));
+        assertEquals(0, g.addWeight("jim", "henry", -1));
+        assertEquals(0, g.degree("jim"));
+        assertEquals(0, g.inDegree("henry"));
+        assertEquals(2, g.vertices().size());
+    }
+    
+    @Test
+    public void testAddWeightRejected() {
+        ConcurrentGraph<String> g = new ConcurrentGraph<>();
+        g.set("jim", "henry", Integer.MAX_VALUE);
+        try {
+            g.addWeight("jim", "henry", 1);
+            fail("expected ArithmeticException");
+        } catch (ArithmeticException expected) {
+            // expected
+        }
+        try {
+            g.addWeight("henry", "abe", -1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        assertEquals(Integer.MAX_VALUE, g.weight("jim", "henry"));
+        assertFalse(g.vertices().contains("abe"));
+    }
+    
+    @Test
+    public void testConcurrentAddWeightLosesNothing() throws Exception {
+        final ConcurrentGraph<Integer> g = new ConcurrentGraph<>();
+        final int threads = 8;
+        final int adds = 20_000;
+        runThreads(threads, () -> {
+            for (int i = 0; i < adds; i++) {
+                g.addWeight(i % 4, i % 3, 1);
+            }
+            return null;
+        });
+        int total = 0;
+        for (int s = 0; s < 4; s++) {
+            for (int t = 0; t < 3; t++) {
+                total += g.weight(s, t);
+            }
+        }
+        assertEquals(threads * adds, total);
+        assertConsistent(g);
+    }
+    
+    @Test
+    public void testConcurrentMutationsStayConsistent() throws Exception {
+        final ConcurrentGraph<Integer> g = new ConcurrentGraph<>();
+        final int threads = 8;
+        runThreads(threads, () -> {
+            Random random = new Random(Thread.currentThread().getId());
+            for (int i = 0; i < 20_000; i++) {
+                int s = random.nextInt(50);
+                int t = random.nextInt(50);
+                switch (random.nextInt(20)) {
+                case 0:
+                    g.remove(s);
+                    break;
+                case 1:
+                    g.set(s, t, 0);
+                    break;
+                case 2:
+                    g.set(s, t, 1 + random.nextInt(10));
+                    break;
+                default:
+                    g.addWeight(s, t, 1);
+                    break;
+                }
+            }
+            return null;
+        });
+        assertConsistent(g);
+    }
+}
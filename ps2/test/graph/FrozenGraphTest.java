@@ -0,0 +1,167 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for FrozenGraph.
+ * 
+ * FrozenGraph is immutable, so GraphInstanceTest, which builds graphs by
+ * mutating them, does not apply; instead each test freezes a graph built by
+ * another implementation and compares the two.
+ */
+public class FrozenGraphTest {
+    
+    // Testing strategy
+    //   freeze(): empty graph; graph with isolated vertices, self-loops and
+    //     vertices with many edges; random graphs built by each mutable
+    //     implementation; a FrozenGraph
+    //   vertices(), targets(), sources(): agree with the original graph;
+    //     missing label; views are unmodifiable; views do not change when
+    //     the original graph does
+    //   forEachTarget(), forEachSource(), degree(), inDegree(), weight():
+    //     agree with the original graph
+    //   view get(), containsKey(), forEach(), equals(): present and missing
+    //     keys, a key that is not a vertex
+    //   add(), set(), remove(): throw
+    
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+    
+    private static <L> void assertSameGraph(Graph<L> expected, Graph<L> actual) {
+        assertEquals(expected.vertices(), actual.vertices());
+        for (L v: expected.vertices()) {
+            assertEquals(expected.targets(v), actual.targets(v));
+            assertEquals(expected.sources(v), actual.sources(v));
+            assertEquals(expected.targets(v).hashCode(), actual.targets(v).hashCode());
+            assertEquals(expected.degree(v), actual.degree(v));
+            assertEquals(expected.inDegree(v), actual.inDegree(v));
+            Map<L, Integer> visited = new HashMap<>();
+            actual.forEachTarget(v, (t, w) -> assertNull(visited.put(t, w)));
+            assertEquals(expected.targets(v), visited);
+            visited.clear();
+            actual.forEachSource(v, (s, w) -> assertNull(visited.put(s, w)));
+            assertEquals(expected.sources(v), visited);
+            for (L t: expected.vertices()) {
+                assertEquals(expected.weight(v, t), actual.weight(v, t));
+            }
+        }
+    }
+    
+    @Test
+    public void testEmpty() {
+        Graph<String> frozen = FrozenGraph.freeze(Graph.<String>empty());
+        assertEquals(Collections.emptySet(), frozen.vertices());
+        assertEquals(Collections.emptyMap(), frozen.targets("jim"));
+        assertEquals("", frozen.toString());
+    }
+    
+    @Test
+    public void testSmallGraph() {
+        Graph<String> g = new HashGraph<>();
+        g.set("jim", "henry", 45);
+        g.set("jim", "abe", 2);
+        g.set("abe", "abe", 7);
+        g.set("henry", "jim", 1);
+        g.add("yen");
+        FrozenGraph<String> frozen = FrozenGraph.freeze(g);
+        assertSameGraph(g, frozen);
+        
+        Map<String, Integer> targets = frozen.targets("jim");
+        assertEquals(Integer.valueOf(45), targets.get("henry"));
+        assertNull(targets.get("yen"));
+        assertNull(targets.get("nobody"));
+        assertNull(targets.get(42));
+        assertTrue(targets.containsKey("abe"));
+        assertFalse(targets.containsKey("jim"));
+        Map<String, Integer> visited = new HashMap<>();
+        targets.forEach(visited::put);
+        assertEquals(g.targets("jim"), visited);
+        assertEquals(Collections.emptyMap(), frozen.sources("yen"));
+        assertEquals(Collections.emptyMap(), frozen.targets("nobody"));
+        assertTrue(frozen.toString().contains("yen: {}"));
+    }
+    
+    @Test
+    public void testViewsDoNotFollowOriginal() {
+        Graph<String> g = new HashGraph<>();
+        g.set("jim", "henry", 45);
+        Graph<String> frozen = FrozenGraph.freeze(g);
+        Map<String, Integer> targets = frozen.targets("jim");
+        g.set("jim", "henry", 0);
+        g.remove("jim");
+        assertEquals(Collections.singletonMap("henry", 45), targets);
+        assertEquals(Collections.singletonMap("jim", 45), frozen.sources("henry"));
+    }
+    
+    @Test
+    public void testFreezeFrozen() {
+        FrozenGraph<String> frozen = FrozenGraph.freeze(new HashGraph<String>());
+        assertSame(frozen, FrozenGraph.freeze(frozen));
+    }
+    
+    @Test
+    public void testRandomGraphs() {
+        List<Graph<Integer>> graphs = Arrays.asList(new HashGraph<Integer>(), new ConcreteVerticesGraph<Integer>(),
+                new ConcreteEdgesGraph<Integer>(), new LabeledGraph<Integer>());
+        for (Graph<Integer> g: graphs) {
+            Random random = new Random(6005);
+            for (int i = 0; i < 2000; i++) {
+                g.set(random.nextInt(100), random.nextInt(i % 10 == 0 ? 3 : 100), random.nextInt(10));
+            }
+            g.add(1000);
+            assertSameGraph(g, FrozenGraph.freeze(g));
+        }
+    }
+    
+    @Test
+    public void testViewsUnmodifiable() {
+        Graph<String> g = new HashGraph<>();
+        g.set("jim", "henry", 45);
+        Graph<String> frozen = FrozenGraph.freeze(g);
+        Runnable[] mutations = {
+            () -> frozen.vertices().add("abe"),
+            () -> frozen.targets("jim").put("abe", 1),
+            () -> frozen.targets("jim").remove("henry"),
+            () -> frozen.sources("henry").clear(),
+            () -> frozen.targets("jim").entrySet().iterator().next().setValue(3),
+        };
+        for (Runnable mutation: mutations) {
+            try {
+                mutation.run();
+                fail("expected UnsupportedOperationException");
+            } catch (UnsupportedOperationException expected) {
+                // expected
+            }
+        }
+        assertSameGraph(g, frozen);
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testAddUnsupported() {
+        FrozenGraph.freeze(new HashGraph<String>()).add("jim");
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testSetUnsupported() {
+        FrozenGraph.freeze(new HashGraph<String>()).set("jim", "henry", 1);
+    }
+    
+    @Test(expected=UnsupportedOperationException.class)
+    public void testRemoveUnsupported() {
+        FrozenGraph.freeze(new HashGraph<String>()).remove("jim");
+    }
+}
@@ -0,0 +1,58 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests for the default methods of Graph.
+ * 
+ * This class runs the GraphInstanceTest tests against a graph that
+ * implements only the required methods, so that forEachTarget(),
+ * forEachSource(), degree(), inDegree() and weight() are the defaults.
+ */
+public class GraphDefaultsTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a graph with only the required methods for tests in
+     * GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new RequiredMethodsGraph<String>();
+    }
+}
+
+/**
+ * A Graph that forwards the required methods to another graph and inherits
+ * the default methods.
+ */
+class RequiredMethodsGraph<L> implements Graph<L> {
+    
+    private final Graph<L> graph = new HashGraph<>();
+    
+    @Override public boolean add(L vertex) {
+        return graph.add(vertex);
+    }
+    
+    @Override public int set(L source, L target, int weight) {
+        return graph.set(source, target, weight);
+    }
+    
+    @Override public boolean remove(L vertex) {
+        return graph.remove(vertex);
+    }
+    
+    @Override public Set<L> vertices() {
+        return graph.vertices();
+    }
+    
+    @Override public Map<L, Integer> sources(L target) {
+        return graph.sources(target);
+    }
+    
+    @Override public Map<L, Integer> targets(L source) {
+        return graph.targets(source);
+    }
+}
@@ -6,6 +6,7 @@ package graph;
 import static org.junit.Assert.*;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
@@ -44,6 +45,17 @@ public abstract class GraphInstanceTest {
     //
     // Partition for targets():
     // number of edges pointing out from source is 0, > 0
+    //
+    // Partition for forEachTarget(), forEachSource(), degree(), inDegree():
+    // vertex absent, with no edges, with some edges including a self-loop;
+    // visits agree with targets() and sources()
+    //
+    // Partition for weight():
+    // either vertex absent, edge absent, edge present, edge removed
+    //
+    // Partition for addWeight():
+    // edge absent, edge present; vertices absent, present;
+    // delta < 0, = 0, > 0; new weight < 0, = 0, > 0
     /**
      * Overridden by implementation-specific test classes.
      * 
@@ -190,4 +202,83 @@ public abstract class GraphInstanceTest {
         assertEquals(40, (int) targetsMap.get("sam"));
         assertEquals(30, (int) targetsMap.get("april"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    public void testForEachTargetAndSource() {
+        Graph<String> g = emptyInstance();
+        g.set("roger", "sam", 40);
+        g.set("roger", "april", 30);
+        g.set("roger", "roger", 5);
+        g.set("jim", "sam", 90);
+        g.add("tom");
+        for (String v: new String[] { "roger", "sam", "april", "jim", "tom", "nobody" }) {
+            Map<String, Integer> targets = new HashMap<>();
+            g.forEachTarget(v, (t, w) -> assertNull("visited twice", targets.put(t, w)));
+            assertEquals(g.targets(v), targets);
+            assertEquals(targets.size(), g.degree(v));
+            
+            Map<String, Integer> sources = new HashMap<>();
+            g.forEachSource(v, (s, w) -> assertNull("visited twice", sources.put(s, w)));
+            assertEquals(g.sources(v), sources);
+            assertEquals(sources.size(), g.inDegree(v));
+        }
+        assertEquals(3, g.degree("roger"));
+        assertEquals(2, g.inDegree("sam"));
+    }
+    
+    @Test
+    public void testWeight() {
+        Graph<String> g = emptyInstance();
+        assertEquals(0, g.weight("roger", "sam"));
+        g.set("roger", "sam", 40);
+        g.add("april");
+        assertEquals(40, g.weight("roger", "sam"));
+        assertEquals(0, g.weight("sam", "roger"));
+        assertEquals(0, g.weight("roger", "april"));
+        assertEquals(0, g.weight("roger", "nobody"));
+        g.set("roger", "sam", 0);
+        assertEquals(0, g.weight("roger", "sam"));
+    }
+    
+    @Test
+    public void testAddWeight() {
+        Graph<String> g = emptyInstance();
+        assertEquals(0, g.addWeight("roger", "sam", 0));
+        assertEquals(Collections.emptySet(), g.vertices());
+        assertEquals(3, g.addWeight("roger", "sam", 3));
+        assertEquals(5, g.addWeight("roger", "sam", 2));
+        assertEquals(5, g.addWeight("roger", "sam", 0));
+        assertEquals(4, g.addWeight("roger", "sam", -1));
+        assertEquals(Collections.singletonMap("roger", 4), g.sources("sam"));
+        assertEquals(Collections.singletonMap("sam", 4), g.targets("roger"));
+        
+        assertEquals(0, g.addWeight("roger", "sam", -4));
+        assertEquals(Collections.emptyMap(), g.targets("roger"));
+        assertEquals(Collections.emptyMap(), g.sources("sam"));
+        assertEquals(2, g.vertices().size());
+        
+        assertEquals(1, g.addWeight("april", "april", 1));
+        assertEquals(Collections.singletonMap("april", 1), g.sources("april"));
+    }
+    
+    @Test
+    public void testAddWeightNegativeResult() {
+        Graph<String> g = emptyInstance();
+        g.set("roger", "sam", 2);
+        try {
+            g.addWeight("roger", "sam", -3);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            g.addWeight("roger", "april", -1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(2, g.weight("roger", "sam"));
+        assertEquals(Collections.singletonMap("roger", 2), g.sources("sam"));
+        assertFalse(g.vertices().contains("april"));
+    }
+}
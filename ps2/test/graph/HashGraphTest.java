@@ -0,0 +1,85 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for HashGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against HashGraph, as well as
+ * tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class HashGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a HashGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new HashGraph<String>();
+    }
+    
+    /*
+     * Testing HashGraph...
+     */
+    
+    // Testing strategy for HashGraph
+    //   set(): weight 0 for a missing edge and missing vertices, self-loop,
+    //     negative weight
+    //   remove(): vertex with incoming, outgoing and self edges; the other
+    //     vertices' sources and targets no longer mention it
+    //   toString(): empty graph, vertex with and without targets
+    
+    @Test
+    public void testSetZeroDoesNotAddVertices() {
+        Graph<String> g = new HashGraph<String>();
+        assertEquals(0, g.set("roger", "sam", 0));
+        assertEquals(Collections.emptySet(), g.vertices());
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetNegativeWeight() {
+        new HashGraph<String>().set("roger", "sam", -1);
+    }
+    
+    @Test
+    public void testRemoveVertexWithEdges() {
+        Graph<String> g = new HashGraph<String>();
+        g.set("roger", "sam", 1);
+        g.set("sam", "jim", 2);
+        g.set("jim", "sam", 3);
+        g.set("sam", "sam", 4);
+        assertEquals(4, g.set("sam", "sam", 4));
+        
+        assertTrue(g.remove("sam"));
+        assertFalse(g.remove("sam"));
+        assertEquals(Collections.emptyMap(), g.targets("roger"));
+        assertEquals(Collections.emptyMap(), g.sources("jim"));
+        assertEquals(Collections.emptyMap(), g.targets("jim"));
+        assertEquals(Collections.emptyMap(), g.sources("sam"));
+        g.set("jim", "roger", 5);
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("jim", 5);
+        assertEquals(expected, g.sources("roger"));
+    }
+    
+    @Test
+    public void testToString() {
+        Graph<String> g = new HashGraph<String>();
+        assertEquals("", g.toString());
+        g.set("jim", "henry", 45);
+        g.add("abe");
+        assertTrue(g.toString().contains("jim: {henry=45}"));
+        assertTrue(g.toString().contains("abe: {}"));
+        assertEquals(3, g.toString().split("\n").length);
+    }
+}
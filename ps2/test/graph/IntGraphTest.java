@@ -0,0 +1,212 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for IntGraph.
+ */
+public class IntGraphTest {
+    
+    // Testing strategy
+    //   addVertex(): ids are dense from 0; growth past the initial capacity
+    //   set(): add, change and remove an edge; self-loop; weight 0 for a
+    //     missing edge; negative weight; vertex out of range
+    //   addWeight(): missing and existing edge, in packed and hashed tables;
+    //     delta that removes the edge; negative result leaves the edge
+    //   tables: degree 0, 1, 8 (largest packed table), 9 and more (hashed),
+    //     removal from packed and hashed tables
+    //   forEachTarget(), forEachSource(), outDegree(), inDegree(): agree with
+    //     a map of the edges after a random sequence of set() and clear()
+    //   clear(): vertex with incoming, outgoing and self edges
+    //   trim(): packed and hashed tables keep their edges, and the graph
+    //     still grows afterwards
+    
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+    
+    private static IntGraph graphOf(int vertices) {
+        IntGraph g = new IntGraph(0);
+        for (int i = 0; i < vertices; i++) {
+            assertEquals(i, g.addVertex());
+        }
+        return g;
+    }
+    
+    private static Map<Integer, Integer> targetsOf(IntGraph g, int v) {
+        Map<Integer, Integer> targets = new HashMap<>();
+        g.forEachTarget(v, (t, w) -> assertNull(targets.put(t, w)));
+        return targets;
+    }
+    
+    private static Map<Integer, Integer> sourcesOf(IntGraph g, int v) {
+        Map<Integer, Integer> sources = new HashMap<>();
+        g.forEachSource(v, (s, w) -> assertNull(sources.put(s, w)));
+        return sources;
+    }
+    
+    @Test
+    public void testSetAndRemoveEdge() {
+        IntGraph g = graphOf(3);
+        assertEquals(0, g.set(0, 1, 5));
+        assertEquals(5, g.set(0, 1, 7));
+        assertEquals(0, g.set(2, 2, 1));
+        assertEquals(7, g.weight(0, 1));
+        assertEquals(1, g.weight(2, 2));
+        assertEquals(2, g.edgeCount());
+        assertEquals(7, g.set(0, 1, 0));
+        assertEquals(0, g.set(0, 1, 0));
+        assertEquals(0, g.weight(0, 1));
+        assertEquals(0, g.outDegree(0));
+        assertEquals(0, g.inDegree(1));
+        assertEquals(1, g.edgeCount());
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        graphOf(2).set(0, 1, -1);
+    }
+    
+    @Test(expected=IllegalArgumentException.class)
+    public void testVertexOutOfRange() {
+        graphOf(2).set(0, 2, 1);
+    }
+    
+    @Test
+    public void testAddWeight() {
+        final int n = 40;
+        IntGraph g = graphOf(n);
+        for (int round = 1; round <= 3; round++) {
+            for (int i = 0; i < n; i++) {
+                assertEquals(round * i, g.addWeight(0, i, i));
+            }
+        }
+        assertEquals(n - 1, g.outDegree(0)); // the edge 0->0 has weight 0
+        assertEquals(3 * 7, g.weight(0, 7));
+        assertEquals(Collections.singletonMap(0, 3 * 7), sourcesOf(g, 7));
+        
+        assertEquals(0, g.addWeight(0, 7, -3 * 7));
+        assertEquals(0, g.inDegree(7));
+        assertEquals(n - 2, g.edgeCount());
+        try {
+            g.addWeight(0, 8, -100);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(3 * 8, g.weight(0, 8));
+    }
+    
+    @Test
+    public void testHighDegree() {
+        final int n = 1000;
+        IntGraph g = graphOf(n);
+        for (int i = 1; i < n; i++) {
+            g.set(0, i, i);
+            g.set(i, 0, i);
+        }
+        assertEquals(n - 1, g.outDegree(0));
+        assertEquals(n - 1, g.inDegree(0));
+        for (int i = 1; i < n; i += 2) {
+            assertEquals(i, g.set(0, i, 0));
+        }
+        for (int i = 1; i < n; i++) {
+            assertEquals(i % 2 == 0 ? i : 0, g.weight(0, i));
+            assertEquals(i, g.weight(i, 0));
+        }
+        assertEquals(n / 2 - 1, g.outDegree(0));
+        assertEquals(n / 2 - 1, targetsOf(g, 0).size());
+    }
+    
+    @Test
+    public void testTrim() {
+        final int n = 100;
+        IntGraph g = graphOf(n);
+        for (int i = 0; i < n; i++) {
+            g.set(0, i, i + 1);
+            g.set(i, 1, i + 1);
+        }
+        for (int i = 0; i < n; i += 3) {
+            g.set(0, i, 0);
+            g.set(i, 1, 0);
+        }
+        Map<Integer, Integer> targets = targetsOf(g, 0);
+        Map<Integer, Integer> sources = sourcesOf(g, 1);
+        g.trim();
+        assertEquals(targets, targetsOf(g, 0));
+        assertEquals(sources, sourcesOf(g, 1));
+        assertEquals(n - 34 - 1, g.outDegree(0)); // set(0, 1, 0) removed 0->1 as well
+        assertEquals(6, g.weight(5, 1));
+        for (int i = 0; i < n; i += 3) {
+            assertEquals(0, g.set(0, i, 7));
+        }
+        assertEquals(n - 1, g.outDegree(0));
+    }
+    
+    @Test
+    public void testClear() {
+        IntGraph g = graphOf(4);
+        g.set(0, 1, 1);
+        g.set(1, 2, 2);
+        g.set(2, 1, 3);
+        g.set(1, 1, 4);
+        g.set(3, 0, 5);
+        g.clear(1);
+        assertEquals(4, g.vertexCount());
+        assertEquals(1, g.edgeCount());
+        assertEquals(0, g.outDegree(0));
+        assertEquals(0, g.inDegree(2));
+        assertEquals(0, g.outDegree(2));
+        assertEquals(0, g.inDegree(1));
+        assertEquals(5, g.weight(3, 0));
+    }
+    
+    @Test
+    public void testRandomAgainstMap() {
+        final int n = 40;
+        Random random = new Random(6005);
+        IntGraph g = graphOf(n);
+        Map<Long, Integer> edges = new HashMap<>();
+        for (int step = 0; step < 20_000; step++) {
+            int s = random.nextInt(n);
+            // skew targets so that some vertices get hashed tables
+            int t = random.nextBoolean() ? random.nextInt(4) : random.nextInt(n);
+            if (step % 1000 == 999) {
+                g.clear(s);
+                edges.keySet().removeIf(e -> e / n == s || e % n == s);
+                continue;
+            }
+            int w = random.nextInt(3) == 0 ? 0 : 1 + random.nextInt(100);
+            Integer previous = w == 0 ? edges.remove((long) s * n + t) : edges.put((long) s * n + t, w);
+            assertEquals(previous == null ? 0 : previous.intValue(), g.set(s, t, w));
+        }
+        assertEquals(edges.size(), g.edgeCount());
+        for (int v = 0; v < n; v++) {
+            Map<Integer, Integer> targets = new HashMap<>();
+            Map<Integer, Integer> sources = new HashMap<>();
+            for (Map.Entry<Long, Integer> e: edges.entrySet()) {
+                if (e.getKey() / n == v) {
+                    targets.put((int) (e.getKey() % n), e.getValue());
+                }
+                if (e.getKey() % n == v) {
+                    sources.put((int) (e.getKey() / n), e.getValue());
+                }
+            }
+            assertEquals(targets, targetsOf(g, v));
+            assertEquals(sources, sourcesOf(g, v));
+            assertEquals(targets.size(), g.outDegree(v));
+            assertEquals(sources.size(), g.inDegree(v));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+/**
+ * Tests for LabeledGraph.
+ * 
+ * This class runs the GraphInstanceTest tests against LabeledGraph, as well
+ * as tests for that particular implementation.
+ * 
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class LabeledGraphTest extends GraphInstanceTest {
+    
+    /*
+     * Provide a LabeledGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new LabeledGraph<String>();
+    }
+    
+    /*
+     * Testing LabeledGraph...
+     */
+    
+    // Testing strategy for LabeledGraph
+    //   remove() then add(): a new vertex reuses the id of a removed one and
+    //     has none of its edges
+    //   set(): weight 0 with missing vertices
+    //   toString(): vertex with and without targets
+    
+    @Test
+    public void testRemovedIdReused() {
+        Graph<String> g = new LabeledGraph<String>();
+        g.set("jim", "henry", 1);
+        g.set("henry", "abe", 2);
+        assertTrue(g.remove("henry"));
+        g.add("yen");
+        assertEquals(Collections.emptyMap(), g.targets("yen"));
+        assertEquals(Collections.emptyMap(), g.sources("yen"));
+        assertEquals(Collections.emptyMap(), g.targets("jim"));
+        g.set("yen", "abe", 3);
+        assertEquals(Collections.singletonMap("yen", 3), g.sources("abe"));
+    }
+    
+    @Test
+    public void testSetZeroDoesNotAddVertices() {
+        Graph<String> g = new LabeledGraph<String>();
+        g.add("jim");
+        assertEquals(0, g.set("jim", "henry", 0));
+        assertEquals(Collections.singleton("jim"), g.vertices());
+    }
+    
+    @Test
+    public void testToString() {
+        Graph<String> g = new LabeledGraph<String>();
+        g.set("jim", "henry", 45);
+        assertTrue(g.toString().contains("jim: {henry=45}"));
+        assertTrue(g.toString().contains("henry: {}"));
+    }
+}
@@ -0,0 +1,201 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for MappedGraph.
+ *
+ * MappedGraph is immutable, so GraphInstanceTest does not apply; instead
+ * each test writes a graph built by another implementation, maps it, and
+ * compares the two.
+ */
+public class MappedGraphTest {
+
+    // Testing strategy
+    //   write() and open(): empty graph; isolated vertices, self-loops;
+    //     labels that are empty, non-ASCII, or prefixes of each other;
+    //     weights and id gaps that need 1 to 5 varint bytes; random graphs;
+    //     rewriting a file in place
+    //   open(): a file that is not a graph file, a truncated graph file
+    //   vertices(), targets(), sources(), forEachTarget(), forEachSource(),
+    //     degree(), inDegree(), weight(): agree with the original graph;
+    //     missing label
+    //   id(), label(), vertexCount(), edgeCount(): ids in order of UTF-8 bytes
+    //   add(), set(), addWeight(), remove(): throw
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private MappedGraph roundTrip(Graph<String> graph) throws IOException {
+        Path file = folder.newFile().toPath();
+        MappedGraph.write(graph, file);
+        return MappedGraph.open(file);
+    }
+
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals(expected.vertices(), actual.vertices());
+        assertEquals(expected.vertices().size(), actual.vertices().size());
+        for (String v: expected.vertices()) {
+            assertTrue(actual.vertices().contains(v));
+            assertEquals(expected.targets(v), actual.targets(v));
+            assertEquals(expected.sources(v), actual.sources(v));
+            assertEquals(expected.degree(v), actual.degree(v));
+            assertEquals(expected.inDegree(v), actual.inDegree(v));
+            Map<String, Integer> visited = new HashMap<>();
+            actual.forEachTarget(v, (t, w) -> assertNull(visited.put(t, w)));
+            assertEquals(expected.targets(v), visited);
+            visited.clear();
+            actual.forEachSource(v, (s, w) -> assertNull(visited.put(s, w)));
+            assertEquals(expected.sources(v), visited);
+            for (String t: expected.vertices()) {
+                assertEquals(expected.weight(v, t), actual.weight(v, t));
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        MappedGraph mapped = roundTrip(Graph.<String>empty());
+        assertEquals(Collections.emptySet(), mapped.vertices());
+        assertEquals(Collections.emptyMap(), mapped.targets("jim"));
+        assertEquals(0, mapped.degree("jim"));
+        assertEquals(-1, mapped.id("jim"));
+        assertEquals("", mapped.toString());
+    }
+
+    @Test
+    public void testSmallGraph() throws IOException {
+        Graph<String> g = new HashGraph<>();
+        g.set("jim", "henry", 45);
+        g.set("jim", "abe", 2);
+        g.set("abe", "abe", 7);
+        g.set("henry", "jim", Integer.MAX_VALUE);
+        g.set("", "jimmy", 128);
+        g.set("caf\u00e9", "\u65e5\u672c", 16384);
+        g.add("yen");
+        MappedGraph mapped = roundTrip(g);
+        assertSameGraph(g, mapped);
+
+        assertEquals(g.vertices().size(), mapped.vertexCount());
+        assertEquals(6, mapped.edgeCount());
+        assertEquals(0, mapped.id(""));
+        assertEquals("jim", mapped.label(mapped.id("jim")));
+        assertTrue(mapped.id("jim") < mapped.id("jimmy"));
+        assertTrue(mapped.id("yen") < mapped.id("\u65e5\u672c"));
+        assertEquals(-1, mapped.id("ji"));
+        assertEquals(0, mapped.weight("jim", "nobody"));
+        assertEquals(0, mapped.weight("nobody", "jim"));
+        assertEquals(Collections.emptyMap(), mapped.sources("nobody"));
+        assertEquals(0, mapped.inDegree("nobody"));
+        assertTrue(mapped.toString().indexOf("jim: {") >= 0);
+    }
+
+    @Test
+    public void testRandomGraphs() throws IOException {
+        Random random = new Random(6005);
+        for (int round = 0; round < 20; round++) {
+            final int n = 1 + random.nextInt(round < 10 ? 10 : 2000);
+            Graph<String> g = new HashGraph<>();
+            for (int i = 0; i < n; i++) {
+                g.add("v" + i);
+            }
+            for (int i = 0; i < 3 * n; i++) {
+                final int weight = 1 + random.nextInt(1 << random.nextInt(31));
+                g.set("v" + random.nextInt(n), "v" + random.nextInt(n), weight);
+            }
+            assertSameGraph(g, roundTrip(g));
+        }
+    }
+
+    @Test
+    public void testRewriteInPlace() throws IOException {
+        Path file = folder.newFile().toPath();
+        Graph<String> g = new HashGraph<>();
+        g.set("a", "b", 1);
+        MappedGraph.write(g, file);
+        g.set("b", "c", 2);
+        MappedGraph.write(g, file);
+        assertSameGraph(g, MappedGraph.open(file));
+    }
+
+    @Test
+    public void testNotAGraphFile() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, "jim: {henry=45}".getBytes("UTF-8"));
+        try {
+            MappedGraph.open(file);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("not a graph file"));
+        }
+    }
+
+    @Test
+    public void testTruncatedGraphFile() throws IOException {
+        Graph<String> g = new HashGraph<>();
+        g.set("jim", "henry", 45);
+        Path file = folder.newFile().toPath();
+        MappedGraph.write(g, file);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        try {
+            MappedGraph.open(file);
+            fail("expected IOException");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("truncated"));
+        }
+    }
+
+    @Test
+    public void testMutatorsThrow() throws IOException {
+        Graph<String> g = new HashGraph<>();
+        g.set("jim", "henry", 45);
+        MappedGraph mapped = roundTrip(g);
+        try {
+            mapped.add("abe");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        try {
+            mapped.set("jim", "henry", 1);
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        try {
+            mapped.addWeight("jim", "henry", 1);
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        try {
+            mapped.remove("jim");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+        assertSameGraph(g, mapped);
+    }
+}
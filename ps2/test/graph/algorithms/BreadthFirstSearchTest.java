@@ -0,0 +1,114 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+
+import org.junit.Test;
+
+import graph.FrozenGraph;
+import graph.Graph;
+import graph.LabeledGraph;
+
+/**
+ * Tests for BreadthFirstSearch.
+ */
+public class BreadthFirstSearchTest {
+
+    // Testing strategy
+    //   source: absent, isolated, with edges; unreachable vertices
+    //   graph: a long path (top-down levels only); dense random graphs, whose
+    //     middle levels go bottom-up and whose last levels go top-down again;
+    //     sparse random graphs; self-loops
+    //   compared against a sequential breadth-first search
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void testAbsentSource() {
+        Graph<String> g = new LabeledGraph<>();
+        g.set("a", "b", 1);
+        BreadthFirstSearch.hops(FrozenGraph.freeze(g), "c");
+    }
+
+    @Test
+    public void testSmallGraph() {
+        Graph<String> g = new LabeledGraph<>();
+        g.set("a", "b", 5);
+        g.set("b", "c", 1);
+        g.set("a", "c", 9);
+        g.set("c", "c", 1);
+        g.set("d", "a", 1);
+        g.add("e");
+        FrozenGraph<String> frozen = FrozenGraph.freeze(g);
+        final int[] hops = BreadthFirstSearch.hops(frozen, "a");
+        assertEquals(0, hops[frozen.id("a")]);
+        assertEquals(1, hops[frozen.id("b")]);
+        assertEquals(1, hops[frozen.id("c")]);
+        assertEquals(BreadthFirstSearch.UNREACHABLE, hops[frozen.id("d")]);
+        assertEquals(BreadthFirstSearch.UNREACHABLE, hops[frozen.id("e")]);
+
+        final int[] fromIsolated = BreadthFirstSearch.hops(frozen, "e");
+        assertEquals(1, Arrays.stream(fromIsolated).filter(h -> h != BreadthFirstSearch.UNREACHABLE).count());
+    }
+
+    @Test
+    public void testLongPath() {
+        final int n = 100_000;
+        Graph<Integer> g = new LabeledGraph<>();
+        for (int i = 0; i + 1 < n; i++) {
+            g.set(i, i + 1, 1);
+        }
+        FrozenGraph<Integer> frozen = FrozenGraph.freeze(g);
+        final int[] hops = BreadthFirstSearch.hops(frozen, 0);
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, hops[frozen.id(i)]);
+        }
+    }
+
+    @Test
+    public void testRandomAgainstSequential() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 30; round++) {
+            final int n = 1 + random.nextInt(round < 20 ? 100 : 20_000);
+            final int degree = round % 3 == 0 ? 1 : 1 + random.nextInt(30);
+            Graph<Integer> g = new LabeledGraph<>();
+            for (int i = 0; i < n; i++) {
+                g.add(i);
+            }
+            for (int i = 0; i < n * degree / 2; i++) {
+                g.set(random.nextInt(n), random.nextInt(n), 1);
+            }
+            FrozenGraph<Integer> frozen = FrozenGraph.freeze(g);
+            final int source = random.nextInt(n);
+            assertArrayEquals(sequentialHops(frozen, frozen.id(source)), BreadthFirstSearch.hops(frozen, source));
+        }
+    }
+
+    private static int[] sequentialHops(FrozenGraph<?> graph, int source) {
+        final int[] hops = new int[graph.vertexCount()];
+        Arrays.fill(hops, BreadthFirstSearch.UNREACHABLE);
+        hops[source] = 0;
+        final Queue<Integer> queue = new ArrayDeque<>();
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            final int u = queue.remove();
+            graph.forEachTarget(u, (v, w) -> {
+                if (hops[v] == BreadthFirstSearch.UNREACHABLE) {
+                    hops[v] = hops[u] + 1;
+                    queue.add(v);
+                }
+            });
+        }
+        return hops;
+    }
+}
@@ -0,0 +1,169 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import graph.FrozenGraph;
+import graph.Graph;
+import graph.LabeledGraph;
+
+/**
+ * Tests for Components.
+ */
+public class ComponentsTest {
+
+    // Testing strategy
+    //   graph: empty, isolated vertices, self-loops, one long cycle, a long
+    //     path (deep enough to overflow a recursive search), random graphs
+    //     sparse and dense
+    //   weak(): agrees with reachability ignoring direction; numbered in
+    //     order of smallest id
+    //   strong(): agrees with mutual reachability; every edge goes to a
+    //     component with the same or a smaller number
+    //   both: numbers run from 0 to count - 1
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testEmptyGraph() {
+        FrozenGraph<String> g = FrozenGraph.freeze(new LabeledGraph<String>());
+        assertEquals(0, Components.weak(g).length);
+        assertEquals(0, Components.strong(g).length);
+    }
+
+    @Test
+    public void testSmallGraph() {
+        Graph<String> g = new LabeledGraph<>();
+        g.set("a", "b", 1);
+        g.set("b", "a", 1);
+        g.set("b", "c", 1);
+        g.set("d", "d", 1);
+        g.add("e");
+        FrozenGraph<String> frozen = FrozenGraph.freeze(g);
+        final int[] weak = Components.weak(frozen);
+        final int[] strong = Components.strong(frozen);
+        assertEquals(weak[frozen.id("a")], weak[frozen.id("c")]);
+        assertNotEquals(weak[frozen.id("a")], weak[frozen.id("d")]);
+        assertNotEquals(weak[frozen.id("d")], weak[frozen.id("e")]);
+        assertEquals(strong[frozen.id("a")], strong[frozen.id("b")]);
+        assertNotEquals(strong[frozen.id("a")], strong[frozen.id("c")]);
+        assertEquals(3, max(weak) + 1);
+        assertEquals(4, max(strong) + 1);
+    }
+
+    @Test
+    public void testLongCycleAndPath() {
+        final int n = 200_000;
+        Graph<Integer> cycle = new LabeledGraph<>();
+        Graph<Integer> path = new LabeledGraph<>();
+        for (int i = 0; i < n; i++) {
+            cycle.set(i, (i + 1) % n, 1);
+            path.set(i, i + 1, 1);
+        }
+        FrozenGraph<Integer> frozenCycle = FrozenGraph.freeze(cycle);
+        assertEquals(0, max(Components.strong(frozenCycle)));
+        assertEquals(0, max(Components.weak(frozenCycle)));
+
+        FrozenGraph<Integer> frozenPath = FrozenGraph.freeze(path);
+        final int[] strong = Components.strong(frozenPath);
+        assertEquals(n, max(strong));
+        assertEquals(0, max(Components.weak(frozenPath)));
+        assertOrdered(frozenPath, strong);
+    }
+
+    @Test
+    public void testRandomAgainstReachability() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 100; round++) {
+            final int n = 1 + random.nextInt(60);
+            final int edges = random.nextInt(round % 2 == 0 ? n : 3 * n);
+            Graph<Integer> g = new LabeledGraph<>();
+            for (int i = 0; i < n; i++) {
+                g.add(i);
+            }
+            for (int i = 0; i < edges; i++) {
+                g.set(random.nextInt(n), random.nextInt(n), 1);
+            }
+            FrozenGraph<Integer> frozen = FrozenGraph.freeze(g);
+            final boolean[][] directed = closure(frozen, false);
+            final boolean[][] undirected = closure(frozen, true);
+            final int[] weak = Components.weak(frozen);
+            final int[] strong = Components.strong(frozen);
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    assertEquals(undirected[u][v], weak[u] == weak[v]);
+                    assertEquals(directed[u][v] && directed[v][u], strong[u] == strong[v]);
+                }
+            }
+            assertOrdered(frozen, strong);
+            int smallest = -1;
+            for (int v = 0; v < n; v++) {
+                assertTrue(weak[v] <= smallest + 1);
+                smallest = Math.max(smallest, weak[v]);
+            }
+            assertNumberedDensely(weak);
+            assertNumberedDensely(strong);
+        }
+    }
+
+    /*
+     * @return reach[u][v] iff there is a path from u to v in g, following
+     *         edges either way if undirected
+     */
+    private static boolean[][] closure(FrozenGraph<?> g, boolean undirected) {
+        final int n = g.vertexCount();
+        final boolean[][] reach = new boolean[n][n];
+        for (int u = 0; u < n; u++) {
+            reach[u][u] = true;
+            for (int e = g.targetsStart(u); e < g.targetsEnd(u); e++) {
+                reach[u][g.targetAt(e)] = true;
+                if (undirected) {
+                    reach[g.targetAt(e)][u] = true;
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int u = 0; u < n; u++) {
+                for (int v = 0; v < n; v++) {
+                    reach[u][v] |= reach[u][k] && reach[k][v];
+                }
+            }
+        }
+        return reach;
+    }
+
+    private static void assertOrdered(FrozenGraph<?> g, int[] strong) {
+        for (int u = 0; u < g.vertexCount(); u++) {
+            for (int e = g.targetsStart(u); e < g.targetsEnd(u); e++) {
+                assertTrue(strong[g.targetAt(e)] <= strong[u]);
+            }
+        }
+    }
+
+    private static void assertNumberedDensely(int[] components) {
+        final boolean[] used = new boolean[components.length];
+        for (int c: components) {
+            used[c] = true;
+        }
+        for (int c = 0; c <= max(components); c++) {
+            assertTrue(used[c]);
+        }
+    }
+
+    private static int max(int[] components) {
+        int max = -1;
+        for (int c: components) {
+            max = Math.max(max, c);
+        }
+        return max;
+    }
+}
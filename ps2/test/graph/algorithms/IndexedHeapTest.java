@@ -0,0 +1,81 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for IndexedHeap.
+ */
+public class IndexedHeapTest {
+
+    // Testing strategy
+    //   offer(): new vertex, better value (decrease-key), worse or equal
+    //     value, settled vertex
+    //   poll(): priorities come out in nondecreasing order
+    //   reset(): nothing is seen afterwards, with and without growth; many
+    //     searches in a row on one heap
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    @Test
+    public void testOfferAndPoll() {
+        IndexedHeap heap = new IndexedHeap();
+        heap.reset(2);
+        assertTrue(heap.isEmpty());
+        assertTrue(heap.offer(5, 50, 50, IndexedHeap.NONE));
+        assertTrue(heap.offer(3, 30, 30, 5));
+        assertFalse(heap.offer(3, 40, 40, 1));
+        assertTrue(heap.offer(5, 10, 10, 3));
+        heap.checkRep();
+        assertEquals(10, heap.minPriority());
+        assertEquals(5, heap.poll());
+        assertTrue(heap.settled(5));
+        assertFalse(heap.offer(5, 0, 0, 3));
+        assertEquals(3, heap.parent(5));
+        assertEquals(3, heap.poll());
+        assertEquals(30, heap.value(3));
+        assertTrue(heap.isEmpty());
+        assertFalse(heap.seen(100));
+    }
+
+    @Test
+    public void testRandomSearches() {
+        Random random = new Random(6005);
+        IndexedHeap heap = new IndexedHeap();
+        for (int round = 0; round < 100; round++) {
+            final int n = 1 + random.nextInt(200);
+            heap.reset(round % 2 == 0 ? n : 0);
+            for (int v = 0; v < n; v++) {
+                assertFalse(heap.seen(v));
+            }
+            final long[] best = new long[n];
+            for (int i = 0; i < 3 * n; i++) {
+                final int v = random.nextInt(n);
+                final long value = random.nextInt(1000);
+                final boolean better = !heap.seen(v) || value < best[v];
+                assertEquals(better, heap.offer(v, value, value, IndexedHeap.NONE));
+                if (better) {
+                    best[v] = value;
+                }
+            }
+            heap.checkRep();
+            long last = Long.MIN_VALUE;
+            while (!heap.isEmpty()) {
+                final long priority = heap.minPriority();
+                final int v = heap.poll();
+                assertEquals(best[v], priority);
+                assertTrue(last <= priority);
+                last = priority;
+            }
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/* Copyright (c) 2015-2016 MIT 6.005 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import org.junit.Test;
+
+import graph.FrozenGraph;
+import graph.Graph;
+import graph.HashGraph;
+
+/**
+ * Tests for ShortestPaths.
+ */
+public class ShortestPathsTest {
+
+    // Testing strategy
+    //   graph: HashGraph (vertices numbered as found), FrozenGraph (its own ids)
+    //   source and target: same vertex, present or absent; either absent;
+    //     no path; one edge; a cheaper path with more edges; cycles and
+    //     self-loops
+    //   every algorithm on random graphs: the path is made of edges of the
+    //     graph, its weight is the weight of those edges, and it agrees with
+    //     Floyd-Warshall (shortest) or its max-min variant (widest)
+    //   aStar(): a consistent heuristic on a grid
+    //   scratch reuse: many searches of graphs of different sizes in a row,
+    //     and a heuristic that itself runs a search on the same thread
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    /*
+     * A diamond where the direct edge a->d costs more than a->b->c->d, and
+     * b->c is the narrowest edge of that route.
+     */
+    private static Graph<String> diamond() {
+        Graph<String> g = new HashGraph<>();
+        g.set("a", "d", 10);
+        g.set("a", "b", 2);
+        g.set("b", "c", 1);
+        g.set("c", "d", 3);
+        g.set("c", "c", 1);
+        g.set("d", "a", 1);
+        g.add("lonely");
+        return g;
+    }
+
+    private static List<Graph<String>> bothForms(Graph<String> g) {
+        return Arrays.asList(g, FrozenGraph.freeze(g));
+    }
+
+    @Test
+    public void testDiamond() {
+        for (Graph<String> g: bothForms(diamond())) {
+            final Path<String> expected = new Path<>(Arrays.asList("a", "b", "c", "d"), 6);
+            assertEquals(Optional.of(expected), ShortestPaths.dijkstra(g, "a", "d"));
+            assertEquals(Optional.of(expected), ShortestPaths.bidirectionalDijkstra(g, "a", "d"));
+            assertEquals(Optional.of(expected), ShortestPaths.aStar(g, "a", "d", v -> 0));
+            assertEquals(Optional.of(new Path<>(Arrays.asList("a", "d"), 10)),
+                    ShortestPaths.widestPath(g, "a", "d"));
+            assertEquals(3, expected.length());
+        }
+    }
+
+    @Test
+    public void testTrivialAndMissingPaths() {
+        for (Graph<String> g: bothForms(diamond())) {
+            assertEquals(Optional.of(new Path<>(Arrays.asList("lonely"), 0)),
+                    ShortestPaths.dijkstra(g, "lonely", "lonely"));
+            assertEquals(Optional.of(new Path<>(Arrays.asList("c"), 0)),
+                    ShortestPaths.bidirectionalDijkstra(g, "c", "c"));
+            assertEquals(Optional.of(new Path<>(Arrays.asList("a"), Long.MAX_VALUE)),
+                    ShortestPaths.widestPath(g, "a", "a"));
+            assertEquals(Optional.empty(), ShortestPaths.dijkstra(g, "a", "lonely"));
+            assertEquals(Optional.empty(), ShortestPaths.bidirectionalDijkstra(g, "lonely", "a"));
+            assertEquals(Optional.empty(), ShortestPaths.widestPath(g, "a", "lonely"));
+            assertEquals(Optional.empty(), ShortestPaths.aStar(g, "nobody", "nobody", v -> 0));
+            assertEquals(Optional.empty(), ShortestPaths.dijkstra(g, "nobody", "a"));
+            assertEquals(Optional.empty(), ShortestPaths.bidirectionalDijkstra(g, "a", "nobody"));
+        }
+    }
+
+    @Test
+    public void testAStarOnGrid() {
+        final int side = 30;
+        Graph<Integer> g = new HashGraph<>();
+        Random random = new Random(6005);
+        for (int x = 0; x < side; x++) {
+            for (int y = 0; y < side; y++) {
+                final int v = x * side + y;
+                if (x + 1 < side) {
+                    g.set(v, v + side, 1 + random.nextInt(9));
+                    g.set(v + side, v, 1 + random.nextInt(9));
+                }
+                if (y + 1 < side) {
+                    g.set(v, v + 1, 1 + random.nextInt(9));
+                    g.set(v + 1, v, 1 + random.nextInt(9));
+                }
+            }
+        }
+        final int target = side * side - 1;
+        // Manhattan distance is consistent, since every edge weighs at least 1
+        for (Graph<Integer> graph: Arrays.asList(g, FrozenGraph.freeze(g))) {
+            final Optional<Path<Integer>> path = ShortestPaths.aStar(graph, 0, target,
+                    v -> (side - 1 - v / side) + (side - 1 - v % side));
+            assertEquals(ShortestPaths.dijkstra(graph, 0, target).get().weight(), path.get().weight());
+            assertPath(graph, path.get(), false);
+        }
+    }
+
+    @Test
+    public void testRandomAgainstFloydWarshall() {
+        Random random = new Random(6005);
+        for (int round = 0; round < 200; round++) {
+            final int n = 1 + random.nextInt(round < 100 ? 8 : 40);
+            final int edges = random.nextInt(3 * n);
+            Graph<Integer> g = new HashGraph<>();
+            for (int i = 0; i < n; i++) {
+                g.add(i);
+            }
+            for (int i = 0; i < edges; i++) {
+                g.set(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(20));
+            }
+            final long[][] shortest = floydWarshall(g, n, false);
+            final long[][] widest = floydWarshall(g, n, true);
+            for (Graph<Integer> graph: Arrays.asList(g, FrozenGraph.freeze(g))) {
+                for (int s = 0; s < n; s++) {
+                    for (int t = 0; t < n; t++) {
+                        assertWeight(graph, shortest[s][t], ShortestPaths.dijkstra(graph, s, t), false);
+                        assertWeight(graph, shortest[s][t], ShortestPaths.bidirectionalDijkstra(graph, s, t), false);
+                        assertWeight(graph, shortest[s][t], ShortestPaths.aStar(graph, s, t, v -> 0), false);
+                        assertWeight(graph, widest[s][t], ShortestPaths.widestPath(graph, s, t), true);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testReentrantHeuristic() {
+        Graph<String> g = diamond();
+        // the heuristic runs its own search while the outer one is using this
+        // thread's heaps; it is the exact distance, so it is consistent
+        final Optional<Path<String>> path = ShortestPaths.aStar(g, "a", "d",
+                v -> ShortestPaths.dijkstra(g, v, "d").get().weight());
+        assertEquals(Arrays.asList("a", "b", "c", "d"), path.get().vertices());
+        assertEquals(6, path.get().weight());
+    }
+
+    /*
+     * @return all-pairs best weights of g, whose vertices are 0 to n-1: the
+     *         least total weight, or if widest the greatest smallest edge
+     *         weight, of any path; NONE where there is no path
+     */
+    private static long[][] floydWarshall(Graph<Integer> g, int n, boolean widest) {
+        final long[][] best = new long[n][n];
+        for (int s = 0; s < n; s++) {
+            Arrays.fill(best[s], NONE);
+            best[s][s] = widest ? Long.MAX_VALUE : 0;
+            for (int t = 0; t < n; t++) {
+                final int w = g.weight(s, t);
+                if (w > 0 && s != t) {
+                    best[s][t] = w;
+                }
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            for (int s = 0; s < n; s++) {
+                for (int t = 0; t < n; t++) {
+                    if (best[s][k] == NONE || best[k][t] == NONE) {
+                        continue;
+                    }
+                    final long through = widest ? Math.min(best[s][k], best[k][t]) : best[s][k] + best[k][t];
+                    if (best[s][t] == NONE || (widest ? through > best[s][t] : through < best[s][t])) {
+                        best[s][t] = through;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static <L> void assertWeight(Graph<L> g, long expected, Optional<Path<L>> path, boolean widest) {
+        if (expected == NONE) {
+            assertEquals(Optional.empty(), path);
+        } else {
+            assertEquals(expected, path.get().weight());
+            assertPath(g, path.get(), widest);
+        }
+    }
+
+    /*
+     * Assert that path is made of edges of g, and its weight is the sum or,
+     * if widest, the minimum of their weights.
+     */
+    private static <L> void assertPath(Graph<L> g, Path<L> path, boolean widest) {
+        final List<L> vertices = path.vertices();
+        long weight = widest ? Long.MAX_VALUE : 0;
+        for (int i = 0; i + 1 < vertices.size(); i++) {
+            final int w = g.weight(vertices.get(i), vertices.get(i + 1));
+            assertTrue("no edge in " + path, w > 0);
+            weight = widest ? Math.min(weight, w) : weight + w;
+        }
+        assertEquals(weight, path.weight());
+    }
+}